@@ -12,6 +12,8 @@ import it.unive.lisa.analysis.impl.types.InferredTypes;
 import it.unive.lisa.analysis.inference.InferenceSystem;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.caches.Caches;
+import it.unive.lisa.caches.HashConsing;
+import it.unive.lisa.caches.LatticeCache;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.callgraph.CallGraphConstructionException;
 import it.unive.lisa.checks.ChecksExecutor;
@@ -24,6 +26,7 @@ import it.unive.lisa.outputs.JsonReport;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.SSAConverter;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
@@ -74,17 +77,46 @@ public class LiSA {
 	private final LiSAConfiguration conf;
 
 	/**
-	 * Builds a new LiSA instance.
+	 * The {@link Caches} context used by the analyses run by this instance
+	 */
+	private final Caches caches;
+
+	/**
+	 * Builds a new LiSA instance, that will run its analyses with a fresh
+	 * {@link Caches} context.
 	 * 
 	 * @param conf the configuration of the analysis to run
 	 */
 	public LiSA(LiSAConfiguration conf) {
+		this(conf, new Caches());
+	}
+
+	/**
+	 * Builds a new LiSA instance, that will run its analyses with the given
+	 * {@link Caches} context. Passing the same context to several instances
+	 * allows them to reuse the contents of its caches.
+	 * 
+	 * @param conf   the configuration of the analysis to run
+	 * @param caches the caches context to use
+	 */
+	public LiSA(LiSAConfiguration conf, Caches caches) {
 		// since the warnings collection will be filled AFTER the execution of
 		// every concurrent bit has completed its execution, it is fine to use a
 		// non thread-safe one
 		this.warnings = new ArrayList<>();
 		this.conf = conf;
 		this.fileManager = new FileManager(conf.getWorkdir());
+		this.caches = caches;
+	}
+
+	/**
+	 * Yields the {@link Caches} context used by the analyses run by this
+	 * instance.
+	 * 
+	 * @return the caches context
+	 */
+	public Caches getCaches() {
+		return caches;
 	}
 
 	/**
@@ -97,10 +129,36 @@ public class LiSA {
 	public void run(Program program) throws AnalysisException {
 		printConfig();
 
+		HashConsing hashConsing = caches.getHashConsing();
+		if (conf.isHashConsing())
+			hashConsing.enable();
+		LatticeCache latticeCache = caches.getLatticeCache();
+		boolean latticeCaching = conf.getLatticeCacheSize() > 0 || !conf.getLatticeCacheSizes().isEmpty();
+		if (latticeCaching) {
+			conf.getLatticeCacheSizes().forEach(latticeCache::setCapacity);
+			latticeCache.enable(conf.getLatticeCacheSize());
+		}
+		Caches previous = Caches.enter(caches);
 		try {
 			TimerLogger.execAction(log, "Analysis time", () -> runAux(program));
 		} catch (AnalysisExecutionException e) {
 			throw new AnalysisException("LiSA has encountered an exception while executing the analysis", e);
+		} finally {
+			Caches.exit(previous);
+			if (conf.isHashConsing()) {
+				for (Class<?> domain : hashConsing.getDomains())
+					log.info("Hash-consing of " + domain.getSimpleName() + ": "
+							+ hashConsing.getFactory(domain).getHits() + " hits, "
+							+ hashConsing.getFactory(domain).getMisses() + " misses");
+				hashConsing.disable();
+			}
+			if (latticeCaching) {
+				for (Class<?> domain : latticeCache.getDomains())
+					log.info("Lattice cache of " + domain.getSimpleName() + ": " + latticeCache.getHits(domain)
+							+ " hits, " + latticeCache.getMisses(domain) + " misses");
+				latticeCache.disable();
+				latticeCache.resetCapacities();
+			}
 		}
 
 		printStats();
@@ -145,6 +203,14 @@ public class LiSA {
 		else
 			log.warn("Skipping syntactic checks execution since none have been provided");
 
+		if (conf.isConvertToSSA()) {
+			for (CFG cfg : IterationLogger.iterate(log, allCFGs, "Converting CFGs to SSA form", "cfgs"))
+				SSAConverter.convert(cfg);
+			if (conf.isDumpCFGs())
+				for (CFG cfg : IterationLogger.iterate(log, allCFGs, "Dumping CFGs in SSA form", "cfgs"))
+					dumpCFG("ssa___", cfg, st -> "");
+		}
+
 		CallGraph callGraph;
 		try {
 			callGraph = conf.getCallGraph() == null ? getDefaultFor(CallGraph.class) : conf.getCallGraph();
@@ -191,7 +257,7 @@ public class LiSA {
 		TimerLogger.execAction(log, "Computing fixpoint over the whole program",
 				() -> {
 					try {
-						callGraph.fixpoint(new AnalysisState<>(state, new Skip()));
+						callGraph.fixpoint(new AnalysisState<>(state, new Skip()), conf.getFixpointConfiguration());
 					} catch (FixpointException e) {
 						log.fatal("Exception during fixpoint computation", e);
 						throw new AnalysisExecutionException("Exception during fixpoint computation", e);
@@ -225,7 +291,8 @@ public class LiSA {
 		TimerLogger.execAction(log, "Computing type information",
 				() -> {
 					try {
-						callGraph.fixpoint(new AnalysisState<>(typesState, new Skip()));
+						callGraph.fixpoint(new AnalysisState<>(typesState, new Skip()),
+								conf.getFixpointConfiguration());
 					} catch (FixpointException e) {
 						log.fatal("Exception during fixpoint computation", e);
 						throw new AnalysisExecutionException("Exception during fixpoint computation", e);
@@ -274,7 +341,6 @@ public class LiSA {
 
 	private void finalizeProgram(Program program) {
 		// fill up the types cache by side effect on an external set
-		Caches.types().clear();
 		ExternalSet<Type> types = Caches.types().mkEmptySet();
 		program.getRegisteredTypes().forEach(types::add);
 		types = null;
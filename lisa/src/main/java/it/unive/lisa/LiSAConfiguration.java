@@ -1,15 +1,21 @@
 package it.unive.lisa;
 
 import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.caches.HashConsing;
+import it.unive.lisa.caches.LatticeCache;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
 import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.SSAConverter;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
+import it.unive.lisa.util.datastructures.graph.FixpointStrategy;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -50,6 +56,12 @@ public class LiSAConfiguration {
 	 */
 	private boolean dumpCFGs;
 
+	/**
+	 * Whether or not the input cfgs should be converted to SSA form before
+	 * being analyzed
+	 */
+	private boolean convertToSSA;
+
 	/**
 	 * Whether or not the result of type inference should be dumped to dot
 	 * format, if it is executed
@@ -74,6 +86,28 @@ public class LiSAConfiguration {
 	 */
 	private String workdir;
 
+	/**
+	 * The options driving the fixpoint computations over the cfgs
+	 */
+	private FixpointConfiguration fixpointConfiguration;
+
+	/**
+	 * Whether or not abstract values should be hash-consed during the analysis
+	 */
+	private boolean hashConsing;
+
+	/**
+	 * The number of results of lattice operations cached for each domain, or
+	 * {@code 0} if results should not be cached
+	 */
+	private int latticeCacheSize;
+
+	/**
+	 * The number of results of lattice operations cached for specific domains,
+	 * overriding {@link #latticeCacheSize}
+	 */
+	private final Map<Class<?>, Integer> latticeCacheSizes;
+
 	/**
 	 * Builds a new configuration object, with default settings. By default:
 	 * <ul>
@@ -82,16 +116,23 @@ public class LiSAConfiguration {
 	 * <li>no {@link CallGraph} is set for the analysis</li>
 	 * <li>the workdir is the one where LiSA was executed</li>
 	 * <li>the input program will not be dumped</li>
+	 * <li>the input cfgs will not be converted to SSA form</li>
 	 * <li>no type inference will be run</li>
 	 * <li>the type inference will not be dumped</li>
 	 * <li>the results of the analysis will not be dumped</li>
 	 * <li>the json report will not be dumped</li>
+	 * <li>fixpoints are computed with the default
+	 * {@link FixpointConfiguration}</li>
+	 * <li>abstract values are not hash-consed</li>
+	 * <li>results of lattice operations are not cached</li>
 	 * </ul>
 	 */
 	public LiSAConfiguration() {
 		this.syntacticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.semanticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.workdir = Paths.get(".").toAbsolutePath().normalize().toString();
+		this.fixpointConfiguration = new FixpointConfiguration();
+		this.latticeCacheSizes = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -207,6 +248,23 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets whether or not the input cfgs should be converted to static single
+	 * assignment form (see {@link SSAConverter}) before being analyzed. If the
+	 * input cfgs are dumped (see {@link #setDumpCFGs(boolean)}), dot files
+	 * named {@code ssa___<cfg name>.dot} will also be created and dumped in
+	 * the working directory after the conversion.
+	 * 
+	 * @param convertToSSA if {@code true}, the input cfgs will be converted to
+	 *                         SSA form
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setConvertToSSA(boolean convertToSSA) {
+		this.convertToSSA = convertToSSA;
+		return this;
+	}
+
 	/**
 	 * Sets whether or not dot files, named {@code typing__<cfg name>.dot},
 	 * should be created and dumped in the working directory at the end of the
@@ -286,6 +344,133 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets the {@link FixpointConfiguration} to use for computing fixpoints
+	 * over the cfgs, both during type inference and during the semantic
+	 * analysis. Any existing value is overwritten.
+	 * 
+	 * @param fixpointConfiguration the fixpoint configuration to use
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setFixpointConfiguration(FixpointConfiguration fixpointConfiguration) {
+		this.fixpointConfiguration = fixpointConfiguration;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link FixpointStrategy} to use for computing fixpoints over the
+	 * cfgs. This is a shortcut for setting the strategy of the
+	 * {@link FixpointConfiguration} contained in this configuration.
+	 * 
+	 * @param strategy the strategy to use
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setFixpointStrategy(FixpointStrategy strategy) {
+		fixpointConfiguration.setStrategy(strategy);
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads to use for analyzing independent cfgs. This
+	 * is a shortcut for setting the parallelism level of the
+	 * {@link FixpointConfiguration} contained in this configuration.
+	 * 
+	 * @param parallelism the number of threads, must be positive
+	 * 
+	 * @return the current (modified) configuration
+	 * 
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public LiSAConfiguration setParallelism(int parallelism) {
+		fixpointConfiguration.setParallelism(parallelism);
+		return this;
+	}
+
+	/**
+	 * Sets whether or not variables should be removed from the analysis
+	 * states as soon as they are dead, instead of when their scope ends. This
+	 * is a shortcut for setting the corresponding option of the
+	 * {@link FixpointConfiguration} contained in this configuration.
+	 * 
+	 * @param forgetDeadVariables whether or not dead variables should be
+	 *                                forgotten
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setForgetDeadVariables(boolean forgetDeadVariables) {
+		fixpointConfiguration.setForgetDeadVariables(forgetDeadVariables);
+		return this;
+	}
+
+	/**
+	 * Sets whether or not environments and the abstract values stored in them
+	 * should be hash-consed during the analysis, so that equal values share
+	 * the same instance and lattice operations on them can be short-circuited
+	 * by reference equality. Hash-consing is enabled on the {@link HashConsing}
+	 * table of the {@link it.unive.lisa.caches.Caches} context of the analysis
+	 * when LiSA starts, and it is disabled (releasing all canonical instances)
+	 * when LiSA terminates.
+	 * 
+	 * @param hashConsing if {@code true}, abstract values will be hash-consed
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setHashConsing(boolean hashConsing) {
+		this.hashConsing = hashConsing;
+		return this;
+	}
+
+	/**
+	 * Sets the number of results of lattice operations (lub, widening, glb and
+	 * &le;) that should be cached for each domain during the analysis, so
+	 * that operations repeated on the same instances are not recomputed. The
+	 * {@link LatticeCache} of the {@link it.unive.lisa.caches.Caches} context
+	 * of the analysis is enabled when LiSA starts, and it is disabled
+	 * (releasing all cached results) when LiSA terminates. The size of the
+	 * cache of specific domains can be tuned through
+	 * {@link #setLatticeCacheSize(Class, int)}.
+	 * 
+	 * @param latticeCacheSize the number of results to cache for each domain,
+	 *                             or {@code 0} to cache results only for the
+	 *                             domains with a specific size
+	 * 
+	 * @return the current (modified) configuration
+	 * 
+	 * @throws IllegalArgumentException if {@code latticeCacheSize} is negative
+	 */
+	public LiSAConfiguration setLatticeCacheSize(int latticeCacheSize) {
+		if (latticeCacheSize < 0)
+			throw new IllegalArgumentException("The size of the lattice cache cannot be negative");
+		this.latticeCacheSize = latticeCacheSize;
+		return this;
+	}
+
+	/**
+	 * Sets the number of results of lattice operations that should be cached
+	 * for the given domain during the analysis, overriding the size set
+	 * through {@link #setLatticeCacheSize(int)}. The size is applied through
+	 * {@link LatticeCache#setCapacity(Class, int)} to the cache of the
+	 * analysis when LiSA starts. The hit and miss counts of each domain are
+	 * logged when LiSA terminates, and can be used to tune this size.
+	 * 
+	 * @param domain           the class of the domain, that is, of the
+	 *                             receivers of the lattice operations
+	 * @param latticeCacheSize the number of results to cache for the domain,
+	 *                             or {@code 0} to disable caching for it
+	 * 
+	 * @return the current (modified) configuration
+	 * 
+	 * @throws IllegalArgumentException if {@code latticeCacheSize} is negative
+	 */
+	public LiSAConfiguration setLatticeCacheSize(Class<?> domain, int latticeCacheSize) {
+		if (latticeCacheSize < 0)
+			throw new IllegalArgumentException("The size of the lattice cache cannot be negative");
+		this.latticeCacheSizes.put(domain, latticeCacheSize);
+		return this;
+	}
+
 	/**
 	 * Yields the {@link CallGraph} for the analysis. Might be {@code null} if
 	 * none was set,
@@ -345,6 +530,16 @@ public class LiSAConfiguration {
 		return dumpCFGs;
 	}
 
+	/**
+	 * Yields whether or not the input cfgs should be converted to SSA form
+	 * before being analyzed.
+	 * 
+	 * @return {@code true} if the input cfgs should be converted
+	 */
+	public boolean isConvertToSSA() {
+		return convertToSSA;
+	}
+
 	/**
 	 * Yields whether or not the results of type inference, if run, should be
 	 * dumped in the form of dot files representing results on single
@@ -385,6 +580,47 @@ public class LiSAConfiguration {
 		return workdir;
 	}
 
+	/**
+	 * Yields the {@link FixpointConfiguration} used for computing fixpoints
+	 * over the cfgs.
+	 * 
+	 * @return the fixpoint configuration
+	 */
+	public FixpointConfiguration getFixpointConfiguration() {
+		return fixpointConfiguration;
+	}
+
+	/**
+	 * Yields whether or not abstract values should be hash-consed during the
+	 * analysis.
+	 * 
+	 * @return {@code true} if abstract values should be hash-consed
+	 */
+	public boolean isHashConsing() {
+		return hashConsing;
+	}
+
+	/**
+	 * Yields the number of results of lattice operations that should be
+	 * cached for each domain during the analysis.
+	 * 
+	 * @return the size of the cache, {@code 0} if caching is disabled
+	 */
+	public int getLatticeCacheSize() {
+		return latticeCacheSize;
+	}
+
+	/**
+	 * Yields the number of results of lattice operations that should be
+	 * cached for specific domains during the analysis, overriding
+	 * {@link #getLatticeCacheSize()}.
+	 * 
+	 * @return the sizes of the caches of specific domains
+	 */
+	public Map<Class<?>, Integer> getLatticeCacheSizes() {
+		return Collections.unmodifiableMap(latticeCacheSizes);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -392,6 +628,7 @@ public class LiSAConfiguration {
 		result = prime * result + ((callGraph == null) ? 0 : callGraph.hashCode());
 		result = prime * result + (dumpAnalysis ? 1231 : 1237);
 		result = prime * result + (dumpCFGs ? 1231 : 1237);
+		result = prime * result + (convertToSSA ? 1231 : 1237);
 		result = prime * result + (dumpTypeInference ? 1231 : 1237);
 		result = prime * result + (inferTypes ? 1231 : 1237);
 		result = prime * result + (jsonOutput ? 1231 : 1237);
@@ -399,6 +636,10 @@ public class LiSAConfiguration {
 		result = prime * result + ((syntacticChecks == null) ? 0 : syntacticChecks.hashCode());
 		result = prime * result + ((semanticChecks == null) ? 0 : semanticChecks.hashCode());
 		result = prime * result + ((workdir == null) ? 0 : workdir.hashCode());
+		result = prime * result + ((fixpointConfiguration == null) ? 0 : fixpointConfiguration.hashCode());
+		result = prime * result + (hashConsing ? 1231 : 1237);
+		result = prime * result + latticeCacheSize;
+		result = prime * result + latticeCacheSizes.hashCode();
 		return result;
 	}
 
@@ -420,6 +661,8 @@ public class LiSAConfiguration {
 			return false;
 		if (dumpCFGs != other.dumpCFGs)
 			return false;
+		if (convertToSSA != other.convertToSSA)
+			return false;
 		if (dumpTypeInference != other.dumpTypeInference)
 			return false;
 		if (inferTypes != other.inferTypes)
@@ -446,6 +689,17 @@ public class LiSAConfiguration {
 				return false;
 		} else if (!workdir.equals(other.workdir))
 			return false;
+		if (fixpointConfiguration == null) {
+			if (other.fixpointConfiguration != null)
+				return false;
+		} else if (!fixpointConfiguration.equals(other.fixpointConfiguration))
+			return false;
+		if (hashConsing != other.hashConsing)
+			return false;
+		if (latticeCacheSize != other.latticeCacheSize)
+			return false;
+		if (!latticeCacheSizes.equals(other.latticeCacheSizes))
+			return false;
 		return true;
 	}
 
@@ -454,10 +708,15 @@ public class LiSAConfiguration {
 		String res = "LiSA configuration:" +
 				"\n  workdir: " + String.valueOf(workdir) +
 				"\n  dump input cfgs: " + dumpCFGs +
+				"\n  convert to SSA: " + convertToSSA +
 				"\n  infer types: " + inferTypes +
 				"\n  dump inferred types: " + dumpTypeInference +
 				"\n  dump analysis results: " + dumpAnalysis +
 				"\n  dump json report: " + jsonOutput +
+				"\n  fixpoint: " + fixpointConfiguration +
+				"\n  hash-consing: " + hashConsing +
+				"\n  lattice cache size: " + latticeCacheSize +
+				(latticeCacheSizes.isEmpty() ? "" : " " + latticeCacheSizes) +
 				"\n  " + syntacticChecks.size() + " syntactic checks to execute"
 				+ (syntacticChecks.isEmpty() ? "" : ":");
 		for (SyntacticCheck check : syntacticChecks)
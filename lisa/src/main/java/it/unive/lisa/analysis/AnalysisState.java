@@ -6,9 +6,11 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.Skip;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -123,6 +125,27 @@ public class AnalysisState<A extends AbstractState<A, H, V>, H extends HeapDomai
 				lubRewrittenExpressions(computedExpressions, other.computedExpressions));
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The abstract states are joined all at once through
+	 * {@link AbstractState#lubAll(Collection)}, while the computed expressions
+	 * are joined as {@link #lub(AnalysisState)} does.
+	 */
+	@Override
+	public AnalysisState<A, H, V> lubAll(Collection<AnalysisState<A, H, V>> others) throws SemanticException {
+		if (others.isEmpty())
+			return this;
+
+		List<A> states = new ArrayList<>(others.size());
+		Collection<SymbolicExpression> rewritten = computedExpressions;
+		for (AnalysisState<A, H, V> other : others) {
+			states.add(other.state);
+			rewritten = lubRewrittenExpressions(rewritten, other.computedExpressions);
+		}
+		return new AnalysisState<>(state.lubAll(states), rewritten);
+	}
+
 	@Override
 	public AnalysisState<A, H, V> widening(AnalysisState<A, H, V> other) throws SemanticException {
 		return new AnalysisState<>(state.widening(other.state),
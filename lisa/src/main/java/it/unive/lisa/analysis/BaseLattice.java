@@ -1,5 +1,11 @@
 package it.unive.lisa.analysis;
 
+import it.unive.lisa.caches.LatticeCache;
+import it.unive.lisa.caches.LatticeCache.Operation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A base implementation of the {@link Lattice} interface, handling base cases
  * of the methods exposed by that interface. All implementers of {@link Lattice}
@@ -21,6 +27,9 @@ public abstract class BaseLattice<L extends BaseLattice<L>> implements Lattice<L
 		if (this.isBottom() || other.isTop())
 			return other;
 
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.LUB, this, other, () -> lubAux(other));
 		return lubAux(other);
 	}
 
@@ -44,6 +53,62 @@ public abstract class BaseLattice<L extends BaseLattice<L>> implements Lattice<L
 	 */
 	protected abstract L lubAux(L other) throws SemanticException;
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public final L lubAll(Collection<L> others) throws SemanticException {
+		if (this.isTop())
+			return (L) this;
+
+		L base = (L) this;
+		List<L> operands = new ArrayList<>(others.size());
+		for (L other : others)
+			if (other == null || other.isBottom() || base == other || base.equals(other))
+				continue;
+			else if (other.isTop())
+				return other;
+			else if (base.isBottom())
+				base = other;
+			else
+				operands.add(other);
+
+		if (operands.isEmpty())
+			return base;
+		if (operands.size() == 1)
+			return base.lubAux(operands.get(0));
+		return base.lubAllAux(operands);
+	}
+
+	/**
+	 * Performs the least upper bound operation between this lattice element and
+	 * all the given ones, assuming that base cases have already been handled.
+	 * In particular, it is guaranteed that:
+	 * <ul>
+	 * <li>{@code others} contains at least two elements</li>
+	 * <li>no element of {@code others} is {@code null}, <i>top</i> or
+	 * <i>bottom</i></li>
+	 * <li>{@code this} is neither <i>top</i> nor <i>bottom</i></li>
+	 * <li>{@code this} is different from all the elements of {@code others}
+	 * (according both to {@code ==} and to {@link Object#equals(Object)})</li>
+	 * </ul>
+	 * The default implementation of this method folds {@link #lub(BaseLattice)}
+	 * over {@code others}. Overrides that do not rely on
+	 * {@link #lubAux(BaseLattice)} must be redefined by subclasses that redefine
+	 * {@link #lubAux(BaseLattice)}, to keep the two operations coherent.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the least upper bound of this element and all of {@code others}
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	protected L lubAllAux(List<L> others) throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.lub(other);
+		return result;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public final L widening(L other) throws SemanticException {
@@ -53,6 +118,9 @@ public abstract class BaseLattice<L extends BaseLattice<L>> implements Lattice<L
 		if (this.isBottom() || other.isTop())
 			return other;
 
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.WIDENING, this, other, () -> wideningAux(other));
 		return wideningAux(other);
 	}
 
@@ -87,6 +155,9 @@ public abstract class BaseLattice<L extends BaseLattice<L>> implements Lattice<L
 		if (this.isTop() || other.isBottom())
 			return false;
 
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.LESS_OR_EQUAL, this, other, () -> lessOrEqualAux(other));
 		return lessOrEqualAux(other);
 	}
 
@@ -110,6 +181,21 @@ public abstract class BaseLattice<L extends BaseLattice<L>> implements Lattice<L
 	 */
 	protected abstract boolean lessOrEqualAux(L other) throws SemanticException;
 
+	/**
+	 * Yields whether or not the results of the lattice operations having this
+	 * element as receiver can be stored in the {@link LatticeCache}, that
+	 * retrieves them through the identity of their operands. This holds only
+	 * if lattice elements are never modified after their creation: the default
+	 * implementation of this method returns {@code true}, and it must be
+	 * overridden by lattices whose elements can be updated in place.
+	 * 
+	 * @return {@code true} if the results of lattice operations on this
+	 *             element can be cached
+	 */
+	protected boolean isCacheable() {
+		return true;
+	}
+
 	@Override
 	public abstract boolean equals(Object obj);
 
@@ -1,5 +1,7 @@
 package it.unive.lisa.analysis;
 
+import java.util.Collection;
+
 /**
  * An interface for elements that follow a lattice structure. Implementers of
  * this interface should inherit from {@link BaseLattice}, unless explicitly
@@ -33,6 +35,27 @@ public interface Lattice<L extends Lattice<L>> {
 	 */
 	L lub(L other) throws SemanticException;
 
+	/**
+	 * Performs the least upper bound operation between this lattice element and
+	 * all the given ones at once. The default implementation of this method
+	 * folds {@link #lub(Lattice)} over {@code others}: implementers should
+	 * override it whenever joining many elements in a single pass avoids the
+	 * creation of the intermediate results.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the least upper bound of this element and all of {@code others}
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	public default L lubAll(Collection<L> others) throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.lub(other);
+		return result;
+	}
+
 	/**
 	 * Performs the widening operation between this lattice element and the
 	 * given one. This operation is not commutative.
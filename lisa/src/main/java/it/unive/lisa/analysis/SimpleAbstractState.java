@@ -9,7 +9,9 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * An abstract state of the analysis, composed by a heap state modeling the
@@ -117,6 +119,17 @@ public class SimpleAbstractState<H extends HeapDomain<H>, V extends ValueDomain<
 		return new SimpleAbstractState<>(heapState.lub(other.heapState), valueState.lub(other.valueState));
 	}
 
+	@Override
+	public SimpleAbstractState<H, V> lubAll(Collection<SimpleAbstractState<H, V>> others) throws SemanticException {
+		List<H> heaps = new ArrayList<>(others.size());
+		List<V> values = new ArrayList<>(others.size());
+		for (SimpleAbstractState<H, V> other : others) {
+			heaps.add(other.heapState);
+			values.add(other.valueState);
+		}
+		return new SimpleAbstractState<>(heapState.lubAll(heaps), valueState.lubAll(values));
+	}
+
 	@Override
 	public SimpleAbstractState<H, V> widening(SimpleAbstractState<H, V> other) throws SemanticException {
 		return new SimpleAbstractState<>(heapState.widening(other.heapState), valueState.widening(other.valueState));
@@ -4,6 +4,8 @@ import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.lattices.FunctionalLattice;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import java.util.Map;
 
 /**
  * A functional lattice that stores instances of {@link AnalysisState} computed
@@ -42,6 +44,34 @@ public class StatementStore<A extends AbstractState<A, H, V>, H extends HeapDoma
 		return function.put(st, state);
 	}
 
+	/**
+	 * Creates a new instance of the underlying function. Functions of
+	 * statement stores are {@link OffsetMap}s, since they only contain the
+	 * statements nested into a single one, whose offsets are consecutive.
+	 * 
+	 * @param other an optional function to copy, can be {@code null}
+	 * 
+	 * @return a new function, either empty or containing the same data of the
+	 *             given one
+	 */
+	@Override
+	protected Map<Statement, AnalysisState<A, H, V>> mkNewFunction(Map<Statement, AnalysisState<A, H, V>> other) {
+		if (other == null)
+			return new OffsetMap<>();
+		return new OffsetMap<>(other);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Statement stores are updated in place through
+	 * {@link #put(Statement, AnalysisState)}, and are thus never cached.
+	 */
+	@Override
+	protected boolean isCacheable() {
+		return false;
+	}
+
 	@Override
 	public StatementStore<A, H, V> top() {
 		return new StatementStore<>(lattice.top());
@@ -9,6 +9,7 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -104,22 +105,31 @@ public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
 
 	@Override
 	protected AllocationSites lubAux(AllocationSites other) throws SemanticException {
+		return lub(List.of(this, other));
+	}
+
+	@Override
+	protected AllocationSites lubAllAux(List<AllocationSites> others) throws SemanticException {
+		List<AllocationSites> sites = new ArrayList<>(others.size() + 1);
+		sites.add(this);
+		sites.addAll(others);
+		return lub(sites);
+	}
+
+	private static AllocationSites lub(List<AllocationSites> sites) {
 		Map<String, AllocationSite> lub = new HashMap<>();
 
 		// all weak identifiers are part of the lub
-		elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
 		// common ones will be overwritten
-		other.elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
+		for (AllocationSites s : sites)
+			s.elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
 
 		// strong identifiers are only added if we did not consider a
 		// weak identifier with the same name
-		elements.stream().filter(Predicate.not(AllocationSite::isWeak))
-				.filter(e -> !lub.containsKey(e.getName()))
-				.forEach(e -> lub.put(e.getName(), e));
-
-		other.elements.stream().filter(Predicate.not(AllocationSite::isWeak))
-				.filter(e -> !lub.containsKey(e.getName()))
-				.forEach(e -> lub.put(e.getName(), e));
+		for (AllocationSites s : sites)
+			s.elements.stream().filter(Predicate.not(AllocationSite::isWeak))
+					.filter(e -> !lub.containsKey(e.getName()))
+					.forEach(e -> lub.put(e.getName(), e));
 
 		return new AllocationSites(new HashSet<>(lub.values()), false);
 	}
@@ -14,9 +14,6 @@ import it.unive.lisa.symbolic.value.UnaryOperator;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The interval abstract domain, approximating integer values as the minimum
@@ -26,28 +23,48 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Top and bottom cases for least upper bounds, widening and less or equals
  * operations are handled by {@link BaseLattice} in {@link BaseLattice#lub},
  * {@link BaseLattice#widening} and {@link BaseLattice#lessOrEqual} methods,
- * respectively.
+ * respectively.<br>
+ * <br>
+ * Bounds are stored as primitive {@code long}s, where {@link Long#MIN_VALUE}
+ * and {@link Long#MAX_VALUE} stand for -Inf and +Inf, respectively. Arithmetic
+ * on bounds saturates instead of overflowing: a lower bound that goes below
+ * the finite values becomes -Inf, and an upper bound that goes above them
+ * becomes +Inf.
  * 
  * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
  */
 public class Interval extends BaseNonRelationalValueDomain<Interval> {
 
-	private static final Interval TOP = new Interval(null, null, true, false);
-	private static final Interval BOTTOM = new Interval(null, null, false, true);
+	/**
+	 * The bound representing -Inf
+	 */
+	private static final long MINUS_INF = Long.MIN_VALUE;
+
+	/**
+	 * The bound representing +Inf
+	 */
+	private static final long PLUS_INF = Long.MAX_VALUE;
+
+	private static final Interval TOP = new Interval(MINUS_INF, PLUS_INF, true, false);
+	private static final Interval BOTTOM = new Interval(MINUS_INF, PLUS_INF, false, true);
+
+	private static final Interval ZERO = new Interval(0, 0);
+	private static final Interval MINUS_ONE = new Interval(-1, -1);
+	private static final Interval NON_NEGATIVE = new Interval(0, PLUS_INF);
 
 	private final boolean isTop, isBottom;
 
-	private final Integer low;
-	private final Integer high;
+	private final long low;
+	private final long high;
 
-	private Interval(Integer low, Integer high, boolean isTop, boolean isBottom) {
+	private Interval(long low, long high, boolean isTop, boolean isBottom) {
 		this.low = low;
 		this.high = high;
 		this.isTop = isTop;
 		this.isBottom = isBottom;
 	}
 
-	private Interval(Integer low, Integer high) {
+	private Interval(long low, long high) {
 		this(low, high, false, false);
 	}
 
@@ -55,7 +72,35 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 	 * Builds the top interval.
 	 */
 	public Interval() {
-		this(null, null, true, false);
+		this(MINUS_INF, PLUS_INF, true, false);
+	}
+
+	/**
+	 * Yields the interval [low, high], where the bounds might have been
+	 * saturated. A lower bound that saturated to +Inf (resp. an upper bound
+	 * that saturated to -Inf) is replaced with the greatest (resp. smallest)
+	 * finite value, and constant intervals that are frequently used are
+	 * shared.
+	 * 
+	 * @param low  the lower bound
+	 * @param high the upper bound
+	 * 
+	 * @return the interval
+	 */
+	private static Interval of(long low, long high) {
+		if (low == PLUS_INF)
+			low = PLUS_INF - 1;
+		if (high == MINUS_INF)
+			high = MINUS_INF + 1;
+
+		if (low == high) {
+			if (low == 0)
+				return ZERO;
+			if (low == -1)
+				return MINUS_ONE;
+		}
+
+		return new Interval(low, high);
 	}
 
 	@Override
@@ -80,7 +125,8 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		else if (isBottom())
 			return Lattice.BOTTOM_STRING;
 
-		return "[" + (lowIsMinusInfinity() ? "-Inf" : low) + ", " + (highIsPlusInfinity() ? "+Inf" : high) + "]";
+		return "[" + (lowIsMinusInfinity() ? "-Inf" : String.valueOf(low)) + ", "
+				+ (highIsPlusInfinity() ? "+Inf" : String.valueOf(high)) + "]";
 	}
 
 	@Override
@@ -91,8 +137,8 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 	@Override
 	protected Interval evalNonNullConstant(Constant constant, ProgramPoint pp) {
 		if (constant.getValue() instanceof Integer) {
-			Integer i = (Integer) constant.getValue();
-			return new Interval(i, i);
+			int i = (Integer) constant.getValue();
+			return of(i, i);
 		}
 
 		return top();
@@ -104,18 +150,15 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		case NUMERIC_NEG:
 			if (arg.isTop())
 				return top();
-			return arg.mul(new Interval(-1, -1));
+			return arg.mul(MINUS_ONE);
 		case STRING_LENGTH:
-			return new Interval(0, null);
+			return NON_NEGATIVE;
 		default:
 			return top();
 		}
 	}
 
 	private boolean is(int n) {
-		if (low == null || high == null)
-			return false;
-
 		return low == n && high == n;
 	}
 
@@ -132,7 +175,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 			return left.diff(right);
 		case NUMERIC_MUL:
 			if (left.is(0) || right.is(0))
-				return new Interval(0, 0);
+				return ZERO;
 
 			if (left.isTop() || right.isTop())
 				return top();
@@ -143,7 +186,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 				return bottom();
 
 			if (left.is(0))
-				return new Interval(0, 0);
+				return ZERO;
 
 			if (left.isTop() || right.isTop())
 				return top();
@@ -162,35 +205,39 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		return top();
 	}
 
+	/**
+	 * Yields the interval [low, high], reusing either this interval or
+	 * {@code other} if one of them has the same bounds.
+	 * 
+	 * @param low   the lower bound
+	 * @param high  the upper bound
+	 * @param other the other interval
+	 * 
+	 * @return the interval
+	 */
+	private Interval reuse(long low, long high, Interval other) {
+		if (low == this.low && high == this.high)
+			return this;
+		if (low == other.low && high == other.high)
+			return other;
+		return of(low, high);
+	}
+
 	@Override
 	protected Interval lubAux(Interval other) throws SemanticException {
-		Integer newLow = lowIsMinusInfinity() || other.lowIsMinusInfinity() ? null : Math.min(low, other.low);
-		Integer newHigh = highIsPlusInfinity() || other.highIsPlusInfinity() ? null : Math.max(high, other.high);
-		return new Interval(newLow, newHigh);
+		return reuse(Math.min(low, other.low), Math.max(high, other.high), other);
 	}
 
 	@Override
 	public Interval glbAux(Interval other) {
-		Integer newLow = lowIsMinusInfinity() ? other.low : other.lowIsMinusInfinity() ? low : Math.max(low, other.low);
-		Integer newHigh = highIsPlusInfinity() ? other.high
-				: other.highIsPlusInfinity() ? high : Math.min(high, other.high);
-		return new Interval(newLow, newHigh);
+		return reuse(Math.max(low, other.low), Math.min(high, other.high), other);
 	}
 
 	@Override
 	protected Interval wideningAux(Interval other) throws SemanticException {
-		Integer newLow, newHigh;
-		if (other.highIsPlusInfinity() || (!highIsPlusInfinity() && other.high > high))
-			newHigh = null;
-		else
-			newHigh = other.high;
-
-		if (other.lowIsMinusInfinity() || (!lowIsMinusInfinity() && other.low < low))
-			newLow = null;
-		else
-			newLow = other.low;
-
-		return new Interval(newLow, newHigh);
+		long newLow = other.low < low ? MINUS_INF : other.low;
+		long newHigh = other.high > high ? PLUS_INF : other.high;
+		return reuse(newLow, newHigh, other);
 	}
 
 	@Override
@@ -199,216 +246,216 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 	}
 
 	private boolean lowIsMinusInfinity() {
-		return low == null;
+		return low == MINUS_INF;
 	}
 
 	private boolean highIsPlusInfinity() {
-		return high == null;
+		return high == PLUS_INF;
 	}
 
 	private Interval plus(Interval other) {
-		Integer newLow, newHigh;
+		long newLow, newHigh;
 
 		if (lowIsMinusInfinity() || other.lowIsMinusInfinity())
-			newLow = null;
+			newLow = MINUS_INF;
 		else
-			newLow = low + other.low;
+			newLow = sum(low, other.low);
 
 		if (highIsPlusInfinity() || other.highIsPlusInfinity())
-			newHigh = null;
+			newHigh = PLUS_INF;
 		else
-			newHigh = high + other.high;
+			newHigh = sum(high, other.high);
 
-		return new Interval(newLow, newHigh);
+		return of(newLow, newHigh);
 	}
 
 	private Interval diff(Interval other) {
-		Integer newLow, newHigh;
+		long newLow, newHigh;
 
 		if (other.highIsPlusInfinity() || lowIsMinusInfinity())
-			newLow = null;
+			newLow = MINUS_INF;
 		else
-			newLow = low - other.high;
+			newLow = sum(low, -other.high);
 
 		if (other.lowIsMinusInfinity() || highIsPlusInfinity())
-			newHigh = null;
+			newHigh = PLUS_INF;
 		else
-			newHigh = high - other.low;
+			newHigh = sum(high, -other.low);
 
-		return new Interval(newLow, newHigh);
+		return of(newLow, newHigh);
 	}
 
 	private Interval mul(Interval other) {
 		// this = [l1, h1]
 		// other = [l2, h2]
+		long l1l2 = product(low, other.low);
+		long l1h2 = product(low, other.high);
+		long h1l2 = product(high, other.low);
+		long h1h2 = product(high, other.high);
 
-		SortedSet<Integer> boundSet = new TreeSet<>();
-		Integer l1 = low;
-		Integer h1 = high;
-		Integer l2 = other.low;
-		Integer h2 = other.high;
-
-		AtomicBoolean lowInf = new AtomicBoolean(false), highInf = new AtomicBoolean(false);
+		return of(Math.min(Math.min(l1l2, l1h2), Math.min(h1l2, h1h2)),
+				Math.max(Math.max(l1l2, l1h2), Math.max(h1l2, h1h2)));
+	}
 
-		// l1 * l2
-		multiplyBounds(boundSet, l1, l2, lowInf, highInf);
+	private Interval div(Interval other) {
+		// this = [l1, h1]
+		// other = [l2, h2]
+		if (other.low > 0 || other.high < 0)
+			return of(lowQuotient(low, high, other.low, other.high),
+					highQuotient(low, high, other.low, other.high));
+
+		// the divisor contains zero: we divide by its negative and positive
+		// parts, ignoring the division by zero
+		long newLow = PLUS_INF, newHigh = MINUS_INF;
+		if (other.low < 0) {
+			newLow = lowQuotient(low, high, other.low, -1);
+			newHigh = highQuotient(low, high, other.low, -1);
+		}
+		if (other.high > 0) {
+			newLow = Math.min(newLow, lowQuotient(low, high, 1, other.high));
+			newHigh = Math.max(newHigh, highQuotient(low, high, 1, other.high));
+		}
+		return of(newLow, newHigh);
+	}
 
-		// x1 * y2
-		multiplyBounds(boundSet, l1, h2, lowInf, highInf);
+	/**
+	 * Yields the sum of two finite bounds, that is -Inf (resp. +Inf) if the
+	 * sum is below (resp. above) the finite values.
+	 * 
+	 * @param i the first bound
+	 * @param j the second bound
+	 * 
+	 * @return the saturated sum
+	 */
+	private static long sum(long i, long j) {
+		long result = i + j;
+		// the sum overflowed iff its sign differs from the one of both bounds
+		if (((i ^ result) & (j ^ result)) < 0)
+			return i < 0 ? MINUS_INF : PLUS_INF;
+		return result;
+	}
 
-		// x2 * y1
-		multiplyBounds(boundSet, h2, l2, lowInf, highInf);
+	/**
+	 * Yields the product of two bounds, that is -Inf (resp. +Inf) if the
+	 * product is below (resp. above) the finite values.
+	 * 
+	 * @param i the first bound
+	 * @param j the second bound
+	 * 
+	 * @return the saturated product
+	 */
+	private static long product(long i, long j) {
+		if (i == 0 || j == 0)
+			return 0;
+
+		long inf = (i < 0) != (j < 0) ? MINUS_INF : PLUS_INF;
+		if (isInfinite(i) || isInfinite(j))
+			return inf;
+
+		long result = i * j;
+		// the product overflowed iff its high bits are not a sign extension
+		if (Math.multiplyHigh(i, j) != (result >> 63))
+			return inf;
+		return result;
+	}
 
-		// x2 * y2
-		multiplyBounds(boundSet, h1, h2, lowInf, highInf);
+	/**
+	 * Yields the smallest value of the integer division between [l1, h1] and
+	 * [l2, h2], where [l2, h2] does not contain zero.
+	 * 
+	 * @param l1 the lower bound of the dividend
+	 * @param h1 the upper bound of the dividend
+	 * @param l2 the lower bound of the divisor
+	 * @param h2 the upper bound of the divisor
+	 * 
+	 * @return the smallest quotient
+	 */
+	private static long lowQuotient(long l1, long h1, long l2, long h2) {
+		return Math.min(Math.min(quotient(l1, l2, true), quotient(l1, h2, true)),
+				Math.min(quotient(h1, l2, true), quotient(h1, h2, true)));
+	}
 
-		return new Interval(lowInf.get() ? null : boundSet.first(), highInf.get() ? null : boundSet.last());
+	/**
+	 * Yields the greatest value of the integer division between [l1, h1] and
+	 * [l2, h2], where [l2, h2] does not contain zero.
+	 * 
+	 * @param l1 the lower bound of the dividend
+	 * @param h1 the upper bound of the dividend
+	 * @param l2 the lower bound of the divisor
+	 * @param h2 the upper bound of the divisor
+	 * 
+	 * @return the greatest quotient
+	 */
+	private static long highQuotient(long l1, long h1, long l2, long h2) {
+		return Math.max(Math.max(quotient(l1, l2, false), quotient(l1, h2, false)),
+				Math.max(quotient(h1, l2, false), quotient(h1, h2, false)));
 	}
 
-	private Interval div(Interval other) {
-		// this = [l1, h1]
-		// other = [l2, h2]
+	/**
+	 * Yields the quotient between two bounds, rounded towards -Inf if
+	 * {@code floor} holds and towards +Inf otherwise. Dividing an infinite
+	 * bound yields an infinite bound, while dividing a finite bound by an
+	 * infinite one yields zero.
+	 * 
+	 * @param i     the dividend, can be infinite
+	 * @param j     the divisor, can be infinite but not zero
+	 * @param floor whether or not the quotient is rounded towards -Inf
+	 * 
+	 * @return the quotient
+	 */
+	private static long quotient(long i, long j, boolean floor) {
+		if (isInfinite(i))
+			return (i < 0) != (j < 0) ? MINUS_INF : PLUS_INF;
+		if (isInfinite(j))
+			return 0;
+		return floor ? Math.floorDiv(i, j) : -Math.floorDiv(-i, j);
+	}
 
-		SortedSet<Integer> boundSet = new TreeSet<>();
-		Integer l1 = low;
-		Integer h1 = high;
-		Integer l2 = other.low;
-		Integer h2 = other.high;
-
-		AtomicBoolean lowInf = new AtomicBoolean(false), highInf = new AtomicBoolean(false);
-
-		// l1 / l2
-		divideBounds(boundSet, l1, l2, lowInf, highInf);
-
-		// x1 / y2
-		divideBounds(boundSet, l1, h2, lowInf, highInf);
-
-		// x2 / y1
-		divideBounds(boundSet, h2, l2, lowInf, highInf);
-
-		// x2 / y2
-		divideBounds(boundSet, h1, h2, lowInf, highInf);
-
-		return new Interval(lowInf.get() ? null : boundSet.first(), highInf.get() ? null : boundSet.last());
-	}
-
-	private void multiplyBounds(SortedSet<Integer> boundSet, Integer i, Integer j, AtomicBoolean lowInf,
-			AtomicBoolean highInf) {
-		if (i == null) {
-			if (j == null)
-				// -inf * -inf = +inf
-				highInf.set(true);
-			else {
-				if (j > 0)
-					// -inf * positive
-					lowInf.set(true);
-				else if (j < 0)
-					// -inf * negative
-					highInf.set(true);
-				else
-					boundSet.add(0);
-			}
-		} else if (j == null) {
-			if (i > 0)
-				// -inf * positive
-				lowInf.set(true);
-			else if (i < 0)
-				// -inf * negative
-				highInf.set(true);
-			else
-				boundSet.add(0);
-		} else
-			boundSet.add(i * j);
-	}
-
-	private void divideBounds(SortedSet<Integer> boundSet, Integer i, Integer j, AtomicBoolean lowInf,
-			AtomicBoolean highInf) {
-		if (i == null) {
-			if (j == null)
-				// -inf * -inf = +inf
-				highInf.set(true);
-			else {
-				if (j > 0)
-					// -inf * positive
-					lowInf.set(true);
-				else if (j < 0)
-					// -inf * negative
-					highInf.set(true);
-
-				// division by zero!
-			}
-		} else if (j == null) {
-			if (i > 0)
-				// -inf * positive
-				lowInf.set(true);
-			else if (i < 0)
-				// -inf * negative
-				highInf.set(true);
-			else
-				boundSet.add(0);
-		} else if (j != 0) {
-			boundSet.add((int) Math.ceil(i / (double) j));
-			boundSet.add((int) Math.floor(i / (double) j));
-		}
-		// division by zero!
+	private static boolean isInfinite(long bound) {
+		return bound == MINUS_INF || bound == PLUS_INF;
 	}
 
 	/**
 	 * Given two interval lower bounds, yields {@code true} iff l1 >= l2, taking
-	 * into account -Inf values (i.e., when l1 or l2 is {@code null}.) This
-	 * method is used for the implementation of {@link Interval#lessOrEqualAux}.
+	 * into account -Inf values. This method is used for the implementation of
+	 * {@link Interval#lessOrEqualAux}.
 	 * 
 	 * @param l1 the lower bound of the first interval.
 	 * @param l2 the lower bounds of the second interval.
 	 * 
 	 * @return {@code true} iff iff l1 >= l2, taking into account -Inf values;
 	 */
-	private boolean geqLow(Integer l1, Integer l2) {
-		if (l1 == null) {
-			if (l2 == null)
-				return true;
-			else
-				return false;
-		} else {
-			if (l2 == null)
-				return true;
-			else
-				return l1 >= l2;
-		}
+	private boolean geqLow(long l1, long l2) {
+		return l1 >= l2;
 	}
 
 	/**
 	 * Given two interval upper bounds, yields {@code true} iff h1 <= h2, taking
-	 * into account +Inf values (i.e., when h1 or h2 is {@code null}.) This
-	 * method is used for the implementation of {@link Interval#lessOrEqualAux}.
+	 * into account +Inf values. This method is used for the implementation of
+	 * {@link Interval#lessOrEqualAux}.
 	 * 
 	 * @param h1 the upper bound of the first interval.
 	 * @param h2 the upper bounds of the second interval.
 	 * 
 	 * @return {@code true} iff iff h1 <= h2, taking into account +Inf values;
 	 */
-	private boolean leqHigh(Integer h1, Integer h2) {
-		if (h1 == null) {
-			if (h2 == null)
-				return true;
-			else
-				return false;
-		} else {
-			if (h2 == null)
-				return false;
-			else
-				return h1 <= h2;
-		}
+	private boolean leqHigh(long h1, long h2) {
+		if (h1 == PLUS_INF)
+			return h2 == PLUS_INF;
+		else if (h2 == PLUS_INF)
+			return false;
+		else
+			return h1 <= h2;
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((high == null) ? 0 : high.hashCode());
+		result = prime * result + Long.hashCode(high);
 		result = prime * result + (isBottom ? 1231 : 1237);
 		result = prime * result + (isTop ? 1231 : 1237);
-		result = prime * result + ((low == null) ? 0 : low.hashCode());
+		result = prime * result + Long.hashCode(low);
 		return result;
 	}
 
@@ -421,21 +468,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		if (getClass() != obj.getClass())
 			return false;
 		Interval other = (Interval) obj;
-		if (high == null) {
-			if (other.high != null)
-				return false;
-		} else if (!high.equals(other.high))
-			return false;
-		if (isBottom != other.isBottom)
-			return false;
-		if (isTop != other.isTop)
-			return false;
-		if (low == null) {
-			if (other.low != null)
-				return false;
-		} else if (!low.equals(other.low))
-			return false;
-		return true;
+		return high == other.high && low == other.low && isBottom == other.isBottom && isTop == other.isTop;
 	}
 
 	@Override
@@ -456,13 +489,13 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 					return environment;
 
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
-				Interval bound = new Interval(rightEval.low, null);
+				Interval bound = of(rightEval.low, PLUS_INF);
 				map.put((Identifier) left, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else if (right instanceof Identifier) {
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
 				Interval leftEval = eval(left, environment, pp);
-				Interval bound = leftEval.lowIsMinusInfinity() ? leftEval : new Interval(null, leftEval.low);
+				Interval bound = leftEval.lowIsMinusInfinity() ? leftEval : of(MINUS_INF, leftEval.low);
 				map.put((Identifier) right, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else
@@ -474,13 +507,13 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 					return environment;
 
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
-				Interval bound = new Interval(rightEval.low + 1, null);
+				Interval bound = of(sum(rightEval.low, 1), PLUS_INF);
 				map.put((Identifier) left, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else if (right instanceof Identifier) {
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
 				Interval leftEval = eval(left, environment, pp);
-				Interval bound = leftEval.lowIsMinusInfinity() ? leftEval : new Interval(null, leftEval.low - 1);
+				Interval bound = leftEval.lowIsMinusInfinity() ? leftEval : of(MINUS_INF, sum(leftEval.low, -1));
 				map.put((Identifier) right, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else
@@ -488,7 +521,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		case COMPARISON_LE:
 			if (left instanceof Identifier) {
 				Interval rightEval = eval(right, environment, pp);
-				Interval bound = rightEval.lowIsMinusInfinity() ? rightEval : new Interval(null, rightEval.low);
+				Interval bound = rightEval.lowIsMinusInfinity() ? rightEval : of(MINUS_INF, rightEval.low);
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
 				map.put((Identifier) left, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
@@ -498,7 +531,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 					return environment;
 
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
-				Interval bound = new Interval(leftEval.low, null);
+				Interval bound = of(leftEval.low, PLUS_INF);
 				map.put((Identifier) right, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else
@@ -506,7 +539,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		case COMPARISON_LT:
 			if (left instanceof Identifier) {
 				Interval rightEval = eval(right, environment, pp);
-				Interval bound = rightEval.lowIsMinusInfinity() ? rightEval : new Interval(null, rightEval.low - 1);
+				Interval bound = rightEval.lowIsMinusInfinity() ? rightEval : of(MINUS_INF, sum(rightEval.low, -1));
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
 				map.put((Identifier) left, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
@@ -516,7 +549,7 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 					return environment;
 
 				Map<Identifier, Interval> map = new HashMap<>(environment.getMap());
-				Interval bound = new Interval(leftEval.low + 1, null);
+				Interval bound = of(sum(leftEval.low, 1), PLUS_INF);
 				map.put((Identifier) right, bound);
 				return new ValueEnvironment<Interval>(bottom(), map);
 			} else
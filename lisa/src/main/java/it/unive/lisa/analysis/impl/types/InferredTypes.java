@@ -27,6 +27,7 @@ import it.unive.lisa.type.TypeTokenType;
 import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.Utils;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -38,18 +39,30 @@ import java.util.TreeSet;
  */
 public class InferredTypes extends BaseInferredValue<InferredTypes> {
 
-	private static final InferredTypes TOP = new InferredTypes(Caches.types().mkUniversalSet());
-
-	private static final InferredTypes BOTTOM = new InferredTypes(Caches.types().mkEmptySet());
+	/**
+	 * The key of the {@link Singletons} inside each {@link Caches} context
+	 */
+	private static final Object SINGLETONS = new Object();
 
 	private final ExternalSet<Type> elements;
 
+	/**
+	 * The singletons of the context where this instance has been built,
+	 * shared with all the instances built from this one
+	 */
+	private final Singletons singletons;
+
 	/**
 	 * Builds the inferred types. The object built through this constructor
-	 * represents an empty set of types.
+	 * represents an empty set of types, and it uses the {@link Caches} context
+	 * that is current for the calling thread.
 	 */
 	public InferredTypes() {
-		this(Caches.types().mkEmptySet());
+		this(Caches.current().<Singletons>getSingleton(SINGLETONS, Singletons::new));
+	}
+
+	private InferredTypes(Singletons singletons) {
+		this(singletons.types.mkEmptySet(), singletons);
 	}
 
 	/**
@@ -68,7 +81,20 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 	 * @param types the types to be included in the set of inferred types
 	 */
 	InferredTypes(ExternalSet<Type> types) {
+		this(types, Caches.current().<Singletons>getSingleton(SINGLETONS, Singletons::new));
+	}
+
+	private InferredTypes(ExternalSet<Type> types, Singletons singletons) {
 		this.elements = types;
+		this.singletons = singletons;
+	}
+
+	private InferredTypes mk(Type type) {
+		return new InferredTypes(singletons.types.mkSingletonSet(type), singletons);
+	}
+
+	private InferredTypes mk(ExternalSet<Type> types) {
+		return new InferredTypes(types, singletons);
 	}
 
 	/**
@@ -83,12 +109,12 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 
 	@Override
 	public InferredTypes top() {
-		return TOP;
+		return singletons.top;
 	}
 
 	@Override
 	public InferredTypes bottom() {
-		return BOTTOM;
+		return singletons.bottom;
 	}
 
 	@Override
@@ -115,22 +141,22 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		InferredTypes eval = super.evalIdentifier(id, environment);
 		if (!eval.isTop() && !eval.isBottom())
 			return eval;
-		return new InferredTypes(id.getTypes());
+		return mk(id.getTypes());
 	}
 
 	@Override
 	protected InferredTypes evalPushAny(PushAny pushAny) {
-		return new InferredTypes(pushAny.getTypes());
+		return mk(pushAny.getTypes());
 	}
 
 	@Override
 	protected InferredTypes evalNullConstant(ProgramPoint pp) {
-		return new InferredTypes(NullType.INSTANCE);
+		return mk(NullType.INSTANCE);
 	}
 
 	@Override
 	protected InferredTypes evalNonNullConstant(Constant constant, ProgramPoint pp) {
-		return new InferredTypes(constant.getDynamicType());
+		return mk(constant.getDynamicType());
 	}
 
 	@Override
@@ -139,17 +165,17 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		case LOGICAL_NOT:
 			if (arg.elements.noneMatch(Type::isBooleanType))
 				return bottom();
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		case NUMERIC_NEG:
 			if (arg.elements.noneMatch(Type::isNumericType))
 				return bottom();
-			return new InferredTypes(arg.elements.filter(Type::isNumericType));
+			return mk(arg.elements.filter(Type::isNumericType));
 		case STRING_LENGTH:
 			if (arg.elements.noneMatch(Type::isStringType))
 				return bottom();
-			return new InferredTypes(IntType.INSTANCE);
+			return mk(IntType.INSTANCE);
 		case TYPEOF:
-			return new InferredTypes(new TypeTokenType(arg.elements.copy()));
+			return mk(new TypeTokenType(arg.elements.copy()));
 		default:
 			return top();
 		}
@@ -161,7 +187,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		switch (operator) {
 		case COMPARISON_EQ:
 		case COMPARISON_NE:
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		case COMPARISON_GE:
 		case COMPARISON_GT:
 		case COMPARISON_LE:
@@ -171,12 +197,12 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 			ExternalSet<Type> set = commonNumericalType(left.elements, right.elements);
 			if (set.isEmpty())
 				return bottom();
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		case LOGICAL_AND:
 		case LOGICAL_OR:
 			if (left.elements.noneMatch(Type::isBooleanType) || right.elements.noneMatch(Type::isBooleanType))
 				return bottom();
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		case NUMERIC_ADD:
 		case NUMERIC_DIV:
 		case NUMERIC_MOD:
@@ -187,22 +213,22 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 			set = commonNumericalType(left.elements, right.elements);
 			if (set.isEmpty())
 				return bottom();
-			return new InferredTypes(set);
+			return mk(set);
 		case STRING_CONCAT:
 			if (left.elements.noneMatch(Type::isStringType) || right.elements.noneMatch(Type::isStringType))
 				return bottom();
-			return new InferredTypes(StringType.INSTANCE);
+			return mk(StringType.INSTANCE);
 		case STRING_INDEX_OF:
 			if (left.elements.noneMatch(Type::isStringType) || right.elements.noneMatch(Type::isStringType))
 				return bottom();
-			return new InferredTypes(IntType.INSTANCE);
+			return mk(IntType.INSTANCE);
 		case STRING_CONTAINS:
 		case STRING_ENDS_WITH:
 		case STRING_EQUALS:
 		case STRING_STARTS_WITH:
 			if (left.elements.noneMatch(Type::isStringType) || right.elements.noneMatch(Type::isStringType))
 				return bottom();
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		case TYPE_CAST:
 			return evalTypeCast(null, left, right);
 		case TYPE_CONV:
@@ -210,7 +236,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		case TYPE_CHECK:
 			if (right.elements.noneMatch(Type::isTypeTokenType))
 				return bottom();
-			return new InferredTypes(BoolType.INSTANCE);
+			return mk(BoolType.INSTANCE);
 		default:
 			return top();
 		}
@@ -227,12 +253,12 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 					|| right.elements.noneMatch(Type::isNumericType)
 					|| right.elements.filter(Type::isNumericType).noneMatch(t -> t.asNumericType().isIntegral()))
 				return bottom();
-			return new InferredTypes(StringType.INSTANCE);
+			return mk(StringType.INSTANCE);
 		case STRING_REPLACE:
 			if (left.elements.noneMatch(Type::isStringType) || middle.elements.noneMatch(Type::isStringType)
 					|| right.elements.noneMatch(Type::isStringType))
 				return bottom();
-			return new InferredTypes(StringType.INSTANCE);
+			return mk(StringType.INSTANCE);
 		default:
 			return top();
 		}
@@ -290,7 +316,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 
 	@Override
 	protected InferredTypes lubAux(InferredTypes other) throws SemanticException {
-		return new InferredTypes(elements.union(other.elements));
+		return mk(elements.union(other.elements));
 	}
 
 	@Override
@@ -437,7 +463,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		ExternalSet<Type> set = cast(left.elements, right.elements);
 		if (set.isEmpty())
 			return bottom();
-		return new InferredTypes(set);
+		return mk(set);
 	}
 
 	@Override
@@ -447,7 +473,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		ExternalSet<Type> set = convert(left.elements, right.elements);
 		if (set.isEmpty())
 			return bottom();
-		return new InferredTypes(set);
+		return mk(set);
 	}
 
 	@Override
@@ -461,4 +487,26 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 		// Type analysis can process any expression
 		return true;
 	}
+
+	/**
+	 * The objects shared by all the {@link InferredTypes} built within the
+	 * same {@link Caches} context, resolved only once when the first instance
+	 * of that context is built.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Singletons {
+
+		private final ExternalSetCache<Type> types;
+
+		private final InferredTypes top;
+
+		private final InferredTypes bottom;
+
+		private Singletons(Caches caches) {
+			types = caches.getTypes();
+			top = new InferredTypes(types.mkUniversalSet(), this);
+			bottom = new InferredTypes(types.mkEmptySet(), this);
+		}
+	}
 }
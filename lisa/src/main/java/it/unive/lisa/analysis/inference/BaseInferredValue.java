@@ -3,6 +3,8 @@ package it.unive.lisa.analysis.inference;
 import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.LatticeCache;
+import it.unive.lisa.caches.LatticeCache.Operation;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.value.BinaryExpression;
 import it.unive.lisa.symbolic.value.BinaryOperator;
@@ -485,6 +487,9 @@ public abstract class BaseInferredValue<T extends BaseInferredValue<T>> extends
 		if (other.isBottom() || this.isTop() || other.lessOrEqual((T) this))
 			return (T) other;
 
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.GLB, this, other, () -> glbAux(other));
 		return glbAux(other);
 	}
 
@@ -7,6 +7,9 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.util.collections.DenseIndex;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,8 +39,22 @@ public class InferenceSystem<T extends InferredValue<T>> extends Environment<Inf
 		inferredValue = domain.bottom();
 	}
 
-	private InferenceSystem(T domain, Map<Identifier, T> function) {
-		this(domain, function, domain.bottom());
+	/**
+	 * Builds an empty dense inference system, where identifiers are mapped to
+	 * slots by the given index.
+	 * 
+	 * @param domain a singleton instance to be used during semantic operations
+	 *                   to retrieve top and bottom values
+	 * @param index  the index assigning slots to identifiers
+	 */
+	public InferenceSystem(T domain, DenseIndex<Identifier> index) {
+		super(domain, index);
+		inferredValue = domain.bottom();
+	}
+
+	private InferenceSystem(T domain, Map<Identifier, T> function, DenseIndex<Identifier> index) {
+		super(domain, function, index);
+		inferredValue = domain.bottom();
 	}
 
 	private InferenceSystem(T domain, Map<Identifier, T> function, T inferredValue) {
@@ -67,6 +84,17 @@ public class InferenceSystem<T extends InferredValue<T>> extends Environment<Inf
 		return inferredValue;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Inference systems are never hash-consed, since their equality does not
+	 * account for their inferred value.
+	 */
+	@Override
+	protected boolean isHashConsable() {
+		return false;
+	}
+
 	@Override
 	protected InferenceSystem<T> copy() {
 		return new InferenceSystem<>(lattice, mkNewFunction(function), inferredValue);
@@ -89,12 +117,12 @@ public class InferenceSystem<T extends InferredValue<T>> extends Environment<Inf
 
 	@Override
 	public InferenceSystem<T> top() {
-		return isTop() ? this : new InferenceSystem<T>(lattice.top(), null);
+		return isTop() ? this : new InferenceSystem<T>(lattice.top(), null, index);
 	}
 
 	@Override
 	public InferenceSystem<T> bottom() {
-		return isBottom() ? this : new InferenceSystem<T>(lattice.bottom(), null);
+		return isBottom() ? this : new InferenceSystem<T>(lattice.bottom(), null, index);
 	}
 
 	@Override
@@ -105,6 +133,17 @@ public class InferenceSystem<T extends InferredValue<T>> extends Environment<Inf
 		return new InferenceSystem<>(lub.lattice, lub.function, inferredValue.lub(other.inferredValue));
 	}
 
+	@Override
+	protected InferenceSystem<T> lubAllAux(List<InferenceSystem<T>> others) throws SemanticException {
+		InferenceSystem<T> lub = super.lubAllAux(others);
+		if (lub.isTop() || lub.isBottom())
+			return lub;
+		List<T> inferred = new ArrayList<>(others.size());
+		for (InferenceSystem<T> other : others)
+			inferred.add(other.inferredValue);
+		return new InferenceSystem<>(lub.lattice, lub.function, inferredValue.lubAll(inferred));
+	}
+
 	@Override
 	public InferenceSystem<T> wideningAux(InferenceSystem<T> other) throws SemanticException {
 		InferenceSystem<T> widen = super.wideningAux(other);
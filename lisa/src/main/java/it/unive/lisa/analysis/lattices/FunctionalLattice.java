@@ -3,11 +3,13 @@ package it.unive.lisa.analysis.lattices;
 import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.util.collections.PersistentHashMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -59,7 +61,9 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	/**
 	 * Creates a new instance of the underlying function. The purpose of this
 	 * method is to provide a common function implementation to every subclass
-	 * that does not have implementation-specific requirements.
+	 * that does not have implementation-specific requirements. Functions are
+	 * {@link PersistentHashMap}s: copying one takes constant time, and the copy
+	 * shares all the unchanged entries with the original function.
 	 * 
 	 * @param other an optional function to copy, can be {@code null}
 	 * 
@@ -68,8 +72,8 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	 */
 	protected Map<K, V> mkNewFunction(Map<K, V> other) {
 		if (other == null)
-			return new HashMap<>();
-		return new HashMap<>(other);
+			return new PersistentHashMap<>();
+		return new PersistentHashMap<>(other);
 	}
 
 	/**
@@ -95,9 +99,10 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 			return lattice.bottom();
 		if (isTop())
 			return lattice.top();
-		if (function.containsKey(key))
-			return function.get(key);
-		return lattice.bottom();
+		V state = function.get(key);
+		if (state == null && !function.containsKey(key))
+			return lattice.bottom();
+		return state;
 	}
 
 	@Override
@@ -105,6 +110,42 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 		return functionalLift(other, (f1, f2) -> lubKeys(f1, f2), (o1, o2) -> o1 == null ? o2 : o1.lub(o2));
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The keys of the result are computed by folding
+	 * {@link #lubKeys(Set, Set)} over the keys of all the elements, and the
+	 * value of each key is then joined through
+	 * {@link Lattice#lubAll(Collection)} on the values of all the elements. The
+	 * function of the result is a single copy of the one of this element, where
+	 * only the keys whose value changed are updated.
+	 */
+	@Override
+	protected F lubAllAux(List<F> others) throws SemanticException {
+		Set<K> keys = getKeys();
+		for (F other : others)
+			keys = lubKeys(keys, other.getKeys());
+
+		F result = bottom();
+		result.function = mkNewFunction(function);
+		result.function.keySet().retainAll(keys);
+		List<V> values = new ArrayList<>(others.size());
+		for (K key : keys)
+			try {
+				values.clear();
+				for (F other : others)
+					values.add(other.getState(key));
+				V state = getState(key);
+				V lifted = (state == null ? lattice.bottom() : state).lubAll(values);
+				// unchanged values are left untouched to keep them shared
+				if (lifted == null || lifted != result.function.get(key))
+					result.function.put(key, lifted);
+			} catch (SemanticException e) {
+				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+			}
+		return result;
+	}
+
 	@Override
 	public F wideningAux(F other) throws SemanticException {
 		return functionalLift(other, (f1, f2) -> lubKeys(f1, f2), (o1, o2) -> o1 == null ? o2 : o1.widening(o2));
@@ -157,7 +198,9 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	}
 
 	/**
-	 * Yields the functional lift between {@code this} and {@code other}.
+	 * Yields the functional lift between {@code this} and {@code other}. The
+	 * function of the returned element is obtained from a copy of the one of
+	 * this element, where only the keys whose value changed are updated.
 	 * 
 	 * @param other       the other functional lattice
 	 * @param keyLifter   the key lifter
@@ -171,11 +214,15 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	protected final F functionalLift(F other, KeyFunctionalLift<K> keyLifter, FunctionalLift<V> valueLifter)
 			throws SemanticException {
 		F result = bottom();
-		result.function = mkNewFunction(null);
+		result.function = mkNewFunction(function);
 		Set<K> keys = keyLifter.keyLift(this.getKeys(), other.getKeys());
+		result.function.keySet().retainAll(keys);
 		for (K key : keys)
 			try {
-				result.function.put(key, valueLifter.lift(getState(key), other.getState(key)));
+				V lifted = valueLifter.lift(getState(key), other.getState(key));
+				// unchanged values are left untouched to keep them shared
+				if (lifted == null || lifted != result.function.get(key))
+					result.function.put(key, lifted);
 			} catch (SemanticException e) {
 				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
 			}
@@ -217,9 +264,11 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 
 	@Override
 	public boolean lessOrEqualAux(F other) throws SemanticException {
-		for (K key : function.keySet())
-			if (getState(key) != null && (!getState(key).lessOrEqual(other.getState(key))))
+		for (K key : function.keySet()) {
+			V state = getState(key);
+			if (state != null && !state.lessOrEqual(other.getState(key)))
 				return false;
+		}
 
 		return true;
 	}
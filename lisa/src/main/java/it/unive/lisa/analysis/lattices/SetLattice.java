@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.util.collections.Utils;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -65,6 +66,20 @@ public abstract class SetLattice<S extends SetLattice<S, E>, E> extends BaseLatt
 		return mk(lub);
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The result is the union of the elements of all the sets, computed in a
+	 * single pass.
+	 */
+	@Override
+	protected S lubAllAux(List<S> others) throws SemanticException {
+		Set<E> lub = new HashSet<>(elements);
+		for (S other : others)
+			lub.addAll(other.elements);
+		return mk(lub);
+	}
+
 	@Override
 	protected S wideningAux(S other) throws SemanticException {
 		return lubAux(other);
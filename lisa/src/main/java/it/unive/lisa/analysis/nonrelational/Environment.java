@@ -4,19 +4,26 @@ import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.lattices.FunctionalLattice;
+import it.unive.lisa.caches.HashConsing;
+import it.unive.lisa.caches.LatticeCache;
+import it.unive.lisa.caches.LatticeCache.Operation;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
-import it.unive.lisa.util.collections.CollectionsDiffBuilder;
-import java.util.Comparator;
+import it.unive.lisa.util.collections.DenseIndex;
+import it.unive.lisa.util.collections.DenseMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * An environment for a {@link NonRelationalDomain}, that maps
@@ -24,7 +31,31 @@ import org.apache.commons.lang3.tuple.Pair;
  * {@link FunctionalLattice}, that is, it implements a function mapping keys
  * (identifiers) to values (instances of the domain), and lattice operations are
  * automatically lifted for individual elements of the environment if they are
- * mapped to the same key.
+ * mapped to the same key.<br>
+ * <br>
+ * Environments built with a {@link DenseIndex} are <i>dense</i>: identifiers
+ * are interned into integer slots by the index, and the function is a
+ * {@link DenseMap} storing values in arrays sorted by slot. Dense environments
+ * sharing the same index are combined by scanning their slots in lockstep,
+ * without hashing identifiers. The index is inherited by all the environments
+ * obtained from a dense one, and can be shared by a whole analysis: dense
+ * functions are sized after the identifiers they contain, and functions with
+ * more than {@link DenseIndex#getMaxSize()} identifiers are copied into
+ * persistent maps instead, so that large environments keep being copied in
+ * constant time.<br>
+ * <br>
+ * The values stored by assignments and lattice operations, as well as the
+ * environments produced by lattice operations (see {@link #isHashConsable()}),
+ * are passed through {@link HashConsing#canonical(Object)}: if hash-consing is
+ * enabled, equal values share the same instance, and lattice operations on
+ * them are short-circuited by reference equality.<br>
+ * <br>
+ * Environments produced by assignments and lattice operations record the
+ * function of the environment they have been derived from (their
+ * <i>ancestor</i>), together with the identifiers whose mapping might differ
+ * from it (the <i>dirty</i> identifiers). Comparisons through
+ * {@link #lessOrEqual(Lattice)} and {@link #equals(Object)} between an
+ * environment and its ancestor inspect only the dirty identifiers.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -38,6 +69,24 @@ public abstract class Environment<M extends Environment<M, E, T>,
 		T extends NonRelationalDomain<T, E, M>>
 		extends FunctionalLattice<M, Identifier, T> implements SemanticDomain<M, E, Identifier> {
 
+	/**
+	 * The index assigning slots to identifiers if this environment is dense,
+	 * {@code null} otherwise
+	 */
+	protected final DenseIndex<Identifier> index;
+
+	/**
+	 * The function of the environment that this one has been derived from,
+	 * {@code null} if unknown
+	 */
+	private Map<Identifier, T> ancestor;
+
+	/**
+	 * The identifiers whose mapping in this environment might differ from the
+	 * one in {@link #ancestor}
+	 */
+	private Set<Identifier> dirty;
+
 	/**
 	 * Builds an empty environment.
 	 * 
@@ -46,6 +95,21 @@ public abstract class Environment<M extends Environment<M, E, T>,
 	 */
 	protected Environment(T domain) {
 		super(domain);
+		this.index = null;
+	}
+
+	/**
+	 * Builds an empty dense environment.
+	 * 
+	 * @param domain a singleton instance to be used during semantic operations
+	 *                   to retrieve top and bottom values
+	 * @param index  the index assigning slots to identifiers
+	 */
+	protected Environment(T domain, DenseIndex<Identifier> index) {
+		super(domain);
+		this.index = index;
+		// the function built by the super constructor does not use the index
+		this.function = mkNewFunction(null);
 	}
 
 	/**
@@ -59,8 +123,40 @@ public abstract class Environment<M extends Environment<M, E, T>,
 	 * @param function the function representing the mapping contained in the
 	 *                     new environment; can be {@code null}
 	 */
+	@SuppressWarnings("unchecked")
 	protected Environment(T domain, Map<Identifier, T> function) {
+		this(domain, function, function instanceof DenseMap ? ((DenseMap<Identifier, T>) function).getIndex() : null);
+	}
+
+	/**
+	 * Builds an environment containing the given mapping, that is dense if
+	 * {@code index} is not {@code null}. If function is {@code null}, the new
+	 * environment is the top environment if {@code lattice.isTop()} holds, and
+	 * it is the bottom environment if {@code lattice.isBottom()} holds.
+	 * 
+	 * @param domain   a singleton instance to be used during semantic
+	 *                     operations to retrieve top and bottom values
+	 * @param function the function representing the mapping contained in the
+	 *                     new environment; can be {@code null}
+	 * @param index    the index assigning slots to identifiers; can be
+	 *                     {@code null}
+	 */
+	protected Environment(T domain, Map<Identifier, T> function, DenseIndex<Identifier> index) {
 		super(domain, function);
+		this.index = index;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Map<Identifier, T> mkNewFunction(Map<Identifier, T> other) {
+		if (index == null || other != null && other.size() > index.getMaxSize())
+			return super.mkNewFunction(other);
+		if (other instanceof DenseMap && ((DenseMap<Identifier, T>) other).getIndex() == index)
+			return ((DenseMap<Identifier, T>) other).copy();
+		DenseMap<Identifier, T> function = new DenseMap<>(index);
+		if (other != null)
+			function.putAll(other);
+		return function;
 	}
 
 	/**
@@ -85,8 +181,12 @@ public abstract class Environment<M extends Environment<M, E, T>,
 		T eval = lattice.eval(value, (M) this, pp);
 		if (id.isWeak())
 			eval = eval.lub(getState(id));
+		eval = HashConsing.canonical(eval);
 		func.put(id, eval);
-		return assignAux(id, value, func, eval, pp);
+		M result = assignAux(id, value, func, eval, pp);
+		if (function != null && result.function == func)
+			((Environment<M, E, T>) result).derivedFrom(function, Collections.singleton(id));
+		return result;
 	}
 
 	/**
@@ -139,7 +239,419 @@ public abstract class Environment<M extends Environment<M, E, T>,
 		if (other.isBottom() || this.isTop() || other.lessOrEqual((M) this))
 			return (M) other;
 
-		return functionalLift(other, (k1, k2) -> glbKeys(k1, k2), (o1, o2) -> o1 == null ? o2 : o1.glb(o2));
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.GLB, this, other, () -> glbAux(other));
+		return glbAux(other);
+	}
+
+	private M glbAux(M other) throws SemanticException {
+		FunctionalLift<T> lifter = (o1, o2) -> HashConsing.canonical(o1 == null ? o2 : o1.glb(o2));
+		if (isDenseWith(other))
+			return canonical(denseLift(other, false, lifter, false));
+		return canonical(functionalLift(other, (k1, k2) -> glbKeys(k1, k2), lifter));
+	}
+
+	@Override
+	public M lubAux(M other) throws SemanticException {
+		FunctionalLift<T> lifter = (o1, o2) -> HashConsing.canonical(o1 == null ? o2 : o1.lub(o2));
+		// fixpoints join the previous approximation as argument of lubs
+		if (isDenseWith(other))
+			return canonical(denseLift(other, true, lifter, true));
+		return canonical(unionLift(other, lifter, true));
+	}
+
+	@Override
+	public M wideningAux(M other) throws SemanticException {
+		FunctionalLift<T> lifter = (o1, o2) -> HashConsing.canonical(o1 == null ? o2 : o1.widening(o2));
+		// fixpoints widen the previous approximation with the new one
+		if (isDenseWith(other))
+			return canonical(denseLift(other, true, lifter, false));
+		return canonical(unionLift(other, lifter, false));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean lessOrEqualAux(M other) throws SemanticException {
+		if (isDerivedFrom(other)) {
+			// all other identifiers are mapped to the same values
+			for (Identifier id : dirty) {
+				T state = function.get(id);
+				if (state != null && !state.lessOrEqual(other.getState(id)))
+					return false;
+			}
+			return true;
+		}
+
+		if (!isDenseWith(other))
+			return super.lessOrEqualAux(other);
+
+		DenseMap<Identifier, T> f1 = (DenseMap<Identifier, T>) function;
+		DenseMap<Identifier, T> f2 = (DenseMap<Identifier, T>) other.function;
+		for (int i = 0, j = 0; i < f1.size(); i++) {
+			int slot = f1.slotAt(i);
+			while (j < f2.size() && f2.slotAt(j) < slot)
+				j++;
+			T v1 = f1.valueAt(i);
+			T v2 = j < f2.size() && f2.slotAt(j) == slot ? f2.valueAt(j) : lattice.bottom();
+			if (v1 != null && !v1.lessOrEqual(v2))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Yields whether or not the environments produced by the lattice
+	 * operations of this environment can be replaced by equal ones through
+	 * {@link HashConsing}. This holds only if {@link #equals(Object)} accounts
+	 * for all the information held by an environment: the default
+	 * implementation of this method returns {@code true}, and it must be
+	 * overridden by environments carrying additional information.
+	 * 
+	 * @return {@code true} if the environments produced by lattice operations
+	 *             can be hash-consed
+	 */
+	protected boolean isHashConsable() {
+		return true;
+	}
+
+	private M canonical(M env) {
+		return isHashConsable() ? HashConsing.canonical(env) : env;
+	}
+
+	private boolean isDenseWith(M other) {
+		return index != null
+				&& function instanceof DenseMap && ((DenseMap<?, ?>) function).getIndex() == index
+				&& other.function instanceof DenseMap && ((DenseMap<?, ?>) other.function).getIndex() == index;
+	}
+
+	/**
+	 * Records that the function of this environment has been derived from
+	 * {@code ancestor}, and that the two functions might differ only on the
+	 * given identifiers.
+	 */
+	private void derivedFrom(Map<Identifier, T> ancestor, Set<Identifier> dirty) {
+		this.ancestor = ancestor;
+		this.dirty = dirty;
+	}
+
+	private boolean sameLatticeClass(Environment<?, ?, ?> other) {
+		return lattice == null ? other.lattice == null
+				: other.lattice != null && lattice.getClass() == other.lattice.getClass();
+	}
+
+	private boolean isDerivedFrom(Environment<?, ?, ?> other) {
+		return ancestor != null && ancestor == other.function;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the dirty identifiers of this
+	 * environment are mapped to the same values by its ancestor.
+	 */
+	private boolean agreesWithAncestor() {
+		for (Identifier id : dirty)
+			if (function.containsKey(id) != ancestor.containsKey(id)
+					|| !Objects.equals(function.get(id), ancestor.get(id)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * If one of the two environments has been derived from the other one,
+	 * only the dirty identifiers and the classes of the lattices are
+	 * compared.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj != null && getClass() == obj.getClass()) {
+			Environment<?, ?, ?> other = (Environment<?, ?, ?>) obj;
+			// as in FunctionalLattice, only the class of the lattice matters
+			if (!sameLatticeClass(other))
+				return false;
+			if (isDerivedFrom(other))
+				return agreesWithAncestor();
+			if (other.isDerivedFrom(this))
+				return other.agreesWithAncestor();
+		}
+		return super.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * If all the environments are dense with the same index, they are joined
+	 * slot by slot in a single loop. Otherwise, the identifiers of each
+	 * environment are merged, one environment at a time, into a single copy of
+	 * the function of this environment, as {@link #lubAux(Environment)} does.
+	 */
+	@Override
+	protected M lubAllAux(List<M> others) throws SemanticException {
+		FunctionalLift<T> lifter = (o1, o2) -> HashConsing.canonical(o1 == null ? o2 : o1.lub(o2));
+		boolean dense = true;
+		for (M other : others)
+			if (other.function == null)
+				return super.lubAllAux(others);
+			else
+				dense &= isDenseWith(other);
+
+		if (function == null)
+			return super.lubAllAux(others);
+
+		M result = bottom();
+		Set<Identifier> changed = new HashSet<>();
+		if (dense)
+			result.function = denseUnion(others, lifter, changed);
+		else {
+			result.function = mkNewFunction(function);
+			for (M other : others)
+				unionInto(result.function, other.function, lifter, changed, null);
+		}
+		((Environment<M, E, T>) result).derivedFrom(function, changed);
+		return canonical(result);
+	}
+
+	/**
+	 * Lifts the values of this environment and of {@code other} over the union
+	 * of their identifiers, pairing identifiers with the same name as
+	 * {@link #lubKeys(Set, Set)} does. The function of the result is a copy of
+	 * the one of this environment, that is updated through
+	 * {@link #unionInto(Map, Map, FunctionalLift, Set, Set)}. The result is
+	 * derived from the operand it differs less from, or from {@code other} if
+	 * the two are tied and {@code preferOther} holds.
+	 */
+	private M unionLift(M other, FunctionalLift<T> valueLifter, boolean preferOther) throws SemanticException {
+		if (function == null || other.function == null)
+			return functionalLift(other, (k1, k2) -> lubKeys(k1, k2), valueLifter);
+
+		M result = bottom();
+		result.function = mkNewFunction(function);
+		Set<Identifier> changed = new HashSet<>();
+		Set<Identifier> differing = new HashSet<>();
+		boolean exact = unionInto(result.function, other.function, valueLifter, changed, differing);
+		// if no identifier has been merged and the result has the same size
+		// of other, the identifiers of the two coincide
+		if (exact && result.function.size() == other.function.size()
+				&& (differing.size() < changed.size() || preferOther && differing.size() == changed.size()))
+			((Environment<M, E, T>) result).derivedFrom(other.function, differing);
+		else
+			((Environment<M, E, T>) result).derivedFrom(function, changed);
+		return result;
+	}
+
+	/**
+	 * Merges the mappings of {@code other} into {@code lifted}, in a single
+	 * pass over the identifiers of {@code other}. Identifiers with the same
+	 * name are paired as {@link #lubKeys(Set, Set)} does. The values of
+	 * identifiers that appear only in {@code lifted}, or that are the same
+	 * instance in both functions, are kept without invoking
+	 * {@code valueLifter}, since lifting a value with bottom or with itself
+	 * yields the value itself. Identifiers whose mapping in {@code lifted}
+	 * changes are added to {@code changed}, while identifiers of {@code other}
+	 * whose mapping in {@code lifted} ends up being different are added to
+	 * {@code differing}, if it is not {@code null}. Yields {@code false} if
+	 * identifiers with the same name have been merged, since
+	 * {@code differing} is not accurate in that case.
+	 */
+	private boolean unionInto(Map<Identifier, T> lifted, Map<Identifier, T> other, FunctionalLift<T> valueLifter,
+			Set<Identifier> changed, Set<Identifier> differing) throws SemanticException {
+		Map<String, Identifier> names = null;
+		boolean exact = true;
+		for (Entry<Identifier, T> entry : other.entrySet()) {
+			Identifier key = entry.getKey();
+			T first = lifted.get(key);
+			T second = entry.getValue();
+			if (first == null && !lifted.containsKey(key)) {
+				// an identifier with the same name might still be part of the
+				// function: names are indexed only when this happens
+				if (names == null)
+					names = indexByName(lifted.keySet());
+				Identifier same = names.get(key.getName());
+				first = lattice.bottom();
+				if (same != null) {
+					exact = false;
+					try {
+						key = same.lub(key);
+					} catch (SemanticException e) {
+						throw new SemanticException("Unable to lub " + same + " and " + key, e);
+					}
+					// only the merged identifier is kept, with the values
+					// that were mapped to it
+					if (!key.equals(same)) {
+						lifted.remove(same);
+						changed.add(same);
+					} else {
+						first = lifted.get(same);
+						second = other.containsKey(same) ? other.get(same) : lattice.bottom();
+					}
+				}
+			} else if (first == second)
+				continue;
+
+			try {
+				T result = valueLifter.lift(first, second);
+				// unchanged values are left untouched to keep them shared
+				if (result == null || result != lifted.get(key)) {
+					lifted.put(key, result);
+					changed.add(key);
+				}
+				if (differing != null && result != second)
+					differing.add(key);
+			} catch (SemanticException e) {
+				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+			}
+		}
+		return exact;
+	}
+
+	private static Map<String, Identifier> indexByName(Set<Identifier> ids) {
+		Map<String, Identifier> names = new HashMap<>(ids.size() * 4 / 3 + 1);
+		for (Identifier id : ids)
+			names.put(id.getName(), id);
+		return names;
+	}
+
+	/**
+	 * Lifts the values of this dense environment and of {@code other},
+	 * scanning their slots in lockstep. If {@code union} holds, the result contains the identifiers of both
+	 * environments (identifiers appearing in both are merged through
+	 * {@link Identifier#lub(Identifier)}), otherwise it contains only the ones
+	 * appearing in both, as they appear in this environment. Values that are
+	 * the same instance in both environments are kept without invoking
+	 * {@code valueLifter}. The result is derived from the operand it differs
+	 * less from, or from {@code other} if the two are tied and
+	 * {@code preferOther} holds.
+	 */
+	@SuppressWarnings("unchecked")
+	private M denseLift(M other, boolean union, FunctionalLift<T> valueLifter, boolean preferOther)
+			throws SemanticException {
+		DenseMap<Identifier, T> f1 = (DenseMap<Identifier, T>) function;
+		DenseMap<Identifier, T> f2 = (DenseMap<Identifier, T>) other.function;
+		DenseMap<Identifier, T> lifted = new DenseMap<>(index);
+		Set<Identifier> changed = new HashSet<>();
+		Set<Identifier> differing = new HashSet<>();
+		int i = 0, j = 0;
+		while (i < f1.size() || j < f2.size()) {
+			int s1 = i < f1.size() ? f1.slotAt(i) : Integer.MAX_VALUE;
+			int s2 = j < f2.size() ? f2.slotAt(j) : Integer.MAX_VALUE;
+			Identifier k1 = null, k2 = null;
+			T v1 = lattice.bottom(), v2 = lattice.bottom();
+			if (s1 <= s2) {
+				k1 = f1.keyAt(i);
+				v1 = f1.valueAt(i++);
+			}
+			if (s2 <= s1) {
+				k2 = f2.keyAt(j);
+				v2 = f2.valueAt(j++);
+			}
+
+			Identifier key;
+			if (k1 != null && k2 != null)
+				try {
+					key = union ? k1.lub(k2) : k1;
+				} catch (SemanticException e) {
+					throw new SemanticException("Unable to lub " + k1 + " and " + k2, e);
+				}
+			else if (union && (k1 != null || k2 != null))
+				key = k1 == null ? k2 : k1;
+			else {
+				// the identifier is not part of the result
+				if (k1 != null)
+					changed.add(k1);
+				if (k2 != null)
+					differing.add(k2);
+				continue;
+			}
+
+			try {
+				T value = v1 == v2 && v1 != null ? v1 : valueLifter.lift(v1, v2);
+				lifted.append(Math.min(s1, s2), key, value);
+				if (k1 == null || value != v1)
+					changed.add(key);
+				if (k2 == null || value != v2)
+					differing.add(key);
+			} catch (SemanticException e) {
+				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+			}
+		}
+
+		M result = bottom();
+		result.function = lifted;
+		if (differing.size() < changed.size() || preferOther && differing.size() == changed.size())
+			((Environment<M, E, T>) result).derivedFrom(f2, differing);
+		else
+			((Environment<M, E, T>) result).derivedFrom(f1, changed);
+		return result;
+	}
+
+	/**
+	 * Joins the values of this dense environment and of all {@code others},
+	 * scanning their slots in lockstep and building a single function. Identifiers occupying the same
+	 * slot are merged through {@link Identifier#lub(Identifier)}, and values
+	 * that are the same instance are kept without invoking
+	 * {@code valueLifter}. Identifiers whose mapping differs from the one of
+	 * this environment are added to {@code changed}.
+	 */
+	@SuppressWarnings("unchecked")
+	private DenseMap<Identifier, T> denseUnion(List<M> others, FunctionalLift<T> valueLifter,
+			Set<Identifier> changed) throws SemanticException {
+		DenseMap<Identifier, T> own = (DenseMap<Identifier, T>) function;
+		List<DenseMap<Identifier, T>> functions = new ArrayList<>(others.size() + 1);
+		functions.add(own);
+		for (M other : others)
+			functions.add((DenseMap<Identifier, T>) other.function);
+
+		DenseMap<Identifier, T> lifted = new DenseMap<>(index);
+		int[] positions = new int[functions.size()];
+		while (true) {
+			int slot = Integer.MAX_VALUE;
+			for (int f = 0; f < positions.length; f++)
+				if (positions[f] < functions.get(f).size())
+					slot = Math.min(slot, functions.get(f).slotAt(positions[f]));
+			if (slot == Integer.MAX_VALUE)
+				break;
+
+			boolean owned = positions[0] < own.size() && own.slotAt(positions[0]) == slot;
+			T ownValue = owned ? own.valueAt(positions[0]) : null;
+			Identifier key = null;
+			T value = null;
+			for (int f = 0; f < positions.length; f++) {
+				DenseMap<Identifier, T> map = functions.get(f);
+				if (positions[f] == map.size() || map.slotAt(positions[f]) != slot)
+					continue;
+
+				Identifier k = map.keyAt(positions[f]);
+				T v = map.valueAt(positions[f]++);
+				if (key == null) {
+					key = k;
+					value = v == null ? lattice.bottom() : v;
+					continue;
+				}
+
+				try {
+					key = key.lub(k);
+				} catch (SemanticException e) {
+					throw new SemanticException("Unable to lub " + key + " and " + k, e);
+				}
+				try {
+					if (value != v)
+						value = valueLifter.lift(value, v == null ? lattice.bottom() : v);
+				} catch (SemanticException e) {
+					throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+				}
+			}
+
+			lifted.append(slot, key, value);
+			if (!owned || value != ownValue)
+				changed.add(key);
+		}
+		return lifted;
 	}
 
 	@Override
@@ -177,8 +689,10 @@ public abstract class Environment<M extends Environment<M, E, T>,
 			return (M) this;
 
 		M result = copy();
-		if (result.function.containsKey(id))
+		if (result.function.containsKey(id)) {
 			result.function.remove(id);
+			((Environment<M, E, T>) result).derivedFrom(function, Collections.singleton(id));
+		}
 
 		return result;
 	}
@@ -203,20 +717,37 @@ public abstract class Environment<M extends Environment<M, E, T>,
 		return StringUtils.join(res, '\n');
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Identifiers of the two sets having the same name are merged through
+	 * {@link Identifier#lub(Identifier)}. Identifiers of {@code k2} are paired
+	 * with the ones of {@code k1} in a single pass, through hash lookups: the
+	 * identifiers of {@code k1} are indexed by name only if {@code k2}
+	 * contains an identifier that is not part of {@code k1}.
+	 */
 	@Override
 	protected Set<Identifier> lubKeys(Set<Identifier> k1, Set<Identifier> k2) throws SemanticException {
-		Set<Identifier> keys = new HashSet<>();
-		CollectionsDiffBuilder<Identifier> builder = new CollectionsDiffBuilder<>(Identifier.class, k1,
-				k2);
-		builder.compute(Comparator.comparing(Identifier::getName));
-		keys.addAll(builder.getOnlyFirst());
-		keys.addAll(builder.getOnlySecond());
-		for (Pair<Identifier, Identifier> pair : builder.getCommons())
-			try {
-				keys.add(pair.getLeft().lub(pair.getRight()));
-			} catch (SemanticException e) {
-				throw new SemanticException("Unable to lub " + pair.getLeft() + " and " + pair.getRight(), e);
-			}
+		Set<Identifier> keys = new HashSet<>(k1);
+		Map<String, Identifier> names = null;
+		for (Identifier id : k2) {
+			if (k1.contains(id))
+				// equal identifiers are merged into an equal one
+				continue;
+
+			if (names == null)
+				names = indexByName(k1);
+			Identifier same = names.get(id.getName());
+			if (same == null)
+				keys.add(id);
+			else
+				try {
+					keys.remove(same);
+					keys.add(same.lub(id));
+				} catch (SemanticException e) {
+					throw new SemanticException("Unable to lub " + same + " and " + id, e);
+				}
+		}
 		return keys;
 	}
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.util.collections.DenseIndex;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -63,6 +64,20 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 		this(domain, function, Collections.emptyList(), Collections.emptyList());
 	}
 
+	/**
+	 * Builds an empty dense environment, where identifiers are mapped to slots
+	 * by the given index.
+	 * 
+	 * @param domain a singleton instance to be used during semantic operations
+	 *                   to retrieve top and bottom values
+	 * @param index  the index assigning slots to identifiers
+	 */
+	public HeapEnvironment(T domain, DenseIndex<Identifier> index) {
+		super(domain, index);
+		rewritten = Collections.emptyList();
+		substitution = Collections.emptyList();
+	}
+
 	private HeapEnvironment(T domain, Map<Identifier, T> function, Collection<ValueExpression> rewritten,
 			List<HeapReplacement> substitution) {
 		super(domain, function);
@@ -70,6 +85,12 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 		this.substitution = substitution;
 	}
 
+	private HeapEnvironment(T domain, Map<Identifier, T> function, DenseIndex<Identifier> index) {
+		super(domain, function, index);
+		this.rewritten = Collections.emptyList();
+		this.substitution = Collections.emptyList();
+	}
+
 	@Override
 	public Collection<ValueExpression> getRewrittenExpressions() {
 		return rewritten;
@@ -80,6 +101,17 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 		return substitution;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Heap environments are never hash-consed, since their equality does not
+	 * account for their rewritten expressions and substitution.
+	 */
+	@Override
+	protected boolean isHashConsable() {
+		return false;
+	}
+
 	@Override
 	protected HeapEnvironment<T> copy() {
 		return new HeapEnvironment<T>(lattice, mkNewFunction(function), new ArrayList<>(rewritten),
@@ -114,13 +146,11 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 
 	@Override
 	public HeapEnvironment<T> top() {
-		return isTop() ? this
-				: new HeapEnvironment<>(lattice.top(), null, Collections.emptyList(), Collections.emptyList());
+		return isTop() ? this : new HeapEnvironment<>(lattice.top(), null, index);
 	}
 
 	@Override
 	public HeapEnvironment<T> bottom() {
-		return isBottom() ? this
-				: new HeapEnvironment<>(lattice.bottom(), null, Collections.emptyList(), Collections.emptyList());
+		return isBottom() ? this : new HeapEnvironment<>(lattice.bottom(), null, index);
 	}
 }
\ No newline at end of file
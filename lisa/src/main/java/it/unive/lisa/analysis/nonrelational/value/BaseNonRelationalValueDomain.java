@@ -3,6 +3,8 @@ package it.unive.lisa.analysis.nonrelational.value;
 import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.LatticeCache;
+import it.unive.lisa.caches.LatticeCache.Operation;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.BinaryExpression;
@@ -588,6 +590,9 @@ public abstract class BaseNonRelationalValueDomain<T extends BaseNonRelationalVa
 		if (other.isBottom() || this.isTop() || other.lessOrEqual((T) this))
 			return (T) other;
 
+		LatticeCache cache = LatticeCache.active();
+		if (cache != null && isCacheable())
+			return cache.compute(Operation.GLB, this, other, () -> glbAux(other));
 		return glbAux(other);
 	}
 
@@ -0,0 +1,291 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.DefUseChains;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.FixpointException;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A sparse analysis of a {@link CFG} with a {@link NonRelationalValueDomain}.
+ * Instead of carrying a whole {@link ValueEnvironment} through every
+ * statement, the value of each variable is stored only at the statements
+ * defining it, and it is propagated along the {@link DefUseChains} of the
+ * cfg: the entry environment of a statement contains only the variables that
+ * the statement uses, whose values are the lub of the ones of their reaching
+ * definitions, and a statement is recomputed only when one of such values
+ * changes. Statements are evaluated through their own semantics, on top of a
+ * {@link MonolithicHeap}.<br>
+ * <br>
+ * Identifiers that are not variables of the cfg (e.g., the ones modeling the
+ * heap) are instead tracked flow-insensitively, in a single environment that
+ * is part of the entry environment of every statement. Note that, since
+ * values flow directly from definitions to uses, conditions of branches do
+ * not refine the values of the variables: results are thus always sound, but
+ * can be less precise than the ones of the dense fixpoint (see
+ * {@link CFG#fixpoint(AnalysisState, CallGraph)}).
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <T> the concrete instance of the {@link NonRelationalValueDomain}
+ *                whose instances are computed by this analysis
+ */
+public class SparseValueAnalysis<T extends NonRelationalValueDomain<T>> {
+
+	private static final Logger log = LogManager.getLogger(SparseValueAnalysis.class);
+
+	/**
+	 * The analyzed cfg
+	 */
+	private final CFG cfg;
+
+	/**
+	 * A singleton instance of the domain, used to build environments
+	 */
+	private final T domain;
+
+	/**
+	 * The def-use chains of {@link #cfg}
+	 */
+	private final DefUseChains chains;
+
+	/**
+	 * The variables of {@link #cfg}
+	 */
+	private final Set<Identifier> locals;
+
+	/**
+	 * The values of the variables defined by each statement
+	 */
+	private final Map<Statement, ValueEnvironment<T>> definitions;
+
+	/**
+	 * The values of the variables at the entrypoints
+	 */
+	private ValueEnvironment<T> entry;
+
+	/**
+	 * The values of the identifiers that are not variables of {@link #cfg}
+	 */
+	private ValueEnvironment<T> memory;
+
+	/**
+	 * Builds the analysis.
+	 *
+	 * @param cfg    the cfg to analyze
+	 * @param domain a singleton instance of the domain, used to build
+	 *                   environments
+	 */
+	public SparseValueAnalysis(CFG cfg, T domain) {
+		this.cfg = cfg;
+		this.domain = domain;
+		this.chains = cfg.getDefUseChains();
+		this.locals = new HashSet<>(chains.getVariables());
+		this.definitions = new OffsetMap<>(cfg.getNodesCount());
+		this.entry = new ValueEnvironment<>(domain);
+		this.memory = new ValueEnvironment<>(domain);
+	}
+
+	/**
+	 * Computes the values of the variables, starting from {@code entryState}
+	 * at the entrypoints of the cfg. The values of each definition are
+	 * composed using {@link Lattice#lub(Lattice)} up to {@code widenAfter}
+	 * times, and {@link Lattice#widening(Lattice)} afterwards. Results of
+	 * previous computations are discarded.
+	 *
+	 * @param entryState the entry state of the cfg
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param widenAfter the number of times after which the
+	 *                       {@link Lattice#lub(Lattice)} invocation gets
+	 *                       replaced by the {@link Lattice#widening(Lattice)}
+	 *                       call. Use {@code 0} to <b>always</b> use
+	 *                       {@link Lattice#lub(Lattice)}
+	 *
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement
+	 */
+	public void compute(AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<T>>, MonolithicHeap,
+			ValueEnvironment<T>> entryState, CallGraph cg, int widenAfter) throws FixpointException {
+		int size = cfg.getNodesCount();
+		MonolithicHeap heap = entryState.getState().getHeapState();
+		definitions.clear();
+		entry = entryState.getState().getValueState();
+		Map<Identifier, T> others = new HashMap<>();
+		for (Identifier id : entry.getKeys())
+			if (!locals.contains(id))
+				others.put(id, entry.getState(id));
+		memory = entry.isTop() ? entry : new ValueEnvironment<>(domain, others);
+
+		// unreachable statements are never computed
+		Collection<Statement> reachable = cfg.getStructuralAnalyses().getReversePostorder().getOrder();
+		Deque<Statement> ws = new ArrayDeque<>(reachable);
+		Map<Statement, Boolean> queued = new OffsetMap<>(size);
+		for (Statement node : reachable)
+			queued.put(node, Boolean.TRUE);
+		Map<Statement, Integer> updates = new OffsetMap<>(size);
+		int memoryUpdates = 0;
+
+		try {
+			while (!ws.isEmpty()) {
+				Statement node = ws.remove();
+				queued.put(node, Boolean.FALSE);
+
+				ValueEnvironment<T> env = environmentBefore(node, chains.getUsedVariables(node));
+				AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<T>>, MonolithicHeap,
+						ValueEnvironment<T>> state = new AnalysisState<>(new SimpleAbstractState<>(heap, env),
+								entryState.getComputedExpressions());
+				ValueEnvironment<T> post = node.semantics(state, cg, new StatementStore<>(state)).getState()
+						.getValueState();
+				if (post.isBottom())
+					// the statement cannot terminate normally
+					continue;
+
+				Map<Identifier, T> defined = new HashMap<>();
+				for (String name : chains.getDefinedVariables(node)) {
+					T value = valueOf(post, chains.getVariable(name));
+					if (value != null)
+						defined.put(chains.getVariable(name), value);
+				}
+
+				ValueEnvironment<T> previous = definitions.get(node);
+				ValueEnvironment<T> current = new ValueEnvironment<>(domain, defined);
+				if (previous != null) {
+					if (!current.lessOrEqual(previous)) {
+						int count = updates.merge(node, 1, Integer::sum);
+						current = widenAfter != 0 && count > widenAfter ? previous.widening(current)
+								: previous.lub(current);
+					}
+					if (current.lessOrEqual(previous))
+						// nothing new to propagate
+						current = null;
+				}
+				if (current != null) {
+					definitions.put(node, current);
+					for (Statement use : chains.getUses(node))
+						if (queued.put(use, Boolean.TRUE) == Boolean.FALSE)
+							ws.add(use);
+				}
+
+				ValueEnvironment<T> written;
+				if (post.isTop())
+					written = post;
+				else {
+					Collection<Identifier> meta = node instanceof Expression
+							? ((Expression) node).getMetaVariables()
+							: Collections.emptyList();
+					Map<Identifier, T> values = new HashMap<>();
+					for (Identifier id : post.getKeys())
+						if (!locals.contains(id) && !meta.contains(id))
+							values.put(id, post.getState(id));
+					written = new ValueEnvironment<>(domain, values);
+				}
+				if (!written.lessOrEqual(memory)) {
+					written = widenAfter != 0 && ++memoryUpdates > widenAfter ? memory.widening(written)
+							: memory.lub(written);
+				}
+				if (!written.lessOrEqual(memory)) {
+					memory = written;
+					// every statement can read the memory
+					for (Statement other : reachable)
+						if (queued.put(other, Boolean.TRUE) == Boolean.FALSE)
+							ws.add(other);
+				}
+			}
+		} catch (Exception e) {
+			log.fatal("Unexpected exception during sparse analysis of '" + cfg + "': " + e);
+			throw new FixpointException("Unexpected exception during sparse analysis", e);
+		}
+	}
+
+	private T valueOf(ValueEnvironment<T> env, Identifier id) {
+		if (env.isTop())
+			return domain.top();
+		if (env.isBottom() || !env.getKeys().contains(id))
+			return null;
+		return env.getState(id);
+	}
+
+	private T valueBefore(Statement st, String name) throws SemanticException {
+		Identifier id = chains.getVariable(name);
+		T result = chains.isEntryValueReaching(st, name) ? valueOf(entry, id) : null;
+		for (Statement def : chains.getReachingDefinitions(st, name)) {
+			ValueEnvironment<T> values = definitions.get(def);
+			T value = values == null ? null : valueOf(values, id);
+			if (value != null)
+				result = result == null ? value : result.lub(value);
+		}
+		return result;
+	}
+
+	private ValueEnvironment<T> environmentBefore(Statement st, Collection<String> names) throws SemanticException {
+		if (memory.isTop())
+			return memory;
+		Map<Identifier, T> function = new HashMap<>(memory.getMap());
+		for (String name : names) {
+			T value = valueBefore(st, name);
+			if (value != null)
+				function.put(chains.getVariable(name), value);
+		}
+		return new ValueEnvironment<>(domain, function);
+	}
+
+	/**
+	 * Yields the environment holding the values that the variables of the cfg
+	 * can have before the given statement, together with the values of the
+	 * identifiers that are not variables of the cfg. Variables that are not
+	 * assigned on any path reaching the statement are not part of the
+	 * environment.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the environment before {@code st}
+	 *
+	 * @throws FixpointException if an error occurs while joining the values of
+	 *                               the variables
+	 */
+	public ValueEnvironment<T> getEnvironmentBefore(Statement st) throws FixpointException {
+		Collection<String> names = new HashSet<>();
+		for (Identifier id : locals)
+			names.add(id.getName());
+		try {
+			return environmentBefore(st, names);
+		} catch (SemanticException e) {
+			throw new FixpointException("Unable to compute the environment before '" + st + "'", e);
+		}
+	}
+
+	/**
+	 * Yields the environment holding the values that the variables defined by
+	 * the given statement can have after it.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the values of the defined variables, or {@code null} if
+	 *             {@code st} has not been computed or if it does not define
+	 *             any variable
+	 */
+	public ValueEnvironment<T> getDefinitions(Statement st) {
+		ValueEnvironment<T> values = definitions.get(st);
+		return values == null || values.getKeys().isEmpty() ? null : values;
+	}
+}
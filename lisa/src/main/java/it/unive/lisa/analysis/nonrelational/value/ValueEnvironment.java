@@ -7,6 +7,7 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.util.collections.DenseIndex;
 import java.util.Map;
 
 /**
@@ -46,6 +47,22 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 		super(domain, function);
 	}
 
+	/**
+	 * Builds an empty dense environment, where identifiers are mapped to slots
+	 * by the given index.
+	 * 
+	 * @param domain a singleton instance to be used during semantic operations
+	 *                   to retrieve top and bottom values
+	 * @param index  the index assigning slots to identifiers
+	 */
+	public ValueEnvironment(T domain, DenseIndex<Identifier> index) {
+		super(domain, index);
+	}
+
+	private ValueEnvironment(T domain, Map<Identifier, T> function, DenseIndex<Identifier> index) {
+		super(domain, function, index);
+	}
+
 	@Override
 	protected ValueEnvironment<T> copy() {
 		return new ValueEnvironment<>(lattice, mkNewFunction(function));
@@ -66,11 +83,11 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 
 	@Override
 	public ValueEnvironment<T> top() {
-		return isTop() ? this : new ValueEnvironment<T>(lattice.top(), null);
+		return isTop() ? this : new ValueEnvironment<T>(lattice.top(), null, index);
 	}
 
 	@Override
 	public ValueEnvironment<T> bottom() {
-		return isBottom() ? this : new ValueEnvironment<T>(lattice.bottom(), null);
+		return isBottom() ? this : new ValueEnvironment<T>(lattice.bottom(), null, index);
 	}
 }
\ No newline at end of file
@@ -3,28 +3,194 @@ package it.unive.lisa.caches;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * A holder of {@link ExternalSetCache}s, to ensure that all
  * {@link ExternalSet}s built to hold a given element type will share the same
- * <i>unique</i> cache.
- * 
+ * <i>unique</i> cache.<br>
+ * <br>
+ * Instances of this class are cache contexts, that are owned by the analyses
+ * using them: each {@link it.unive.lisa.LiSA} instance binds its own context
+ * to the threads running its analysis (see {@link #enter(Caches)} and
+ * {@link #bind(Callable)}), so that analyses of different programs can run
+ * concurrently in the same virtual machine. A context can be shared by
+ * several analyses to reuse its contents, or discarded once an analysis ends.
+ * The static methods of this class (e.g., {@link #types()}) always refer to
+ * the context that is {@link #current()} for the calling thread: domains,
+ * analysis states and symbolic expressions can thus reach it without it being
+ * passed around. Threads where no context is bound use a global one.
+ *
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
 public class Caches {
 
+	/**
+	 * The context used by threads where no context has been bound
+	 */
+	private static final Caches GLOBAL = new Caches();
+
+	/**
+	 * The context bound to each thread, if any
+	 */
+	private static final ThreadLocal<Caches> CURRENT = new ThreadLocal<>();
+
 	/**
 	 * The cache of types
 	 */
-	private static final ExternalSetCache<Type> types = new ExternalSetCache<>();
+	private final ExternalSetCache<Type> types = new ExternalSetCache<>();
+
+	/**
+	 * The objects that must be unique within this context, indexed by their
+	 * key
+	 */
+	private final Map<Object, Object> singletons = new ConcurrentHashMap<>();
 
 	/**
-	 * Yields the globally defined cache for {@link ExternalSet}s containing
-	 * {@link Type}s.
-	 * 
+	 * The hash-consing table of this context
+	 */
+	private final HashConsing hashConsing = new HashConsing();
+
+	/**
+	 * The cache of the results of lattice operations of this context
+	 */
+	private final LatticeCache latticeCache = new LatticeCache();
+
+	/**
+	 * Yields the cache for {@link ExternalSet}s containing {@link Type}s of
+	 * this context.
+	 *
 	 * @return the types cache
 	 */
-	public static ExternalSetCache<Type> types() {
+	public ExternalSetCache<Type> getTypes() {
 		return types;
 	}
+
+	/**
+	 * Yields the hash-consing table of this context. Hash-consing is disabled
+	 * until {@link HashConsing#enable()} is invoked on the returned table.
+	 *
+	 * @return the hash-consing table
+	 */
+	public HashConsing getHashConsing() {
+		return hashConsing;
+	}
+
+	/**
+	 * Yields the cache of the results of lattice operations of this context.
+	 * Caching is disabled until {@link LatticeCache#enable(int)} is invoked on
+	 * the returned cache.
+	 *
+	 * @return the lattice cache
+	 */
+	public LatticeCache getLatticeCache() {
+		return latticeCache;
+	}
+
+	/**
+	 * Yields the object associated with the given key in this context,
+	 * building it through {@code builder} the first time it is requested.
+	 * This can be used for objects that must be unique within an analysis
+	 * and that depend on the caches of this context (e.g., the top and bottom
+	 * elements of lattices built over {@link ExternalSet}s).
+	 *
+	 * @param <V>     the type of the object
+	 * @param key     the key identifying the object
+	 * @param builder the function building the object from this context
+	 *
+	 * @return the object associated with {@code key}
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V getSingleton(Object key, Function<Caches, ? extends V> builder) {
+		Object result = singletons.get(key);
+		if (result == null)
+			result = singletons.computeIfAbsent(key, k -> builder.apply(this));
+		return (V) result;
+	}
+
+	/**
+	 * Cleans this context, removing all elements from its caches.
+	 */
+	public void clear() {
+		types.clear();
+		singletons.clear();
+		hashConsing.clear();
+		latticeCache.clear();
+	}
+
+	/**
+	 * Yields the context bound to the calling thread, or the global one if no
+	 * context has been bound.
+	 *
+	 * @return the current context
+	 */
+	public static Caches current() {
+		Caches current = CURRENT.get();
+		return current == null ? GLOBAL : current;
+	}
+
+	/**
+	 * Binds the given context to the calling thread. The returned value must
+	 * be passed to {@link #exit(Caches)} once the context is no longer needed,
+	 * to restore the previous binding.
+	 *
+	 * @param caches the context to bind
+	 *
+	 * @return the context that was previously bound to the calling thread, or
+	 *             {@code null}
+	 */
+	public static Caches enter(Caches caches) {
+		Caches previous = CURRENT.get();
+		CURRENT.set(caches);
+		return previous;
+	}
+
+	/**
+	 * Restores the binding that the calling thread had before a call to
+	 * {@link #enter(Caches)}.
+	 *
+	 * @param previous the value returned by {@link #enter(Caches)}
+	 */
+	public static void exit(Caches previous) {
+		if (previous == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(previous);
+	}
+
+	/**
+	 * Wraps the given task so that it runs with the context that is current
+	 * for the calling thread, regardless of the thread that executes it. This
+	 * must be used for tasks that are submitted to other threads during an
+	 * analysis.
+	 *
+	 * @param <V>  the type of the result of the task
+	 * @param task the task to wrap
+	 *
+	 * @return the wrapped task
+	 */
+	public static <V> Callable<V> bind(Callable<V> task) {
+		Caches caches = current();
+		return () -> {
+			Caches previous = enter(caches);
+			try {
+				return task.call();
+			} finally {
+				exit(previous);
+			}
+		};
+	}
+
+	/**
+	 * Yields the cache for {@link ExternalSet}s containing {@link Type}s of the
+	 * {@link #current()} context.
+	 *
+	 * @return the types cache
+	 */
+	public static ExternalSetCache<Type> types() {
+		return current().getTypes();
+	}
 }
@@ -0,0 +1,243 @@
+package it.unive.lisa.caches;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An opt-in hash-consing table for immutable objects, and in particular for
+ * abstract values and environments. When enabled, equal objects passed to
+ * {@link #canonicalize(Object)} are mapped to a single, canonical instance:
+ * lattice operations on canonical instances can then be decided through
+ * reference equality (see the fast paths of
+ * {@link it.unive.lisa.analysis.BaseLattice}), avoiding structural
+ * comparisons. When disabled (the default), {@link #canonicalize(Object)}
+ * returns its argument unchanged.<br>
+ * <br>
+ * Each instance of this class is owned by a {@link Caches} context (see
+ * {@link Caches#getHashConsing()}), so that analyses running with different
+ * contexts never share canonical instances nor enable or disable
+ * hash-consing for each other. Canonical instances are stored in a separate
+ * {@link Factory} for each domain (that is, for each concrete class), and they
+ * are only weakly referenced: instances that are no longer used by the
+ * analysis can be garbage collected. Only objects whose
+ * {@link Object#equals(Object)} and {@link Object#hashCode()} never change,
+ * and such that equal objects are interchangeable, can be canonicalized.
+ * Since each lookup computes the hash code of its argument, objects with
+ * expensive hash codes should cache them (as environments do, see
+ * {@link it.unive.lisa.util.collections.PersistentHashMap#hashCode()}). This
+ * class is thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class HashConsing {
+
+	/**
+	 * The factories of canonical instances, one for each domain
+	 */
+	private final Map<Class<?>, Factory<?>> factories = new ConcurrentHashMap<>();
+
+	/**
+	 * Whether or not hash-consing is enabled
+	 */
+	private volatile boolean enabled = false;
+
+	/**
+	 * Enables hash-consing.
+	 */
+	public void enable() {
+		enabled = true;
+	}
+
+	/**
+	 * Disables hash-consing, dropping all the canonical instances.
+	 */
+	public void disable() {
+		enabled = false;
+		clear();
+	}
+
+	/**
+	 * Drops all the canonical instances, without disabling hash-consing.
+	 */
+	public void clear() {
+		factories.clear();
+	}
+
+	/**
+	 * Yields whether or not hash-consing is enabled.
+	 * 
+	 * @return {@code true} if hash-consing is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Yields the factory of the canonical instances of the given domain.
+	 * 
+	 * @param <T>    the type of the domain
+	 * @param domain the concrete class of the domain
+	 * 
+	 * @return the factory
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Factory<T> getFactory(Class<T> domain) {
+		Factory<?> factory = factories.get(domain);
+		if (factory == null)
+			factory = factories.computeIfAbsent(domain, k -> new Factory<>());
+		return (Factory<T>) factory;
+	}
+
+	/**
+	 * Yields the domains that have at least one canonical instance.
+	 * 
+	 * @return the classes of the domains
+	 */
+	public Collection<Class<?>> getDomains() {
+		return Collections.unmodifiableCollection(factories.keySet());
+	}
+
+	/**
+	 * Yields the canonical instance of the given object, that is, the first
+	 * object equal to {@code value} that has been passed to this method since
+	 * hash-consing has been enabled and that has not been garbage collected.
+	 * If hash-consing is disabled, or if {@code value} is {@code null},
+	 * {@code value} is returned.
+	 * 
+	 * @param <T>   the type of the object
+	 * @param value the object to canonicalize
+	 * 
+	 * @return the canonical instance
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T canonicalize(T value) {
+		if (!enabled || value == null)
+			return value;
+		return getFactory((Class<T>) value.getClass()).canonical(value);
+	}
+
+	/**
+	 * Yields the number of canonical instances currently stored, for all
+	 * domains.
+	 * 
+	 * @return the number of canonical instances
+	 */
+	public int size() {
+		int size = 0;
+		for (Factory<?> factory : factories.values())
+			size += factory.size();
+		return size;
+	}
+
+	/**
+	 * Yields the canonical instance of the given object in the
+	 * {@link Caches#current()} context (see {@link #canonicalize(Object)}).
+	 * 
+	 * @param <T>   the type of the object
+	 * @param value the object to canonicalize
+	 * 
+	 * @return the canonical instance
+	 */
+	public static <T> T canonical(T value) {
+		return Caches.current().getHashConsing().canonicalize(value);
+	}
+
+	/**
+	 * The canonical instances of a single domain. Instances are stored in
+	 * weak tables that are split into segments, so that threads
+	 * canonicalizing different objects rarely contend for the same lock.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <T> the type of the domain
+	 */
+	public static final class Factory<T> {
+
+		/**
+		 * The number of segments, a power of two
+		 */
+		private static final int SEGMENTS = 16;
+
+		/**
+		 * The segments of the table: each canonical instance is a weak key
+		 * mapped to a weak reference to itself
+		 */
+		private final List<Map<T, WeakReference<T>>> segments;
+
+		private final LongAdder hits = new LongAdder();
+
+		private final LongAdder misses = new LongAdder();
+
+		private Factory() {
+			segments = new ArrayList<>(SEGMENTS);
+			for (int i = 0; i < SEGMENTS; i++)
+				segments.add(new WeakHashMap<>());
+		}
+
+		/**
+		 * Yields the canonical instance of the given object, that is, the
+		 * first object equal to {@code value} that has been passed to this
+		 * method and that has not been garbage collected.
+		 * 
+		 * @param value the object to canonicalize, not {@code null}
+		 * 
+		 * @return the canonical instance
+		 */
+		public T canonical(T value) {
+			int hash = value.hashCode();
+			Map<T, WeakReference<T>> segment = segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+			synchronized (segment) {
+				WeakReference<T> ref = segment.get(value);
+				T canonical = ref == null ? null : ref.get();
+				if (canonical != null) {
+					hits.increment();
+					return canonical;
+				}
+				segment.put(value, new WeakReference<>(value));
+			}
+			misses.increment();
+			return value;
+		}
+
+		/**
+		 * Yields the number of canonical instances currently stored.
+		 * 
+		 * @return the number of canonical instances
+		 */
+		public int size() {
+			int size = 0;
+			for (Map<T, WeakReference<T>> segment : segments)
+				synchronized (segment) {
+					size += segment.size();
+				}
+			return size;
+		}
+
+		/**
+		 * Yields the number of objects passed to {@link #canonical(Object)}
+		 * that were replaced by a canonical instance.
+		 * 
+		 * @return the number of hits
+		 */
+		public long getHits() {
+			return hits.sum();
+		}
+
+		/**
+		 * Yields the number of objects passed to {@link #canonical(Object)}
+		 * that became canonical instances.
+		 * 
+		 * @return the number of misses
+		 */
+		public long getMisses() {
+			return misses.sum();
+		}
+	}
+}
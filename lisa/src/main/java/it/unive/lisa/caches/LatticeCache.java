@@ -0,0 +1,383 @@
+package it.unive.lisa.caches;
+
+import it.unive.lisa.analysis.SemanticException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An opt-in memoization table for the results of lattice operations (lub,
+ * widening, glb and &le;) of {@link it.unive.lisa.analysis.BaseLattice}s and
+ * of the domains defining a glb. When enabled, the result of an operation is
+ * stored in a bounded table, keyed by the operation and by the identity of its
+ * operands: computing the same operation on the same instances (that is
+ * frequent across the iterations of a fixpoint, especially if values are
+ * hash-consed through {@link HashConsing}) then yields the stored result.
+ * When disabled (the default), operations are always computed.<br>
+ * <br>
+ * Each instance of this class is owned by a {@link Caches} context (see
+ * {@link Caches#getLatticeCache()}), so that analyses running with different
+ * contexts never share results nor enable, disable or resize caches for each
+ * other. Lattice operations use the cache of the context bound to the
+ * calling thread, if enabled (see {@link #active()}).<br>
+ * <br>
+ * Each domain, identified by the class of the receiver of the operation, has
+ * its own table, holding at most the number of results specified through
+ * {@link #enable(int)} or {@link #setCapacity(Class, int)}: when a table is
+ * full, the least recently used result is evicted. Each table counts its hits
+ * and misses ({@link #getHits(Class)}, {@link #getMisses(Class)}), to tune
+ * capacities. Tables hold strong references to the operands and results they
+ * contain, and they are dropped each time the cache gets disabled. Only
+ * immutable lattice elements can be cached. This class is thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class LatticeCache {
+
+	/**
+	 * The lattice operations whose results can be cached.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Operation {
+		/**
+		 * The least upper bound
+		 */
+		LUB,
+
+		/**
+		 * The widening
+		 */
+		WIDENING,
+
+		/**
+		 * The greatest lower bound
+		 */
+		GLB,
+
+		/**
+		 * The partial order (&le;)
+		 */
+		LESS_OR_EQUAL
+	}
+
+	/**
+	 * A computation of the result of a lattice operation.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 *
+	 * @param <T> the type of the result
+	 */
+	@FunctionalInterface
+	public interface Computation<T> {
+
+		/**
+		 * Computes the result.
+		 *
+		 * @return the result
+		 *
+		 * @throws SemanticException if an error occurs during the computation
+		 */
+		T compute() throws SemanticException;
+	}
+
+	/**
+	 * The number of enabled caches, used to avoid looking up the current
+	 * context when no cache is enabled
+	 */
+	private static final AtomicInteger ENABLED = new AtomicInteger();
+
+	/**
+	 * Whether or not caching is enabled
+	 */
+	private volatile boolean enabled = false;
+
+	/**
+	 * The default capacity of the tables
+	 */
+	private volatile int capacity = 0;
+
+	/**
+	 * The capacities of the tables of specific domains
+	 */
+	private final Map<Class<?>, Integer> capacities = new ConcurrentHashMap<>();
+
+	/**
+	 * The tables of each domain
+	 */
+	private final Map<Class<?>, Table> tables = new ConcurrentHashMap<>();
+
+	/**
+	 * Enables caching, using tables that hold at most {@code capacity} results
+	 * for the domains whose capacity has not been set through
+	 * {@link #setCapacity(Class, int)}. A default capacity of {@code 0} enables
+	 * caching only for the domains with a positive capacity.
+	 *
+	 * @param capacity the default capacity of the tables
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is negative
+	 */
+	public synchronized void enable(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity of the lattice cache cannot be negative");
+		if (this.capacity != capacity)
+			tables.clear();
+		this.capacity = capacity;
+		if (!enabled) {
+			enabled = true;
+			ENABLED.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Disables caching, dropping all the tables together with their counters.
+	 * Capacities set through {@link #setCapacity(Class, int)} are retained.
+	 */
+	public synchronized void disable() {
+		if (enabled) {
+			enabled = false;
+			ENABLED.decrementAndGet();
+		}
+		capacity = 0;
+		clear();
+	}
+
+	/**
+	 * Drops all the tables together with their counters, without disabling
+	 * caching.
+	 */
+	public void clear() {
+		tables.clear();
+	}
+
+	/**
+	 * Yields whether or not caching is enabled.
+	 *
+	 * @return {@code true} if caching is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets the capacity of the table of the given domain, overriding the
+	 * default one. A capacity of {@code 0} disables caching for the domain.
+	 * The current table of the domain, if any, is dropped.
+	 *
+	 * @param domain   the class of the domain
+	 * @param capacity the capacity of its table
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is negative
+	 */
+	public void setCapacity(Class<?> domain, int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity of the lattice cache cannot be negative");
+		capacities.put(domain, capacity);
+		tables.remove(domain);
+	}
+
+	/**
+	 * Drops all the capacities set through {@link #setCapacity(Class, int)},
+	 * together with the tables of the corresponding domains.
+	 */
+	public void resetCapacities() {
+		for (Class<?> domain : capacities.keySet())
+			tables.remove(domain);
+		capacities.clear();
+	}
+
+	/**
+	 * Yields the result of {@code operation} between {@code first} and
+	 * {@code second}, either by retrieving it from the table of the class of
+	 * {@code first} or through {@code computation}. In the latter case, the
+	 * result is stored in the table.
+	 *
+	 * @param <T>         the type of the result
+	 * @param operation   the operation
+	 * @param first       the receiver of the operation
+	 * @param second      the argument of the operation
+	 * @param computation the computation of the result, used if the result is
+	 *                        not cached
+	 *
+	 * @return the result of the operation
+	 *
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T compute(Operation operation, Object first, Object second, Computation<T> computation)
+			throws SemanticException {
+		if (!enabled)
+			return computation.compute();
+
+		Table table = tables.get(first.getClass());
+		if (table == null)
+			table = tables.computeIfAbsent(first.getClass(),
+					domain -> new Table(capacities.getOrDefault(domain, capacity)));
+		if (table.capacity == 0)
+			return computation.compute();
+
+		Key key = new Key(operation, first, second);
+		Object cached = table.get(key);
+		if (cached != null)
+			return (T) cached;
+
+		T result = computation.compute();
+		if (result != null)
+			table.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Yields the domains that currently have a table.
+	 *
+	 * @return the classes of the domains
+	 */
+	public Set<Class<?>> getDomains() {
+		return Collections.unmodifiableSet(tables.keySet());
+	}
+
+	/**
+	 * Yields the number of operations of the given domain whose result was
+	 * found in the cache since caching has been enabled.
+	 *
+	 * @param domain the class of the domain
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits(Class<?> domain) {
+		Table table = tables.get(domain);
+		return table == null ? 0 : table.hits();
+	}
+
+	/**
+	 * Yields the number of operations of the given domain whose result had to
+	 * be computed since caching has been enabled.
+	 *
+	 * @param domain the class of the domain
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses(Class<?> domain) {
+		Table table = tables.get(domain);
+		return table == null ? 0 : table.misses();
+	}
+
+	/**
+	 * Yields the number of results currently stored for the given domain.
+	 *
+	 * @param domain the class of the domain
+	 *
+	 * @return the number of results
+	 */
+	public int size(Class<?> domain) {
+		Table table = tables.get(domain);
+		return table == null ? 0 : table.size();
+	}
+
+	/**
+	 * Yields the cache of the {@link Caches#current()} context, if it is
+	 * enabled. Lattice operations should use the cache only if this method
+	 * does not return {@code null}.
+	 *
+	 * @return the enabled cache of the current context, or {@code null}
+	 */
+	public static LatticeCache active() {
+		if (ENABLED.get() == 0)
+			return null;
+		LatticeCache cache = Caches.current().getLatticeCache();
+		return cache.enabled ? cache : null;
+	}
+
+	/**
+	 * The key of a cached result, comparing operands by identity
+	 */
+	private static final class Key {
+
+		private final Operation operation;
+
+		private final Object first;
+
+		private final Object second;
+
+		private final int hash;
+
+		private Key(Operation operation, Object first, Object second) {
+			this.operation = operation;
+			this.first = first;
+			this.second = second;
+			this.hash = 31 * (31 * operation.hashCode() + System.identityHashCode(first))
+					+ System.identityHashCode(second);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return operation == other.operation && first == other.first && second == other.second;
+		}
+	}
+
+	/**
+	 * A bounded table of results, evicting the least recently used one when
+	 * full
+	 */
+	private static final class Table {
+
+		private final int capacity;
+
+		private final LinkedHashMap<Key, Object> results;
+
+		private long hits;
+
+		private long misses;
+
+		private Table(int capacity) {
+			this.capacity = capacity;
+			this.results = new LinkedHashMap<>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+					return size() > Table.this.capacity;
+				}
+			};
+		}
+
+		private synchronized Object get(Key key) {
+			Object result = results.get(key);
+			if (result == null)
+				misses++;
+			else
+				hits++;
+			return result;
+		}
+
+		private synchronized void put(Key key, Object result) {
+			results.put(key, result);
+		}
+
+		private synchronized long hits() {
+			return hits;
+		}
+
+		private synchronized long misses() {
+			return misses;
+		}
+
+		private synchronized int size() {
+			return results.size();
+		}
+	}
+}
@@ -16,6 +16,7 @@ import it.unive.lisa.program.cfg.statement.OpenCall;
 import it.unive.lisa.program.cfg.statement.UnresolvedCall;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import java.util.Collection;
 
@@ -76,8 +77,33 @@ public interface CallGraph {
 	 * @throws FixpointException if something goes wrong while evaluating the
 	 *                               fixpoint
 	 */
-	<A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+	default <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
 			AnalysisState<A, H, V> entryState)
+			throws FixpointException {
+		fixpoint(entryState, new FixpointConfiguration());
+	}
+
+	/**
+	 * Computes a fixpoint over the whole control flow graph, producing a
+	 * {@link CFGWithAnalysisResults} for each {@link CFG} contained in this
+	 * callgraph. Each result is computed with
+	 * {@link CFG#fixpoint(AnalysisState, CallGraph, FixpointConfiguration)},
+	 * following the options contained in {@code conf}. Results of individual
+	 * cfgs are then available through {@link #getAnalysisResultsOf(CFG)}.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} to compute
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param entryState the entry state for the {@link CFG}s that are the
+	 *                       entrypoints of the computation
+	 * @param conf       the {@link FixpointConfiguration} driving the
+	 *                       computation
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	<A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf)
 			throws FixpointException;
 
 	/**
@@ -10,6 +10,7 @@ import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.callgraph.CallGraphConstructionException;
 import it.unive.lisa.callgraph.CallResolutionException;
+import it.unive.lisa.logging.Counter;
 import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Program;
@@ -26,13 +27,20 @@ import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.PushAny;
 import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -51,6 +59,8 @@ public class IntraproceduralCallGraph implements CallGraph {
 
 	private static final Logger log = LogManager.getLogger(IntraproceduralCallGraph.class);
 
+	private static final String FIXPOINT_MESSAGE = "Computing fixpoint over the whole program";
+
 	/**
 	 * The cash of the fixpoints' results. {@link Map#keySet()} will contain all
 	 * the cfgs that have been added. If a key's values's
@@ -125,14 +135,59 @@ public class IntraproceduralCallGraph implements CallGraph {
 
 	@Override
 	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
-			AnalysisState<A, H, V> entryState) throws FixpointException {
-		for (CFG cfg : IterationLogger.iterate(log, program.getAllCFGs(), "Computing fixpoint over the whole program",
-				"cfgs"))
-			try {
-				results.put(cfg, Optional.of(cfg.fixpoint(prepare(entryState, cfg), this)));
-			} catch (SemanticException e) {
-				throw new FixpointException("Error while creating the entrystate for " + cfg, e);
-			}
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf) throws FixpointException {
+		if (conf.getParallelism() > 1) {
+			parallelFixpoint(entryState, conf);
+			return;
+		}
+
+		for (CFG cfg : IterationLogger.iterate(log, program.getAllCFGs(), FIXPOINT_MESSAGE, "cfgs"))
+			fixpoint(cfg, entryState, conf);
+	}
+
+	/**
+	 * Computes the fixpoints of all the cfgs of the program using a pool of
+	 * {@link FixpointConfiguration#getParallelism()} threads. Since cfgs are
+	 * analyzed intraprocedurally, each fixpoint is independent from the others
+	 * and only writes its own entry of {@link #results}.
+	 */
+	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void parallelFixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf) throws FixpointException {
+		Collection<CFG> cfgs = program.getAllCFGs();
+		Counter counter = new Counter(log, Level.INFO, FIXPOINT_MESSAGE, "cfgs", cfgs.size(), 0.025);
+		ExecutorService executor = Executors.newFixedThreadPool(conf.getParallelism());
+		List<Future<?>> tasks = new ArrayList<>(cfgs.size());
+		counter.on();
+		try {
+			for (CFG cfg : cfgs)
+				tasks.add(executor.submit(Caches.bind(() -> {
+					fixpoint(cfg, entryState, conf);
+					counter.count();
+					return null;
+				})));
+
+			for (Future<?> task : tasks)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FixpointException("Interrupted while computing the fixpoint over the whole program", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof FixpointException)
+				throw (FixpointException) e.getCause();
+			throw new FixpointException("Exception while computing the fixpoint over the whole program", e.getCause());
+		} finally {
+			executor.shutdownNow();
+			counter.off();
+		}
+	}
+
+	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			CFG cfg, AnalysisState<A, H, V> entryState, FixpointConfiguration conf) throws FixpointException {
+		try {
+			results.put(cfg, Optional.of(cfg.fixpoint(prepare(entryState, cfg), this, conf)));
+		} catch (SemanticException e) {
+			throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+		}
 	}
 
 	private <A extends AbstractState<A, H, V>,
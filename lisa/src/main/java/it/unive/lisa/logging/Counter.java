@@ -86,7 +86,7 @@ public final class Counter {
 	 * 
 	 * @return the current count
 	 */
-	public int getCurrentCount() {
+	public synchronized int getCurrentCount() {
 		return count;
 	}
 
@@ -95,7 +95,7 @@ public final class Counter {
 	 * 
 	 * @throws IllegalStateException if the counter is already logging
 	 */
-	public void on() {
+	public synchronized void on() {
 		if (logging)
 			throw new IllegalStateException("This counter is already logging");
 		logging = true;
@@ -108,7 +108,7 @@ public final class Counter {
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
-	public boolean isLogging() {
+	public synchronized boolean isLogging() {
 		return logging;
 	}
 
@@ -124,7 +124,7 @@ public final class Counter {
 	/**
 	 * Turns off the counter, logging the event.
 	 */
-	public void off() {
+	public synchronized void off() {
 		if (!logging)
 			return;
 
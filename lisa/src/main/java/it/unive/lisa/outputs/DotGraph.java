@@ -3,6 +3,7 @@ package it.unive.lisa.outputs;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.Graph;
 import it.unive.lisa.util.datastructures.graph.Node;
+import it.unive.lisa.util.datastructures.graph.algorithms.ColorRefinement;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -10,11 +11,9 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.Function;
@@ -244,68 +243,37 @@ public abstract class DotGraph<N extends Node<N, E, G>, E extends Edge<N, E, G>,
 		if (first.getEdgeCount() != second.getEdgeCount())
 			return false;
 
-		Map<org.graphstream.graph.Node, String> fMapping = new IdentityHashMap<>(), sMapping = new IdentityHashMap<>();
-		// we use lists to allow duplicates: different nodes might have the same
-		// label
-		List<String> fNodes = new ArrayList<>(), sNodes = new ArrayList<>();
-		List<String> fEntries = new ArrayList<>(), sEntries = new ArrayList<>();
-		List<String> fExits = new ArrayList<>(), sExits = new ArrayList<>();
-		parseNodes(first, fMapping, fNodes, fEntries, fExits);
-		parseNodes(second, sMapping, sNodes, sEntries, sExits);
-
-		if (!fEntries.equals(sEntries) || !fExits.equals(sExits) || !fNodes.equals(sNodes))
-			// we start comparing from the smaller set for fast-failing
-			return false;
-
-		List<String> fEdges = new ArrayList<>(), sEdges = new ArrayList<>();
-		parseEdges(first, fMapping, fNodes, fEdges);
-		parseEdges(second, sMapping, sNodes, sEdges);
-
-		if (!fEdges.equals(sEdges))
-			return false;
-
-		return true;
-	}
-
-	private static void parseEdges(org.graphstream.graph.Graph g, Map<org.graphstream.graph.Node, String> mapping,
-			List<String> nodes, List<String> edges) {
-		g.edges().forEach(e -> {
-			// TODO the indexOf will return the index of the first node with
-			// that label, so edges targeting or originating different nodes
-			// might be collapsed on that one. This is a problem for graphs with
-			// nodes having the same label
-			int source = nodes.indexOf(mapping.get(e.getSourceNode()));
-			int dest = nodes.indexOf(mapping.get(e.getTargetNode()));
-
-			String middle = "";
-			if (e.hasAttribute(STYLE))
-				middle += "_" + e.getAttribute(STYLE) + "_";
-			if (e.hasAttribute(COLOR))
-				middle += "_" + e.getAttribute(COLOR) + "_";
-			edges.add(source + middle + dest);
-		});
-		Collections.sort(edges);
+		// nodes are not matched by label only, since different nodes might
+		// have the same label: the two graphs are compared through color
+		// refinement, that takes into account the structure of the graphs
+		return toColorRefinement(first).areEquivalent(toColorRefinement(second));
 	}
 
-	private static void parseNodes(org.graphstream.graph.Graph g, Map<org.graphstream.graph.Node, String> mapping,
-			List<String> nodes, List<String> entries,
-			List<String> exits) {
+	private static ColorRefinement toColorRefinement(org.graphstream.graph.Graph g) {
+		ColorRefinement result = new ColorRefinement();
+		Map<org.graphstream.graph.Node, Integer> mapping = new IdentityHashMap<>();
 		g.nodes().forEach(n -> {
 			String label = n.getAttribute(LABEL, String.class);
-			mapping.put(n, label);
-			nodes.add(label);
-
+			String kind = "";
 			if (n.hasArray(COLOR) && n.getAttribute(COLOR).equals(SPECIAL_NODE_COLOR))
 				if (n.hasAttribute(EXIT_NODE_EXTRA_ATTR)
 						&& n.getAttribute(EXIT_NODE_EXTRA_ATTR).equals(EXIT_NODE_EXTRA_VALUE))
-					exits.add(label);
+					kind = "exit";
 				else
-					entries.add(label);
+					kind = "entry";
+			mapping.put(n, result.addNode(Arrays.asList(label, kind)));
 		});
 
-		Collections.sort(nodes);
-		Collections.sort(entries);
-		Collections.sort(exits);
+		g.edges().forEach(e -> {
+			String middle = "";
+			if (e.hasAttribute(STYLE))
+				middle += "_" + e.getAttribute(STYLE) + "_";
+			if (e.hasAttribute(COLOR))
+				middle += "_" + e.getAttribute(COLOR) + "_";
+			result.addEdge(mapping.get(e.getSourceNode()), mapping.get(e.getTargetNode()), middle);
+		});
+
+		return result;
 	}
 
 	@Override
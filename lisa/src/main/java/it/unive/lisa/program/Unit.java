@@ -359,7 +359,8 @@ public abstract class Unit implements CodeElement {
 	 * code members exist in this unit whose signatures matches one another,
 	 * according to {@link CFGDescriptor#matchesSignature(CFGDescriptor)}. This
 	 * avoids ambiguous call resolution. Moreover, this ensures that all
-	 * {@link CFG}s are valid, according to {@link CFG#validate()}.
+	 * {@link CFG}s are valid, according to {@link CFG#validate()}, and
+	 * {@link CFG#freeze() freezes} them.
 	 * 
 	 * @throws ProgramValidationException if the program has an invalid
 	 *                                        structure
@@ -372,8 +373,11 @@ public abstract class Unit implements CodeElement {
 						cfg.getDescriptor().getSignature() + " is duplicated within unit " + this);
 		}
 
-		for (CFG cfg : getAllCFGs())
+		for (CFG cfg : getAllCFGs()) {
 			cfg.validate();
+			// cfgs are not modified after validation
+			cfg.freeze();
+		}
 	}
 
 	@Override
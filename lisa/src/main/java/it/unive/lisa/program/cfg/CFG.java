@@ -21,20 +21,28 @@ import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import it.unive.lisa.util.datastructures.graph.FixpointGraph;
+import it.unive.lisa.util.datastructures.graph.FixpointGraph.SemanticFunction;
+import it.unive.lisa.util.datastructures.graph.FixpointStrategy;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import it.unive.lisa.util.workset.ArrayFIFOWorkingSet;
 import it.unive.lisa.util.workset.FIFOWorkingSet;
+import it.unive.lisa.util.workset.ReversePostorderWorkingSet;
 import it.unive.lisa.util.workset.WorkingSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -48,11 +56,29 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 
 	private static final Logger log = LogManager.getLogger(CFG.class);
 
+	private static final Object NORMAL_EXITS = new Object();
+
+	private static final Object EXCEPTIONAL_EXITS = new Object();
+
+	private static final Object ALL_EXITS = new Object();
+
+	private static final Object LIVENESS = new Object();
+
+	private static final Object DEF_USE = new Object();
+
 	/**
 	 * The descriptor of this control flow graph.
 	 */
 	private final CFGDescriptor descriptor;
 
+	/**
+	 * The variables of {@link #descriptor} indexed by the statement where
+	 * their scope ends, together with the versions of the adjacency matrix
+	 * and of the variable table when the index has been built by
+	 * {@link #freeze()}
+	 */
+	private volatile Triple<Integer, Integer, Map<Statement, List<VariableTableEntry>>> scopeEnds;
+
 	/**
 	 * Builds the control flow graph.
 	 * 
@@ -86,6 +112,7 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 	protected CFG(CFG other) {
 		super(other.entrypoints, other.adjacencyMatrix);
 		this.descriptor = other.descriptor;
+		this.scopeEnds = other.scopeEnds;
 	}
 
 	/**
@@ -107,8 +134,19 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 	 * @return the normal exitpoints of this cfg.
 	 */
 	public final Collection<Statement> getNormalExitpoints() {
-		return adjacencyMatrix.getNodes().stream().filter(st -> st.stopsExecution() && !st.throwsError())
-				.collect(Collectors.toList());
+		return getStructuralAnalyses().getNodesSatisfying(NORMAL_EXITS, st -> st.stopsExecution() && !st.throwsError());
+	}
+
+	/**
+	 * Yields the statements of this control flow graph that are exceptional
+	 * exitpoints, that is, that end the execution of this cfg by throwing an
+	 * error (i.e., all such statements on which {@link Statement#throwsError()}
+	 * holds).
+	 * 
+	 * @return the exceptional exitpoints of this cfg.
+	 */
+	public final Collection<Statement> getExceptionalExitpoints() {
+		return getStructuralAnalyses().getNodesSatisfying(EXCEPTIONAL_EXITS, Statement::throwsError);
 	}
 
 	/**
@@ -121,8 +159,7 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 	 * @return the exitpoints of this cfg.
 	 */
 	public final Collection<Statement> getAllExitpoints() {
-		return adjacencyMatrix.getNodes().stream().filter(st -> st.stopsExecution() || st.throwsError())
-				.collect(Collectors.toList());
+		return getStructuralAnalyses().getNodesSatisfying(ALL_EXITS, st -> st.stopsExecution() || st.throwsError());
 	}
 
 	@Override
@@ -153,6 +190,25 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 		super.simplify(NoOp.class);
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Freezing a cfg also indexes the variables of its descriptor by the
+	 * statement where their scope ends, so that
+	 * {@link #cleanUpPostState(Statement, AnalysisState)} does not need to
+	 * scan the whole variable table. The index is discarded as soon as the cfg
+	 * or its variable table are modified.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		Map<Statement, List<VariableTableEntry>> index = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+		for (VariableTableEntry entry : descriptor.getVariables())
+			if (entry.getScopeEnd() != null)
+				index.computeIfAbsent(entry.getScopeEnd(), st -> new LinkedList<>()).add(entry);
+		scopeEnds = Triple.of(adjacencyMatrix.getVersion(), descriptor.getVariablesVersion(), index);
+	}
+
 	/**
 	 * Computes a fixpoint over this control flow graph. This method returns a
 	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
@@ -741,6 +797,140 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 						(StatementStore) expressions)));
 	}
 
+	/**
+	 * Computes a fixpoint over this control flow graph. This method returns a
+	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
+	 * the {@link AnalysisState} computed by this method. The iteration strategy
+	 * and the widening threshold are the ones contained in {@code conf} (see
+	 * {@link FixpointStrategy} for the available strategies). The computation
+	 * starts at the statements returned by {@link #getEntrypoints()}, using
+	 * {@code entryState} as entry state for all of them. {@code cg} will be
+	 * invoked to get the approximation of all invoked cfgs. If the
+	 * {@link FixpointStrategy#WORKLIST} strategy is used, a fresh instance of
+	 * {@link ArrayFIFOWorkingSet} is used as working set for the statements to
+	 * process, while {@link FixpointStrategy#REVERSE_POSTORDER_WORKLIST} uses
+	 * a {@link ReversePostorderWorkingSet} built on this cfg.
+	 * {@link FixpointStrategy#BASIC_BLOCKS} yields results that are (partially)
+	 * recomputed when queried.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} contained into the
+	 *                       analysis state
+	 * @param <H>        the type of {@link HeapDomain} contained into the
+	 *                       computed abstract state
+	 * @param <V>        the type of {@link ValueDomain} contained into the
+	 *                       computed abstract state
+	 * @param entryState the entry states to apply to each {@link Statement}
+	 *                       returned by {@link #getEntrypoints()}
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param conf       the {@link FixpointConfiguration} driving the
+	 *                       computation
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public final <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> fixpoint(
+					AnalysisState<A, H, V> entryState, CallGraph cg, FixpointConfiguration conf)
+					throws FixpointException {
+		Map<Statement, AnalysisState<A, H, V>> start = new HashMap<>();
+		entrypoints.forEach(e -> start.put(e, entryState));
+		return fixpoint(start, cg, conf);
+	}
+
+	/**
+	 * Computes a fixpoint over this control flow graph. This method returns a
+	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
+	 * the {@link AnalysisState} computed by this method. The iteration strategy
+	 * and the widening threshold are the ones contained in {@code conf} (see
+	 * {@link FixpointStrategy} for the available strategies). The computation
+	 * starts at the statements in {@code startingPoints}, using as its entry
+	 * state their respective value. {@code cg} will be invoked to get the
+	 * approximation of all invoked cfgs. If the
+	 * {@link FixpointStrategy#WORKLIST} strategy is used, a fresh instance of
+	 * {@link ArrayFIFOWorkingSet} is used as working set for the statements to
+	 * process, while {@link FixpointStrategy#REVERSE_POSTORDER_WORKLIST} uses
+	 * a {@link ReversePostorderWorkingSet} built on this cfg.
+	 * {@link FixpointStrategy#BASIC_BLOCKS} yields results that are (partially)
+	 * recomputed when queried.
+	 * 
+	 * @param <A>            the type of {@link AbstractState} contained into
+	 *                           the analysis state
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param startingPoints a map between {@link Statement}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this cfg) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other cfg is encountered
+	 * @param conf           the {@link FixpointConfiguration} driving the
+	 *                           computation
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> fixpoint(
+					Map<Statement, AnalysisState<A, H, V>> startingPoints, CallGraph cg, FixpointConfiguration conf)
+					throws FixpointException {
+		Liveness liveness = conf.isForgettingDeadVariables() ? getLiveness() : null;
+		SemanticFunction<Statement, Edge, CFG, A, H, V, StatementStore<A, H, V>> semantics = (st, entryState,
+				callGraph, expressions) -> st.semantics(
+						liveness == null ? entryState : liveness.forgetDeadVariables(st, entryState), callGraph,
+						expressions);
+
+		if (conf.getStrategy() == FixpointStrategy.WEAK_TOPOLOGICAL_ORDER)
+			return new CFGWithAnalysisResults<A, H, V>(this,
+					super.wtoFixpoint(startingPoints, cg, conf.getWideningThreshold(), semantics));
+
+		if (conf.getStrategy() == FixpointStrategy.BASIC_BLOCKS)
+			return new CFGWithAnalysisResults<A, H, V>(this,
+					super.blockFixpoint(startingPoints, cg, conf.getWideningThreshold(), semantics));
+
+		WorkingSet<Statement> ws = conf.getStrategy() == FixpointStrategy.REVERSE_POSTORDER_WORKLIST
+				? ReversePostorderWorkingSet.mk(this, startingPoints.keySet())
+				: ArrayFIFOWorkingSet.mk();
+		return new CFGWithAnalysisResults<A, H, V>(this,
+				super.fixpoint(startingPoints, cg, ws, conf.getWideningThreshold(), semantics));
+	}
+
+	/**
+	 * Yields the {@link Liveness} of the variables of this cfg, that is cached
+	 * until the structure of this cfg changes.
+	 * 
+	 * @return the live variables
+	 */
+	public Liveness getLiveness() {
+		return getStructuralAnalyses().get(LIVENESS, Liveness::new);
+	}
+
+	/**
+	 * Yields the {@link DefUseChains} of the variables of this cfg, that are
+	 * cached until the structure of this cfg changes.
+	 * 
+	 * @return the def-use chains
+	 */
+	public DefUseChains getDefUseChains() {
+		return getStructuralAnalyses().get(DEF_USE, DefUseChains::new);
+	}
+
 	@Override
 	protected <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
@@ -754,10 +944,19 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>> AnalysisState<A, H, V> cleanUpPostState(Statement node,
 					AnalysisState<A, H, V> computedState) throws SemanticException {
-		List<VariableTableEntry> toRemove = new LinkedList<>();
-		for (VariableTableEntry entry : descriptor.getVariables())
-			if (entry.getScopeEnd() == node)
-				toRemove.add(entry);
+		List<VariableTableEntry> toRemove;
+		Triple<Integer, Integer, Map<Statement, List<VariableTableEntry>>> index = scopeEnds;
+		if (index != null && index.getLeft() == adjacencyMatrix.getVersion()
+				&& index.getMiddle() == descriptor.getVariablesVersion()) {
+			toRemove = index.getRight().get(node);
+			if (toRemove == null)
+				return computedState;
+		} else {
+			toRemove = new LinkedList<>();
+			for (VariableTableEntry entry : descriptor.getVariables())
+				if (entry.getScopeEnd() == node)
+					toRemove.add(entry);
+		}
 
 		Collection<Identifier> ids = new LinkedList<>();
 		for (VariableTableEntry entry : toRemove) {
@@ -772,77 +971,97 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 		return computedState;
 	}
 
+	@Override
+	protected Statement getRootOf(Statement node) {
+		if (node instanceof Expression)
+			return ((Expression) node).getRootStatement();
+		return node;
+	}
+
 	@Override
 	protected DotCFG toDot(Function<Statement, String> labelGenerator) {
 		return DotCFG.fromCFG(this, labelGenerator);
 	}
 
 	@Override
-	protected void preSimplify(Statement node) {
-		Collection<
-				VariableTableEntry> starting = descriptor.getVariables().stream().filter(v -> v.getScopeStart() == node)
-						.collect(Collectors.toList());
-		Collection<VariableTableEntry> ending = descriptor.getVariables().stream().filter(v -> v.getScopeEnd() == node)
-				.collect(Collectors.toList());
-		if (ending.isEmpty() && starting.isEmpty())
+	protected void preSimplify(Set<Statement> targets) {
+		// the variables whose scope starts or ends at each statement being
+		// simplified, so that the variable table is scanned only once
+		Map<Statement, List<VariableTableEntry>> starting = new HashMap<>();
+		Map<Statement, List<VariableTableEntry>> ending = new HashMap<>();
+		for (VariableTableEntry v : descriptor.getVariables()) {
+			if (v.getScopeStart() != null && targets.contains(v.getScopeStart()))
+				starting.computeIfAbsent(v.getScopeStart(), k -> new LinkedList<>()).add(v);
+			if (v.getScopeEnd() != null && targets.contains(v.getScopeEnd()))
+				ending.computeIfAbsent(v.getScopeEnd(), k -> new LinkedList<>()).add(v);
+		}
+		if (starting.isEmpty() && ending.isEmpty())
 			return;
 
-		Collection<Statement> predecessors = predecessorsOf(node);
-		Collection<Statement> followers = followersOf(node);
+		// scopes are moved to the closest statement that is not simplified:
+		// all new scopes are computed before changing any of them
+		Map<VariableTableEntry, Statement> starts = new HashMap<>();
+		Map<VariableTableEntry, Statement> ends = new HashMap<>();
+		for (Statement node : targets) {
+			List<VariableTableEntry> s = starting.getOrDefault(node, Collections.emptyList());
+			List<VariableTableEntry> e = ending.getOrDefault(node, Collections.emptyList());
+			if (s.isEmpty() && e.isEmpty())
+				continue;
 
-		if (predecessors.isEmpty() && followers.isEmpty()) {
-			log.warn("Simplifying the only statement of '" + this
-					+ "': all variables will be made visible for the entire cfg");
-			starting.forEach(v -> v.setScopeStart(null));
-			ending.forEach(v -> v.setScopeEnd(null));
-			return;
-		}
+			if (predecessorsOf(node).isEmpty() && followersOf(node).isEmpty()) {
+				log.warn("Simplifying the only statement of '" + this
+						+ "': all variables will be made visible for the entire cfg");
+				s.forEach(v -> starts.put(v, null));
+				e.forEach(v -> ends.put(v, null));
+				continue;
+			}
 
-		String format = "Simplifying the scope-%s statement of a variable with %s "
-				+ "is not supported: %s will be made visible %s of '" + this + "'";
-		if (!starting.isEmpty())
-			if (predecessors.isEmpty()) {
-				// no predecessors: move the starting scope forward
-				Statement follow;
-				if (followers.size() > 1) {
-					log.warn(String.format(format, "starting", "no predecessors and multiple followers", starting,
-							"from the start"));
-					follow = null;
-				} else
-					follow = followers.iterator().next();
-				starting.forEach(v -> v.setScopeStart(follow));
-			} else {
-				// move the starting scope backward
-				Statement pred;
-				if (predecessors.size() > 1) {
-					log.warn(String.format(format, "starting", "multiple predecessors", starting, "from the start"));
-					pred = null;
-				} else
-					pred = predecessors.iterator().next();
-				starting.forEach(v -> v.setScopeStart(pred));
+			if (!s.isEmpty()) {
+				Statement moved = moveScope(node, true, targets, s);
+				s.forEach(v -> starts.put(v, moved));
+			}
+			if (!e.isEmpty()) {
+				Statement moved = moveScope(node, false, targets, e);
+				e.forEach(v -> ends.put(v, moved));
 			}
+		}
+
+		starts.forEach(VariableTableEntry::setScopeStart);
+		ends.forEach(VariableTableEntry::setScopeEnd);
+	}
 
-		if (!ending.isEmpty())
-			if (followers.isEmpty()) {
-				// no followers: move the ending scope backward
-				Statement pred;
-				if (predecessors.size() > 1) {
-					log.warn(String.format(format, "ending", "no followers and multiple predecessors", ending,
-							"until the end"));
-					pred = null;
-				} else
-					pred = predecessors.iterator().next();
-				ending.forEach(v -> v.setScopeEnd(pred));
-			} else {
-				// move the ending scope forward
-				Statement follow;
-				if (followers.size() > 1) {
-					log.warn(String.format(format, "ending", "multiple followers", ending, "until the end"));
-					follow = null;
-				} else
-					follow = followers.iterator().next();
-				ending.forEach(v -> v.setScopeEnd(follow));
+	private Statement moveScope(Statement node, boolean starting, Set<Statement> targets,
+			Collection<VariableTableEntry> variables) {
+		// starting scopes are moved backward, unless there are no
+		// predecessors, and ending scopes are moved forward, unless there are
+		// no followers
+		boolean forward = starting ? predecessorsOf(node).isEmpty() : !followersOf(node).isEmpty();
+		String reason;
+		if (starting)
+			reason = forward ? "no predecessors and multiple followers" : "multiple predecessors";
+		else
+			reason = forward ? "multiple followers" : "no followers and multiple predecessors";
+
+		Statement current = node;
+		Set<Statement> visited = new HashSet<>();
+		while (current != null && targets.contains(current)) {
+			if (!visited.add(current))
+				// a cycle made only of simplified statements
+				return null;
+
+			Collection<Statement> candidates = forward ? followersOf(current) : predecessorsOf(current);
+			if (candidates.size() > 1) {
+				log.warn(String.format("Simplifying the scope-%s statement of a variable with %s "
+						+ "is not supported: %s will be made visible %s of '" + this + "'",
+						starting ? "starting" : "ending", reason, variables,
+						starting ? "from the start" : "until the end"));
+				return null;
 			}
+
+			current = candidates.isEmpty() ? null : candidates.iterator().next();
+		}
+
+		return current;
 	}
 
 	/**
@@ -45,6 +45,11 @@ public class CFGDescriptor implements CodeElement {
 	 */
 	private final List<VariableTableEntry> variables;
 
+	/**
+	 * The number of changes made to {@link #variables}
+	 */
+	private volatile int variablesVersion;
+
 	/**
 	 * Whether or not the cfg is an instance cfg
 	 */
@@ -271,6 +276,19 @@ public class CFGDescriptor implements CodeElement {
 		if (variable.getIndex() != variables.size())
 			variable.setIndex(variables.size());
 		variables.add(variable);
+		variablesVersion++;
+	}
+
+	/**
+	 * Yields the version of the variable table, that changes each time a
+	 * variable is added through {@link #addVariable(VariableTableEntry)}. This
+	 * can be used to detect whether information computed from the variable
+	 * table is still up to date.
+	 * 
+	 * @return the version of the variable table
+	 */
+	public int getVariablesVersion() {
+		return variablesVersion;
 	}
 
 	/**
@@ -0,0 +1,313 @@
+package it.unive.lisa.program.cfg;
+
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The def-use chains of the variables of a {@link CFG}, computed through the
+ * classic forward reaching definitions analysis, representing sets of
+ * definitions as bit vectors. A statement defines a variable if it is, or if
+ * it contains, an {@link Assignment} whose target is a {@link VariableRef},
+ * and it uses a variable if it contains any other {@link VariableRef} to it.
+ * Variables are identified by name, as {@link Identifier}s are.<br>
+ * <br>
+ * Besides the definitions given by statements, each variable has an implicit
+ * definition at the entrypoints of the cfg, representing the value it has
+ * when the cfg is invoked (e.g., the one of a parameter). Whether or not such
+ * value reaches a statement is given by
+ * {@link #isEntryValueReaching(Statement, String)}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class DefUseChains {
+
+	/**
+	 * The names of the variables, indexed by the position of the implicit
+	 * definition at the entrypoints
+	 */
+	private final List<String> names;
+
+	/**
+	 * The index of each variable, keyed by name
+	 */
+	private final Map<String, Integer> indexes;
+
+	/**
+	 * The identifiers of the variables, parallel to {@link #names}
+	 */
+	private final List<Identifier> variables;
+
+	/**
+	 * The statements of the definitions, indexed by definition (the first
+	 * {@code names.size()} ones are {@code null}, as they are the implicit
+	 * definitions at the entrypoints)
+	 */
+	private final List<Statement> sites;
+
+	/**
+	 * The definitions of each variable, indexed by variable
+	 */
+	private final List<BitSet> definitionsOf;
+
+	/**
+	 * The variables used by each statement
+	 */
+	private final Map<Statement, BitSet> uses;
+
+	/**
+	 * The variables defined by each statement
+	 */
+	private final Map<Statement, BitSet> defs;
+
+	/**
+	 * The definitions reaching each statement
+	 */
+	private final Map<Statement, BitSet> reaching;
+
+	/**
+	 * The statements using the variables defined by each statement, if any
+	 */
+	private final Map<Statement, Collection<Statement>> users;
+
+	/**
+	 * Computes the def-use chains of the given cfg.
+	 *
+	 * @param cfg the cfg
+	 */
+	public DefUseChains(CFG cfg) {
+		int size = cfg.getNodesCount();
+		names = new ArrayList<>();
+		indexes = new HashMap<>();
+		variables = new ArrayList<>();
+		uses = new OffsetMap<>(size);
+		defs = new OffsetMap<>(size);
+
+		for (VariableTableEntry entry : cfg.getDescriptor().getVariables())
+			index(entry.getName(), entry.createReference(cfg));
+		for (Statement node : cfg.getNodes()) {
+			List<Statement> nested = new ArrayList<>();
+			node.accept(new Liveness.NestedStatements(), nested);
+			Set<VariableRef> targets = new LinkedHashSet<>();
+			for (Statement st : nested)
+				if (st instanceof Assignment && ((Assignment) st).getLeft() instanceof VariableRef)
+					targets.add((VariableRef) ((Assignment) st).getLeft());
+			BitSet use = new BitSet(), def = new BitSet();
+			for (Statement st : nested)
+				if (st instanceof VariableRef) {
+					VariableRef ref = (VariableRef) st;
+					// statement equality is identity
+					(targets.contains(ref) ? def : use).set(index(ref.getName(), ref));
+				}
+			uses.put(node, use);
+			defs.put(node, def);
+		}
+
+		// implicit definitions come first
+		sites = new ArrayList<>(Collections.nCopies(names.size(), (Statement) null));
+		definitionsOf = new ArrayList<>(names.size());
+		for (int i = 0; i < names.size(); i++) {
+			BitSet set = new BitSet();
+			set.set(i);
+			definitionsOf.add(set);
+		}
+		Map<Statement, BitSet> gen = new OffsetMap<>(size);
+		for (Statement node : cfg.getNodes()) {
+			BitSet def = defs.get(node), g = new BitSet();
+			for (int v = def.nextSetBit(0); v >= 0; v = def.nextSetBit(v + 1)) {
+				g.set(sites.size());
+				definitionsOf.get(v).set(sites.size());
+				sites.add(node);
+			}
+			gen.put(node, g);
+		}
+
+		BitSet atEntry = new BitSet();
+		atEntry.set(0, names.size());
+		Collection<Statement> entrypoints = cfg.getEntrypoints();
+		reaching = new OffsetMap<>(size);
+		Map<Statement, BitSet> out = new OffsetMap<>(size);
+		for (Statement node : cfg.getNodes()) {
+			reaching.put(node, new BitSet());
+			out.put(node, new BitSet());
+		}
+
+		Deque<Statement> ws = new ArrayDeque<>(size);
+		Map<Statement, Boolean> queued = new OffsetMap<>(size);
+		for (Statement node : cfg.getStructuralAnalyses().getReversePostorder().getOrder())
+			if (queued.put(node, Boolean.TRUE) == null)
+				ws.add(node);
+		for (Statement node : cfg.getNodes())
+			// unreachable nodes
+			if (queued.put(node, Boolean.TRUE) == null)
+				ws.add(node);
+
+		while (!ws.isEmpty()) {
+			Statement node = ws.remove();
+			queued.put(node, Boolean.FALSE);
+			BitSet in = new BitSet();
+			if (entrypoints.contains(node))
+				in.or(atEntry);
+			for (Statement pred : cfg.predecessorsOf(node))
+				in.or(out.get(pred));
+			reaching.put(node, in);
+
+			BitSet result = (BitSet) in.clone();
+			BitSet def = defs.get(node);
+			for (int v = def.nextSetBit(0); v >= 0; v = def.nextSetBit(v + 1))
+				result.andNot(definitionsOf.get(v));
+			result.or(gen.get(node));
+			if (!result.equals(out.get(node))) {
+				out.put(node, result);
+				for (Statement follower : cfg.followersOf(node))
+					if (queued.put(follower, Boolean.TRUE) == Boolean.FALSE)
+						ws.add(follower);
+			}
+		}
+
+		users = new OffsetMap<>(size);
+		for (Statement node : cfg.getNodes()) {
+			BitSet use = uses.get(node);
+			BitSet in = reaching.get(node);
+			for (int v = use.nextSetBit(0); v >= 0; v = use.nextSetBit(v + 1)) {
+				BitSet reached = (BitSet) definitionsOf.get(v).clone();
+				reached.and(in);
+				for (int d = reached.nextSetBit(names.size()); d >= 0; d = reached.nextSetBit(d + 1)) {
+					Collection<Statement> u = users.computeIfAbsent(sites.get(d), k -> new LinkedHashSet<>());
+					u.add(node);
+				}
+			}
+		}
+	}
+
+	private int index(String name, VariableRef ref) {
+		Integer idx = indexes.get(name);
+		if (idx == null) {
+			idx = names.size();
+			indexes.put(name, idx);
+			names.add(name);
+			variables.add(ref.getVariable());
+		}
+		return idx;
+	}
+
+	private Collection<String> namesOf(BitSet set) {
+		if (set == null || set.isEmpty())
+			return Collections.emptyList();
+		List<String> result = new ArrayList<>(set.cardinality());
+		for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1))
+			result.add(names.get(i));
+		return result;
+	}
+
+	/**
+	 * Yields the identifiers of all the variables of the cfg, that is, the ones
+	 * declared in its descriptor and the ones referred to by its statements.
+	 *
+	 * @return the identifiers of the variables
+	 */
+	public Collection<Identifier> getVariables() {
+		return Collections.unmodifiableList(variables);
+	}
+
+	/**
+	 * Yields the identifier of the variable with the given name.
+	 *
+	 * @param name the name of the variable
+	 *
+	 * @return the identifier, or {@code null} if no variable with that name
+	 *             exists in the cfg
+	 */
+	public Identifier getVariable(String name) {
+		Integer idx = indexes.get(name);
+		return idx == null ? null : variables.get(idx);
+	}
+
+	/**
+	 * Yields the names of the variables used by the given statement.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the names of the used variables
+	 */
+	public Collection<String> getUsedVariables(Statement st) {
+		return namesOf(uses.get(st));
+	}
+
+	/**
+	 * Yields the names of the variables defined by the given statement.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the names of the defined variables
+	 */
+	public Collection<String> getDefinedVariables(Statement st) {
+		return namesOf(defs.get(st));
+	}
+
+	/**
+	 * Yields the statements whose definition of the given variable reaches
+	 * the given statement.
+	 *
+	 * @param st       the statement
+	 * @param variable the name of the variable
+	 *
+	 * @return the reaching definitions
+	 */
+	public Collection<Statement> getReachingDefinitions(Statement st, String variable) {
+		Integer idx = indexes.get(variable);
+		BitSet in = reaching.get(st);
+		if (idx == null || in == null)
+			return Collections.emptyList();
+		BitSet reached = (BitSet) definitionsOf.get(idx).clone();
+		reached.and(in);
+		List<Statement> result = new ArrayList<>(reached.cardinality());
+		for (int d = reached.nextSetBit(names.size()); d >= 0; d = reached.nextSetBit(d + 1))
+			result.add(sites.get(d));
+		return result;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the value that the given variable has
+	 * at the entrypoints of the cfg can reach the given statement, that is, if
+	 * the statement can be reached from an entrypoint through a path that does
+	 * not define the variable.
+	 *
+	 * @param st       the statement
+	 * @param variable the name of the variable
+	 *
+	 * @return whether or not the entry value of the variable reaches
+	 *             {@code st}
+	 */
+	public boolean isEntryValueReaching(Statement st, String variable) {
+		Integer idx = indexes.get(variable);
+		BitSet in = reaching.get(st);
+		return idx != null && in != null && in.get(idx);
+	}
+
+	/**
+	 * Yields the statements that use one of the variables defined by the given
+	 * statement, and that are reached by such definition.
+	 *
+	 * @param definition the statement defining the variables
+	 *
+	 * @return the uses of the definition
+	 */
+	public Collection<Statement> getUses(Statement definition) {
+		Collection<Statement> u = users.get(definition);
+		return u == null ? Collections.emptyList() : Collections.unmodifiableCollection(u);
+	}
+}
@@ -0,0 +1,289 @@
+package it.unive.lisa.program.cfg;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The live variables of a {@link CFG}. A variable is live before a statement
+ * if it can be read by the statement, or by one of the statements that can be
+ * executed after it, before being assigned again. Variables are identified by
+ * name (as {@link Identifier}s are), they are read by {@link VariableRef}s,
+ * and they are assigned by {@link Assignment}s whose target is a
+ * {@link VariableRef}. All other statements are assumed to only read the
+ * variables they refer to, so that the live variables are always
+ * over-approximated. Live variables are computed through the classic backward
+ * dataflow analysis, representing sets of variables as bit vectors.<br>
+ * <br>
+ * On top of live variables, this class computes the variables that can be
+ * part of the entry state of each statement while being dead there (see
+ * {@link #getDeadBefore(Statement)}). These can be removed from the entry state
+ * through {@link #forgetDeadVariables(Statement, AnalysisState)}, together
+ * with the meta-variables produced by the preceding statements that are
+ * expressions used as commands: since such expressions have no parent
+ * statement, their meta-variables can no longer be read.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class Liveness {
+
+	/**
+	 * The names of the variables, indexed by the position of the bit that
+	 * represents them
+	 */
+	private final List<String> names;
+
+	/**
+	 * The variables that are live before each statement
+	 */
+	private final Map<Statement, BitSet> liveBefore;
+
+	/**
+	 * The variables that can reach each statement while being dead there, if
+	 * any
+	 */
+	private final Map<Statement, Collection<Identifier>> deadBefore;
+
+	/**
+	 * The predecessors of each statement that are expressions used as
+	 * commands, if any
+	 */
+	private final Map<Statement, Collection<Expression>> commandsBefore;
+
+	/**
+	 * Computes the live variables of the given cfg.
+	 *
+	 * @param cfg the cfg
+	 */
+	public Liveness(CFG cfg) {
+		int size = cfg.getNodesCount();
+		names = new ArrayList<>();
+		Map<String, Integer> indexes = new HashMap<>();
+		List<Identifier> variables = new ArrayList<>();
+		Map<Statement, BitSet> uses = new OffsetMap<>(size);
+		Map<Statement, BitSet> defs = new OffsetMap<>(size);
+
+		for (Statement node : cfg.getNodes()) {
+			List<Statement> nested = new ArrayList<>();
+			node.accept(new NestedStatements(), nested);
+			BitSet use = new BitSet(), def = new BitSet();
+			VariableRef target = null;
+			if (node instanceof Assignment && ((Assignment) node).getLeft() instanceof VariableRef)
+				target = (VariableRef) ((Assignment) node).getLeft();
+			for (Statement st : nested)
+				if (st instanceof VariableRef) {
+					VariableRef ref = (VariableRef) st;
+					(ref == target ? def : use).set(index(ref.getName(), ref, indexes, variables));
+				}
+			uses.put(node, use);
+			defs.put(node, def);
+		}
+
+		// variables that are never referenced can still be part of the
+		// entry states (e.g., unused parameters)
+		for (VariableTableEntry entry : cfg.getDescriptor().getVariables())
+			index(entry.getName(), entry.createReference(cfg), indexes, variables);
+		BitSet universe = new BitSet();
+		universe.set(0, names.size());
+
+		liveBefore = new OffsetMap<>(size);
+		for (Statement node : cfg.getNodes())
+			liveBefore.put(node, new BitSet());
+
+		// postorder speeds up the backward visit
+		List<Statement> order = new ArrayList<>(cfg.getStructuralAnalyses().getReversePostorder().getOrder());
+		Collections.reverse(order);
+		Deque<Statement> ws = new ArrayDeque<>(size);
+		Map<Statement, Boolean> queued = new OffsetMap<>(size);
+		for (Statement node : order)
+			if (queued.put(node, Boolean.TRUE) == null)
+				ws.add(node);
+		for (Statement node : cfg.getNodes())
+			// unreachable nodes
+			if (queued.put(node, Boolean.TRUE) == null)
+				ws.add(node);
+
+		while (!ws.isEmpty()) {
+			Statement node = ws.remove();
+			queued.put(node, Boolean.FALSE);
+			BitSet live = new BitSet();
+			for (Statement follower : cfg.followersOf(node))
+				live.or(liveBefore.get(follower));
+			live.andNot(defs.get(node));
+			live.or(uses.get(node));
+			if (!live.equals(liveBefore.get(node))) {
+				liveBefore.put(node, live);
+				for (Statement pred : cfg.predecessorsOf(node))
+					if (queued.put(pred, Boolean.TRUE) == Boolean.FALSE)
+						ws.add(pred);
+			}
+		}
+
+		deadBefore = new OffsetMap<>(size);
+		commandsBefore = new OffsetMap<>(size);
+		for (Statement node : cfg.getNodes()) {
+			BitSet dead = new BitSet();
+			Collection<Statement> preds = cfg.predecessorsOf(node);
+			if (preds.isEmpty() || cfg.getEntrypoints().contains(node))
+				dead.or(universe);
+			List<Expression> commands = new ArrayList<>();
+			for (Statement pred : preds) {
+				// only live and assigned variables survive a statement
+				dead.or(liveBefore.get(pred));
+				dead.or(defs.get(pred));
+				if (pred instanceof Expression)
+					commands.add((Expression) pred);
+			}
+
+			dead.andNot(liveBefore.get(node));
+			if (!dead.isEmpty()) {
+				List<Identifier> ids = new ArrayList<>(dead.cardinality());
+				for (int i = dead.nextSetBit(0); i >= 0; i = dead.nextSetBit(i + 1))
+					ids.add(variables.get(i));
+				deadBefore.put(node, Collections.unmodifiableList(ids));
+			}
+			if (!commands.isEmpty())
+				commandsBefore.put(node, commands);
+		}
+	}
+
+	private int index(String name, VariableRef ref, Map<String, Integer> indexes, List<Identifier> variables) {
+		Integer idx = indexes.get(name);
+		if (idx == null) {
+			idx = names.size();
+			indexes.put(name, idx);
+			names.add(name);
+			variables.add(ref.getVariable());
+		}
+		return idx;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the variable with the given name is
+	 * live before the given statement.
+	 *
+	 * @param st   the statement
+	 * @param name the name of the variable
+	 *
+	 * @return whether or not the variable is live before {@code st}
+	 */
+	public boolean isLiveBefore(Statement st, String name) {
+		BitSet live = liveBefore.get(st);
+		int idx = names.indexOf(name);
+		return live != null && idx >= 0 && live.get(idx);
+	}
+
+	/**
+	 * Yields the names of the variables that are live before the given
+	 * statement.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the names of the live variables
+	 */
+	public Collection<String> getLiveBefore(Statement st) {
+		BitSet live = liveBefore.get(st);
+		if (live == null)
+			return Collections.emptyList();
+		List<String> result = new ArrayList<>(live.cardinality());
+		for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1))
+			result.add(names.get(i));
+		return result;
+	}
+
+	/**
+	 * Yields the variables that can be part of the entry state of the given
+	 * statement while being dead before it, either because they are
+	 * parameters of the cfg or because they are live or assigned at one of
+	 * the predecessors of the statement.
+	 *
+	 * @param st the statement
+	 *
+	 * @return the dead variables
+	 */
+	public Collection<Identifier> getDeadBefore(Statement st) {
+		Collection<Identifier> dead = deadBefore.get(st);
+		return dead == null ? Collections.emptyList() : dead;
+	}
+
+	/**
+	 * Removes from the given entry state of a statement the variables that
+	 * are dead before the statement (see {@link #getDeadBefore(Statement)}),
+	 * and the meta-variables of the predecessors of the statement that are
+	 * expressions used as commands. The state is returned unchanged if there
+	 * is nothing to remove.
+	 *
+	 * @param <A>   the type of {@link AbstractState}
+	 * @param <H>   the type of {@link HeapDomain} embedded in the abstract
+	 *                  state
+	 * @param <V>   the type of {@link ValueDomain} embedded in the abstract
+	 *                  state
+	 * @param st    the statement
+	 * @param state the entry state of the statement
+	 *
+	 * @return the state without dead variables
+	 *
+	 * @throws SemanticException if an error happens while forgetting the
+	 *                               variables
+	 */
+	public <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> forgetDeadVariables(Statement st,
+					AnalysisState<A, H, V> state) throws SemanticException {
+		Collection<Identifier> dead = deadBefore.get(st);
+		Collection<Expression> commands = commandsBefore.get(st);
+		if (commands != null) {
+			Collection<Identifier> ids = dead == null ? new ArrayList<>() : new ArrayList<>(dead);
+			for (Expression command : commands)
+				ids.addAll(command.getMetaVariables());
+			dead = ids;
+		}
+
+		if (dead == null || dead.isEmpty())
+			return state;
+		return state.forgetIdentifiers(dead);
+	}
+
+	/**
+	 * A visitor collecting a statement and all the ones nested into it.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	static final class NestedStatements implements GraphVisitor<CFG, Statement, Edge, List<Statement>> {
+
+		@Override
+		public boolean visit(List<Statement> tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(List<Statement> tool, CFG graph, Statement node) {
+			tool.add(node);
+			return true;
+		}
+
+		@Override
+		public boolean visit(List<Statement> tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package it.unive.lisa.program.cfg;
+
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Phi;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.datastructures.graph.OffsetMap;
+import it.unive.lisa.util.datastructures.graph.algorithms.Dominators;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A transformation converting a {@link CFG} to static single assignment (SSA)
+ * form, where each variable is assigned exactly once. The conversion follows
+ * the classic algorithm by Cytron et al.:
+ * <ol>
+ * <li>phi functions for a variable are placed at the iterated dominance
+ * frontier of the statements assigning it, but only where the variable is
+ * live (see {@link Liveness}), yielding the pruned SSA form;</li>
+ * <li>variables are then renamed through a visit of the dominator tree, where
+ * each assignment to a variable {@code x} introduces a fresh version
+ * {@code x$i}, and each {@link VariableRef} reading {@code x} is renamed to
+ * the version reaching it.</li>
+ * </ol>
+ * Variables are identified by name, as in {@link DefUseChains}. The value that
+ * a variable has when the cfg is invoked (e.g., the one of a parameter) keeps
+ * the original name of the variable, so that entry states of the cfg do not
+ * need to be renamed. Each phi function is modeled as an {@link Assignment} of
+ * a {@link Phi} expression to the new version, and the phi functions of a
+ * statement are placed right before it as a chain of new statements. For each
+ * version of a variable that is part of the variable table of the cfg, a new
+ * {@link VariableTableEntry} is added to it, whose scope starts at the
+ * statement assigning the version and ends where the one of the original
+ * variable ends.<br>
+ * <br>
+ * {@link VariableRef}s are renamed in place, thus the conversion should happen
+ * before the cfg is analyzed. Statements that cannot be reached from the
+ * entrypoints of the cfg are not renamed.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class SSAConverter {
+
+	/**
+	 * The separator between the name of a variable and the number of its
+	 * version
+	 */
+	public static final String VERSION_SEPARATOR = "$";
+
+	private SSAConverter() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * A phi function that has been placed before a statement, but that has not
+	 * been added to the cfg yet.
+	 */
+	private static class Placement {
+
+		/**
+		 * The name of the variable
+		 */
+		private final String variable;
+
+		/**
+		 * The version defined by the phi function
+		 */
+		private String target;
+
+		/**
+		 * The version of the variable reaching the phi function from each
+		 * predecessor
+		 */
+		private final Map<Statement, String> arguments = new LinkedHashMap<>();
+
+		private Placement(String variable) {
+			this.variable = variable;
+		}
+	}
+
+	/**
+	 * Converts the given cfg to SSA form. The cfg is modified in place, and it
+	 * is frozen (see {@link CFG#freeze()}) after the conversion.
+	 *
+	 * @param cfg the cfg to convert
+	 *
+	 * @return the phi functions that have been added to the cfg, that is, the
+	 *             assignments whose right-hand side is a {@link Phi}
+	 */
+	public static Collection<Assignment> convert(CFG cfg) {
+		int size = cfg.getNodesCount();
+		Dominators<CFG, Statement, Edge> dominators = cfg.getStructuralAnalyses().getDominators();
+		List<Statement> order = new ArrayList<>(cfg.getStructuralAnalyses().getReversePostorder().getOrder());
+		DefUseChains chains = cfg.getDefUseChains();
+		Liveness liveness = cfg.getLiveness();
+		Collection<Statement> entrypoints = cfg.getEntrypoints();
+
+		Map<Statement, Set<Statement>> frontiers = dominanceFrontiers(cfg, order, dominators);
+		Map<Statement, List<Placement>> phis = placePhis(order, chains, liveness, frontiers, size);
+
+		Map<String, Type> types = new HashMap<>();
+		Map<String, VariableTableEntry> entries = new HashMap<>();
+		for (VariableTableEntry entry : cfg.getDescriptor().getVariables()) {
+			entries.putIfAbsent(entry.getName(), entry);
+			types.putIfAbsent(entry.getName(), entry.getStaticType());
+		}
+
+		// the versions defined by each statement, paired with the original
+		// variable
+		Map<Statement, Map<String, String>> versions = new OffsetMap<>(size);
+		rename(cfg, order, dominators, phis, types, versions);
+
+		List<Assignment> added = new ArrayList<>();
+		for (Map.Entry<Statement, List<Placement>> entry : phis.entrySet()) {
+			Statement node = entry.getKey();
+			List<Assignment> chain = new ArrayList<>(entry.getValue().size());
+			for (Placement phi : entry.getValue()) {
+				Set<String> names = new LinkedHashSet<>(phi.arguments.values());
+				if (entrypoints.contains(node))
+					// the value that the variable has when the cfg is invoked
+					names.add(phi.variable);
+				Type type = types.getOrDefault(phi.variable, Untyped.INSTANCE);
+				VariableRef[] args = new VariableRef[names.size()];
+				int i = 0;
+				for (String name : names)
+					args[i++] = new VariableRef(cfg, name, type);
+				Assignment assignment = new Assignment(cfg, new VariableRef(cfg, phi.target, type),
+						new Phi(cfg, type, args));
+				cfg.addNode(assignment);
+				versions.put(assignment, Collections.singletonMap(phi.target, phi.variable));
+				chain.add(assignment);
+			}
+
+			Statement first = chain.get(0);
+			for (Edge in : cfg.getIngoingEdges(node)) {
+				cfg.removeEdge(in);
+				cfg.addEdge(in.newInstance(in.getSource(), first));
+			}
+			for (int i = 1; i < chain.size(); i++)
+				cfg.addEdge(new SequentialEdge(chain.get(i - 1), chain.get(i)));
+			cfg.addEdge(new SequentialEdge(chain.get(chain.size() - 1), node));
+			cfg.replaceEntrypoint(node, first);
+			added.addAll(chain);
+		}
+
+		for (Map.Entry<Statement, Map<String, String>> entry : versions.entrySet())
+			for (Map.Entry<String, String> version : entry.getValue().entrySet()) {
+				VariableTableEntry original = entries.get(version.getValue());
+				if (original != null)
+					cfg.getDescriptor().addVariable(new VariableTableEntry(original.getLocation(),
+							cfg.getDescriptor().getVariables().size(), entry.getKey(), original.getScopeEnd(),
+							version.getKey(), original.getStaticType()));
+			}
+
+		// renaming does not change the structure of the cfg, but it changes
+		// the information derived from its statements
+		cfg.getStructuralAnalyses().invalidate();
+		cfg.freeze();
+		return added;
+	}
+
+	private static Map<Statement, Set<Statement>> dominanceFrontiers(CFG cfg, List<Statement> order,
+			Dominators<CFG, Statement, Edge> dominators) {
+		Map<Statement, Set<Statement>> frontiers = new OffsetMap<>(cfg.getNodesCount());
+		for (Statement node : order) {
+			List<Statement> preds = new ArrayList<>();
+			for (Statement pred : cfg.predecessorsOf(node))
+				if (dominators.isReachable(pred))
+					preds.add(pred);
+			// entrypoints are also reached when the cfg is invoked
+			if (preds.size() + (cfg.getEntrypoints().contains(node) ? 1 : 0) < 2)
+				continue;
+
+			Statement idom = dominators.getImmediateDominator(node);
+			for (Statement pred : preds)
+				for (Statement runner = pred; runner != null && runner != idom; runner = dominators
+						.getImmediateDominator(runner))
+					frontiers.computeIfAbsent(runner, k -> new LinkedHashSet<>()).add(node);
+		}
+		return frontiers;
+	}
+
+	private static Map<Statement, List<Placement>> placePhis(List<Statement> order, DefUseChains chains,
+			Liveness liveness, Map<Statement, Set<Statement>> frontiers, int size) {
+		Map<String, List<Statement>> sites = new LinkedHashMap<>();
+		for (Identifier id : chains.getVariables())
+			sites.put(id.getName(), new ArrayList<>());
+		for (Statement node : order)
+			for (String name : chains.getDefinedVariables(node))
+				sites.get(name).add(node);
+
+		Map<Statement, List<Placement>> phis = new OffsetMap<>(size);
+		for (Map.Entry<String, List<Statement>> entry : sites.entrySet()) {
+			String name = entry.getKey();
+			Deque<Statement> ws = new ArrayDeque<>(entry.getValue());
+			Set<Statement> defining = new HashSet<>(entry.getValue());
+			Set<Statement> visited = new HashSet<>();
+			while (!ws.isEmpty())
+				for (Statement node : frontiers.getOrDefault(ws.remove(), Collections.emptySet()))
+					// phis for dead variables are useless
+					if (visited.add(node) && liveness.isLiveBefore(node, name)) {
+						phis.computeIfAbsent(node, k -> new ArrayList<>()).add(new Placement(name));
+						if (defining.add(node))
+							ws.add(node);
+					}
+		}
+		return phis;
+	}
+
+	private static void rename(CFG cfg, List<Statement> order, Dominators<CFG, Statement, Edge> dominators,
+			Map<Statement, List<Placement>> phis, Map<String, Type> types,
+			Map<Statement, Map<String, String>> versions) {
+		int size = cfg.getNodesCount();
+		Map<Statement, List<Statement>> children = new OffsetMap<>(size);
+		List<Statement> roots = new ArrayList<>();
+		for (Statement node : order) {
+			Statement idom = dominators.getImmediateDominator(node);
+			if (idom == null)
+				roots.add(node);
+			else
+				children.computeIfAbsent(idom, k -> new ArrayList<>()).add(node);
+		}
+		// children are pushed backwards to number versions in reverse
+		// postorder
+		Deque<Statement> stack = new ArrayDeque<>();
+		for (int i = roots.size() - 1; i >= 0; i--)
+			stack.push(roots.get(i));
+
+		Map<String, Deque<String>> reaching = new HashMap<>();
+		Map<String, Integer> counters = new HashMap<>();
+		// the variables whose version has been pushed by each statement
+		Map<Statement, List<String>> pushed = new OffsetMap<>(size);
+		// iterative visit of the dominator tree: a statement is popped once
+		// all the statements it dominates have been visited
+		while (!stack.isEmpty()) {
+			Statement node = stack.peek();
+			List<String> defined = pushed.get(node);
+			if (defined != null) {
+				stack.pop();
+				for (String name : defined)
+					reaching.get(name).pop();
+				continue;
+			}
+
+			defined = new ArrayList<>();
+			Map<String, String> created = new LinkedHashMap<>();
+			for (Placement phi : phis.getOrDefault(node, Collections.emptyList())) {
+				phi.target = newVersion(phi.variable, reaching, counters);
+				defined.add(phi.variable);
+			}
+
+			List<Statement> nested = new ArrayList<>();
+			node.accept(new Liveness.NestedStatements(), nested);
+			Set<VariableRef> targets = new HashSet<>();
+			for (Statement st : nested)
+				if (st instanceof Assignment && ((Assignment) st).getLeft() instanceof VariableRef)
+					targets.add((VariableRef) ((Assignment) st).getLeft());
+			// nested statements are visited in evaluation order
+			for (Statement st : nested)
+				if (st instanceof VariableRef && !targets.contains(st)) {
+					VariableRef ref = (VariableRef) st;
+					ref.rename(currentVersion(ref.getName(), reaching));
+				} else if (st instanceof Assignment && targets.contains(((Assignment) st).getLeft())) {
+					VariableRef ref = (VariableRef) ((Assignment) st).getLeft();
+					String name = ref.getName();
+					types.putIfAbsent(name, ref.getStaticType());
+					ref.rename(newVersion(name, reaching, counters));
+					created.put(ref.getName(), name);
+					defined.add(name);
+				}
+			if (!created.isEmpty())
+				versions.put(node, created);
+
+			for (Statement follower : cfg.followersOf(node))
+				for (Placement phi : phis.getOrDefault(follower, Collections.emptyList()))
+					phi.arguments.put(node, currentVersion(phi.variable, reaching));
+
+			pushed.put(node, defined);
+			List<Statement> dominated = children.getOrDefault(node, Collections.emptyList());
+			for (int i = dominated.size() - 1; i >= 0; i--)
+				stack.push(dominated.get(i));
+		}
+	}
+
+	private static String newVersion(String name, Map<String, Deque<String>> reaching,
+			Map<String, Integer> counters) {
+		String version = name + VERSION_SEPARATOR + counters.merge(name, 1, Integer::sum);
+		reaching.computeIfAbsent(name, k -> new ArrayDeque<>()).push(version);
+		return version;
+	}
+
+	private static String currentVersion(String name, Map<String, Deque<String>> reaching) {
+		Deque<String> versions = reaching.get(name);
+		return versions == null || versions.isEmpty() ? name : versions.peek();
+	}
+}
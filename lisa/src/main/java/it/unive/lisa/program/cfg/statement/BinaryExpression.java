@@ -103,6 +103,15 @@ public abstract class BinaryExpression extends Expression {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((left == null) ? 0 : left.effectiveHashCode());
+		result = prime * result + ((right == null) ? 0 : right.effectiveHashCode());
+		return result;
+	}
+
 	@Override
 	public final <V> boolean accept(
 			GraphVisitor<CFG, Statement, it.unive.lisa.program.cfg.edge.Edge, V> visitor,
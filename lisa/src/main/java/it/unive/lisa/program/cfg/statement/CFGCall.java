@@ -168,6 +168,14 @@ public class CFGCall extends Call implements MetaVariableCreator {
 		return super.isEqualTo(other);
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((qualifiedName == null) ? 0 : qualifiedName.hashCode());
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "[" + targets.size() + " targets]" + qualifiedName + "(" + StringUtils.join(getParameters(), ", ") + ")";
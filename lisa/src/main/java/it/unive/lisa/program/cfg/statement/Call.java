@@ -91,6 +91,16 @@ public abstract class Call extends Expression {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		if (parameters != null)
+			for (Expression param : parameters)
+				result = prime * result + ((param == null) ? 0 : param.effectiveHashCode());
+		return result;
+	}
+
 	private static boolean areEquals(Expression[] params, Expression[] otherParams) {
 		if (params == otherParams)
 			return true;
@@ -81,12 +81,13 @@ public abstract class Expression extends Statement {
 	}
 
 	/**
-	 * Sets the runtime types of this expression.
+	 * Sets the runtime types of this expression. This method is synchronized,
+	 * as it can be invoked while cfgs are analyzed in parallel.
 	 * 
 	 * @param runtimeTypes the set of concrete types that this expression can
 	 *                         have at runtime
 	 */
-	public final void setRuntimeTypes(ExternalSet<Type> runtimeTypes) {
+	public final synchronized void setRuntimeTypes(ExternalSet<Type> runtimeTypes) {
 		if (runtimeTypes == null)
 			return;
 
@@ -106,7 +107,7 @@ public abstract class Expression extends Statement {
 	 * 
 	 * @return the set of runtime types
 	 */
-	public final ExternalSet<Type> getRuntimeTypes() {
+	public final synchronized ExternalSet<Type> getRuntimeTypes() {
 		if (runtimeTypes == null)
 			return Caches.types().mkSet(staticType.allInstances());
 		return runtimeTypes;
@@ -172,6 +173,15 @@ public abstract class Expression extends Statement {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((staticType == null) ? 0 : staticType.hashCode());
+		// we ignore the meta variables on purpose
+		return result;
+	}
+
 	/**
 	 * Sets the {@link Statement} that contains this expression.
 	 * 
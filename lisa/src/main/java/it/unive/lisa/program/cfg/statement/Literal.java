@@ -95,6 +95,14 @@ public class Literal extends Expression {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((value == null) ? 0 : value.hashCode());
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return String.valueOf(value);
@@ -107,6 +107,14 @@ public class OpenCall extends Call implements MetaVariableCreator {
 		return super.isEqualTo(other);
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((targetName == null) ? 0 : targetName.hashCode());
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "[open call]" + targetName + "(" + StringUtils.join(getParameters(), ", ") + ")";
@@ -0,0 +1,149 @@
+package it.unive.lisa.program.cfg.statement;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.SSAConverter;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+
+/**
+ * A phi function of a cfg in SSA form (see {@link SSAConverter}), choosing
+ * among different versions of the same variable depending on the path that
+ * has been executed to reach it. Phi functions are always the right-hand side
+ * of an {@link Assignment} to a fresh version of the variable.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class Phi extends Expression {
+
+	/**
+	 * The versions of the variable that this phi function chooses from
+	 */
+	private final VariableRef[] arguments;
+
+	/**
+	 * Builds the phi function. The location where this phi function happens is
+	 * unknown (i.e. no source file/line/column is available).
+	 *
+	 * @param cfg        the cfg that this expression belongs to
+	 * @param staticType the static type of this phi function
+	 * @param arguments  the versions of the variable that this phi function
+	 *                       chooses from
+	 */
+	public Phi(CFG cfg, Type staticType, VariableRef... arguments) {
+		super(cfg, null, staticType);
+		Objects.requireNonNull(arguments, "The array of arguments of a phi function cannot be null");
+		for (int i = 0; i < arguments.length; i++)
+			Objects.requireNonNull(arguments[i], "The " + i + "-th argument of a phi function cannot be null");
+		this.arguments = arguments;
+		for (VariableRef arg : arguments)
+			arg.setParentStatement(this);
+	}
+
+	/**
+	 * Yields the versions of the variable that this phi function chooses from.
+	 *
+	 * @return the arguments of this phi function
+	 */
+	public final VariableRef[] getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public final int setOffset(int offset) {
+		this.offset = offset;
+		int off = offset;
+		for (VariableRef arg : arguments)
+			off = arg.setOffset(off + 1);
+		return off;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + Arrays.hashCode(arguments);
+		return result;
+	}
+
+	@Override
+	public boolean isEqualTo(Statement st) {
+		if (this == st)
+			return true;
+		if (getClass() != st.getClass())
+			return false;
+		if (!super.isEqualTo(st))
+			return false;
+		Phi other = (Phi) st;
+		if (arguments.length != other.arguments.length)
+			return false;
+		for (int i = 0; i < arguments.length; i++)
+			if (!arguments[i].isEqualTo(other.arguments[i]))
+				return false;
+		return true;
+	}
+
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		for (Expression argument : arguments)
+			result = prime * result + argument.effectiveHashCode();
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder("phi(");
+		for (int i = 0; i < arguments.length; i++)
+			res.append(i == 0 ? "" : ", ").append(arguments[i]);
+		return res.append(")").toString();
+	}
+
+	/**
+	 * Semantics of a phi function is evaluated by computing the semantics of
+	 * each argument starting from the entry state, and then by joining the
+	 * resulting states. The computed expressions of the phi function are all
+	 * the ones computed by its arguments. Versions that have not been
+	 * assigned on the paths reaching the phi function are not part of the
+	 * entry state, and they do not contribute to the result.<br>
+	 * <br>
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> semantics(
+					AnalysisState<A, H, V> entryState, CallGraph callGraph, StatementStore<A, H, V> expressions)
+					throws SemanticException {
+		A result = null;
+		Collection<SymbolicExpression> computed = new LinkedHashSet<>();
+		for (VariableRef arg : arguments) {
+			AnalysisState<A, H, V> state = arg.semantics(entryState, callGraph, expressions);
+			expressions.put(arg, state);
+			result = result == null ? state.getState() : result.lub(state.getState());
+			computed.addAll(state.getComputedExpressions());
+		}
+		return result == null ? entryState.bottom() : new AnalysisState<>(result, computed);
+	}
+
+	@Override
+	public <V> boolean accept(GraphVisitor<CFG, Statement, Edge, V> visitor, V tool) {
+		for (VariableRef arg : arguments)
+			if (!arg.accept(visitor, tool))
+				return false;
+		return visitor.visit(tool, getCFG(), this);
+	}
+}
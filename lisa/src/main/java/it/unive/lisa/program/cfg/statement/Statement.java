@@ -122,6 +122,13 @@ public abstract class Statement implements Node<Statement, Edge, CFG>, ProgramPo
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		// the location is not part of the hash code, since statements
+		// without a location are equal to statements with any location
+		return getClass().getName().hashCode();
+	}
+
 	@Override
 	public abstract String toString();
 
@@ -80,6 +80,14 @@ public abstract class UnaryStatement extends Statement {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = getClass().getName().hashCode();
+		result = prime * result + ((expression == null) ? 0 : expression.effectiveHashCode());
+		return result;
+	}
+
 	@Override
 	public final <V> boolean accept(GraphVisitor<CFG, Statement, Edge, V> visitor, V tool) {
 		if (!expression.accept(visitor, tool))
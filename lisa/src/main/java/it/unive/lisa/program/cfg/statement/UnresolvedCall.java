@@ -226,6 +226,14 @@ public class UnresolvedCall extends Call {
 		return super.isEqualTo(other);
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((targetName == null) ? 0 : targetName.hashCode());
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "[unresolved]" + targetName + "(" + StringUtils.join(getParameters(), ", ") + ")";
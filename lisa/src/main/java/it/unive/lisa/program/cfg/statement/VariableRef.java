@@ -9,6 +9,7 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.SSAConverter;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Variable;
@@ -27,7 +28,7 @@ public class VariableRef extends Expression {
 	/**
 	 * The name of this variable
 	 */
-	private final String name;
+	private String name;
 
 	/**
 	 * Builds the untyped variable reference, identified by its name. The
@@ -84,12 +85,25 @@ public class VariableRef extends Expression {
 		return name;
 	}
 
+	/**
+	 * Renames this reference, making it refer to the variable with the given
+	 * name. This is meant to be used by transformations of the cfg that
+	 * rename its variables (e.g., {@link SSAConverter}), before the cfg gets
+	 * analyzed.
+	 * 
+	 * @param name the new name of this variable
+	 */
+	public void rename(String name) {
+		Objects.requireNonNull(name, "The name of a variable cannot be null");
+		this.name = name;
+	}
+
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((name == null) ? 0 : name.hashCode());
-		return result;
+		// the name is not part of the hash code since it can change through
+		// rename(String), while this reference is used as key of the
+		// adjacency matrix (directly or through its root statement)
+		return super.hashCode();
 	}
 
 	@Override
@@ -109,6 +123,14 @@ public class VariableRef extends Expression {
 		return true;
 	}
 
+	@Override
+	public int effectiveHashCode() {
+		final int prime = 31;
+		int result = super.effectiveHashCode();
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return name;
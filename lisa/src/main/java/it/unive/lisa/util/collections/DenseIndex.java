@@ -0,0 +1,116 @@
+package it.unive.lisa.util.collections;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An index that interns keys into dense integer slots, assigning slots
+ * {@code 0, 1, 2, ...} in the order in which keys are first seen. Slots are
+ * never released. Instances of this class are meant to be shared among all
+ * the {@link DenseMap}s storing the same kind of keys (e.g., all the
+ * environments of an analysis), so that the same key occupies the same slot in
+ * all of them. The index also bounds the size of the maps that are kept dense
+ * (see {@link #getMaxSize()}): the cost of copying a {@link DenseMap} grows
+ * with its size, and larger maps are better served by persistent ones. This
+ * class is thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <K> the type of the keys
+ */
+public class DenseIndex<K> {
+
+	/**
+	 * The default value of {@link #getMaxSize()}
+	 */
+	public static final int DEFAULT_MAX_SIZE = 64;
+
+	/**
+	 * The slot assigned to each key
+	 */
+	private final Map<K, Integer> slots = new ConcurrentHashMap<>();
+
+	/**
+	 * The next slot to be assigned
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * The maximum size of the maps that are kept dense
+	 */
+	private final int maxSize;
+
+	/**
+	 * Builds an empty index, keeping dense the maps with at most
+	 * {@link #DEFAULT_MAX_SIZE} entries.
+	 */
+	public DenseIndex() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Builds an empty index.
+	 *
+	 * @param maxSize the maximum number of entries of the maps that are kept
+	 *                    dense
+	 */
+	public DenseIndex(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Yields the slot of the given key, assigning a new one if the key has
+	 * never been seen before.
+	 *
+	 * @param key the key, cannot be {@code null}
+	 *
+	 * @return the slot of the key
+	 */
+	public int slotOf(K key) {
+		Integer slot = slots.get(key);
+		if (slot != null)
+			return slot;
+		return slots.computeIfAbsent(key, k -> next.getAndIncrement());
+	}
+
+	/**
+	 * Yields the slot of the given key, without assigning new slots.
+	 *
+	 * @param key the key
+	 *
+	 * @return the slot of the key, or {@code -1} if the key has never been
+	 *             seen before or if it is {@code null}
+	 */
+	public int find(Object key) {
+		if (key == null)
+			return -1;
+		Integer slot = slots.get(key);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Yields the maximum number of entries of the maps using this index that
+	 * are kept dense. Copies of larger maps are not required to be
+	 * {@link DenseMap}s.
+	 *
+	 * @return the maximum size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Yields the number of slots assigned by this index.
+	 *
+	 * @return the number of slots
+	 */
+	public int size() {
+		return next.get();
+	}
+
+	@Override
+	public String toString() {
+		return slots.toString();
+	}
+}
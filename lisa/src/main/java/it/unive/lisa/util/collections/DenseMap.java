@@ -0,0 +1,320 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} whose entries are stored in arrays, sorted by the slots
+ * assigned to their keys by a {@link DenseIndex}. Looking up a key requires a
+ * single lookup in the index followed by a binary search over the slots of the
+ * map, and two maps sharing the same index store their entries in the same
+ * order: operations that combine two such maps key-wise can thus scan their
+ * entries in lockstep, without hashing any key (see {@link #slotAt(int)},
+ * {@link #keyAt(int)}, {@link #valueAt(int)} and
+ * {@link #append(int, Object, Object)}).<br>
+ * <br>
+ * The arrays of the map are sized after its entries, and not after the slots
+ * assigned by the index: copying a map takes time proportional to its size,
+ * regardless of how many keys have been interned by the index.<br>
+ * <br>
+ * This map does not permit {@code null} keys, and its iteration order is the
+ * order of the slots. This implementation is <b>not</b> thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class DenseMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int[] NO_SLOTS = new int[0];
+
+	private static final Object[] NO_OBJECTS = new Object[0];
+
+	private final DenseIndex<K> index;
+
+	/**
+	 * The slots of the keys of this map, in increasing order
+	 */
+	private int[] slots;
+
+	/**
+	 * The keys of this map, at the same positions of their slots
+	 */
+	private Object[] keys;
+
+	/**
+	 * The values of this map, at the same positions of their keys
+	 */
+	private Object[] values;
+
+	private int size;
+
+	/**
+	 * Builds an empty map.
+	 *
+	 * @param index the index assigning slots to the keys
+	 */
+	public DenseMap(DenseIndex<K> index) {
+		this.index = index;
+		this.slots = NO_SLOTS;
+		this.keys = NO_OBJECTS;
+		this.values = NO_OBJECTS;
+		this.size = 0;
+	}
+
+	private DenseMap(DenseMap<K, V> other) {
+		this.index = other.index;
+		this.slots = Arrays.copyOf(other.slots, other.size);
+		this.keys = Arrays.copyOf(other.keys, other.size);
+		this.values = Arrays.copyOf(other.values, other.size);
+		this.size = other.size;
+	}
+
+	/**
+	 * Yields a copy of this map, that uses the same index.
+	 *
+	 * @return the copy
+	 */
+	public DenseMap<K, V> copy() {
+		return new DenseMap<>(this);
+	}
+
+	/**
+	 * Yields the index used by this map to assign slots to keys.
+	 *
+	 * @return the index
+	 */
+	public DenseIndex<K> getIndex() {
+		return index;
+	}
+
+	/**
+	 * Yields the slot of the {@code i}-th entry of this map, in slot order.
+	 *
+	 * @param i the position of the entry, between {@code 0} (included) and
+	 *              {@link #size()} (excluded)
+	 *
+	 * @return the slot
+	 */
+	public int slotAt(int i) {
+		return slots[i];
+	}
+
+	/**
+	 * Yields the key of the {@code i}-th entry of this map, in slot order.
+	 *
+	 * @param i the position of the entry, between {@code 0} (included) and
+	 *              {@link #size()} (excluded)
+	 *
+	 * @return the key
+	 */
+	@SuppressWarnings("unchecked")
+	public K keyAt(int i) {
+		return (K) keys[i];
+	}
+
+	/**
+	 * Yields the value of the {@code i}-th entry of this map, in slot order.
+	 *
+	 * @param i the position of the entry, between {@code 0} (included) and
+	 *              {@link #size()} (excluded)
+	 *
+	 * @return the value
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int i) {
+		return (V) values[i];
+	}
+
+	/**
+	 * Adds a new entry at the end of this map. The given key must be the one
+	 * assigned to {@code slot} by the index of this map, and {@code slot} must
+	 * be greater than the ones of all the keys already in this map.
+	 *
+	 * @param slot  the slot of {@code key}
+	 * @param key   the key
+	 * @param value the value
+	 *
+	 * @throws IllegalArgumentException if {@code slot} is not greater than the
+	 *                                      ones of the keys of this map
+	 */
+	public void append(int slot, K key, V value) {
+		if (size > 0 && slots[size - 1] >= slot)
+			throw new IllegalArgumentException("Slot " + slot + " is not greater than " + slots[size - 1]);
+		insert(size, slot, key, value);
+	}
+
+	private void insert(int pos, int slot, Object key, Object value) {
+		if (size == slots.length) {
+			int capacity = Math.max(4, size * 2);
+			slots = Arrays.copyOf(slots, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		if (pos < size) {
+			System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+			System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+			System.arraycopy(values, pos, values, pos + 1, size - pos);
+		}
+		slots[pos] = slot;
+		keys[pos] = key;
+		values[pos] = value;
+		size++;
+	}
+
+	/**
+	 * Yields the position of the entry of the given key, or {@code -1} if the
+	 * key is not in this map.
+	 */
+	private int positionOf(Object key) {
+		int slot = index.find(key);
+		if (slot < 0)
+			return -1;
+		int pos = Arrays.binarySearch(slots, 0, size, slot);
+		return pos < 0 ? -1 : pos;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return positionOf(key) >= 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int pos = positionOf(key);
+		return pos < 0 ? null : (V) values[pos];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Objects.requireNonNull(key);
+		int slot = index.slotOf(key);
+		int pos = Arrays.binarySearch(slots, 0, size, slot);
+		if (pos < 0) {
+			insert(-pos - 1, slot, key, value);
+			return null;
+		}
+
+		// the key already in the map is preserved
+		V previous = (V) values[pos];
+		values[pos] = value;
+		return previous;
+	}
+
+	@Override
+	public V remove(Object key) {
+		int pos = positionOf(key);
+		return pos < 0 ? null : removeAt(pos);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V removeAt(int pos) {
+		V previous = (V) values[pos];
+		int moved = size - pos - 1;
+		if (moved > 0) {
+			System.arraycopy(slots, pos + 1, slots, pos, moved);
+			System.arraycopy(keys, pos + 1, keys, pos, moved);
+			System.arraycopy(values, pos + 1, values, pos, moved);
+		}
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				DenseMap.this.clear();
+			}
+		};
+	}
+
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private int next = 0;
+
+		private int last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (next >= size)
+				throw new NoSuchElementException();
+			last = next++;
+			return new SlotEntry(slots[last], (K) keys[last], (V) values[last]);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0)
+				throw new IllegalStateException();
+			removeAt(last);
+			next = last;
+			last = -1;
+		}
+	}
+
+	/**
+	 * An entry of the map, that writes through to the map when its value is
+	 * changed.
+	 */
+	private final class SlotEntry extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int slot;
+
+		private SlotEntry(int slot, K key, V value) {
+			super(key, value);
+			this.slot = slot;
+		}
+
+		@Override
+		public V setValue(V value) {
+			int pos = Arrays.binarySearch(slots, 0, size, slot);
+			if (pos >= 0)
+				values[pos] = value;
+			return super.setValue(value);
+		}
+	}
+}
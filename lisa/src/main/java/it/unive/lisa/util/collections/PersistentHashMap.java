@@ -0,0 +1,582 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} backed by a hash array mapped trie, whose internal nodes can
+ * be shared among different maps. Creating a {@link #copy()} of an instance
+ * costs constant time, since the copy shares the whole trie with the original
+ * map. Updates ({@link #put(Object, Object)}, {@link #remove(Object)}) then
+ * re-create only the nodes on the path from the root to the modified entry
+ * (at most 8 nodes), leaving all other nodes shared. Nodes that have been
+ * created by an instance after its last copy are instead updated in place, so
+ * that sequences of updates on the same map do not re-create the same nodes
+ * over and over.<br>
+ * <br>
+ * The hash code of the map is updated along with its entries, so that
+ * {@link #hashCode()} takes constant time: the hash codes of keys and values
+ * must not change while they are in the map.<br>
+ * <br>
+ * Apart from copies being cheap, this class behaves as a standard
+ * {@link Map}, and it permits {@code null} keys and values. Iterators reflect
+ * the contents of the map at the time of their creation, and are never
+ * invalidated by updates. Copies can be safely created from different
+ * threads, but this implementation is <b>not</b> thread-safe w.r.t.
+ * concurrent updates of the same instance.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	/**
+	 * The number of bits of the hash consumed at each level of the trie
+	 */
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * The maximum depth of the trie: 7 levels of indexed nodes (consuming the
+	 * 32 bits of the hash) plus one level of collision nodes
+	 */
+	private static final int MAX_DEPTH = 8;
+
+	/**
+	 * Marker placed in the key slot of a node's array to signal that the
+	 * corresponding value slot contains a child node
+	 */
+	private static final Object SUBNODE = new Object();
+
+	/**
+	 * Marker returned by lookups when a key is not present
+	 */
+	private static final Object NOT_FOUND = new Object();
+
+	/**
+	 * The root of the trie, {@code null} if this map is empty
+	 */
+	private Node root;
+
+	private int size;
+
+	/**
+	 * The hash code of this map, that is, the sum of the hash codes of its
+	 * entries
+	 */
+	private int hash;
+
+	/**
+	 * The token identifying the nodes that this map can update in place. It
+	 * is replaced each time the trie gets shared.
+	 */
+	private volatile Object owner;
+
+	/**
+	 * Builds an empty map.
+	 */
+	public PersistentHashMap() {
+		this.owner = new Object();
+	}
+
+	/**
+	 * Builds a map containing the same mappings of the given one. If
+	 * {@code other} is a {@link PersistentHashMap}, this is equivalent to
+	 * {@code other.copy()}.
+	 *
+	 * @param other the map to copy
+	 */
+	@SuppressWarnings("unchecked")
+	public PersistentHashMap(Map<? extends K, ? extends V> other) {
+		this();
+		if (other instanceof PersistentHashMap) {
+			PersistentHashMap<K, V> o = (PersistentHashMap<K, V>) other;
+			o.owner = new Object();
+			this.root = o.root;
+			this.size = o.size;
+			this.hash = o.hash;
+		} else
+			putAll(other);
+	}
+
+	/**
+	 * Yields a copy of this map, in constant time. The returned map shares
+	 * all its nodes with this one: further updates to any of the two maps will
+	 * not affect the other one.
+	 *
+	 * @return the copy
+	 */
+	public PersistentHashMap<K, V> copy() {
+		return new PersistentHashMap<>(this);
+	}
+
+	private static int hash(Object key) {
+		if (key == null)
+			return 0;
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int entryHash(Object key, Object value) {
+		return Objects.hashCode(key) ^ Objects.hashCode(value);
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return root != null && root.find(hash(key), key, 0) != NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (root == null)
+			return null;
+		Object res = root.find(hash(key), key, 0);
+		return res == NOT_FOUND ? null : (V) res;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Change change = new Change();
+		int hash = hash(key);
+		Object edit = owner;
+		if (root == null)
+			root = new BitmapNode(edit, 0, new Object[0]);
+		root = root.put(edit, 0, hash, key, value, change);
+		this.hash += entryHash(key, value);
+		if (change.previous == NOT_FOUND) {
+			size++;
+			return null;
+		}
+		this.hash -= entryHash(key, change.previous);
+		return (V) change.previous;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		if (root == null)
+			return null;
+		Change change = new Change();
+		root = root.remove(owner, 0, hash(key), key, change);
+		if (change.previous == NOT_FOUND)
+			return null;
+		size--;
+		hash -= entryHash(key, change.previous);
+		return (V) change.previous;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+		hash = 0;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				PersistentHashMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof PersistentHashMap && ((PersistentHashMap<?, ?>) o).root == root)
+			return true;
+		return super.equals(o);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The hash code is maintained by updates, and it is not recomputed.
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * The outcome of an update of the trie
+	 */
+	private static class Change {
+
+		/**
+		 * The value previously associated to the updated key, or
+		 * {@link PersistentHashMap#NOT_FOUND} if there was none
+		 */
+		private Object previous = NOT_FOUND;
+	}
+
+	/**
+	 * A node of the trie. The array of each node is a sequence of key-value
+	 * pairs, where the key can be {@link PersistentHashMap#SUBNODE} to signal
+	 * that the value is a child node.
+	 */
+	private abstract static class Node {
+
+		/**
+		 * The token of the map that can update this node in place
+		 */
+		final Object owner;
+
+		final Object[] array;
+
+		private Node(Object owner, Object[] array) {
+			this.owner = owner;
+			this.array = array;
+		}
+
+		abstract Object find(int hash, Object key, int shift);
+
+		abstract Node put(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+		abstract Node remove(Object edit, int shift, int hash, Object key, Change change);
+
+		abstract Node editable(Object edit);
+
+		Node set(Object edit, int idx, Object value) {
+			Node node = editable(edit);
+			node.array[idx] = value;
+			return node;
+		}
+
+		Node setPair(Object edit, int idx, Object key, Object value) {
+			Node node = editable(edit);
+			node.array[idx] = key;
+			node.array[idx + 1] = value;
+			return node;
+		}
+
+		// whether this node contains a single key-value pair, that can be
+		// inlined in the parent node
+		boolean isSingleEntry() {
+			return array.length == 2 && array[0] != SUBNODE;
+		}
+	}
+
+	/**
+	 * A node where the position of each pair inside the array is determined
+	 * by a portion of the hash of its key, and is tracked by a bitmap.
+	 */
+	private static final class BitmapNode extends Node {
+
+		private final int bitmap;
+
+		private BitmapNode(Object owner, int bitmap, Object[] array) {
+			super(owner, array);
+			this.bitmap = bitmap;
+		}
+
+		private int index(int bit) {
+			return 2 * Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Node editable(Object edit) {
+			if (owner == edit)
+				return this;
+			return new BitmapNode(edit, bitmap, array.clone());
+		}
+
+		@Override
+		Object find(int hash, Object key, int shift) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0)
+				return NOT_FOUND;
+			int idx = index(bit);
+			Object k = array[idx];
+			if (k == SUBNODE)
+				return ((Node) array[idx + 1]).find(hash, key, shift + BITS);
+			return Objects.equals(k, key) ? array[idx + 1] : NOT_FOUND;
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+			int bit = bitpos(hash, shift);
+			int idx = index(bit);
+			if ((bitmap & bit) == 0) {
+				Object[] bigger = new Object[array.length + 2];
+				System.arraycopy(array, 0, bigger, 0, idx);
+				bigger[idx] = key;
+				bigger[idx + 1] = value;
+				System.arraycopy(array, idx, bigger, idx + 2, array.length - idx);
+				return new BitmapNode(edit, bitmap | bit, bigger);
+			}
+
+			Object k = array[idx];
+			Object v = array[idx + 1];
+			if (k == SUBNODE) {
+				Node child = ((Node) v).put(edit, shift + BITS, hash, key, value, change);
+				return child == v ? this : set(edit, idx + 1, child);
+			}
+
+			if (Objects.equals(k, key)) {
+				change.previous = v;
+				return v == value ? this : set(edit, idx + 1, value);
+			}
+
+			Node child = mkNode(edit, shift + BITS, k, v, hash(k), key, value, hash);
+			return setPair(edit, idx, SUBNODE, child);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Change change) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0)
+				return this;
+
+			int idx = index(bit);
+			Object k = array[idx];
+			Object v = array[idx + 1];
+			if (k == SUBNODE) {
+				Node child = ((Node) v).remove(edit, shift + BITS, hash, key, change);
+				if (child == v)
+					return this;
+				if (child == null)
+					return without(edit, bit, idx);
+				if (child.isSingleEntry())
+					return setPair(edit, idx, child.array[0], child.array[1]);
+				return set(edit, idx + 1, child);
+			}
+
+			if (!Objects.equals(k, key))
+				return this;
+			change.previous = v;
+			return without(edit, bit, idx);
+		}
+
+		private Node without(Object edit, int bit, int idx) {
+			if (bitmap == bit)
+				return null;
+			Object[] smaller = new Object[array.length - 2];
+			System.arraycopy(array, 0, smaller, 0, idx);
+			System.arraycopy(array, idx + 2, smaller, idx, array.length - idx - 2);
+			return new BitmapNode(edit, bitmap ^ bit, smaller);
+		}
+	}
+
+	/**
+	 * A node containing pairs whose keys have the same hash, stored in no
+	 * particular order.
+	 */
+	private static final class CollisionNode extends Node {
+
+		private final int hash;
+
+		private CollisionNode(Object owner, int hash, Object[] array) {
+			super(owner, array);
+			this.hash = hash;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2)
+				if (Objects.equals(array[i], key))
+					return i;
+			return -1;
+		}
+
+		@Override
+		Node editable(Object edit) {
+			if (owner == edit)
+				return this;
+			return new CollisionNode(edit, hash, array.clone());
+		}
+
+		@Override
+		Object find(int hash, Object key, int shift) {
+			if (hash != this.hash)
+				return NOT_FOUND;
+			int idx = indexOf(key);
+			return idx < 0 ? NOT_FOUND : array[idx + 1];
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+			if (hash != this.hash)
+				// we nest this node inside an indexed one
+				return new BitmapNode(edit, bitpos(this.hash, shift), new Object[] { SUBNODE, this })
+						.put(edit, shift, hash, key, value, change);
+
+			int idx = indexOf(key);
+			if (idx >= 0) {
+				change.previous = array[idx + 1];
+				return array[idx + 1] == value ? this : set(edit, idx + 1, value);
+			}
+
+			Object[] bigger = new Object[array.length + 2];
+			System.arraycopy(array, 0, bigger, 0, array.length);
+			bigger[array.length] = key;
+			bigger[array.length + 1] = value;
+			return new CollisionNode(edit, hash, bigger);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Change change) {
+			if (hash != this.hash)
+				return this;
+			int idx = indexOf(key);
+			if (idx < 0)
+				return this;
+
+			change.previous = array[idx + 1];
+			if (array.length == 2)
+				return null;
+			Object[] smaller = new Object[array.length - 2];
+			System.arraycopy(array, 0, smaller, 0, idx);
+			System.arraycopy(array, idx + 2, smaller, idx, array.length - idx - 2);
+			return new CollisionNode(edit, hash, smaller);
+		}
+	}
+
+	private static Node mkNode(Object edit, int shift, Object k1, Object v1, int h1, Object k2, Object v2, int h2) {
+		if (h1 == h2)
+			return new CollisionNode(edit, h1, new Object[] { k1, v1, k2, v2 });
+
+		int b1 = bitpos(h1, shift);
+		int b2 = bitpos(h2, shift);
+		if (b1 == b2)
+			return new BitmapNode(edit, b1,
+					new Object[] { SUBNODE, mkNode(edit, shift + BITS, k1, v1, h1, k2, v2, h2) });
+		if (Integer.compareUnsigned(b1, b2) < 0)
+			return new BitmapNode(edit, b1 | b2, new Object[] { k1, v1, k2, v2 });
+		return new BitmapNode(edit, b1 | b2, new Object[] { k2, v2, k1, v1 });
+	}
+
+	/**
+	 * An iterator over the trie, performing an iterative depth-first visit of
+	 * the nodes that were part of it at the time of the creation of the
+	 * iterator.
+	 */
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+		private final int[] positions = new int[MAX_DEPTH];
+
+		private int depth;
+
+		private Entry<K, V> next;
+
+		private K last;
+
+		private boolean canRemove;
+
+		private EntryIterator() {
+			if (root == null)
+				depth = -1;
+			else {
+				// we share the trie with this iterator
+				owner = new Object();
+				arrays[0] = root.array;
+				depth = 0;
+			}
+			advance();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			while (depth >= 0) {
+				Object[] array = arrays[depth];
+				int pos = positions[depth];
+				if (pos >= array.length) {
+					depth--;
+					continue;
+				}
+
+				positions[depth] = pos + 2;
+				if (array[pos] == SUBNODE) {
+					depth++;
+					arrays[depth] = ((Node) array[pos + 1]).array;
+					positions[depth] = 0;
+				} else {
+					next = new MapEntry((K) array[pos], (V) array[pos + 1]);
+					return;
+				}
+			}
+			next = null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			Entry<K, V> res = next;
+			last = res.getKey();
+			canRemove = true;
+			advance();
+			return res;
+		}
+
+		@Override
+		public void remove() {
+			if (!canRemove)
+				throw new IllegalStateException();
+			canRemove = false;
+			PersistentHashMap.this.remove(last);
+		}
+	}
+
+	/**
+	 * An entry of the map, that writes through to the map when its value is
+	 * changed.
+	 */
+	private final class MapEntry extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private MapEntry(K key, V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			owner = new Object();
+			PersistentHashMap.this.put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
@@ -4,6 +4,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -239,19 +243,10 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 
 	@Override
 	public int size() {
-		long bitvector;
 		int count = 0;
 		long[] localbits = this.bits;
-
-		for (int pos = localbits.length - 1; pos >= 0; pos--) {
-			bitvector = localbits[pos];
-			if (bitvector != 0L)
-				for (int i = 0; i < 64; i++)
-					// we iterate over all possible bits of the bitvector
-					if (isset(localbits, 64 * pos + i))
-						count++;
-		}
-
+		for (int pos = localbits.length - 1; pos >= 0; pos--)
+			count += Long.bitCount(localbits[pos]);
 		return count;
 	}
 
@@ -281,6 +276,48 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 		return new BitSetIterator();
 	}
 
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		long[] localbits = this.bits;
+		for (int pos = 0; pos < localbits.length; pos++)
+			for (long bitvector = localbits[pos]; bitvector != 0L; bitvector &= bitvector - 1)
+				// we visit the set bits from the lowest one, clearing each of
+				// them after its visit
+				action.accept(cache.get((pos << 6) + Long.numberOfTrailingZeros(bitvector)));
+	}
+
+	@Override
+	public boolean anyMatch(Predicate<T> predicate) {
+		long[] localbits = this.bits;
+		for (int pos = 0; pos < localbits.length; pos++)
+			for (long bitvector = localbits[pos]; bitvector != 0L; bitvector &= bitvector - 1)
+				if (predicate.test(cache.get((pos << 6) + Long.numberOfTrailingZeros(bitvector))))
+					return true;
+		return false;
+	}
+
+	@Override
+	public boolean noneMatch(Predicate<T> predicate) {
+		return !anyMatch(predicate);
+	}
+
+	@Override
+	public boolean allMatch(Predicate<T> predicate) {
+		long[] localbits = this.bits;
+		for (int pos = 0; pos < localbits.length; pos++)
+			for (long bitvector = localbits[pos]; bitvector != 0L; bitvector &= bitvector - 1)
+				if (!predicate.test(cache.get((pos << 6) + Long.numberOfTrailingZeros(bitvector))))
+					return false;
+		return true;
+	}
+
+	@Override
+	public Collection<T> collect() {
+		List<T> list = new ArrayList<>(size());
+		forEach(list::add);
+		return list;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -477,83 +514,103 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 		return result;
 	}
 
+	@Override
+	public boolean retainAll(ExternalSet<T> other) {
+		if (this == other)
+			return false;
+		if (other == null)
+			return false;
+		if (cache != other.getCache())
+			return false;
+
+		if (!(other instanceof BitExternalSet))
+			return ExternalSet.super.retainAll(other);
+
+		long[] localbits = this.bits, otherbits = ((BitExternalSet<T>) other).bits;
+		boolean changed = false;
+		for (int pos = localbits.length - 1; pos >= 0; pos--) {
+			long word = pos < otherbits.length ? localbits[pos] & otherbits[pos] : 0L;
+			changed |= word != localbits[pos];
+			localbits[pos] = word;
+		}
+
+		removeTrailingZeros();
+		return changed;
+	}
+
+	@Override
+	public boolean removeAll(ExternalSet<T> other) {
+		if (other == null)
+			return false;
+		if (cache != other.getCache())
+			return false;
+
+		if (!(other instanceof BitExternalSet))
+			return ExternalSet.super.removeAll(other);
+
+		long[] localbits = this.bits, otherbits = ((BitExternalSet<T>) other).bits;
+		boolean changed = false;
+		for (int pos = Math.min(localbits.length, otherbits.length) - 1; pos >= 0; pos--) {
+			long word = localbits[pos] & ~otherbits[pos];
+			changed |= word != localbits[pos];
+			localbits[pos] = word;
+		}
+
+		removeTrailingZeros();
+		return changed;
+	}
+
 	/**
-	 * An iterator over the elements of a {@link BitExternalSet}.
+	 * An iterator over the elements of a {@link BitExternalSet}, that visits
+	 * the set bits of each bitvector through
+	 * {@link Long#numberOfTrailingZeros(long)}.
 	 * 
 	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
 	 */
 	private class BitSetIterator implements Iterator<T> {
 
 		/**
-		 * The next bit to look at
+		 * The bits to iterate over
 		 */
-		private int next;
+		private final long[] bits;
 
 		/**
-		 * The bits to iterate over
+		 * The index of the bitvector currently being visited
 		 */
-		private final long[] bits;
+		private int pos;
 
 		/**
-		 * The total number of bits to iterate over
+		 * The bits of the current bitvector that have not been visited yet
 		 */
-		private final int totalBits;
+		private long bitvector;
 
 		/**
-		 * Builds an iterator from the given bits and elements.
+		 * Builds an iterator over the current bits of the set.
 		 */
 		private BitSetIterator() {
 			this.bits = BitExternalSet.this.bits;
-			this.totalBits = bits.length << 6; // we go back to the integer
-												// representation
-			this.next = findNextBit();
+			this.pos = 0;
+			this.bitvector = bits[0];
+			skipEmpty();
 		}
 
-		/**
-		 * Yields the next non-ZERO bit in the set.
-		 * 
-		 * @return the position of the next non-zero bit in the set, starting at
-		 *             {@code start} non-inclusive, or {@code -1}
-		 */
-		private int findNextBit() {
-			long[] localbits = this.bits;
-			int start = next;
-			int l = this.totalBits;
-
-			while (start < l) {
-				int pos = bitvector_index(start);
-				long bitvector = localbits[pos];
-
-				while (bitvector == 0L) {
-					// we can skip to the next vector
-					if ((start += 64) >= l)
-						return -1;
-					bitvector = localbits[++pos];
-				}
-
-				long bit = bitmask(start);
-				do {
-					if ((bitvector & bit) != 0L)
-						return start;
-
-					bit <<= 1;
-					start++;
-				} while (bit != 0);
-			}
-
-			return -1;
+		private void skipEmpty() {
+			while (bitvector == 0L && pos < bits.length - 1)
+				bitvector = bits[++pos];
 		}
 
 		@Override
 		public boolean hasNext() {
-			return next >= 0;
+			return bitvector != 0L;
 		}
 
 		@Override
 		public T next() {
-			int nb = next++;
-			next = findNextBit();
-
+			if (bitvector == 0L)
+				throw new NoSuchElementException();
+			int nb = (pos << 6) + Long.numberOfTrailingZeros(bitvector);
+			bitvector &= bitvector - 1;
+			skipEmpty();
 			return cache.get(nb);
 		}
 
@@ -587,11 +644,7 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 
 	@Override
 	public Object[] toArray() {
-		Object[] array = new Object[size()];
-		int i = 0;
-		for (T t : this)
-			array[i++] = t;
-		return array;
+		return collect().toArray();
 	}
 
 	@Override
@@ -600,7 +653,10 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public boolean containsAll(Collection<?> c) {
+		if (c instanceof BitExternalSet && ((BitExternalSet<?>) c).cache == cache)
+			return contains((ExternalSet<T>) c);
 		for (Object o : c)
 			if (!contains(o))
 				return false;
@@ -616,7 +672,10 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public boolean retainAll(Collection<?> c) {
+		if (c instanceof BitExternalSet && ((BitExternalSet<?>) c).cache == cache)
+			return retainAll((ExternalSet<T>) c);
 		Collection<T> toRemove = new ArrayList<>();
 		for (T o : this)
 			if (!c.contains(o))
@@ -628,7 +687,10 @@ public class BitExternalSet<T> implements ExternalSet<T> {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public boolean removeAll(Collection<?> c) {
+		if (c instanceof BitExternalSet && ((BitExternalSet<?>) c).cache == cache)
+			return removeAll((ExternalSet<T>) c);
 		Collection<T> toRemove = new ArrayList<>();
 		for (T o : this)
 			if (c.contains(o))
@@ -189,6 +189,55 @@ public interface ExternalSet<T> extends Set<T> {
 		return result;
 	}
 
+	/**
+	 * Removes from this set all elements that are not contained into
+	 * {@code other}, modifying this set in place. This method is faster than
+	 * {@link #retainAll(Collection)} since it directly operates on the
+	 * underlying bit set. If {@code other} is {@code null}, or if the two sets
+	 * are not defined over the same cache, this set is left untouched.
+	 *
+	 * @param other the other set
+	 *
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	default boolean retainAll(ExternalSet<T> other) {
+		if (this == other)
+			return false;
+		if (other == null)
+			return false;
+		if (getCache() != other.getCache())
+			return false;
+
+		boolean changed = false;
+		for (T element : collect())
+			if (!other.contains(element))
+				changed |= remove(element);
+		return changed;
+	}
+
+	/**
+	 * Removes from this set all elements contained into {@code other},
+	 * modifying this set in place. This method is faster than
+	 * {@link #removeAll(Collection)} since it directly operates on the
+	 * underlying bit set. If {@code other} is {@code null}, or if the two sets
+	 * are not defined over the same cache, this set is left untouched.
+	 *
+	 * @param other the elements to remove
+	 *
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	default boolean removeAll(ExternalSet<T> other) {
+		if (other == null)
+			return false;
+		if (getCache() != other.getCache())
+			return false;
+
+		boolean changed = false;
+		for (T element : other.collect())
+			changed |= remove(element);
+		return changed;
+	}
+
 	/**
 	 * Yields {@code true} iff at least one element contained in this set
 	 * satisfies the given predicate.
@@ -3,13 +3,23 @@ package it.unive.lisa.util.collections.externalSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A cache for creating {@link ExternalSet}s of the elements contained in this
- * cache.
+ * cache.<br>
+ * <br>
+ * This cache can be safely shared among threads, and reading from it never
+ * blocks: elements are stored in an append-only sequence of chunks, whose
+ * sizes double at each new chunk and that are allocated on demand through
+ * compare-and-swap operations, while the index of each element is kept in a
+ * concurrent map. Once an element has been assigned an index, both the index
+ * and the element stored at it never change until the cache is
+ * {@link #clear() cleared}, as required by {@link BitExternalSet}s.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -18,24 +28,29 @@ import java.util.Map;
 public class ExternalSetCache<T> {
 
 	/**
-	 * The collection of elements in this cache
+	 * The size of the first chunk of elements. The {@code i}-th chunk has
+	 * size {@code FIRST_CHUNK << i}.
 	 */
-	private final List<T> elements = new ArrayList<>(16);
+	private static final int FIRST_CHUNK = 16;
 
 	/**
-	 * A map from the elements to their index
+	 * The maximum number of chunks, enough to contain
+	 * {@link Integer#MAX_VALUE} elements
 	 */
-	private final Map<T, Integer> indexes = new HashMap<>(16);
+	private static final int MAX_CHUNKS = 28;
 
 	/**
-	 * The next index available for new elements
+	 * The placeholder used to store {@code null} inside the chunks and as key
+	 * of the index map, where {@code null}s are not permitted and where
+	 * {@code null} slots denote elements that are still being added
 	 */
-	private int nextIndex;
+	private static final Object NULL = new Object();
 
 	/**
-	 * The index assigned to the {@code null} key, if any.
+	 * The current contents of the cache, replaced as a whole when the cache
+	 * is cleared
 	 */
-	private int indexOfNull = -1;
+	private volatile Storage storage = new Storage();
 
 	/**
 	 * Builds an empty {@link ExternalSet} that uses this cache.
@@ -87,12 +102,9 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}, or {@code -1}
 	 */
-	protected synchronized final int indexOf(T e) {
-		if (e == null)
-			return indexOfNull;
-
-		Integer result;
-		return (result = indexes.get(e)) == null ? -1 : result;
+	protected final int indexOf(T e) {
+		Integer result = storage.indexes.get(e == null ? NULL : e);
+		return result == null ? -1 : result;
 	}
 
 	/**
@@ -103,21 +115,14 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}
 	 */
-	protected synchronized final int indexOfOrAdd(T e) {
-		if (e == null) {
-			if (indexOfNull == -1) {
-				elements.add(null);
-				indexOfNull = nextIndex++;
-			}
-			return indexOfNull;
-		}
-
-		Integer result = indexes.get(e);
+	protected final int indexOfOrAdd(T e) {
+		Storage current = storage;
+		Object key = e == null ? NULL : e;
+		Integer result = current.indexes.get(key);
 		if (result == null)
-			return indexes.computeIfAbsent(e, el -> {
-				elements.add(e);
-				return nextIndex++;
-			});
+			// only threads adding the same element contend here, and the
+			// element is published in its slot before its index is
+			return current.indexes.computeIfAbsent(key, current::append);
 
 		return result;
 	}
@@ -129,41 +134,109 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the element
 	 */
-	protected final synchronized T get(int pos) {
-		return elements.get(pos);
+	@SuppressWarnings("unchecked")
+	protected final T get(int pos) {
+		Object element = storage.get(pos);
+		return element == NULL ? null : (T) element;
 	}
 
 	/**
 	 * Cleans the cache, removing all elements.
 	 */
-	public final synchronized void clear() {
-		elements.clear();
-		indexes.clear();
-		indexOfNull = -1;
-		nextIndex = 0;
+	public final void clear() {
+		storage = new Storage();
 	}
 
 	/**
-	 * Yields the total number of elements stored in this cache.
+	 * Yields the total number of elements stored in this cache. Elements that
+	 * are still being added by other threads are not counted.
 	 * 
 	 * @return the number of elements
 	 */
-	public final synchronized int size() {
-		return elements.size();
+	public final int size() {
+		return storage.published.get();
 	}
 
 	@Override
-	public final synchronized String toString() {
-		return elements.toString();
+	public final String toString() {
+		return getAllElements().toString();
 	}
 
 	/**
-	 * Yields an unmodifiable view of all the elements currently in the cache.
-	 * For a view that always stays up-to-date, use {@link #mkUniversalSet()}.
+	 * Yields an unmodifiable snapshot of all the elements currently in the
+	 * cache. The snapshot is not affected by elements added afterwards, and
+	 * can thus be safely iterated while other threads populate this cache. For
+	 * a view that always stays up-to-date, use {@link #mkUniversalSet()}.
 	 * 
-	 * @return a view of the elements inside this cache
+	 * @return a snapshot of the elements inside this cache
+	 */
+	@SuppressWarnings("unchecked")
+	Collection<T> getAllElements() {
+		Storage current = storage;
+		int size = current.next.get();
+		List<T> elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Object element = current.get(i);
+			elements.add(element == NULL ? null : (T) element);
+		}
+		return Collections.unmodifiableList(elements);
+	}
+
+	/**
+	 * The contents of a cache: the chunks holding the elements, the map from
+	 * elements to their indexes, and the next index to assign.
 	 */
-	synchronized Collection<T> getAllElements() {
-		return Collections.unmodifiableCollection(elements);
+	private static final class Storage {
+
+		private final AtomicReferenceArray<AtomicReferenceArray<Object>> chunks = new AtomicReferenceArray<>(
+				MAX_CHUNKS);
+
+		private final Map<Object, Integer> indexes = new ConcurrentHashMap<>(16);
+
+		private final AtomicInteger next = new AtomicInteger();
+
+		private final AtomicInteger published = new AtomicInteger();
+
+		private static int chunkOf(int pos) {
+			return 31 - Integer.numberOfLeadingZeros(pos / FIRST_CHUNK + 1);
+		}
+
+		private static int offsetOf(int pos, int chunk) {
+			return pos - FIRST_CHUNK * ((1 << chunk) - 1);
+		}
+
+		private AtomicReferenceArray<Object> chunk(int chunk) {
+			AtomicReferenceArray<Object> result = chunks.get(chunk);
+			if (result == null) {
+				// many threads can race to allocate the same chunk: only the
+				// first one succeeds, and all of them use its array
+				chunks.compareAndSet(chunk, null, new AtomicReferenceArray<>(FIRST_CHUNK << chunk));
+				result = chunks.get(chunk);
+			}
+			return result;
+		}
+
+		private Integer append(Object element) {
+			int pos = next.getAndIncrement();
+			int chunk = chunkOf(pos);
+			chunk(chunk).set(offsetOf(pos, chunk), element);
+			published.incrementAndGet();
+			return pos;
+		}
+
+		private Object get(int pos) {
+			if (pos < 0 || pos >= next.get())
+				throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + next.get());
+
+			int chunk = chunkOf(pos);
+			int offset = offsetOf(pos, chunk);
+			AtomicReferenceArray<Object> array;
+			Object element;
+			// the index has been reserved by a thread that might still be
+			// allocating the chunk or storing the element
+			while ((array = chunks.get(chunk)) == null || (element = array.get(offset)) == null)
+				Thread.yield();
+			return element;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -2,15 +2,19 @@ package it.unive.lisa.util.datastructures.graph;
 
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -47,6 +51,36 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 */
 	private int nextOffset;
 
+	/**
+	 * The compressed, immutable snapshot of this matrix built by
+	 * {@link #freeze()}, or {@code null} if this matrix is not frozen
+	 */
+	private FrozenAdjacencyMatrix<N, E, G> frozen;
+
+	/**
+	 * The cached, unmodifiable collections of followers of each node, built
+	 * on demand and invalidated when the node's outgoing edges change
+	 */
+	private final Map<N, Collection<N>> followers = new ConcurrentHashMap<>();
+
+	/**
+	 * The cached, unmodifiable collections of predecessors of each node,
+	 * built on demand and invalidated when the node's ingoing edges change
+	 */
+	private final Map<N, Collection<N>> predecessors = new ConcurrentHashMap<>();
+
+	/**
+	 * The cached mapping from each follower of a node to the edge connecting
+	 * the node to it, built on demand and invalidated when the node's
+	 * outgoing edges change
+	 */
+	private final Map<N, Map<N, E>> outgoing = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of modifications applied to this matrix
+	 */
+	private volatile int version;
+
 	/**
 	 * Builds a new matrix.
 	 */
@@ -69,6 +103,43 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 		for (Map.Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>> entry : other.matrix.entrySet())
 			matrix.put(entry.getKey(), Pair.of(entry.getValue().getLeft().copy(), entry.getValue().getRight().copy()));
 		nextOffset = other.nextOffset;
+		// the snapshot only refers to nodes and edges, that are shared
+		frozen = other.frozen;
+	}
+
+	/**
+	 * Freezes this matrix, building a {@link FrozenAdjacencyMatrix} that will
+	 * be used to answer {@link #followersOf(Node)},
+	 * {@link #predecessorsOf(Node)} and
+	 * {@link #getEdgeConnecting(Node, Node)} without allocations. Adding nodes
+	 * or edges to this matrix, or simplifying it, discards the frozen snapshot.
+	 * This method has no effect if the offsets of the nodes of this matrix are
+	 * not unique.
+	 */
+	public void freeze() {
+		frozen = FrozenAdjacencyMatrix.of(this);
+	}
+
+	/**
+	 * Yields the frozen snapshot of this matrix built by the last call to
+	 * {@link #freeze()}, if this matrix has not been modified since.
+	 * 
+	 * @return the frozen snapshot, or {@code null}
+	 */
+	public FrozenAdjacencyMatrix<N, E, G> getFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Yields the version of this matrix, that is, a number that changes every
+	 * time a node or an edge is added to or removed from this matrix, or every
+	 * time this matrix is simplified. Information derived from this matrix can be cached
+	 * as long as its version does not change.
+	 * 
+	 * @return the version
+	 */
+	public int getVersion() {
+		return version;
 	}
 
 	/**
@@ -77,6 +148,11 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 * @param node the node to add
 	 */
 	public void addNode(N node) {
+		version++;
+		frozen = null;
+		followers.remove(node);
+		predecessors.remove(node);
+		outgoing.remove(node);
 		matrix.put(node, Pair.of(edgeFactory.mkEmptySet(), edgeFactory.mkEmptySet()));
 		nextOffset = node.setOffset(nextOffset) + 1;
 	}
@@ -106,14 +182,60 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 		if (!matrix.containsKey(e.getDestination()))
 			throw new UnsupportedOperationException("The destination node is not in the graph");
 
+		version++;
+		frozen = null;
+		followers.remove(e.getSource());
+		outgoing.remove(e.getSource());
+		predecessors.remove(e.getDestination());
 		matrix.get(e.getSource()).getRight().add(e);
 		matrix.get(e.getDestination()).getLeft().add(e);
 	}
 
+	/**
+	 * Removes an edge from this matrix. This method has no effect if the edge
+	 * is not part of this matrix.
+	 * 
+	 * @param e the edge to remove
+	 */
+	public void removeEdge(E e) {
+		Pair<ExternalSet<E>, ExternalSet<E>> src = matrix.get(e.getSource());
+		Pair<ExternalSet<E>, ExternalSet<E>> dest = matrix.get(e.getDestination());
+		if (src == null || dest == null || !src.getRight().contains(e))
+			return;
+
+		version++;
+		frozen = null;
+		followers.remove(e.getSource());
+		outgoing.remove(e.getSource());
+		predecessors.remove(e.getDestination());
+		src.getRight().remove(e);
+		dest.getLeft().remove(e);
+	}
+
+	/**
+	 * Yields the edges of this matrix that reach the given node. Yields
+	 * {@code null} if the node is not in this matrix.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the collection of ingoing edges, or {@code null}
+	 */
+	public final Collection<E> getIngoingEdges(N node) {
+		Pair<ExternalSet<E>, ExternalSet<E>> pair = matrix.get(node);
+		if (pair == null)
+			return null;
+
+		List<E> result = new LinkedList<>();
+		pair.getLeft().forEach(result::add);
+		return result;
+	}
+
 	/**
 	 * Yields the edge connecting the two given nodes, if any. Yields
 	 * {@code null} if such edge does not exist, or if one of the two node is
-	 * not inside this matrix.
+	 * not inside this matrix. The lookup uses an index of the outgoing edges
+	 * of {@code source}, that is built on the first request and kept until
+	 * such edges change.
 	 * 
 	 * @param source      the source node
 	 * @param destination the destination node
@@ -122,14 +244,20 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 *             {@code null}
 	 */
 	public final E getEdgeConnecting(N source, N destination) {
-		if (!matrix.containsKey(source))
-			return null;
+		FrozenAdjacencyMatrix<N, E, G> snapshot = frozen;
+		if (snapshot != null)
+			return snapshot.getEdgeConnecting(source, destination);
 
-		for (E e : matrix.get(source).getRight())
-			if (e.getDestination().equals(destination))
-				return e;
+		Pair<ExternalSet<E>, ExternalSet<E>> pair = matrix.get(source);
+		if (pair == null)
+			return null;
 
-		return null;
+		return outgoing.computeIfAbsent(source, n -> {
+			Map<N, E> index = new HashMap<>();
+			// the first edge reaching each node is the one to return
+			pair.getRight().forEach(e -> index.putIfAbsent(e.getDestination(), e));
+			return index;
+		}).get(destination);
 	}
 
 	/**
@@ -138,43 +266,68 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 * @return the collection of edges
 	 */
 	public final Collection<E> getEdges() {
-		return matrix.values().stream()
-				.flatMap(c -> Stream.concat(c.getLeft().collect().stream(), c.getRight().collect().stream()))
-				.collect(Collectors.toSet());
+		Set<E> edges = new HashSet<>();
+		for (Pair<ExternalSet<E>, ExternalSet<E>> pair : matrix.values()) {
+			pair.getLeft().forEach(edges::add);
+			pair.getRight().forEach(edges::add);
+		}
+		return edges;
 	}
 
 	/**
 	 * Yields the collection of the nodes that are followers of the given one,
 	 * that is, all nodes such that there exist an edge in this matrix going
 	 * from the given node to such node. Yields {@code null} if the node is not
-	 * in this matrix.
+	 * in this matrix. The returned collection is unmodifiable, and it is
+	 * cached until an edge is added to this matrix from the given node, or
+	 * until this matrix is simplified.
 	 * 
 	 * @param node the node
 	 * 
 	 * @return the collection of followers, or {@code null}
 	 */
 	public final Collection<N> followersOf(N node) {
-		if (!matrix.containsKey(node))
+		FrozenAdjacencyMatrix<N, E, G> snapshot = frozen;
+		if (snapshot != null)
+			return snapshot.followersOf(node);
+
+		Pair<ExternalSet<E>, ExternalSet<E>> pair = matrix.get(node);
+		if (pair == null)
 			return null;
 
-		return matrix.get(node).getRight().collect().stream().map(e -> e.getDestination()).collect(Collectors.toSet());
+		return followers.computeIfAbsent(node, n -> {
+			Set<N> result = new HashSet<>();
+			pair.getRight().forEach(e -> result.add(e.getDestination()));
+			return Collections.unmodifiableSet(result);
+		});
 	}
 
 	/**
 	 * Yields the collection of the nodes that are predecessors of the given
 	 * vertex, that is, all nodes such that there exist an edge in this matrix
 	 * going from such node to the given one. Yields {@code null} if the node is
-	 * not in this matrix.
+	 * not in this matrix. The returned collection is unmodifiable, and it is
+	 * cached until an edge is added to this matrix towards the given node, or
+	 * until this matrix is simplified.
 	 * 
 	 * @param node the node
 	 * 
 	 * @return the collection of predecessors, or {@code null}
 	 */
 	public final Collection<N> predecessorsOf(N node) {
-		if (!matrix.containsKey(node))
+		FrozenAdjacencyMatrix<N, E, G> snapshot = frozen;
+		if (snapshot != null)
+			return snapshot.predecessorsOf(node);
+
+		Pair<ExternalSet<E>, ExternalSet<E>> pair = matrix.get(node);
+		if (pair == null)
 			return null;
 
-		return matrix.get(node).getLeft().collect().stream().map(e -> e.getSource()).collect(Collectors.toSet());
+		return predecessors.computeIfAbsent(node, n -> {
+			Set<N> result = new HashSet<>();
+			pair.getLeft().forEach(e -> result.add(e.getSource()));
+			return Collections.unmodifiableSet(result);
+		});
 	}
 
 	/**
@@ -182,7 +335,23 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 * edge set accordingly. This method will throw an
 	 * {@link UnsupportedOperationException} if one of the nodes being
 	 * simplified has an outgoing edge that is not simplifiable, according to
-	 * {@link Edge#canBeSimplified()}.
+	 * {@link Edge#canBeSimplified()}. In that case, the matrix is left
+	 * untouched.<br>
+	 * <br>
+	 * Maximal regions of nodes being simplified are contracted at once: each
+	 * edge entering a region from a node {@code s} is replaced by edges of the
+	 * same kind (see {@link Edge#newInstance(Node, Node)}) from {@code s} to
+	 * every node that is not simplified and that can be reached from the
+	 * region by traversing only simplified nodes. If no such node exists, the
+	 * edge entering the region is removed, and it must be simplifiable as
+	 * well. Entrypoints being simplified that cannot be reached from nodes
+	 * that are not simplified are replaced by the nodes reachable from them in
+	 * the same way. The set of
+	 * nodes reachable from each simplified node is computed once, so that the
+	 * whole simplification takes time linear in the size of the matrix (for
+	 * regions having a bounded number of exits), instead of rewriting the
+	 * edges of each simplified node one at a time. Cycles made only of nodes
+	 * being simplified are not supported.
 	 * 
 	 * @param targets     the set of the {@link Node}s that needs to be
 	 *                        simplified
@@ -195,58 +364,99 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 	 *                                           outgoing non-simplifiable edge
 	 */
 	public synchronized void simplify(Set<N> targets, Collection<N> entrypoints) {
-		for (N t : targets) {
-			ExternalSet<E> ingoing = matrix.get(t).getLeft();
-			ExternalSet<E> outgoing = matrix.get(t).getRight();
-			boolean entry = entrypoints.contains(t);
-
-			if (ingoing.isEmpty() && !outgoing.isEmpty())
-				// this is a source node
-				for (E out : outgoing) {
-					if (!out.canBeSimplified())
-						throw new UnsupportedOperationException(
-								"Cannot simplify an edge with class " + out.getClass().getSimpleName());
-
-					// remove the edge
-					matrix.get(out.getDestination()).getLeft().remove(out);
-					if (entry)
-						entrypoints.add(out.getDestination());
-				}
-			else if (!ingoing.isEmpty() && outgoing.isEmpty())
-				// this is an exit node
-				for (E in : ingoing) {
-					if (!in.canBeSimplified())
+		for (N t : targets)
+			for (E out : matrix.get(t).getRight())
+				if (!out.canBeSimplified())
+					throw new UnsupportedOperationException(
+							"Cannot simplify an edge with class " + out.getClass().getSimpleName());
+
+		Map<N, Set<N>> exits = new HashMap<>(targets.size());
+		for (N t : targets)
+			computeExits(t, targets, exits);
+
+		// simplified nodes that can be reached from the rest of the graph
+		Set<N> reachable = new HashSet<>();
+		Deque<N> ws = new ArrayDeque<>();
+		for (N t : targets)
+			for (E in : matrix.get(t).getLeft())
+				if (!targets.contains(in.getSource()) && reachable.add(t))
+					ws.push(t);
+		while (!ws.isEmpty())
+			for (E out : matrix.get(ws.pop()).getRight())
+				if (targets.contains(out.getDestination()) && reachable.add(out.getDestination()))
+					ws.push(out.getDestination());
+
+		// edges entering a region are replaced by the ones reaching its exits
+		List<E> entering = new LinkedList<>();
+		List<E> replacements = new LinkedList<>();
+		for (N t : targets)
+			for (E in : matrix.get(t).getLeft())
+				if (!targets.contains(in.getSource())) {
+					if (exits.get(t).isEmpty() && !in.canBeSimplified())
+						// the edge would be removed without replacements
 						throw new UnsupportedOperationException(
 								"Cannot simplify an edge with class " + in.getClass().getSimpleName());
-
-					// remove the edge
-					matrix.get(in.getSource()).getRight().remove(in);
+					entering.add(in);
+					for (N exit : exits.get(t))
+						replacements.add(in.newInstance(in.getSource(), exit));
 				}
-			else
-				// normal intermediate edge
-				for (E in : ingoing)
-					for (E out : outgoing) {
-						if (!out.canBeSimplified())
-							throw new UnsupportedOperationException(
-									"Cannot simplify an edge with class " + out.getClass().getSimpleName());
-
-						// replicate the edge from ingoing.source to
-						// outgoing.dest
-						E _new = in.newInstance(in.getSource(), out.getDestination());
-
-						// swap the ingoing edge
-						matrix.get(in.getSource()).getRight().remove(in);
-						matrix.get(in.getSource()).getRight().add(_new);
-
-						// swap the outgoing edge
-						matrix.get(out.getDestination()).getLeft().remove(out);
-						matrix.get(out.getDestination()).getLeft().add(_new);
-					}
-
-			// remove the simplified node
-			if (entry)
+
+		version++;
+		frozen = null;
+		followers.clear();
+		predecessors.clear();
+		outgoing.clear();
+
+		for (E in : entering)
+			matrix.get(in.getSource()).getRight().remove(in);
+		for (N t : targets) {
+			for (E out : matrix.get(t).getRight())
+				if (!targets.contains(out.getDestination()))
+					matrix.get(out.getDestination()).getLeft().remove(out);
+			if (entrypoints.contains(t)) {
+				if (!reachable.contains(t))
+					// the node can only be executed as entrypoint
+					entrypoints.addAll(exits.get(t));
 				entrypoints.remove(t);
+			}
+		}
+
+		for (N t : targets)
 			matrix.remove(t);
+		for (E e : replacements) {
+			matrix.get(e.getSource()).getRight().add(e);
+			matrix.get(e.getDestination()).getLeft().add(e);
+		}
+	}
+
+	private void computeExits(N start, Set<N> targets, Map<N, Set<N>> exits) {
+		if (exits.containsKey(start))
+			return;
+
+		Deque<N> nodes = new ArrayDeque<>();
+		Deque<Iterator<E>> edges = new ArrayDeque<>();
+		exits.put(start, new HashSet<>());
+		nodes.push(start);
+		edges.push(matrix.get(start).getRight().iterator());
+		while (!nodes.isEmpty()) {
+			N current = nodes.peek();
+			Iterator<E> it = edges.peek();
+			if (it.hasNext()) {
+				N next = it.next().getDestination();
+				if (!targets.contains(next))
+					exits.get(current).add(next);
+				else if (!exits.containsKey(next)) {
+					exits.put(next, new HashSet<>());
+					nodes.push(next);
+					edges.push(matrix.get(next).getRight().iterator());
+				} else
+					exits.get(current).addAll(exits.get(next));
+			} else {
+				nodes.pop();
+				edges.pop();
+				if (!nodes.isEmpty())
+					exits.get(nodes.peek()).addAll(exits.get(current));
+			}
 		}
 	}
 
@@ -304,38 +514,105 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 
 	private boolean areEqual(Map<N, Pair<ExternalSet<E>, ExternalSet<E>>> first,
 			Map<N, Pair<ExternalSet<E>, ExternalSet<E>>> second) {
-		// the following keeps track of the unmatched nodes in second
-		Collection<N> copy = new HashSet<>(second.keySet());
-		boolean found;
+		if (first.size() != second.size())
+			return false;
+
+		// each node of first is compared only with the unmatched nodes in its
+		// bucket, instead of all the nodes of second
+		Map<Integer, List<N>> buckets = buckets(second);
+
 		for (Map.Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>> entry : first.entrySet()) {
-			found = false;
-			for (Map.Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>> entry2 : second.entrySet())
-				if (copy.contains(entry2.getKey()) && entry.getKey().isEqualTo(entry2.getKey())
-						&& areEqual(entry.getValue().getLeft(), entry2.getValue().getLeft())
-						&& areEqual(entry.getValue().getRight(), entry2.getValue().getRight())) {
-					copy.remove(entry2.getKey());
+			List<N> candidates = buckets.get(signature(entry.getKey(), entry.getValue()));
+			if (candidates == null)
+				return false;
+
+			boolean found = false;
+			for (Iterator<N> it = candidates.iterator(); it.hasNext();) {
+				N candidate = it.next();
+				Pair<ExternalSet<E>, ExternalSet<E>> edges = second.get(candidate);
+				if (entry.getKey().isEqualTo(candidate)
+						&& areEqual(entry.getValue().getLeft(), edges.getLeft())
+						&& areEqual(entry.getValue().getRight(), edges.getRight())) {
+					it.remove();
 					found = true;
 					break;
 				}
+			}
 			if (!found)
 				return false;
 		}
 
-		if (!copy.isEmpty())
-			return false;
-
+		// all the nodes of second have been matched, since the two maps have
+		// the same size
 		return true;
 	}
 
+	/**
+	 * Yields the nodes of this matrix bucketed by the signature used to match
+	 * them in {@link #isEqualTo(AdjacencyMatrix)}.
+	 * 
+	 * @return the buckets, indexed by signature
+	 */
+	Map<Integer, List<N>> signatureBuckets() {
+		return buckets(matrix);
+	}
+
+	private Map<Integer, List<N>> buckets(Map<N, Pair<ExternalSet<E>, ExternalSet<E>>> nodes) {
+		// nodes are bucketed by a signature computed from their content and
+		// from the one of their edges, that is consistent with the checks of
+		// areEqual
+		Map<Integer, List<N>> buckets = new HashMap<>(nodes.size());
+		for (Map.Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>> entry : nodes.entrySet())
+			buckets.computeIfAbsent(signature(entry.getKey(), entry.getValue()), k -> new LinkedList<>())
+					.add(entry.getKey());
+		return buckets;
+	}
+
+	private int signature(N node, Pair<ExternalSet<E>, ExternalSet<E>> edges) {
+		final int prime = 31;
+		int result = node.effectiveHashCode();
+		result = prime * result + signature(edges.getLeft());
+		result = prime * result + signature(edges.getRight());
+		return result;
+	}
+
+	private int signature(ExternalSet<E> edges) {
+		// a commutative combination, since sets are unordered
+		int result = edges.size();
+		for (E edge : edges)
+			result += mix(edge.effectiveHashCode());
+		return result;
+	}
+
+	private static int mix(int hash) {
+		// the finalizer of murmur3, so that summing hashes does not cancel
+		// out their differences
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
 	private boolean areEqual(ExternalSet<E> first, ExternalSet<E> second) {
-		// the following keeps track of the unmatched edges in second
-		Collection<E> copy = second.collect();
-		boolean found;
+		if (first.size() != second.size())
+			return false;
+
+		// the unmatched edges of second, bucketed by their hash code
+		Map<Integer, List<E>> buckets = new HashMap<>(second.size());
+		for (E ee : second)
+			buckets.computeIfAbsent(ee.effectiveHashCode(), k -> new LinkedList<>()).add(ee);
+
 		for (E e : first) {
-			found = false;
-			for (E ee : second)
-				if (copy.contains(ee) && e.isEqualTo(ee)) {
-					copy.remove(ee);
+			List<E> candidates = buckets.get(e.effectiveHashCode());
+			if (candidates == null)
+				return false;
+
+			boolean found = false;
+			for (Iterator<E> it = candidates.iterator(); it.hasNext();)
+				if (e.isEqualTo(it.next())) {
+					it.remove();
 					found = true;
 					break;
 				}
@@ -343,9 +620,8 @@ public class AdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G
 				return false;
 		}
 
-		if (!copy.isEmpty())
-			return false;
-
+		// all the edges of second have been matched, since the two sets have
+		// the same size
 		return true;
 	}
 
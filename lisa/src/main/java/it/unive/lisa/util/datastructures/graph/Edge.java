@@ -39,6 +39,23 @@ public interface Edge<N extends Node<N, E, G>, E extends Edge<N, E, G>, G extend
 	 */
 	boolean isEqualTo(E other);
 
+	/**
+	 * Yields a hash code for this edge that is consistent with
+	 * {@link #isEqualTo(Edge)}, that is, such that edges that are effectively
+	 * equal have the same hash code. By default, the hash code depends on the
+	 * class of the edge and on the {@link Node#effectiveHashCode()} of its
+	 * source and destination.
+	 * 
+	 * @return the hash code
+	 */
+	default int effectiveHashCode() {
+		final int prime = 31;
+		int result = getClass().getName().hashCode();
+		result = prime * result + (getSource() == null ? 0 : getSource().effectiveHashCode());
+		result = prime * result + (getDestination() == null ? 0 : getDestination().effectiveHashCode());
+		return result;
+	}
+
 	/**
 	 * Yields {@code true} if and only if this edge could be simplified if one
 	 * of the nodes connected to it is simplified (i.e., removed from the
@@ -0,0 +1,191 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.analysis.Lattice;
+
+/**
+ * A holder for the parameters that drive a fixpoint computation over a
+ * {@link FixpointGraph}. Setters of this class return the configuration
+ * itself, so that they can be chained.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class FixpointConfiguration {
+
+	/**
+	 * The iteration strategy to use
+	 */
+	private FixpointStrategy strategy;
+
+	/**
+	 * The number of iterations after which widening is applied
+	 */
+	private int wideningThreshold;
+
+	/**
+	 * The number of threads to use for analyzing independent graphs
+	 */
+	private int parallelism;
+
+	/**
+	 * Whether or not variables should be forgotten as soon as they are dead
+	 */
+	private boolean forgetDeadVariables;
+
+	/**
+	 * Builds a new configuration object, with default settings. By default:
+	 * <ul>
+	 * <li>the {@link FixpointStrategy#WORKLIST} strategy is used</li>
+	 * <li>the widening threshold is
+	 * {@link FixpointGraph#DEFAULT_WIDENING_THRESHOLD}</li>
+	 * <li>independent graphs are analyzed sequentially, on a single
+	 * thread</li>
+	 * <li>variables are forgotten only when their scope ends</li>
+	 * </ul>
+	 */
+	public FixpointConfiguration() {
+		this.strategy = FixpointStrategy.WORKLIST;
+		this.wideningThreshold = FixpointGraph.DEFAULT_WIDENING_THRESHOLD;
+		this.parallelism = 1;
+		this.forgetDeadVariables = false;
+	}
+
+	/**
+	 * Sets the {@link FixpointStrategy} to use for iterating over the graph.
+	 * 
+	 * @param strategy the strategy
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setStrategy(FixpointStrategy strategy) {
+		this.strategy = strategy;
+		return this;
+	}
+
+	/**
+	 * Sets the number of times after which the {@link Lattice#lub(Lattice)}
+	 * invocation gets replaced by the {@link Lattice#widening(Lattice)} call.
+	 * Use {@code 0} to <b>always</b> use {@link Lattice#lub(Lattice)}.
+	 * 
+	 * @param wideningThreshold the threshold
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setWideningThreshold(int wideningThreshold) {
+		this.wideningThreshold = wideningThreshold;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads to use for computing fixpoints over
+	 * independent graphs (e.g., the cfgs of a program analyzed
+	 * intraprocedurally). Each fixpoint is still computed on a single thread.
+	 * Use {@code 1} to analyze all graphs sequentially, or
+	 * {@link Runtime#availableProcessors()} to use all the available cores.
+	 * 
+	 * @param parallelism the number of threads, must be positive
+	 * 
+	 * @return the current (modified) configuration
+	 * 
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public FixpointConfiguration setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The parallelism level must be positive: " + parallelism);
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Sets whether or not variables should be removed from the analysis
+	 * states as soon as they are dead, that is, as soon as they cannot be read
+	 * before being assigned again, instead of when their scope ends. This
+	 * keeps the states (and thus the cost of lattice operations) proportional
+	 * to the live variables, but states computed at nodes will not contain
+	 * information about dead variables.
+	 * 
+	 * @param forgetDeadVariables whether or not dead variables should be
+	 *                                forgotten
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setForgetDeadVariables(boolean forgetDeadVariables) {
+		this.forgetDeadVariables = forgetDeadVariables;
+		return this;
+	}
+
+	/**
+	 * Yields the {@link FixpointStrategy} to use for iterating over the graph.
+	 * 
+	 * @return the strategy
+	 */
+	public FixpointStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Yields the number of times after which the {@link Lattice#lub(Lattice)}
+	 * invocation gets replaced by the {@link Lattice#widening(Lattice)} call.
+	 * 
+	 * @return the widening threshold
+	 */
+	public int getWideningThreshold() {
+		return wideningThreshold;
+	}
+
+	/**
+	 * Yields the number of threads to use for computing fixpoints over
+	 * independent graphs.
+	 * 
+	 * @return the parallelism level
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Yields whether or not variables should be removed from the analysis
+	 * states as soon as they are dead.
+	 * 
+	 * @return {@code true} if dead variables should be forgotten
+	 */
+	public boolean isForgettingDeadVariables() {
+		return forgetDeadVariables;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((strategy == null) ? 0 : strategy.hashCode());
+		result = prime * result + wideningThreshold;
+		result = prime * result + parallelism;
+		result = prime * result + (forgetDeadVariables ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FixpointConfiguration other = (FixpointConfiguration) obj;
+		if (strategy != other.strategy)
+			return false;
+		if (wideningThreshold != other.wideningThreshold)
+			return false;
+		if (parallelism != other.parallelism)
+			return false;
+		if (forgetDeadVariables != other.forgetDeadVariables)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "strategy: " + strategy + ", widening threshold: " + wideningThreshold + ", parallelism: "
+				+ parallelism + ", forget dead variables: " + forgetDeadVariables;
+	}
+}
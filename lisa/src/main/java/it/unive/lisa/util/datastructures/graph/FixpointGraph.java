@@ -1,5 +1,6 @@
 package it.unive.lisa.util.datastructures.graph;
 
+import it.unive.lisa.AnalysisExecutionException;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.Lattice;
@@ -8,15 +9,18 @@ import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.lattices.FunctionalLattice;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.util.datastructures.graph.algorithms.BasicBlocks;
+import it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder;
+import it.unive.lisa.util.workset.ArrayFIFOWorkingSet;
 import it.unive.lisa.util.workset.WorkingSet;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -172,7 +176,6 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 	 *                               unknown/invalid node ends up in the working
 	 *                               set
 	 */
-	@SuppressWarnings("unchecked")
 	protected <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>,
@@ -180,13 +183,10 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg, WorkingSet<N> ws, int widenAfter,
 					SemanticFunction<N, E, G, A, H, V, F> semantics)
 					throws FixpointException {
-		int size = adjacencyMatrix.getNodes().size();
-		Map<N, AtomicInteger> lubs = new HashMap<>(size);
-		Map<N, Pair<AnalysisState<A, H, V>, F>> result = new HashMap<>(size);
+		Map<N, Approximation<A, H, V, F>> result = new OffsetMap<>(adjacencyMatrix.getNodes().size());
 		startingPoints.keySet().forEach(ws::push);
 
-		AnalysisState<A, H, V> oldApprox = null, newApprox;
-		F oldIntermediate = null, newIntermediate;
+		Approximation<A, H, V, F> oldApprox, newApprox;
 		try {
 			while (!ws.isEmpty()) {
 				N current = ws.pop();
@@ -198,81 +198,501 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					throw new FixpointException("'" + current
 							+ "' is not part of this graph, and cannot be analyzed in this fixpoint computation");
 
-				AnalysisState<A, H, V> entrystate;
-				try {
-					entrystate = getEntryState(current, startingPoints, result);
-				} catch (SemanticException e) {
-					throw new FixpointException(
-							"Exception while computing the entry state for '" + current + "' in " + this, e);
-				}
+				oldApprox = result.get(current);
+				newApprox = compute(current, startingPoints, result, cg, semantics);
+
+				if (oldApprox == null) {
+					// we multiply by the number of predecessors since
+					// if we have more than one
+					// the threshold will be reached faster
+					newApprox.lubs = widenAfter * predecessorsOf(current).size();
+					result.put(current, newApprox);
+				} else if (!join(current, oldApprox, newApprox, widenAfter != 0))
+					continue;
+
+				for (N instr : followersOf(current))
+					ws.push(instr);
+			}
+
+			return flatten(result);
+		} catch (Exception e) {
+			log.fatal("Unexpected exception during fixpoint computation of '" + this + "': " + e);
+			throw new FixpointException("Unexpected exception during fixpoint computation", e);
+		}
+	}
+
+	/**
+	 * Computes a fixpoint over this graph following a
+	 * {@link WeakTopologicalOrder} of its nodes. This method returns a
+	 * {@code Map<N, AnalysisState<A, H, V>>} instance mapping each {@link Node}
+	 * to the {@link AnalysisState} computed by this method. Note that the
+	 * returned map has entries also for inner nodes. The ordering is computed
+	 * once, starting from the nodes in {@code startingPoints}, and its
+	 * components are then processed in order: nodes that are not the head of a
+	 * cycle are computed exactly once per iteration of the enclosing cycle (if
+	 * any), while cycles are iterated (innermost first) until their head
+	 * stabilizes. Results at heads are composed using
+	 * {@link Lattice#lub(Lattice)} up to {@code widenAfter} times, and
+	 * {@link Lattice#widening(Lattice)} afterwards. The computation starts at
+	 * the nodes in {@code startingPoints}, using as its entry state their
+	 * respective value. {@code cg} will be invoked to get the approximation of
+	 * all invoked graphs.
+	 * 
+	 * @param <A>            the type of {@link AbstractState}
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param <F>            the type of {@link FunctionalLattice} that will
+	 *                           hold analysis states computed on intermediate
+	 *                           nodes
+	 * @param startingPoints a map between {@link Node}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this graph) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other graph is encountered
+	 * @param widenAfter     the number of times after which the
+	 *                           {@link Lattice#lub(Lattice)} invocation gets
+	 *                           replaced by the
+	 *                           {@link Lattice#widening(Lattice)} call at the
+	 *                           heads of cycles. Use {@code 0} to <b>always</b>
+	 *                           use {@link Lattice#lub(Lattice)}
+	 * @param semantics      the {@link SemanticFunction} that will be used for
+	 *                           computing the abstract post-state of nodes
+	 * 
+	 * @return a map that stores for each {@link Node} the result of the
+	 *             fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a node
+	 */
+	@SuppressWarnings("unchecked")
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> Map<N, AnalysisState<A, H, V>> wtoFixpoint(
+					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg, int widenAfter,
+					SemanticFunction<N, E, G, A, H, V, F> semantics)
+					throws FixpointException {
+		Map<N, Approximation<A, H, V, F>> result = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+
+		try {
+			WeakTopologicalOrder<G, N, E> wto = new WeakTopologicalOrder<>((G) this, startingPoints.keySet());
+			for (WeakTopologicalOrder.Component<N> component : wto.getComponents())
+				stabilize(component, startingPoints, result, cg, widenAfter, semantics);
+
+			return flatten(result);
+		} catch (Exception e) {
+			log.fatal("Unexpected exception during fixpoint computation of '" + this + "': " + e);
+			throw new FixpointException("Unexpected exception during fixpoint computation", e);
+		}
+	}
+
+	/**
+	 * Computes a fixpoint over the {@link BasicBlocks} of this graph. This
+	 * method returns a {@code Map<N, AnalysisState<A, H, V>>} instance mapping
+	 * each {@link Node} to the {@link AnalysisState} computed by this method,
+	 * including inner nodes. Differently from
+	 * {@link #fixpoint(Map, CallGraph, WorkingSet, int, SemanticFunction)},
+	 * the working set contains whole blocks, and only the entry and exit
+	 * states of each block are stored: the states of all other nodes are
+	 * recomputed, starting from the entry state of their block, when they are
+	 * queried on the returned map (see {@link #getRootOf(Node)} for how inner
+	 * nodes are resolved). Entry states of blocks are composed through
+	 * {@link Lattice#lub(Lattice)} up to {@code widenAfter * preds} times,
+	 * where {@code preds} is the number of predecessors of the first node of
+	 * the block, and through {@link Lattice#widening(Lattice)} afterwards. The
+	 * computation starts at the nodes in {@code startingPoints}, using as its
+	 * entry state their respective value. {@code cg} will be invoked to get
+	 * the approximation of all invoked graphs.
+	 * 
+	 * @param <A>            the type of {@link AbstractState}
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param <F>            the type of {@link FunctionalLattice} that will
+	 *                           hold analysis states computed on intermediate
+	 *                           nodes
+	 * @param startingPoints a map between {@link Node}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this graph) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other graph is encountered
+	 * @param widenAfter     the number of times after which the
+	 *                           {@link Lattice#lub(Lattice)} invocation gets
+	 *                           replaced by the
+	 *                           {@link Lattice#widening(Lattice)} call. Use
+	 *                           {@code 0} to <b>always</b> use
+	 *                           {@link Lattice#lub(Lattice)}
+	 * @param semantics      the {@link SemanticFunction} that will be used for
+	 *                           computing the abstract post-state of nodes
+	 * 
+	 * @return a map that stores for each {@link Node} the result of the
+	 *             fixpoint computation, computing it on demand if needed
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a node
+	 */
+	@SuppressWarnings("unchecked")
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> Map<N, AnalysisState<A, H, V>> blockFixpoint(
+					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg, int widenAfter,
+					SemanticFunction<N, E, G, A, H, V, F> semantics)
+					throws FixpointException {
+		BasicBlocks<G, N, E> blocks = new BasicBlocks<>((G) this, startingPoints.keySet());
+		BlockResults<A, H, V, F> result = new BlockResults<>(blocks, cg, semantics);
+		Map<N, AtomicInteger> lubs = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+		WorkingSet<N> ws = ArrayFIFOWorkingSet.mk();
+		startingPoints.keySet().forEach(ws::push);
+
+		try {
+			while (!ws.isEmpty()) {
+				N leader = ws.pop();
+				BasicBlocks.Block<N> block = blocks.getBlockOf(leader);
+				if (block == null)
+					throw new FixpointException("'" + leader
+							+ "' is not part of this graph, and cannot be analyzed in this fixpoint computation");
 
+				AnalysisState<A, H, V> entrystate = getBlockEntryState(leader, startingPoints, blocks, result.exits);
 				if (entrystate == null)
-					throw new FixpointException(current + " does not have an entry state");
-
-				if (result.containsKey(current)) {
-					oldApprox = result.get(current).getLeft();
-					oldIntermediate = result.get(current).getRight();
-				} else {
-					oldApprox = null;
-					oldIntermediate = null;
+					throw new FixpointException(leader + " does not have an entry state");
+
+				AnalysisState<A, H, V> old = result.entries.get(leader);
+				if (old != null) {
+					AtomicInteger counter = widenAfter == 0 ? null
+							: lubs.computeIfAbsent(leader,
+									e -> new AtomicInteger(widenAfter * predecessorsOf(e).size()));
+					if (counter == null || counter.getAndDecrement() > 0)
+						entrystate = entrystate.lub(old);
+					else
+						entrystate = old.widening(entrystate);
+					if (entrystate.lessOrEqual(old))
+						continue;
 				}
 
+				result.entries.put(leader, entrystate);
+				result.exits.put(leader, result.run(block, entrystate, null));
+				for (N follower : followersOf(block.getLast()))
+					ws.push(follower);
+			}
+
+			return result;
+		} catch (Exception e) {
+			log.fatal("Unexpected exception during fixpoint computation of '" + this + "': " + e);
+			throw new FixpointException("Unexpected exception during fixpoint computation", e);
+		}
+	}
+
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> getBlockEntryState(
+					N leader,
+					Map<N, AnalysisState<A, H, V>> startingPoints,
+					BasicBlocks<G, N, E> blocks,
+					Map<N, AnalysisState<A, H, V>> exits)
+					throws SemanticException {
+		AnalysisState<A, H, V> entrystate = startingPoints.get(leader);
+		for (N pred : predecessorsOf(leader)) {
+			// the predecessor is always the last node of its block
+			AnalysisState<A, H, V> post = exits.get(blocks.getBlockOf(pred).getLeader());
+			if (post == null)
+				// this might not have been computed yet
+				continue;
+
+			E edge = adjacencyMatrix.getEdgeConnecting(pred, leader);
+			AnalysisState<A, H, V> traversed = cleanUpPostState(pred, edge.traverse(post));
+			entrystate = entrystate == null ? traversed : entrystate.lub(traversed);
+		}
+
+		return entrystate;
+	}
+
+	/**
+	 * Yields the node of this graph that contains the given one. This is used
+	 * to lazily recompute the results of inner nodes after a
+	 * {@link #blockFixpoint(Map, CallGraph, int, SemanticFunction)}. The
+	 * default implementation returns {@code node}, meaning that no node is
+	 * nested into another one.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the outermost node containing {@code node}
+	 */
+	protected N getRootOf(N node) {
+		return node;
+	}
+
+	/**
+	 * The results of a
+	 * {@link FixpointGraph#blockFixpoint(Map, CallGraph, int, SemanticFunction)}
+	 * computation. Only entry and exit states of blocks are stored: all the
+	 * other results are recomputed upon request. The results of the last
+	 * recomputed block are retained, as consecutive queries often target
+	 * nodes of the same block.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private class BlockResults<A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>>
+			extends AbstractMap<N, AnalysisState<A, H, V>> {
+
+		private final BasicBlocks<G, N, E> blocks;
+
+		private final CallGraph cg;
+
+		private final SemanticFunction<N, E, G, A, H, V, F> semantics;
+
+		/**
+		 * The entry state of each block, indexed by leader
+		 */
+		private final Map<N, AnalysisState<A, H, V>> entries;
+
+		/**
+		 * The exit state of each block, indexed by leader
+		 */
+		private final Map<N, AnalysisState<A, H, V>> exits;
+
+		private BasicBlocks.Block<N> lastBlock;
+
+		private Map<N, AnalysisState<A, H, V>> lastResults;
+
+		private BlockResults(BasicBlocks<G, N, E> blocks, CallGraph cg,
+				SemanticFunction<N, E, G, A, H, V, F> semantics) {
+			this.blocks = blocks;
+			this.cg = cg;
+			this.semantics = semantics;
+			this.entries = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+			this.exits = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+		}
+
+		/**
+		 * Evaluates the nodes of the given block, starting from the given
+		 * entry state. If {@code results} is not {@code null}, the post-states
+		 * of all the evaluated nodes (inner ones included) are stored inside
+		 * it.
+		 */
+		@SuppressWarnings("unchecked")
+		private AnalysisState<A, H, V> run(BasicBlocks.Block<N> block, AnalysisState<A, H, V> entrystate,
+				Map<N, AnalysisState<A, H, V>> results) throws FixpointException {
+			AnalysisState<A, H, V> state = entrystate;
+			N previous = null;
+			for (N node : block.getNodes())
 				try {
-					newIntermediate = (F) mkInternalStore(entrystate);
-					newApprox = semantics.compute(current, entrystate, cg, newIntermediate);
+					if (previous != null)
+						state = cleanUpPostState(previous,
+								adjacencyMatrix.getEdgeConnecting(previous, node).traverse(state));
+					F intermediate = (F) mkInternalStore(state);
+					state = semantics.compute(node, state, cg, intermediate);
+					if (results != null) {
+						results.put(node, state);
+						for (Entry<N, AnalysisState<A, H, V>> inner : intermediate)
+							results.put(inner.getKey(), inner.getValue());
+					}
+					previous = node;
 				} catch (SemanticException e) {
-					log.error("Evaluation of the semantics of '" + current + "' in " + this
+					log.error("Evaluation of the semantics of '" + node + "' in " + FixpointGraph.this
 							+ " led to an exception: " + e);
 					throw new FixpointException("Semantic exception during fixpoint computation", e);
 				}
 
-				if (oldApprox != null && oldIntermediate != null)
-					try {
-						if (widenAfter == 0) {
-							newApprox = newApprox.lub(oldApprox);
-							newIntermediate = newIntermediate.lub(oldIntermediate);
-						} else {
-							// we multiply by the number of predecessors since
-							// if we have more than one
-							// the threshold will be reached faster
-							int lub = lubs
-									.computeIfAbsent(current,
-											e -> new AtomicInteger(widenAfter * predecessorsOf(e).size()))
-									.getAndDecrement();
-							if (lub > 0) {
-								newApprox = newApprox.lub(oldApprox);
-								newIntermediate = newIntermediate.lub(oldIntermediate);
-							} else {
-								newApprox = oldApprox.widening(newApprox);
-								newIntermediate = oldIntermediate.widening(newIntermediate);
-							}
-						}
-					} catch (SemanticException e) {
-						throw new FixpointException(
-								"Exception while updating the analysis results of '" + current + "' in " + this,
-								e);
-					}
+			return state;
+		}
 
-				if ((oldApprox == null && oldIntermediate == null) || !newApprox.lessOrEqual(oldApprox)
-						|| !newIntermediate.lessOrEqual(oldIntermediate)) {
-					result.put(current, Pair.of(newApprox, newIntermediate));
-					for (N instr : followersOf(current))
-						ws.push(instr);
-				}
+		private Map<N, AnalysisState<A, H, V>> resultsOf(BasicBlocks.Block<N> block) {
+			if (block == lastBlock)
+				return lastResults;
+
+			Map<N, AnalysisState<A, H, V>> results = new OffsetMap<>();
+			try {
+				run(block, entries.get(block.getLeader()), results);
+			} catch (FixpointException e) {
+				throw new AnalysisExecutionException("Unable to recompute the results of " + block, e);
 			}
 
-			HashMap<N, AnalysisState<A, H, V>> finalResults = new HashMap<>(result.size());
-			for (Entry<N, Pair<AnalysisState<A, H, V>, F>> e : result.entrySet()) {
-				finalResults.put(e.getKey(), e.getValue().getLeft());
-				for (Entry<N, AnalysisState<A, H, V>> ee : e.getValue().getRight())
-					finalResults.put(ee.getKey(), ee.getValue());
+			lastBlock = block;
+			lastResults = results;
+			return results;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public synchronized AnalysisState<A, H, V> get(Object key) {
+			N node = (N) key;
+			N root = getRootOf(node);
+			BasicBlocks.Block<N> block = root == null ? null : blocks.getBlockOf(root);
+			if (block == null || !entries.containsKey(block.getLeader()))
+				// not part of the graph, or unreachable
+				return null;
+
+			if (node.equals(block.getLast()))
+				return exits.get(block.getLeader());
+
+			return resultsOf(block).get(node);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public synchronized Set<Entry<N, AnalysisState<A, H, V>>> entrySet() {
+			Map<N, AnalysisState<A, H, V>> all = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+			for (BasicBlocks.Block<N> block : blocks.getBlocks())
+				if (entries.containsKey(block.getLeader()))
+					all.putAll(resultsOf(block));
+			return all.entrySet();
+		}
+	}
+
+	/**
+	 * The approximation computed by a fixpoint on a node: the post-state of
+	 * the node, the store containing the post-states of its inner nodes, and
+	 * the number of times {@link Lattice#lub(Lattice)} can still be used to
+	 * update them before switching to {@link Lattice#widening(Lattice)}.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Approximation<A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, ?, AnalysisState<A, H, V>>> {
+
+		private AnalysisState<A, H, V> state;
+
+		private F store;
+
+		private int lubs;
+
+		private Approximation(AnalysisState<A, H, V> state, F store) {
+			this.state = state;
+			this.store = store;
+		}
+	}
+
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> void stabilize(
+					WeakTopologicalOrder.Component<N> component,
+					Map<N, AnalysisState<A, H, V>> startingPoints,
+					Map<N, Approximation<A, H, V, F>> result,
+					CallGraph cg,
+					int widenAfter,
+					SemanticFunction<N, E, G, A, H, V, F> semantics)
+					throws FixpointException, SemanticException {
+		N head = component.getHead();
+		if (!component.isCycle()) {
+			result.put(head, compute(head, startingPoints, result, cg, semantics));
+			return;
+		}
+
+		while (true) {
+			Approximation<A, H, V, F> oldApprox = result.get(head);
+			Approximation<A, H, V, F> newApprox = compute(head, startingPoints, result, cg, semantics);
+			if (oldApprox == null) {
+				newApprox.lubs = widenAfter;
+				result.put(head, newApprox);
+			} else if (!join(head, oldApprox, newApprox, widenAfter != 0))
+				// the head is stable, and so is the whole cycle
+				return;
+
+			for (WeakTopologicalOrder.Component<N> inner : component.getBody())
+				stabilize(inner, startingPoints, result, cg, widenAfter, semantics);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> Approximation<A, H, V, F> compute(
+					N current,
+					Map<N, AnalysisState<A, H, V>> startingPoints,
+					Map<N, Approximation<A, H, V, F>> result,
+					CallGraph cg,
+					SemanticFunction<N, E, G, A, H, V, F> semantics)
+					throws FixpointException {
+		AnalysisState<A, H, V> entrystate;
+		try {
+			entrystate = getEntryState(current, startingPoints, result);
+		} catch (SemanticException e) {
+			throw new FixpointException(
+					"Exception while computing the entry state for '" + current + "' in " + this, e);
+		}
+
+		if (entrystate == null)
+			throw new FixpointException(current + " does not have an entry state");
+
+		try {
+			F intermediate = (F) mkInternalStore(entrystate);
+			return new Approximation<>(semantics.compute(current, entrystate, cg, intermediate), intermediate);
+		} catch (SemanticException e) {
+			log.error("Evaluation of the semantics of '" + current + "' in " + this
+					+ " led to an exception: " + e);
+			throw new FixpointException("Semantic exception during fixpoint computation", e);
+		}
+	}
+
+	/**
+	 * Joins {@code newApprox} into {@code oldApprox}, updating the latter in
+	 * place. {@link Lattice#lub(Lattice)} is used as long as the widening
+	 * counter of {@code oldApprox} is positive (or always, if {@code widen} is
+	 * {@code false}), and {@link Lattice#widening(Lattice)} afterwards.
+	 * Yields {@code true} if and only if {@code oldApprox} changed.
+	 */
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> boolean join(
+					N current,
+					Approximation<A, H, V, F> oldApprox,
+					Approximation<A, H, V, F> newApprox,
+					boolean widen)
+					throws FixpointException, SemanticException {
+		AnalysisState<A, H, V> state;
+		F store;
+		try {
+			if (!widen || oldApprox.lubs-- > 0) {
+				state = newApprox.state.lub(oldApprox.state);
+				store = newApprox.store.lub(oldApprox.store);
+			} else {
+				state = oldApprox.state.widening(newApprox.state);
+				store = oldApprox.store.widening(newApprox.store);
 			}
+		} catch (SemanticException e) {
+			throw new FixpointException(
+					"Exception while updating the analysis results of '" + current + "' in " + this, e);
+		}
 
-			return finalResults;
-		} catch (Exception e) {
-			log.fatal("Unexpected exception during fixpoint computation of '" + this + "': " + e);
-			throw new FixpointException("Unexpected exception during fixpoint computation", e);
+		if (state.lessOrEqual(oldApprox.state) && store.lessOrEqual(oldApprox.store))
+			return false;
+
+		oldApprox.state = state;
+		oldApprox.store = store;
+		return true;
+	}
+
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> Map<N, AnalysisState<A, H, V>> flatten(
+					Map<N, Approximation<A, H, V, F>> result) {
+		Map<N, AnalysisState<A, H, V>> finalResults = new OffsetMap<>(adjacencyMatrix.getNodes().size());
+		for (Entry<N, Approximation<A, H, V, F>> e : result.entrySet()) {
+			finalResults.put(e.getKey(), e.getValue().state);
+			for (Entry<N, AnalysisState<A, H, V>> ee : e.getValue().store)
+				finalResults.put(ee.getKey(), ee.getValue());
 		}
+
+		return finalResults;
 	}
 
 	/**
@@ -301,28 +721,30 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> AnalysisState<A, H, V> getEntryState(
 					N current,
 					Map<N, AnalysisState<A, H, V>> startingPoints,
-					Map<N, Pair<AnalysisState<A, H, V>, F>> result)
+					Map<N, Approximation<A, H, V, F>> result)
 					throws SemanticException {
 		AnalysisState<A, H, V> entrystate = startingPoints.get(current);
 		Collection<N> preds = predecessorsOf(current);
 		List<AnalysisState<A, H, V>> states = new ArrayList<>(preds.size());
 
-		for (N pred : preds)
-			if (result.containsKey(pred)) {
+		for (N pred : preds) {
+			Approximation<A, H, V, F> approx = result.get(pred);
+			if (approx != null) {
 				// this might not have been computed yet
 				E edge = adjacencyMatrix.getEdgeConnecting(pred, current);
-				AnalysisState<A, H, V> traversed = edge.traverse(result.get(pred).getLeft());
+				AnalysisState<A, H, V> traversed = edge.traverse(approx.state);
 				// we clean it from out-of-scope variables
 				states.add(cleanUpPostState(pred, traversed));
 			}
+		}
 
-		for (AnalysisState<A, H, V> s : states)
-			if (entrystate == null)
-				entrystate = s;
-			else
-				entrystate = entrystate.lub(s);
+		if (states.isEmpty())
+			return entrystate;
 
-		return entrystate;
+		// all the incoming states are joined at once
+		if (entrystate == null)
+			return states.get(0).lubAll(states.subList(1, states.size()));
+		return entrystate.lubAll(states);
 	}
 
 	/**
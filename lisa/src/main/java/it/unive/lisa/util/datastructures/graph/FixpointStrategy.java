@@ -0,0 +1,55 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.util.datastructures.graph.algorithms.BasicBlocks;
+import it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder;
+import it.unive.lisa.util.workset.ReversePostorderWorkingSet;
+import it.unive.lisa.util.workset.WorkingSet;
+
+/**
+ * The iteration strategies that can be used to compute a fixpoint over a
+ * {@link FixpointGraph}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public enum FixpointStrategy {
+
+	/**
+	 * Nodes are processed in the order given by a {@link WorkingSet}: each time
+	 * the approximation of a node changes, all of its followers are added to
+	 * the working set. Results of different iterations on the same node are
+	 * always composed through {@link Lattice#lub(Lattice)} or
+	 * {@link Lattice#widening(Lattice)}.
+	 */
+	WORKLIST,
+
+	/**
+	 * Like {@link #WORKLIST}, but pending nodes are kept in a
+	 * {@link ReversePostorderWorkingSet}: a node is contained at most once in
+	 * the working set, and the next node to process is always the pending one
+	 * that comes first in the reverse postorder of the graph. This processes
+	 * the predecessors of a node before the node itself whenever possible,
+	 * reducing the number of times each node is evaluated.
+	 */
+	REVERSE_POSTORDER_WORKLIST,
+
+	/**
+	 * Nodes are processed following a {@link WeakTopologicalOrder} of the
+	 * graph, computed once before the iteration starts. Each cycle of the
+	 * ordering is stabilized, innermost first, before moving to the next
+	 * component, and {@link Lattice#widening(Lattice)} is applied only at the
+	 * heads of such cycles. Nodes that are not heads are simply recomputed.
+	 */
+	WEAK_TOPOLOGICAL_ORDER,
+
+	/**
+	 * Nodes are first grouped into {@link BasicBlocks}, and a worklist
+	 * iteration is then performed over whole blocks. Only the entry and exit
+	 * states of each block are stored, and results on the other nodes
+	 * (including inner ones) are recomputed from the entry state of their block
+	 * when they are requested. This reduces the memory needed to store the
+	 * results and the overhead of the working set, at the price of recomputing
+	 * the semantics of the nodes whose result is requested.
+	 */
+	BASIC_BLOCKS;
+}
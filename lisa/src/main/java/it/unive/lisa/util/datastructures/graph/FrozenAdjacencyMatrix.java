@@ -0,0 +1,383 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * An immutable snapshot of an {@link AdjacencyMatrix}, stored in compressed
+ * sparse row layout. Each node is assigned an integer id, following the order
+ * of the offsets assigned through {@link Node#setOffset(int)}, and the
+ * followers (resp. predecessors) of the node with id {@code i} are the ids
+ * stored in the successor (resp. predecessor) array between the positions
+ * {@code start[i]} (inclusive) and {@code start[i + 1]} (exclusive). The edge
+ * connecting a node to each of its followers is stored in an array parallel to
+ * the successor one.<br>
+ * <br>
+ * Querying the followers, the predecessors or the edge connecting two nodes
+ * takes constant time or time linear in the degree of the node, and does not
+ * allocate any object: the collections of followers and predecessors of each
+ * node are built once, as views over the arrays. Instances of this class are
+ * built through {@link AdjacencyMatrix#freeze()}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <N> the type of the {@link Node}s in this matrix
+ * @param <E> the type of the {@link Edge}s in this matrix
+ * @param <G> the type of the {@link Graph}s this matrix can be used in
+ */
+public final class FrozenAdjacencyMatrix<N extends Node<N, E, G>, E extends Edge<N, E, G>, G extends Graph<G, N, E>> {
+
+	/**
+	 * The nodes, indexed by id
+	 */
+	private final Object[] nodes;
+
+	/**
+	 * The id of each node, indexed by the offset of the node, or {@code -1}
+	 * for offsets that are not assigned to any node
+	 */
+	private final int[] ids;
+
+	/**
+	 * The position in {@link #successors} where the followers of each node
+	 * start, indexed by id
+	 */
+	private final int[] successorsStart;
+
+	/**
+	 * The ids of the followers of all nodes
+	 */
+	private final int[] successors;
+
+	/**
+	 * The edges connecting each node to its followers, parallel to
+	 * {@link #successors}
+	 */
+	private final Object[] edges;
+
+	/**
+	 * The position in {@link #predecessors} where the predecessors of each
+	 * node start, indexed by id
+	 */
+	private final int[] predecessorsStart;
+
+	/**
+	 * The ids of the predecessors of all nodes
+	 */
+	private final int[] predecessors;
+
+	/**
+	 * The views over the followers of each node, indexed by id
+	 */
+	private final List<List<N>> followersViews;
+
+	/**
+	 * The views over the predecessors of each node, indexed by id
+	 */
+	private final List<List<N>> predecessorsViews;
+
+	private FrozenAdjacencyMatrix(Object[] nodes, int[] ids,
+			Iterable<Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>>> matrix) {
+		this.nodes = nodes;
+		this.ids = ids;
+		int count = nodes.length;
+
+		List<Pair<ExternalSet<E>, ExternalSet<E>>> adjacency = new ArrayList<>(Collections.nCopies(count, null));
+		int outgoing = 0, ingoing = 0;
+		for (Entry<N, Pair<ExternalSet<E>, ExternalSet<E>>> entry : matrix) {
+			adjacency.set(getId(entry.getKey()), entry.getValue());
+			outgoing += entry.getValue().getRight().size();
+			ingoing += entry.getValue().getLeft().size();
+		}
+
+		successorsStart = new int[count + 1];
+		int[] succ = new int[outgoing];
+		Object[] succEdges = new Object[outgoing];
+		predecessorsStart = new int[count + 1];
+		int[] pred = new int[ingoing];
+		int ns = 0, np = 0;
+		for (int id = 0; id < count; id++) {
+			successorsStart[id] = ns;
+			for (E edge : adjacency.get(id).getRight()) {
+				int dest = getId(edge.getDestination());
+				// the first edge reaching a node is the one yielded by
+				// getEdgeConnecting, and the node is a follower only once
+				if (indexOf(succ, successorsStart[id], ns, dest) < 0) {
+					succ[ns] = dest;
+					succEdges[ns++] = edge;
+				}
+			}
+
+			predecessorsStart[id] = np;
+			for (E edge : adjacency.get(id).getLeft()) {
+				int source = getId(edge.getSource());
+				if (indexOf(pred, predecessorsStart[id], np, source) < 0)
+					pred[np++] = source;
+			}
+		}
+		successorsStart[count] = ns;
+		predecessorsStart[count] = np;
+		successors = ns == outgoing ? succ : Arrays.copyOf(succ, ns);
+		edges = ns == outgoing ? succEdges : Arrays.copyOf(succEdges, ns);
+		predecessors = np == ingoing ? pred : Arrays.copyOf(pred, np);
+
+		followersViews = new ArrayList<>(count);
+		predecessorsViews = new ArrayList<>(count);
+		for (int id = 0; id < count; id++) {
+			followersViews.add(new NodesView(successors, successorsStart[id], successorsStart[id + 1]));
+			predecessorsViews.add(new NodesView(predecessors, predecessorsStart[id], predecessorsStart[id + 1]));
+		}
+	}
+
+	private static int indexOf(int[] array, int from, int to, int element) {
+		for (int i = from; i < to; i++)
+			if (array[i] == element)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Builds the compressed representation of the given matrix. Yields
+	 * {@code null} if the offsets of the nodes of the matrix are not unique,
+	 * since they cannot be used to identify the nodes.
+	 *
+	 * @param <N>    the type of the {@link Node}s in the matrix
+	 * @param <E>    the type of the {@link Edge}s in the matrix
+	 * @param <G>    the type of the {@link Graph}s the matrix can be used in
+	 * @param matrix the matrix to compress
+	 *
+	 * @return the compressed matrix, or {@code null}
+	 */
+	static <N extends Node<N, E, G>,
+			E extends Edge<N, E, G>,
+			G extends Graph<G, N, E>> FrozenAdjacencyMatrix<N, E, G> of(AdjacencyMatrix<N, E, G> matrix) {
+		int max = -1;
+		for (N node : matrix.getNodes())
+			if (node.getOffset() < 0)
+				return null;
+			else
+				max = Math.max(max, node.getOffset());
+
+		Object[] byOffset = new Object[max + 1];
+		for (N node : matrix.getNodes())
+			if (byOffset[node.getOffset()] != null)
+				return null;
+			else
+				byOffset[node.getOffset()] = node;
+
+		// ids follow the order of the offsets
+		int[] ids = new int[max + 1];
+		Object[] nodes = new Object[matrix.getNodes().size()];
+		int next = 0;
+		for (int offset = 0; offset <= max; offset++)
+			if (byOffset[offset] == null)
+				ids[offset] = -1;
+			else {
+				ids[offset] = next;
+				nodes[next++] = byOffset[offset];
+			}
+
+		return new FrozenAdjacencyMatrix<>(nodes, ids, matrix);
+	}
+
+	/**
+	 * Yields the number of nodes in this matrix. Node ids range from
+	 * {@code 0} (inclusive) to this value (exclusive).
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodesCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Yields the id of the given node.
+	 *
+	 * @param node the node
+	 *
+	 * @return the id of {@code node}, or {@code -1} if it is not part of this
+	 *             matrix
+	 */
+	public int getId(N node) {
+		if (node == null)
+			return -1;
+		int offset = node.getOffset();
+		if (offset < 0 || offset >= ids.length)
+			return -1;
+		int id = ids[offset];
+		return id >= 0 && nodes[id].equals(node) ? id : -1;
+	}
+
+	/**
+	 * Yields the node with the given id.
+	 *
+	 * @param id the id
+	 *
+	 * @return the node
+	 */
+	@SuppressWarnings("unchecked")
+	public N getNode(int id) {
+		return (N) nodes[id];
+	}
+
+	/**
+	 * Yields the number of followers of the node with the given id.
+	 *
+	 * @param id the id of the node
+	 *
+	 * @return the number of followers
+	 */
+	public int getFollowersCount(int id) {
+		return successorsStart[id + 1] - successorsStart[id];
+	}
+
+	/**
+	 * Yields the id of the {@code i}-th follower of the node with the given
+	 * id.
+	 *
+	 * @param id the id of the node
+	 * @param i  the index of the follower, between {@code 0} (inclusive) and
+	 *               {@link #getFollowersCount(int)} (exclusive)
+	 *
+	 * @return the id of the follower
+	 */
+	public int getFollower(int id, int i) {
+		return successors[successorsStart[id] + i];
+	}
+
+	/**
+	 * Yields the number of predecessors of the node with the given id.
+	 *
+	 * @param id the id of the node
+	 *
+	 * @return the number of predecessors
+	 */
+	public int getPredecessorsCount(int id) {
+		return predecessorsStart[id + 1] - predecessorsStart[id];
+	}
+
+	/**
+	 * Yields the id of the {@code i}-th predecessor of the node with the given
+	 * id.
+	 *
+	 * @param id the id of the node
+	 * @param i  the index of the predecessor, between {@code 0} (inclusive)
+	 *               and {@link #getPredecessorsCount(int)} (exclusive)
+	 *
+	 * @return the id of the predecessor
+	 */
+	public int getPredecessor(int id, int i) {
+		return predecessors[predecessorsStart[id] + i];
+	}
+
+	/**
+	 * Yields the edge connecting the node with id {@code source} to its
+	 * {@code i}-th follower.
+	 *
+	 * @param source the id of the source node
+	 * @param i      the index of the follower, between {@code 0} (inclusive)
+	 *                   and {@link #getFollowersCount(int)} (exclusive)
+	 *
+	 * @return the edge
+	 */
+	@SuppressWarnings("unchecked")
+	public E getEdge(int source, int i) {
+		return (E) edges[successorsStart[source] + i];
+	}
+
+	/**
+	 * Yields the edge connecting the two given nodes, if any. Yields
+	 * {@code null} if such edge does not exist, or if one of the two node is
+	 * not inside this matrix.
+	 *
+	 * @param source      the source node
+	 * @param destination the destination node
+	 *
+	 * @return the edge connecting {@code source} to {@code destination}, or
+	 *             {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public E getEdgeConnecting(N source, N destination) {
+		int src = getId(source);
+		if (src < 0)
+			return null;
+		int dest = getId(destination);
+		if (dest < 0)
+			return null;
+		int pos = indexOf(successors, successorsStart[src], successorsStart[src + 1], dest);
+		return pos < 0 ? null : (E) edges[pos];
+	}
+
+	/**
+	 * Yields the unmodifiable collection of the nodes that are followers of
+	 * the given one. Yields {@code null} if the node is not in this matrix.
+	 *
+	 * @param node the node
+	 *
+	 * @return the collection of followers, or {@code null}
+	 */
+	public List<N> followersOf(N node) {
+		int id = getId(node);
+		return id < 0 ? null : followersViews.get(id);
+	}
+
+	/**
+	 * Yields the unmodifiable collection of the nodes that are predecessors of
+	 * the given one. Yields {@code null} if the node is not in this matrix.
+	 *
+	 * @param node the node
+	 *
+	 * @return the collection of predecessors, or {@code null}
+	 */
+	public List<N> predecessorsOf(N node) {
+		int id = getId(node);
+		return id < 0 ? null : predecessorsViews.get(id);
+	}
+
+	/**
+	 * An unmodifiable view over a slice of the successors or predecessors
+	 * array.
+	 */
+	private final class NodesView extends AbstractList<N> implements RandomAccess {
+
+		private final int[] array;
+
+		private final int from;
+
+		private final int to;
+
+		private NodesView(int[] array, int from, int to) {
+			this.array = array;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public N get(int index) {
+			if (index < 0 || index >= to - from)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+			return (N) nodes[array[from + index]];
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			for (int i = from; i < to; i++)
+				if (nodes[array[i]].equals(o))
+					return true;
+			return false;
+		}
+	}
+}
@@ -5,7 +5,12 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -33,12 +38,18 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 	 */
 	protected final Collection<N> entrypoints;
 
+	/**
+	 * The structural information about this graph, computed lazily
+	 */
+	private final StructuralAnalyses<G, N, E> analyses;
+
 	/**
 	 * Builds the graph.
 	 */
 	protected Graph() {
 		this.adjacencyMatrix = new AdjacencyMatrix<>();
 		this.entrypoints = new HashSet<>();
+		this.analyses = new StructuralAnalyses<>(self());
 	}
 
 	/**
@@ -52,6 +63,7 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 	protected Graph(Collection<N> entrypoints, AdjacencyMatrix<N, E, G> adjacencyMatrix) {
 		this.adjacencyMatrix = adjacencyMatrix;
 		this.entrypoints = entrypoints;
+		this.analyses = new StructuralAnalyses<>(self());
 	}
 
 	/**
@@ -62,6 +74,12 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 	protected Graph(G other) {
 		this.adjacencyMatrix = new AdjacencyMatrix<>(other.adjacencyMatrix);
 		this.entrypoints = new ArrayList<>(other.entrypoints);
+		this.analyses = new StructuralAnalyses<>(self());
+	}
+
+	@SuppressWarnings("unchecked")
+	private G self() {
+		return (G) this;
 	}
 
 	/**
@@ -121,6 +139,29 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 			this.entrypoints.add(node);
 	}
 
+	/**
+	 * Replaces an entrypoint of this graph with another node, that must be
+	 * already part of this graph. This method has no effect if {@code node} is
+	 * not an entrypoint of this graph.
+	 * 
+	 * @param node        the entrypoint to replace
+	 * @param replacement the node that becomes an entrypoint in place of
+	 *                        {@code node}
+	 * 
+	 * @throws UnsupportedOperationException if {@code replacement} is not part
+	 *                                           of this graph
+	 */
+	public final void replaceEntrypoint(N node, N replacement) {
+		if (!adjacencyMatrix.getNodes().contains(replacement))
+			throw new UnsupportedOperationException("The replacement node is not in the graph");
+
+		if (entrypoints.remove(node)) {
+			entrypoints.add(replacement);
+			// entrypoints are the roots of the structural analyses
+			analyses.invalidate();
+		}
+	}
+
 	/**
 	 * Adds an edge to this graph.
 	 * 
@@ -134,6 +175,40 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 		adjacencyMatrix.addEdge(edge);
 	}
 
+	/**
+	 * Removes an edge from this graph. This method has no effect if the edge
+	 * is not part of this graph.
+	 * 
+	 * @param edge the edge to remove
+	 */
+	public void removeEdge(E edge) {
+		adjacencyMatrix.removeEdge(edge);
+	}
+
+	/**
+	 * Freezes this graph, switching its adjacency matrix to a compressed and
+	 * immutable representation that answers {@link #followersOf(Node)},
+	 * {@link #predecessorsOf(Node)} and {@link #getEdgeConnecting(Node, Node)}
+	 * without allocations (see {@link AdjacencyMatrix#freeze()}). This should
+	 * be invoked once the graph is complete: further modifications are still
+	 * possible, but they bring the graph back to its mutable representation.
+	 */
+	public void freeze() {
+		adjacencyMatrix.freeze();
+	}
+
+	/**
+	 * Yields the structural information about this graph (reverse postorder,
+	 * dominators, strongly connected components, loops, ...). The information
+	 * is computed the first time it is requested, and it is cached until this
+	 * graph is modified.
+	 * 
+	 * @return the structural analyses of this graph
+	 */
+	public final StructuralAnalyses<G, N, E> getStructuralAnalyses() {
+		return analyses;
+	}
+
 	/**
 	 * Yields the total number of nodes of this graph.
 	 * 
@@ -167,6 +242,18 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 		return adjacencyMatrix.getEdgeConnecting(source, destination);
 	}
 
+	/**
+	 * Yields the edges of this graph that reach the given node. Yields
+	 * {@code null} if the node is not in this graph.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the collection of ingoing edges
+	 */
+	public final Collection<E> getIngoingEdges(N node) {
+		return adjacencyMatrix.getIngoingEdges(node);
+	}
+
 	/**
 	 * Yields the collection of the nodes that are followers of the given one,
 	 * that is, all nodes such that there exist an edge in this control flow
@@ -283,25 +370,28 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 			// achieve content comparison. Need to do this manually.
 
 			// the following keeps track of the unmatched nodes in
-			// graph.entrypoints
-			Collection<N> copy = new HashSet<>(graph.entrypoints);
+			// graph.entrypoints, bucketed by their hash code so that each
+			// entrypoint is compared only with the ones that might be equal
+			Map<Integer, List<N>> copy = new HashMap<>();
+			for (N ss : graph.entrypoints)
+				copy.computeIfAbsent(ss.effectiveHashCode(), k -> new LinkedList<>()).add(ss);
 			boolean found;
 			for (N s : entrypoints) {
 				found = false;
-				for (N ss : graph.entrypoints)
-					if (copy.contains(ss) && s.isEqualTo(ss)) {
-						copy.remove(ss);
-						found = true;
-						break;
-					}
+				List<N> candidates = copy.get(s.effectiveHashCode());
+				if (candidates != null)
+					for (Iterator<N> it = candidates.iterator(); it.hasNext();)
+						if (s.isEqualTo(it.next())) {
+							it.remove();
+							found = true;
+							break;
+						}
 				if (!found)
 					return false;
 			}
 
-			if (!copy.isEmpty())
-				// we also have to match all of the entrypoints in
-				// graph.entrypoints
-				return false;
+			// since the sizes are equal, all of the entrypoints in
+			// graph.entrypoints have been matched
 		}
 		if (adjacencyMatrix == null) {
 			if (graph.adjacencyMatrix != null)
@@ -333,10 +423,22 @@ public abstract class Graph<G extends Graph<G, N, E>, N extends Node<N, E, G>, E
 	protected final <T extends N> void simplify(Class<T> target) {
 		Set<N> targets = getNodes().stream().filter(k -> target.isAssignableFrom(k.getClass()))
 				.collect(Collectors.toSet());
-		targets.forEach(this::preSimplify);
+		preSimplify(targets);
 		adjacencyMatrix.simplify(targets, entrypoints);
 	}
 
+	/**
+	 * Callback that is invoked on the nodes about to be simplified, before
+	 * simplifying them. The default implementation invokes
+	 * {@link #preSimplify(Node)} on each node, but subclasses might redefine
+	 * it to process all nodes at once.
+	 * 
+	 * @param targets the nodes about to be simplified
+	 */
+	protected void preSimplify(Set<N> targets) {
+		targets.forEach(this::preSimplify);
+	}
+
 	/**
 	 * Callback that is invoked on a node before simplifying it.
 	 * 
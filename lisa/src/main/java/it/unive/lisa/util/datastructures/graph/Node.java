@@ -22,6 +22,13 @@ public interface Node<N extends Node<N, E, G>, E extends Edge<N, E, G>, G extend
 	 */
 	int setOffset(int offset);
 
+	/**
+	 * Yields the offset of this node, as set by {@link #setOffset(int)}.
+	 * 
+	 * @return the offset
+	 */
+	int getOffset();
+
 	/**
 	 * Checks if this node is effectively equal to the given one, that is, if
 	 * they have the same structure while potentially being different instances.
@@ -33,6 +40,21 @@ public interface Node<N extends Node<N, E, G>, E extends Edge<N, E, G>, G extend
 	 */
 	boolean isEqualTo(N other);
 
+	/**
+	 * Yields a hash code for this node that is consistent with
+	 * {@link #isEqualTo(Node)}, that is, such that nodes that are effectively
+	 * equal have the same hash code. This is used to avoid comparing each node
+	 * of a graph with every node of another one when checking if the two
+	 * graphs are effectively equal. By default, the hash code only depends on
+	 * the class of the node: implementors whose {@link #isEqualTo(Node)} also
+	 * compares some of their fields should include them.
+	 * 
+	 * @return the hash code
+	 */
+	default int effectiveHashCode() {
+		return getClass().getName().hashCode();
+	}
+
 	/**
 	 * Accepts the given {@link GraphVisitor}. Implementors of this method are
 	 * responsible for invoking {@link GraphVisitor#visit(Object, Graph, Node)}
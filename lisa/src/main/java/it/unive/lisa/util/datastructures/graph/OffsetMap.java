@@ -0,0 +1,311 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} having {@link Node}s as keys, whose entries are stored in
+ * arrays at the positions given by the offsets of the nodes (see
+ * {@link Node#setOffset(int)}), relative to the lowest offset stored in the
+ * arrays. Since the offsets of the nodes of a graph, and of the ones nested
+ * into them, are dense and unique, looking up a node of the graph requires a
+ * single array load, without hashing the node. The arrays grow to accommodate
+ * new offsets as long as they stay dense: nodes whose offset is not set, is
+ * too far from the other ones, or is already used by a different node stored
+ * in this map, are stored in a {@link HashMap} instead.<br>
+ * <br>
+ * This map does not permit {@code null} keys, and its iteration order is the
+ * order of the offsets, followed by the one of the nodes stored in the
+ * {@link HashMap}. This implementation is <b>not</b> thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class OffsetMap<K extends Node<?, ?, ?>, V> extends AbstractMap<K, V> {
+
+	/**
+	 * The keys of this map, indexed by offset minus {@link #base}. A
+	 * {@code null} element marks an empty position.
+	 */
+	private Object[] keys;
+
+	/**
+	 * The values of this map, parallel to {@link #keys}
+	 */
+	private Object[] values;
+
+	/**
+	 * The offset of the node stored at position {@code 0} of {@link #keys}
+	 */
+	private int base;
+
+	/**
+	 * The number of keys stored in {@link #keys}
+	 */
+	private int size;
+
+	/**
+	 * The entries whose key cannot be stored in {@link #keys}, lazily built
+	 */
+	private Map<K, V> others;
+
+	/**
+	 * Builds an empty map.
+	 */
+	public OffsetMap() {
+		this(16);
+	}
+
+	/**
+	 * Builds an empty map, with room for {@code capacity} nodes with
+	 * consecutive offsets. The map grows as needed.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public OffsetMap(int capacity) {
+		this.keys = new Object[Math.max(capacity, 1)];
+		this.values = new Object[keys.length];
+		this.base = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Builds a map containing the same entries of the given one.
+	 *
+	 * @param other the map to copy
+	 */
+	@SuppressWarnings("unchecked")
+	public OffsetMap(Map<K, V> other) {
+		if (other instanceof OffsetMap) {
+			OffsetMap<K, V> o = (OffsetMap<K, V>) other;
+			this.keys = o.keys.clone();
+			this.values = o.values.clone();
+			this.base = o.base;
+			this.size = o.size;
+			this.others = o.others == null ? null : new HashMap<>(o.others);
+		} else {
+			this.keys = new Object[Math.max(other.size(), 1)];
+			this.values = new Object[keys.length];
+			this.base = 0;
+			this.size = 0;
+			putAll(other);
+		}
+	}
+
+	/**
+	 * Yields the position of the given key in {@link #keys}, or {@code -1} if
+	 * the key is not stored there.
+	 */
+	private int positionOf(Object key) {
+		if (!(key instanceof Node))
+			return -1;
+		int pos = ((Node<?, ?, ?>) key).getOffset() - base;
+		return pos >= 0 && pos < keys.length && key.equals(keys[pos]) ? pos : -1;
+	}
+
+	/**
+	 * Makes room in {@link #keys} for the given offset, if this does not make
+	 * the arrays sparse. Yields the position of the offset, or {@code -1} if
+	 * the node must be stored in {@link #others}.
+	 */
+	private int makeRoom(int offset) {
+		if (offset < 0)
+			return -1;
+		if (size == 0)
+			base = offset;
+		int pos = offset - base;
+		if (pos >= 0 && pos < keys.length)
+			return pos;
+
+		int from = Math.min(base, offset);
+		int to = Math.max(base + keys.length, offset + 1);
+		if (to - from > 2 * keys.length + 16)
+			// too far from the other nodes
+			return -1;
+
+		// the new room is left on the side where the arrays are growing
+		int length = Math.max(to - from, 2 * keys.length);
+		int start = offset < base ? Math.max(0, to - length) : from;
+		Object[] k = new Object[length], v = new Object[length];
+		System.arraycopy(keys, 0, k, base - start, keys.length);
+		System.arraycopy(values, 0, v, base - start, values.length);
+		keys = k;
+		values = v;
+		base = start;
+		return offset - base;
+	}
+
+	@Override
+	public int size() {
+		return size + (others == null ? 0 : others.size());
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return positionOf(key) >= 0 || (others != null && others.containsKey(key));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int pos = positionOf(key);
+		if (pos >= 0)
+			return (V) values[pos];
+		return others == null ? null : others.get(key);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Objects.requireNonNull(key);
+		if (others != null && others.containsKey(key))
+			return others.put(key, value);
+
+		int pos = makeRoom(key.getOffset());
+		if (pos >= 0) {
+			if (keys[pos] == null) {
+				keys[pos] = key;
+				values[pos] = value;
+				size++;
+				return null;
+			} else if (key.equals(keys[pos])) {
+				V previous = (V) values[pos];
+				values[pos] = value;
+				return previous;
+			}
+		}
+
+		// unknown offset, or one clashing with a different node
+		if (others == null)
+			others = new HashMap<>();
+		return others.put(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		int pos = positionOf(key);
+		if (pos >= 0)
+			return removeAt(pos);
+		return others == null ? null : others.remove(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V removeAt(int pos) {
+		V previous = (V) values[pos];
+		keys[pos] = null;
+		values[pos] = null;
+		size--;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
+		others = null;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return OffsetMap.this.size();
+			}
+
+			@Override
+			public void clear() {
+				OffsetMap.this.clear();
+			}
+		};
+	}
+
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private int next = advance(0);
+
+		private int last = -1;
+
+		private Iterator<Entry<K, V>> rest;
+
+		private int advance(int from) {
+			for (int i = from; i < keys.length; i++)
+				if (keys[i] != null)
+					return i;
+			return -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next >= 0)
+				return true;
+			if (rest == null && others != null)
+				rest = others.entrySet().iterator();
+			return rest != null && rest.hasNext();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (next >= 0) {
+				last = next;
+				next = advance(next + 1);
+				return new OffsetEntry(last, (K) keys[last], (V) values[last]);
+			}
+			if (!hasNext())
+				throw new NoSuchElementException();
+			last = -1;
+			return rest.next();
+		}
+
+		@Override
+		public void remove() {
+			if (last >= 0 && keys[last] != null) {
+				removeAt(last);
+				last = -1;
+			} else if (rest != null)
+				rest.remove();
+			else
+				throw new IllegalStateException();
+		}
+	}
+
+	/**
+	 * An entry of the map, that writes through to the map when its value is
+	 * changed.
+	 */
+	private final class OffsetEntry extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int pos;
+
+		private OffsetEntry(int pos, K key, V value) {
+			super(key, value);
+			this.pos = pos;
+		}
+
+		@Override
+		public V setValue(V value) {
+			if (keys[pos] != null)
+				values[pos] = value;
+			return super.setValue(value);
+		}
+	}
+}
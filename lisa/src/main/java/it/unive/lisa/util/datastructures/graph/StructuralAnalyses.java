@@ -0,0 +1,182 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.util.datastructures.graph.algorithms.Dominators;
+import it.unive.lisa.util.datastructures.graph.algorithms.LoopNestingForest;
+import it.unive.lisa.util.datastructures.graph.algorithms.ReversePostorder;
+import it.unive.lisa.util.datastructures.graph.algorithms.StronglyConnectedComponents;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The structural information about a {@link Graph} that does not depend on
+ * the contents of its nodes: reverse postorder, dominators, post-dominators,
+ * strongly connected components and loop nesting forest. Each piece of
+ * information is computed lazily the first time it is requested, and then
+ * cached until the graph changes, that is, until the version of its
+ * {@link AdjacencyMatrix} (see {@link AdjacencyMatrix#getVersion()}) changes.
+ * Subclasses of {@link Graph} can cache their own derived information through
+ * {@link #get(Object, Function)}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public final class StructuralAnalyses<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	private static final Object RPO = new Object();
+
+	private static final Object DOMINATORS = new Object();
+
+	private static final Object POST_DOMINATORS = new Object();
+
+	private static final Object SCC = new Object();
+
+	private static final Object LOOPS = new Object();
+
+	/**
+	 * The graph
+	 */
+	private final G graph;
+
+	/**
+	 * The version of the matrix of the graph when {@link #results} have been
+	 * computed
+	 */
+	private int version;
+
+	/**
+	 * The cached results, indexed by the key used to request them
+	 */
+	private final Map<Object, Object> results;
+
+	/**
+	 * Builds the analyses for the given graph.
+	 *
+	 * @param graph the graph
+	 */
+	StructuralAnalyses(G graph) {
+		this.graph = graph;
+		this.version = graph.adjacencyMatrix.getVersion();
+		this.results = new HashMap<>();
+	}
+
+	/**
+	 * Yields the result cached for the given key, computing it through
+	 * {@code builder} if it has not been computed yet or if the graph changed
+	 * since it was computed. The builder should not modify the graph.
+	 *
+	 * @param <T>     the type of the result
+	 * @param key     the key identifying the result
+	 * @param builder the function computing the result from the graph
+	 *
+	 * @return the result
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> T get(Object key, Function<G, T> builder) {
+		int current = graph.adjacencyMatrix.getVersion();
+		if (current != version) {
+			results.clear();
+			version = current;
+		}
+
+		T result = (T) results.get(key);
+		if (result == null) {
+			// builders can request other results, so computeIfAbsent cannot
+			// be used
+			result = builder.apply(graph);
+			results.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Discards all the cached results. This is needed when the contents of the
+	 * nodes of the graph change without modifying its structure, since
+	 * results cached by subclasses of {@link Graph} through
+	 * {@link #get(Object, Function)} might depend on them.
+	 */
+	public synchronized void invalidate() {
+		results.clear();
+	}
+
+	/**
+	 * Yields the {@link ReversePostorder} of the graph, starting the visit
+	 * from its entrypoints.
+	 *
+	 * @return the reverse postorder
+	 */
+	public ReversePostorder<G, N, E> getReversePostorder() {
+		return get(RPO, g -> new ReversePostorder<>(g, g.getEntrypoints()));
+	}
+
+	/**
+	 * Yields the {@link Dominators} of the graph, rooted at its entrypoints.
+	 *
+	 * @return the dominator tree
+	 */
+	public Dominators<G, N, E> getDominators() {
+		return get(DOMINATORS, g -> new Dominators<>(g, g.getEntrypoints(), false));
+	}
+
+	/**
+	 * Yields the post-{@link Dominators} of the graph, rooted at the nodes
+	 * without followers.
+	 *
+	 * @return the post-dominator tree
+	 */
+	public Dominators<G, N, E> getPostDominators() {
+		return get(POST_DOMINATORS, g -> {
+			List<N> exits = new ArrayList<>();
+			for (N node : g.getNodes())
+				if (g.followersOf(node).isEmpty())
+					exits.add(node);
+			return new Dominators<>(g, exits, true);
+		});
+	}
+
+	/**
+	 * Yields the {@link StronglyConnectedComponents} of the graph.
+	 *
+	 * @return the strongly connected components
+	 */
+	public StronglyConnectedComponents<G, N, E> getStronglyConnectedComponents() {
+		return get(SCC, StronglyConnectedComponents::new);
+	}
+
+	/**
+	 * Yields the {@link LoopNestingForest} of the graph, whose headers are
+	 * selected following {@link #getReversePostorder()}.
+	 *
+	 * @return the loop nesting forest
+	 */
+	public LoopNestingForest<G, N, E> getLoopNestingForest() {
+		return get(LOOPS, g -> new LoopNestingForest<>(g, getReversePostorder()));
+	}
+
+	/**
+	 * Yields the nodes of the graph that satisfy the given condition, caching
+	 * them under the given key.
+	 *
+	 * @param key       the key identifying the result
+	 * @param condition the condition
+	 *
+	 * @return the nodes satisfying the condition
+	 */
+	public Collection<N> getNodesSatisfying(Object key, Predicate<N> condition) {
+		return get(key, g -> {
+			List<N> nodes = new ArrayList<>();
+			for (N node : g.getNodes())
+				if (condition.test(node))
+					nodes.add(node);
+			return Collections.unmodifiableList(nodes);
+		});
+	}
+}
@@ -0,0 +1,179 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The partition of the nodes of a {@link Graph} into basic blocks, that is,
+ * maximal sequences of nodes that are always executed one after the other. A
+ * node is the <i>leader</i> of a block (i.e., its first node) if it is an
+ * entrypoint of the graph, one of the additional leaders given at construction
+ * time, or if it does not have exactly one predecessor that, in turn, has
+ * exactly one follower. All the other nodes are appended to the block of their
+ * only predecessor. As a consequence, control can enter a block only through
+ * its leader, and can leave it only after its last node.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class BasicBlocks<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	/**
+	 * The blocks of the graph
+	 */
+	private final List<Block<N>> blocks;
+
+	/**
+	 * The block containing each node
+	 */
+	private final Map<N, Block<N>> blockOf;
+
+	/**
+	 * Builds the basic blocks of the given graph.
+	 *
+	 * @param graph   the graph
+	 * @param leaders additional nodes that must be the leaders of their
+	 *                    blocks, on top of the entrypoints of the graph
+	 */
+	public BasicBlocks(G graph, Collection<N> leaders) {
+		Collection<N> nodes = graph.getNodes();
+		Set<N> starts = new HashSet<>(graph.getEntrypoints());
+		starts.addAll(leaders);
+		for (N node : nodes)
+			if (isLeader(graph, node))
+				starts.add(node);
+
+		blocks = new ArrayList<>();
+		blockOf = new HashMap<>(nodes.size());
+		for (N node : nodes)
+			if (starts.contains(node))
+				build(graph, node, starts);
+
+		// nodes in isolated cycles of straight-line code are not reachable
+		// from any leader: we promote one of them to leader
+		for (N node : nodes)
+			if (!blockOf.containsKey(node)) {
+				starts.add(node);
+				build(graph, node, starts);
+			}
+	}
+
+	private boolean isLeader(G graph, N node) {
+		Collection<N> preds = graph.predecessorsOf(node);
+		if (preds.size() != 1)
+			return true;
+		N pred = preds.iterator().next();
+		return pred.equals(node) || graph.followersOf(pred).size() != 1;
+	}
+
+	private void build(G graph, N leader, Set<N> starts) {
+		List<N> body = new ArrayList<>();
+		body.add(leader);
+		N current = leader;
+		Collection<N> follows;
+		while ((follows = graph.followersOf(current)).size() == 1) {
+			N next = follows.iterator().next();
+			if (starts.contains(next))
+				break;
+			body.add(next);
+			current = next;
+		}
+
+		Block<N> block = new Block<>(Collections.unmodifiableList(body));
+		blocks.add(block);
+		for (N node : body)
+			blockOf.put(node, block);
+	}
+
+	/**
+	 * Yields all the basic blocks of the graph.
+	 *
+	 * @return the blocks
+	 */
+	public List<Block<N>> getBlocks() {
+		return Collections.unmodifiableList(blocks);
+	}
+
+	/**
+	 * Yields the basic block containing the given node, or {@code null} if the
+	 * node is not part of the graph.
+	 *
+	 * @param node the node
+	 *
+	 * @return the block containing {@code node}
+	 */
+	public Block<N> getBlockOf(N node) {
+		return blockOf.get(node);
+	}
+
+	@Override
+	public String toString() {
+		return blocks.toString();
+	}
+
+	/**
+	 * A basic block, that is, a sequence of nodes where each node is the only
+	 * follower of the previous one, and the only predecessor of the next one.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 *
+	 * @param <N> the type of nodes contained in this block
+	 */
+	public static final class Block<N> {
+
+		/**
+		 * The nodes of this block, in execution order
+		 */
+		private final List<N> nodes;
+
+		private Block(List<N> nodes) {
+			this.nodes = nodes;
+		}
+
+		/**
+		 * Yields the first node of this block, the only one that can be
+		 * reached from outside of it.
+		 *
+		 * @return the leader
+		 */
+		public N getLeader() {
+			return nodes.get(0);
+		}
+
+		/**
+		 * Yields the last node of this block, the only one whose followers
+		 * are outside of it.
+		 *
+		 * @return the last node
+		 */
+		public N getLast() {
+			return nodes.get(nodes.size() - 1);
+		}
+
+		/**
+		 * Yields the nodes of this block, in execution order.
+		 *
+		 * @return the nodes
+		 */
+		public List<N> getNodes() {
+			return nodes;
+		}
+
+		@Override
+		public String toString() {
+			return nodes.toString();
+		}
+	}
+}
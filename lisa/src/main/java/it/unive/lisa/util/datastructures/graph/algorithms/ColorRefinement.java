@@ -0,0 +1,586 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directed multigraph with labeled nodes and edges, that can be checked for
+ * isomorphism with other ones through color refinement (also known as the
+ * 1-dimensional Weisfeiler-Lehman test) and individualization. Nodes and edges
+ * are added through {@link #addNode(Object)} and
+ * {@link #addEdge(int, int, Object)}, and two graphs are compared through
+ * {@link #areEquivalent(ColorRefinement)}.<br>
+ * <br>
+ * The two graphs are colored together, as a single graph. Each node is
+ * initially colored with its label, and colors are then refined until each
+ * node of a color has the same number of edges, for each label and direction,
+ * towards each other color. Refinement is driven by a worklist of colors: the
+ * edges of a node are only scanned when one of its neighbors changes color,
+ * and when a color is split the largest part is not scheduled, so that each
+ * node is processed a logarithmic number of times. Colors are interned from
+ * the exact labels and signatures of the nodes, so that colliding hash codes
+ * cannot cause false matches.<br>
+ * <br>
+ * If the two graphs end up with different numbers of nodes of some color,
+ * they are not isomorphic. If instead each color has exactly one node per
+ * graph, the only candidate isomorphism is the one matching equal colors, and
+ * it is checked by comparing the colored edges. Otherwise (e.g., with
+ * symmetric structures whose nodes cannot be distinguished through their
+ * labels and neighborhoods), the nodes of the smallest ambiguous color are
+ * matched exhaustively: each choice is given a fresh color and refinement is
+ * resumed, backtracking if the resulting colors cannot be matched. The result
+ * is thus always exact, and backtracking is only needed for graphs with
+ * repeated labels and symmetric structures.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ColorRefinement {
+
+	/**
+	 * The labels of the nodes, indexed by node
+	 */
+	private final List<Object> nodes = new ArrayList<>();
+
+	/**
+	 * The labels of the edges
+	 */
+	private final List<Object> edges = new ArrayList<>();
+
+	/**
+	 * The sources of the edges, parallel to {@link #edges}
+	 */
+	private int[] sources = new int[16];
+
+	/**
+	 * The destinations of the edges, parallel to {@link #edges}
+	 */
+	private int[] destinations = new int[16];
+
+	/**
+	 * Adds a node with the given label to this graph.
+	 *
+	 * @param label the label of the node, compared through
+	 *                  {@link Object#equals(Object)}
+	 *
+	 * @return the index of the node, to be used for adding edges
+	 */
+	public int addNode(Object label) {
+		nodes.add(label);
+		return nodes.size() - 1;
+	}
+
+	/**
+	 * Adds an edge with the given label to this graph.
+	 *
+	 * @param source      the index of the source node
+	 * @param destination the index of the destination node
+	 * @param label       the label of the edge, compared through
+	 *                        {@link Object#equals(Object)}
+	 *
+	 * @throws IndexOutOfBoundsException if one of the nodes is not part of
+	 *                                       this graph
+	 */
+	public void addEdge(int source, int destination, Object label) {
+		if (source < 0 || source >= nodes.size())
+			throw new IndexOutOfBoundsException("Unknown source: " + source);
+		if (destination < 0 || destination >= nodes.size())
+			throw new IndexOutOfBoundsException("Unknown destination: " + destination);
+		int pos = edges.size();
+		if (pos == sources.length) {
+			sources = Arrays.copyOf(sources, pos * 2);
+			destinations = Arrays.copyOf(destinations, pos * 2);
+		}
+		sources[pos] = source;
+		destinations[pos] = destination;
+		edges.add(label);
+	}
+
+	/**
+	 * Yields the number of nodes of this graph.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodesCount() {
+		return nodes.size();
+	}
+
+	/**
+	 * Yields the number of edges of this graph.
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgesCount() {
+		return edges.size();
+	}
+
+	/**
+	 * Yields {@code true} if and only if this graph and the given one are
+	 * isomorphic, that is, if there exists a bijection between their nodes
+	 * that preserves node labels and that maps the edges of one graph to
+	 * edges of the other one with the same labels.
+	 *
+	 * @param other the other graph
+	 *
+	 * @return whether or not the two graphs are isomorphic
+	 */
+	public boolean areEquivalent(ColorRefinement other) {
+		if (nodes.size() != other.nodes.size() || edges.size() != other.edges.size())
+			return false;
+
+		// the nodes of other follow the ones of this graph
+		int half = nodes.size(), m = edges.size();
+		int[] src = new int[2 * m], dst = new int[2 * m], labels = new int[2 * m];
+		Map<Object, Integer> dictionary = new HashMap<>();
+		for (int i = 0; i < m; i++) {
+			src[i] = sources[i];
+			dst[i] = destinations[i];
+			labels[i] = dictionary.computeIfAbsent(edges.get(i), k -> dictionary.size());
+			src[m + i] = half + other.sources[i];
+			dst[m + i] = half + other.destinations[i];
+			labels[m + i] = dictionary.computeIfAbsent(other.edges.get(i), k -> dictionary.size());
+		}
+		dictionary.clear();
+		int[] colors = new int[2 * half];
+		for (int v = 0; v < half; v++) {
+			colors[v] = dictionary.computeIfAbsent(nodes.get(v), k -> dictionary.size());
+			colors[half + v] = dictionary.computeIfAbsent(other.nodes.get(v), k -> dictionary.size());
+		}
+
+		Union union = new Union(colors.length, src, dst, labels);
+		Partition partition = new Partition(colors, dictionary.size());
+		int[] all = new int[partition.classes];
+		for (int c = 0; c < all.length; c++)
+			all[c] = c;
+		partition.refine(union, all);
+		if (!partition.isBalanced(half))
+			return false;
+
+		Deque<Choice> choices = new ArrayDeque<>();
+		while (true) {
+			int c = partition.smallestAmbiguousClass();
+			if (c == -1) {
+				if (partition.matchesEdges(union, m))
+					return true;
+			} else
+				choices.push(new Choice(partition, c, half));
+
+			// we try the next choice, backtracking if all the choices for a
+			// color have been tried
+			partition = null;
+			while (partition == null) {
+				Choice choice = choices.peek();
+				if (choice == null)
+					return false;
+				if (choice.next == choice.candidates.length) {
+					choices.pop();
+					continue;
+				}
+
+				Partition attempt = new Partition(choice.partition);
+				attempt.individualize(union, choice.cls, choice.node, choice.candidates[choice.next++]);
+				if (attempt.isBalanced(half))
+					partition = attempt;
+			}
+		}
+	}
+
+	/**
+	 * The choices for matching a node of the first graph, among the ones of
+	 * the second graph with the same color.
+	 */
+	private static final class Choice {
+
+		private final Partition partition;
+
+		private final int cls;
+
+		private final int node;
+
+		private final int[] candidates;
+
+		private int next;
+
+		private Choice(Partition partition, int cls, int half) {
+			this.partition = partition;
+			this.cls = cls;
+			int first = -1;
+			int[] second = new int[(partition.end[cls] - partition.start[cls]) / 2];
+			int count = 0;
+			for (int i = partition.start[cls]; i < partition.end[cls]; i++) {
+				int v = partition.elements[i];
+				if (v >= half)
+					second[count++] = v;
+				else if (first == -1)
+					first = v;
+			}
+			this.node = first;
+			this.candidates = second;
+		}
+	}
+
+	/**
+	 * The disjoint union of the two graphs being compared, with the edges
+	 * grouped by source and by destination.
+	 */
+	private static final class Union {
+
+		private final int[] src;
+
+		private final int[] dst;
+
+		private final int[] labels;
+
+		private final int[] outStart;
+
+		private final int[] outEdges;
+
+		private final int[] inStart;
+
+		private final int[] inEdges;
+
+		private Union(int n, int[] src, int[] dst, int[] labels) {
+			this.src = src;
+			this.dst = dst;
+			this.labels = labels;
+			int m = labels.length;
+			outStart = new int[n + 1];
+			inStart = new int[n + 1];
+			for (int i = 0; i < m; i++) {
+				outStart[src[i] + 1]++;
+				inStart[dst[i] + 1]++;
+			}
+			for (int i = 0; i < n; i++) {
+				outStart[i + 1] += outStart[i];
+				inStart[i + 1] += inStart[i];
+			}
+
+			outEdges = new int[m];
+			inEdges = new int[m];
+			int[] outFill = Arrays.copyOf(outStart, n);
+			int[] inFill = Arrays.copyOf(inStart, n);
+			for (int i = 0; i < m; i++) {
+				outEdges[outFill[src[i]]++] = i;
+				inEdges[inFill[dst[i]]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * A partition of the nodes into colors. The nodes of each color are stored
+	 * in a contiguous segment of {@link #elements}, so that colors can be
+	 * split in time proportional to the number of nodes that move.
+	 */
+	private static final class Partition {
+
+		private final int[] elements;
+
+		private final int[] position;
+
+		private final int[] classOf;
+
+		private final int[] start;
+
+		private final int[] end;
+
+		private int classes;
+
+		private Partition(int[] colors, int count) {
+			int n = colors.length;
+			elements = new int[n];
+			position = new int[n];
+			classOf = colors.clone();
+			start = new int[n];
+			end = new int[n];
+			for (int c : colors)
+				end[c]++;
+			int pos = 0;
+			for (int c = 0; c < count; c++) {
+				start[c] = pos;
+				pos += end[c];
+				end[c] = start[c];
+			}
+			for (int v = 0; v < n; v++) {
+				elements[end[colors[v]]] = v;
+				position[v] = end[colors[v]]++;
+			}
+			classes = count;
+		}
+
+		private Partition(Partition other) {
+			elements = other.elements.clone();
+			position = other.position.clone();
+			classOf = other.classOf.clone();
+			start = other.start.clone();
+			end = other.end.clone();
+			classes = other.classes;
+		}
+
+		private boolean isBalanced(int half) {
+			for (int c = 0; c < classes; c++) {
+				int first = 0;
+				for (int i = start[c]; i < end[c]; i++)
+					if (elements[i] < half)
+						first++;
+				if (2 * first != end[c] - start[c])
+					return false;
+			}
+			return true;
+		}
+
+		private int smallestAmbiguousClass() {
+			int result = -1;
+			for (int c = 0; c < classes; c++)
+				if (end[c] - start[c] > 2 && (result == -1 || end[c] - start[c] < end[result] - start[result]))
+					result = c;
+			return result;
+		}
+
+		private boolean matchesEdges(Union union, int m) {
+			// colors are discrete: the colored edges of the two graphs must
+			// be the same
+			Map<Signature, Integer> coloredEdges = new HashMap<>();
+			for (int i = 0; i < m; i++)
+				coloredEdges.merge(
+						new Signature(classOf[union.src[i]], union.labels[i], classOf[union.dst[i]]), 1,
+						Integer::sum);
+			for (int i = m; i < 2 * m; i++) {
+				Signature edge = new Signature(classOf[union.src[i]], union.labels[i], classOf[union.dst[i]]);
+				Integer c = coloredEdges.get(edge);
+				if (c == null)
+					return false;
+				if (c == 1)
+					coloredEdges.remove(edge);
+				else
+					coloredEdges.put(edge, c - 1);
+			}
+			return coloredEdges.isEmpty();
+		}
+
+		private void individualize(Union union, int cls, int first, int second) {
+			moveToTail(cls, first, 0);
+			moveToTail(cls, second, 1);
+			int c = classes++;
+			start[c] = end[cls] - 2;
+			end[c] = end[cls];
+			end[cls] -= 2;
+			classOf[first] = c;
+			classOf[second] = c;
+			refine(union, new int[] { cls, c });
+		}
+
+		/**
+		 * Moves {@code v} to the {@code k}-th position from the end of the
+		 * segment of {@code cls}, assuming that the last {@code k} positions
+		 * hold nodes that have already been moved.
+		 */
+		private void moveToTail(int cls, int v, int k) {
+			int target = end[cls] - 1 - k;
+			int pos = position[v];
+			int w = elements[target];
+			elements[target] = v;
+			position[v] = target;
+			elements[pos] = w;
+			position[w] = pos;
+		}
+
+		private void refine(Union union, int[] splitters) {
+			boolean[] pending = new boolean[elements.length];
+			Deque<Integer> worklist = new ArrayDeque<>();
+			for (int c : splitters) {
+				pending[c] = true;
+				worklist.add(c);
+			}
+			while (!worklist.isEmpty()) {
+				int s = worklist.poll();
+				pending[s] = false;
+				split(union, Arrays.copyOfRange(elements, start[s], end[s]), worklist, pending);
+			}
+		}
+
+		/**
+		 * Splits each color according to the number of edges, for each label
+		 * and direction, that connect its nodes to the given ones.
+		 */
+		private void split(Union union, int[] splitter, Deque<Integer> worklist, boolean[] pending) {
+			// (node, key) pairs, where the key encodes the label and the
+			// direction of an edge between the node and the splitter
+			int degree = 0;
+			for (int u : splitter)
+				degree += union.inStart[u + 1] - union.inStart[u] + union.outStart[u + 1] - union.outStart[u];
+			if (degree == 0)
+				return;
+			long[] pairs = new long[degree];
+			int k = 0;
+			for (int u : splitter) {
+				for (int i = union.inStart[u]; i < union.inStart[u + 1]; i++) {
+					int e = union.inEdges[i];
+					pairs[k++] = ((long) union.src[e] << 32) | (2L * union.labels[e]);
+				}
+				for (int i = union.outStart[u]; i < union.outStart[u + 1]; i++) {
+					int e = union.outEdges[i];
+					pairs[k++] = ((long) union.dst[e] << 32) | (2L * union.labels[e] + 1);
+				}
+			}
+			Arrays.sort(pairs);
+
+			// the signature of each touched node is its color together with
+			// the keys of its edges and their multiplicity: touched nodes are
+			// then sorted by signature
+			Map<Signature, Integer> signatures = new HashMap<>();
+			List<Integer> groupClass = new ArrayList<>();
+			long[] touched = new long[k];
+			int count = 0;
+			for (int i = 0; i < k;) {
+				int v = (int) (pairs[i] >>> 32);
+				int j = i;
+				while (j < k && (int) (pairs[j] >>> 32) == v)
+					j++;
+				int[] values = new int[1 + 2 * (j - i)];
+				values[0] = classOf[v];
+				int len = 1;
+				for (int p = i; p < j;) {
+					int q = p;
+					while (q < j && pairs[q] == pairs[p])
+						q++;
+					values[len++] = (int) pairs[p];
+					values[len++] = q - p;
+					p = q;
+				}
+				Signature signature = new Signature(Arrays.copyOf(values, len));
+				Integer id = signatures.get(signature);
+				if (id == null) {
+					id = signatures.size();
+					signatures.put(signature, id);
+					groupClass.add(classOf[v]);
+				}
+				touched[count++] = ((long) id << 32) | v;
+				i = j;
+			}
+			Arrays.sort(touched, 0, count);
+
+			// groups of touched nodes with the same signature, sorted by color
+			int groups = signatures.size();
+			int[] groupStart = new int[groups + 1];
+			for (int i = 0; i < count; i++)
+				groupStart[(int) (touched[i] >>> 32) + 1]++;
+			for (int g = 0; g < groups; g++)
+				groupStart[g + 1] += groupStart[g];
+			long[] byClass = new long[groups];
+			for (int g = 0; g < groups; g++)
+				byClass[g] = ((long) groupClass.get(g) << 32) | g;
+			Arrays.sort(byClass);
+
+			for (int from = 0; from < groups;) {
+				int cls = (int) (byClass[from] >>> 32);
+				int to = from;
+				int moved = 0;
+				while (to < groups && (int) (byClass[to] >>> 32) == cls) {
+					int g = (int) byClass[to];
+					moved += groupStart[g + 1] - groupStart[g];
+					to++;
+				}
+				splitClass(cls, byClass, from, to, moved, groupStart, touched, worklist, pending);
+				from = to;
+			}
+		}
+
+		private void splitClass(int cls, long[] byClass, int from, int to, int moved, int[] groupStart,
+				long[] touched, Deque<Integer> worklist, boolean[] pending) {
+			int size = end[cls] - start[cls];
+			if (moved == size && to - from == 1)
+				// all the nodes have the same signature
+				return;
+
+			// the touched nodes are moved at the end of the segment, and then
+			// sorted by signature
+			for (int g = from, k = 0; g < to; g++) {
+				int group = (int) byClass[g];
+				for (int i = groupStart[group]; i < groupStart[group + 1]; i++)
+					moveToTail(cls, (int) touched[i], k++);
+			}
+			int pos = end[cls] - moved;
+			for (int g = from; g < to; g++) {
+				int group = (int) byClass[g];
+				for (int i = groupStart[group]; i < groupStart[group + 1]; i++) {
+					int v = (int) touched[i];
+					elements[pos] = v;
+					position[v] = pos++;
+				}
+			}
+
+			// if all the nodes have been touched, the first group keeps the
+			// color, otherwise the untouched nodes keep it
+			int first = from;
+			int segment = end[cls] - moved;
+			int largest = cls, largestSize = segment - start[cls];
+			if (moved == size) {
+				int group = (int) byClass[from];
+				segment = start[cls] + groupStart[group + 1] - groupStart[group];
+				largestSize = segment - start[cls];
+				first++;
+			}
+			int oldEnd = end[cls];
+			end[cls] = segment;
+			boolean wasPending = pending[cls];
+			for (int g = first; g < to; g++) {
+				int group = (int) byClass[g];
+				int c = classes++;
+				start[c] = segment;
+				segment += groupStart[group + 1] - groupStart[group];
+				end[c] = segment;
+				for (int i = start[c]; i < end[c]; i++)
+					classOf[elements[i]] = c;
+				if (end[c] - start[c] > largestSize) {
+					largest = c;
+					largestSize = end[c] - start[c];
+				}
+			}
+			assert segment == oldEnd;
+
+			// if the color was not waiting to be processed, one of its parts
+			// can be skipped, since the edges towards it can be computed from
+			// the ones towards the whole color and towards the other parts
+			int firstNew = classes - (to - first);
+			if (!wasPending && largest != cls) {
+				pending[cls] = true;
+				worklist.add(cls);
+			}
+			for (int c = firstNew; c < classes; c++)
+				if (wasPending || c != largest) {
+					pending[c] = true;
+					worklist.add(c);
+				}
+		}
+	}
+
+	/**
+	 * An immutable sequence of integers, used as key for interning the
+	 * signatures of nodes and edges.
+	 */
+	private static final class Signature {
+
+		private final int[] values;
+
+		private final int hash;
+
+		private Signature(int... values) {
+			this.values = values;
+			this.hash = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Signature && Arrays.equals(values, ((Signature) obj).values);
+		}
+	}
+}
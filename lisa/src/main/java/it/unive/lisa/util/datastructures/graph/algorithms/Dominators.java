@@ -0,0 +1,269 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dominator tree of a {@link Graph}. A node {@code d} dominates a node
+ * {@code n} if every path from the roots of the graph to {@code n} passes
+ * through {@code d}. When built for post-dominators, the graph is visited
+ * backwards, starting from the given exit nodes: a node {@code d}
+ * post-dominates a node {@code n} if every path from {@code n} to the exits
+ * passes through {@code d}.<br>
+ * <br>
+ * The tree is computed with the iterative algorithm by Cooper, Harvey and
+ * Kennedy ("A Simple, Fast Dominance Algorithm"), that processes the nodes in
+ * reverse postorder and intersects the dominators of their predecessors until
+ * a fixpoint is reached. Since the graph can have more than one root, a
+ * virtual root preceding all of them is used as root of the tree. Nodes that
+ * cannot be reached from the roots are not part of the tree. Once the tree is
+ * built, it is numbered through a depth-first visit so that
+ * {@link #dominates(Node, Node)} can be answered in constant time.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class Dominators<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	/**
+	 * The index of the virtual root inside the arrays of this class
+	 */
+	private static final int ROOT = 0;
+
+	/**
+	 * The reachable nodes, in reverse postorder, starting at index {@code 1}
+	 * (index {@link #ROOT} is reserved for the virtual root)
+	 */
+	private final List<N> nodes;
+
+	/**
+	 * The index of each reachable node inside {@link #nodes}
+	 */
+	private final Map<N, Integer> indexes;
+
+	/**
+	 * The index of the immediate dominator of each node
+	 */
+	private final int[] idom;
+
+	/**
+	 * The preorder number of each node in the dominator tree
+	 */
+	private final int[] in;
+
+	/**
+	 * The number assigned to each node when its subtree in the dominator tree
+	 * has been completely visited
+	 */
+	private final int[] out;
+
+	/**
+	 * Builds the dominator tree of the given graph.
+	 *
+	 * @param graph the graph
+	 * @param roots the nodes where the paths of the graph start: these are the
+	 *                  entrypoints of the graph when computing dominators,
+	 *                  and its exits when computing post-dominators
+	 * @param post  whether or not post-dominators should be computed, that
+	 *                  is, if the graph should be visited backwards
+	 */
+	public Dominators(G graph, Collection<N> roots, boolean post) {
+		nodes = new ArrayList<>();
+		nodes.add(null);
+		indexes = new HashMap<>();
+		reversePostorder(graph, roots, post);
+
+		int count = nodes.size();
+		idom = new int[count];
+		Arrays.fill(idom, -1);
+		boolean[] isRoot = new boolean[count];
+		idom[ROOT] = ROOT;
+		for (N root : roots) {
+			idom[indexes.get(root)] = ROOT;
+			isRoot[indexes.get(root)] = true;
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 1; i < count; i++) {
+				if (isRoot[i])
+					continue;
+				int dom = -1;
+				for (N pred : predecessors(graph, nodes.get(i), post)) {
+					Integer p = indexes.get(pred);
+					if (p == null || idom[p] < 0)
+						// unreachable or not yet processed
+						continue;
+					dom = dom < 0 ? p : intersect(p, dom);
+				}
+				if (dom != idom[i]) {
+					idom[i] = dom;
+					changed = true;
+				}
+			}
+		}
+
+		in = new int[count];
+		out = new int[count];
+		number(count);
+	}
+
+	private Collection<N> successors(G graph, N node, boolean post) {
+		return post ? graph.predecessorsOf(node) : graph.followersOf(node);
+	}
+
+	private Collection<N> predecessors(G graph, N node, boolean post) {
+		return post ? graph.followersOf(node) : graph.predecessorsOf(node);
+	}
+
+	private void reversePostorder(G graph, Collection<N> roots, boolean post) {
+		List<N> postorder = new ArrayList<>();
+		Map<N, Boolean> visited = new HashMap<>();
+		Deque<N> stack = new ArrayDeque<>();
+		Deque<Iterator<N>> successors = new ArrayDeque<>();
+		for (N root : roots) {
+			if (visited.putIfAbsent(root, Boolean.TRUE) != null)
+				continue;
+			stack.push(root);
+			successors.push(successors(graph, root, post).iterator());
+			while (!stack.isEmpty()) {
+				Iterator<N> it = successors.peek();
+				if (it.hasNext()) {
+					N next = it.next();
+					if (visited.putIfAbsent(next, Boolean.TRUE) == null) {
+						stack.push(next);
+						successors.push(successors(graph, next, post).iterator());
+					}
+				} else {
+					postorder.add(stack.pop());
+					successors.pop();
+				}
+			}
+		}
+
+		for (int i = postorder.size() - 1; i >= 0; i--) {
+			indexes.put(postorder.get(i), nodes.size());
+			nodes.add(postorder.get(i));
+		}
+	}
+
+	private int intersect(int first, int second) {
+		// lower indexes come first in reverse postorder, and are thus closer
+		// to the root of the tree
+		while (first != second) {
+			while (first > second)
+				first = idom[first];
+			while (second > first)
+				second = idom[second];
+		}
+		return first;
+	}
+
+	private void number(int count) {
+		int[] children = new int[count];
+		int[] start = new int[count + 1];
+		for (int i = 1; i < count; i++)
+			start[idom[i] + 1]++;
+		for (int i = 0; i < count; i++)
+			start[i + 1] += start[i];
+		int[] fill = Arrays.copyOf(start, count);
+		for (int i = 1; i < count; i++)
+			children[fill[idom[i]]++] = i;
+
+		int[] stack = new int[count];
+		int[] next = Arrays.copyOf(start, count);
+		int top = 0, counter = 0;
+		stack[top] = ROOT;
+		in[ROOT] = counter++;
+		while (top >= 0) {
+			int current = stack[top];
+			if (next[current] < start[current + 1]) {
+				int child = children[next[current]++];
+				in[child] = counter++;
+				stack[++top] = child;
+			} else {
+				out[current] = counter++;
+				top--;
+			}
+		}
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given node can be reached from
+	 * the roots used to build this tree, and is thus part of it.
+	 *
+	 * @param node the node
+	 *
+	 * @return whether or not the node is part of this tree
+	 */
+	public boolean isReachable(N node) {
+		return indexes.containsKey(node);
+	}
+
+	/**
+	 * Yields the immediate dominator of the given node, that is, its parent
+	 * in this tree. Yields {@code null} if the node is one of the roots used
+	 * to build this tree, or if it is not reachable from them.
+	 *
+	 * @param node the node
+	 *
+	 * @return the immediate dominator of the node, or {@code null}
+	 */
+	public N getImmediateDominator(N node) {
+		Integer idx = indexes.get(node);
+		return idx == null ? null : nodes.get(idom[idx]);
+	}
+
+	/**
+	 * Yields the dominators of the given node, starting from the node itself
+	 * and ending with one of the roots used to build this tree. Yields an
+	 * empty list if the node is not reachable from the roots.
+	 *
+	 * @param node the node
+	 *
+	 * @return the dominators of the node
+	 */
+	public List<N> getDominators(N node) {
+		Integer idx = indexes.get(node);
+		if (idx == null)
+			return Collections.emptyList();
+		List<N> result = new ArrayList<>();
+		for (int i = idx; i != ROOT; i = idom[i])
+			result.add(nodes.get(i));
+		return result;
+	}
+
+	/**
+	 * Yields {@code true} if and only if {@code dominator} dominates
+	 * {@code node}. Every node dominates itself. Yields {@code false} if any
+	 * of the two nodes is not reachable from the roots used to build this
+	 * tree.
+	 *
+	 * @param dominator the candidate dominator
+	 * @param node      the node
+	 *
+	 * @return whether or not {@code dominator} dominates {@code node}
+	 */
+	public boolean dominates(N dominator, N node) {
+		Integer d = indexes.get(dominator);
+		Integer n = indexes.get(node);
+		if (d == null || n == null)
+			return false;
+		return in[d] <= in[n] && out[n] <= out[d];
+	}
+}
@@ -0,0 +1,243 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The loop nesting forest of a {@link Graph}. Each non-trivial strongly
+ * connected component of the graph (see {@link StronglyConnectedComponents})
+ * is a loop, whose header is the node of the component that comes first in
+ * the {@link ReversePostorder} of the graph. The loops nested inside it are
+ * the non-trivial strongly connected components of the subgraph obtained by
+ * removing the header from the component, and so on recursively. On reducible
+ * graphs, headers are the only entry points of their loops, and the forest
+ * coincides with the one built from the natural loops of the graph.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class LoopNestingForest<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	/**
+	 * The outermost loops of the graph
+	 */
+	private final List<Loop<N>> roots;
+
+	/**
+	 * The loop whose header is each node
+	 */
+	private final Map<N, Loop<N>> headers;
+
+	/**
+	 * The innermost loop containing each node
+	 */
+	private final Map<N, Loop<N>> innermost;
+
+	/**
+	 * Builds the loop nesting forest of the given graph.
+	 *
+	 * @param graph the graph
+	 * @param order the reverse postorder of the graph, used to select the
+	 *                  headers of the loops
+	 */
+	public LoopNestingForest(G graph, ReversePostorder<G, N, E> order) {
+		List<Loop<N>> outermost = new ArrayList<>();
+		headers = new HashMap<>();
+		innermost = new HashMap<>();
+
+		// loops are processed outer to inner, so that the innermost loop of
+		// each node is the last one being recorded
+		Deque<Loop<N>> worklist = new ArrayDeque<>();
+		for (Collection<N> component : StronglyConnectedComponents.compute(graph, order.getOrder(), null))
+			if (isLoop(graph, component))
+				worklist.add(mkLoop(component, order, null, outermost));
+
+		while (!worklist.isEmpty()) {
+			Loop<N> loop = worklist.remove();
+			headers.put(loop.header, loop);
+			for (N node : loop.nodes)
+				innermost.put(node, loop);
+
+			Set<N> body = new HashSet<>(loop.nodes);
+			body.remove(loop.header);
+			List<N> ordered = new ArrayList<>(body);
+			ordered.sort(Comparator.comparingInt(order::indexOf));
+			for (Collection<N> component : StronglyConnectedComponents.compute(graph, ordered, body))
+				if (isLoop(graph, component))
+					worklist.add(mkLoop(component, order, loop, loop.children));
+		}
+
+		this.roots = Collections.unmodifiableList(outermost);
+	}
+
+	private boolean isLoop(G graph, Collection<N> component) {
+		if (component.size() > 1)
+			return true;
+		N node = component.iterator().next();
+		return graph.followersOf(node).contains(node);
+	}
+
+	private Loop<N> mkLoop(Collection<N> component, ReversePostorder<G, N, E> order, Loop<N> parent,
+			List<Loop<N>> siblings) {
+		N header = null;
+		for (N node : component)
+			if (header == null || order.indexOf(node) < order.indexOf(header))
+				header = node;
+		Loop<N> loop = new Loop<>(header, component, parent);
+		siblings.add(loop);
+		return loop;
+	}
+
+	/**
+	 * Yields the outermost loops of the graph.
+	 *
+	 * @return the outermost loops
+	 */
+	public List<Loop<N>> getLoops() {
+		return roots;
+	}
+
+	/**
+	 * Yields the innermost loop containing the given node, or {@code null} if
+	 * the node is not part of any loop.
+	 *
+	 * @param node the node
+	 *
+	 * @return the innermost loop containing the node
+	 */
+	public Loop<N> getInnermostLoopOf(N node) {
+		return innermost.get(node);
+	}
+
+	/**
+	 * Yields the loop whose header is the given node, or {@code null} if the
+	 * node is not the header of any loop.
+	 *
+	 * @param node the node
+	 *
+	 * @return the loop headed by the node
+	 */
+	public Loop<N> getLoopHeadedBy(N node) {
+		return headers.get(node);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given node is the header of a
+	 * loop.
+	 *
+	 * @param node the node
+	 *
+	 * @return whether or not the node is a loop header
+	 */
+	public boolean isLoopHead(N node) {
+		return headers.containsKey(node);
+	}
+
+	/**
+	 * Yields the number of loops containing the given node, that is,
+	 * {@code 0} for nodes outside of any loop.
+	 *
+	 * @param node the node
+	 *
+	 * @return the loop depth of the node
+	 */
+	public int getLoopDepth(N node) {
+		Loop<N> loop = innermost.get(node);
+		return loop == null ? 0 : loop.depth;
+	}
+
+	/**
+	 * A loop of the graph, that is, a node of the loop nesting forest.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 *
+	 * @param <N> the type of {@link Node}s in the graph
+	 */
+	public static final class Loop<N> {
+
+		private final N header;
+
+		private final Collection<N> nodes;
+
+		private final Loop<N> parent;
+
+		private final List<Loop<N>> children;
+
+		private final int depth;
+
+		private Loop(N header, Collection<N> nodes, Loop<N> parent) {
+			this.header = header;
+			this.nodes = nodes;
+			this.parent = parent;
+			this.children = new ArrayList<>();
+			this.depth = parent == null ? 1 : parent.depth + 1;
+		}
+
+		/**
+		 * Yields the header of this loop.
+		 *
+		 * @return the header
+		 */
+		public N getHeader() {
+			return header;
+		}
+
+		/**
+		 * Yields all the nodes of this loop, including the header and the
+		 * nodes of the nested loops.
+		 *
+		 * @return the nodes of this loop
+		 */
+		public Collection<N> getNodes() {
+			return nodes;
+		}
+
+		/**
+		 * Yields the loop containing this one, or {@code null} if this is an
+		 * outermost loop.
+		 *
+		 * @return the parent loop
+		 */
+		public Loop<N> getParent() {
+			return parent;
+		}
+
+		/**
+		 * Yields the loops directly nested inside this one.
+		 *
+		 * @return the nested loops
+		 */
+		public List<Loop<N>> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * Yields the number of loops containing this one, including itself.
+		 *
+		 * @return the depth of this loop
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		@Override
+		public String toString() {
+			return "loop@" + header + nodes;
+		}
+	}
+}
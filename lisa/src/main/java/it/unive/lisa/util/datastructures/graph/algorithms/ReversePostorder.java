@@ -0,0 +1,125 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reverse postorder of the nodes of a {@link Graph}, that is, the reverse
+ * of the order in which a depth-first visit of the graph finishes visiting its
+ * nodes. In the absence of back edges, each node comes after all of its
+ * predecessors. The visit starts from the given roots, and then continues from
+ * every node not yet visited (following the iteration order of
+ * {@link Graph#getNodes()}), so that all the nodes of the graph have an index
+ * in the ordering. The visit is iterative, and thus does not risk overflowing
+ * the stack on large graphs.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class ReversePostorder<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	/**
+	 * The nodes, in reverse postorder
+	 */
+	private final List<N> order;
+
+	/**
+	 * The position of each node inside {@link #order}
+	 */
+	private final Map<N, Integer> indexes;
+
+	/**
+	 * Builds the reverse postorder of the nodes of the given graph, starting
+	 * the visit at the given roots.
+	 *
+	 * @param graph the graph
+	 * @param roots the nodes where the visit of the graph starts
+	 */
+	public ReversePostorder(G graph, Collection<N> roots) {
+		Collection<N> nodes = graph.getNodes();
+		List<N> postorder = new ArrayList<>(nodes.size());
+		Map<N, Boolean> visited = new HashMap<>(nodes.size());
+		for (N root : roots)
+			visit(graph, root, visited, postorder);
+		for (N node : nodes)
+			visit(graph, node, visited, postorder);
+
+		Collections.reverse(postorder);
+		this.order = Collections.unmodifiableList(postorder);
+		this.indexes = new HashMap<>(postorder.size());
+		for (int i = 0; i < postorder.size(); i++)
+			indexes.put(postorder.get(i), i);
+	}
+
+	private void visit(G graph, N start, Map<N, Boolean> visited, List<N> postorder) {
+		if (visited.putIfAbsent(start, Boolean.TRUE) != null)
+			return;
+
+		Deque<N> nodes = new ArrayDeque<>();
+		Deque<Iterator<N>> successors = new ArrayDeque<>();
+		nodes.push(start);
+		successors.push(graph.followersOf(start).iterator());
+		while (!nodes.isEmpty()) {
+			Iterator<N> it = successors.peek();
+			if (it.hasNext()) {
+				N next = it.next();
+				if (visited.putIfAbsent(next, Boolean.TRUE) == null) {
+					nodes.push(next);
+					successors.push(graph.followersOf(next).iterator());
+				}
+			} else {
+				postorder.add(nodes.pop());
+				successors.pop();
+			}
+		}
+	}
+
+	/**
+	 * Yields the nodes of the graph, in reverse postorder.
+	 *
+	 * @return the ordered nodes
+	 */
+	public List<N> getOrder() {
+		return order;
+	}
+
+	/**
+	 * Yields the position of the given node in the reverse postorder, or
+	 * {@code -1} if the node is not part of the graph.
+	 *
+	 * @param node the node
+	 *
+	 * @return the index of the node
+	 */
+	public int indexOf(N node) {
+		Integer idx = indexes.get(node);
+		return idx == null ? -1 : idx;
+	}
+
+	/**
+	 * Yields the number of nodes in this ordering.
+	 *
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return order.size();
+	}
+
+	@Override
+	public String toString() {
+		return order.toString();
+	}
+}
@@ -0,0 +1,182 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The strongly connected components of a {@link Graph}, that is, the maximal
+ * sets of nodes such that each node of the set can reach all the others.
+ * Components are computed through Tarjan's algorithm, that yields them in
+ * reverse topological order: no edge goes from a component to one that comes
+ * after it. The visit is iterative, and thus does not risk overflowing the
+ * stack on large graphs.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class StronglyConnectedComponents<G extends Graph<G, N, E>,
+		N extends Node<N, E, G>,
+		E extends Edge<N, E, G>> {
+
+	/**
+	 * The components, in reverse topological order
+	 */
+	private final List<Collection<N>> components;
+
+	/**
+	 * The index of the component of each node inside {@link #components}
+	 */
+	private final Map<N, Integer> indexes;
+
+	/**
+	 * The graph
+	 */
+	private final G graph;
+
+	/**
+	 * Builds the strongly connected components of the given graph.
+	 *
+	 * @param graph the graph
+	 */
+	public StronglyConnectedComponents(G graph) {
+		this.graph = graph;
+		this.components = Collections.unmodifiableList(compute(graph, graph.getNodes(), null));
+		this.indexes = new HashMap<>(graph.getNodesCount());
+		for (int i = 0; i < components.size(); i++)
+			for (N node : components.get(i))
+				indexes.put(node, i);
+	}
+
+	/**
+	 * Computes the strongly connected components of the subgraph of
+	 * {@code graph} containing only the given nodes.
+	 *
+	 * @param <G>    the type of the {@link Graph}
+	 * @param <N>    the type of {@link Node}s in the graph
+	 * @param <E>    the type of {@link Edge}s in the graph
+	 * @param graph  the graph
+	 * @param nodes  the nodes to visit, in the order they should be used as
+	 *                   starting points of the visit
+	 * @param subset the nodes that are part of the subgraph, or {@code null}
+	 *                   if the subgraph contains all the nodes of the graph
+	 *
+	 * @return the components, in reverse topological order
+	 */
+	static <G extends Graph<G, N, E>,
+			N extends Node<N, E, G>,
+			E extends Edge<N, E, G>> List<Collection<N>> compute(G graph, Collection<N> nodes, Set<N> subset) {
+		List<Collection<N>> result = new ArrayList<>();
+		Map<N, int[]> data = new HashMap<>(nodes.size());
+		Deque<N> stack = new ArrayDeque<>();
+		Deque<N> visit = new ArrayDeque<>();
+		Deque<Iterator<N>> successors = new ArrayDeque<>();
+		int counter = 0;
+
+		for (N start : nodes) {
+			if (data.containsKey(start))
+				continue;
+
+			// data[0] is the index, data[1] the lowlink, data[2] is 1 if the
+			// node is still on the stack
+			data.put(start, new int[] { counter, counter, 1 });
+			counter++;
+			stack.push(start);
+			visit.push(start);
+			successors.push(graph.followersOf(start).iterator());
+			while (!visit.isEmpty()) {
+				N current = visit.peek();
+				Iterator<N> it = successors.peek();
+				if (it.hasNext()) {
+					N next = it.next();
+					if (subset != null && !subset.contains(next))
+						continue;
+					int[] nextData = data.get(next);
+					if (nextData == null) {
+						data.put(next, new int[] { counter, counter, 1 });
+						counter++;
+						stack.push(next);
+						visit.push(next);
+						successors.push(graph.followersOf(next).iterator());
+					} else if (nextData[2] == 1) {
+						int[] currentData = data.get(current);
+						currentData[1] = Math.min(currentData[1], nextData[0]);
+					}
+				} else {
+					visit.pop();
+					successors.pop();
+					int[] currentData = data.get(current);
+					if (!visit.isEmpty()) {
+						int[] parentData = data.get(visit.peek());
+						parentData[1] = Math.min(parentData[1], currentData[1]);
+					}
+
+					if (currentData[1] == currentData[0]) {
+						List<N> component = new ArrayList<>();
+						N member;
+						do {
+							member = stack.pop();
+							data.get(member)[2] = 0;
+							component.add(member);
+						} while (member != current);
+						result.add(Collections.unmodifiableList(component));
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the strongly connected components of the graph, in reverse
+	 * topological order.
+	 *
+	 * @return the components
+	 */
+	public List<Collection<N>> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Yields the strongly connected component containing the given node.
+	 *
+	 * @param node the node
+	 *
+	 * @return the component of the node, or {@code null} if the node is not
+	 *             part of the graph
+	 */
+	public Collection<N> getComponentOf(N node) {
+		Integer idx = indexes.get(node);
+		return idx == null ? null : components.get(idx);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given node is part of a cycle,
+	 * that is, if its component contains other nodes or if the node has an
+	 * edge to itself.
+	 *
+	 * @param node the node
+	 *
+	 * @return whether or not the node is part of a cycle
+	 */
+	public boolean isInCycle(N node) {
+		Collection<N> component = getComponentOf(node);
+		if (component == null)
+			return false;
+		return component.size() > 1 || graph.followersOf(node).contains(node);
+	}
+}
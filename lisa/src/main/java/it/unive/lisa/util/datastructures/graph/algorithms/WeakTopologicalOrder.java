@@ -0,0 +1,292 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A weak topological ordering of the nodes of a {@link Graph}, computed with
+ * Bourdoncle's recursive algorithm (see <i>"Efficient chaotic iteration
+ * strategies with widenings"</i>, F. Bourdoncle, 1993), unrolled on an
+ * explicit stack to support arbitrarily long graphs. The ordering is a
+ * hierarchical decomposition of the graph into {@link Component}s: a component
+ * is either a single node, or a cycle having a <i>head</i> node and a body
+ * that is, in turn, a weak topological ordering. Each loop of the graph goes
+ * through the head of at least one cycle, making the heads a valid set of
+ * widening points. Iterating the components in order, stabilizing each cycle
+ * before moving to the next element, is guaranteed to reach a fixpoint.<br>
+ * <br>
+ * Only the nodes that are reachable from the given roots are part of the
+ * ordering.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <G> the type of the {@link Graph}
+ * @param <N> the type of {@link Node}s in the graph
+ * @param <E> the type of {@link Edge}s in the graph
+ */
+public class WeakTopologicalOrder<G extends Graph<G, N, E>, N extends Node<N, E, G>, E extends Edge<N, E, G>> {
+
+	/**
+	 * The top-level components of this ordering
+	 */
+	private final List<Component<N>> components;
+
+	/**
+	 * The heads of all the cycles of this ordering, at any nesting level
+	 */
+	private final Set<N> heads;
+
+	/**
+	 * Builds the weak topological ordering of the nodes of the given graph that
+	 * are reachable from the given roots.
+	 *
+	 * @param graph the graph
+	 * @param roots the nodes where the visit of the graph starts
+	 */
+	public WeakTopologicalOrder(G graph, Collection<N> roots) {
+		Builder builder = new Builder(graph);
+		LinkedList<Component<N>> partition = new LinkedList<>();
+		for (N root : roots)
+			if (builder.dfn(root) == 0)
+				builder.visit(root, partition);
+		this.components = Collections.unmodifiableList(partition);
+		this.heads = builder.heads;
+	}
+
+	/**
+	 * Yields the top-level components of this ordering, in the order they
+	 * should be processed.
+	 *
+	 * @return the components
+	 */
+	public List<Component<N>> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given node is the head of a cycle
+	 * of this ordering, at any nesting level.
+	 *
+	 * @param node the node
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isHead(N node) {
+		return heads.contains(node);
+	}
+
+	/**
+	 * Yields the heads of all the cycles of this ordering, at any nesting
+	 * level.
+	 *
+	 * @return the heads
+	 */
+	public Set<N> getHeads() {
+		return Collections.unmodifiableSet(heads);
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.join(components, " ");
+	}
+
+	/**
+	 * An element of a {@link WeakTopologicalOrder}. A component is either a
+	 * single node, or a cycle composed by a head node and by a body, where the
+	 * latter is a list of (nested) components.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 *
+	 * @param <N> the type of nodes contained in this component
+	 */
+	public static final class Component<N> {
+
+		/**
+		 * The head of this component, or the only node in it if this is not a
+		 * cycle
+		 */
+		private final N head;
+
+		/**
+		 * The body of this component, {@code null} if this is not a cycle
+		 */
+		private final List<Component<N>> body;
+
+		private Component(N head, List<Component<N>> body) {
+			this.head = head;
+			this.body = body;
+		}
+
+		/**
+		 * Yields the head of this component. If this component is not a cycle,
+		 * this is the only node contained in it.
+		 *
+		 * @return the head
+		 */
+		public N getHead() {
+			return head;
+		}
+
+		/**
+		 * Yields {@code true} if and only if this component is a cycle, and
+		 * thus {@link #getHead()} is a widening point.
+		 *
+		 * @return {@code true} if that condition holds
+		 */
+		public boolean isCycle() {
+			return body != null;
+		}
+
+		/**
+		 * Yields the components that are nested in this one, excluding the
+		 * head, in the order they should be processed. The returned list is
+		 * empty if this component is not a cycle.
+		 *
+		 * @return the body of this component
+		 */
+		public List<Component<N>> getBody() {
+			return body == null ? Collections.emptyList() : body;
+		}
+
+		@Override
+		public String toString() {
+			if (!isCycle())
+				return String.valueOf(head);
+			if (body.isEmpty())
+				return "(" + head + ")";
+			return "(" + head + " " + StringUtils.join(body, " ") + ")";
+		}
+	}
+
+	/**
+	 * The state of Bourdoncle's algorithm during the construction of the
+	 * ordering.
+	 */
+	private class Builder {
+
+		private final G graph;
+
+		private final Map<N, Integer> dfn = new HashMap<>();
+
+		private final Deque<N> stack = new ArrayDeque<>();
+
+		private final Set<N> heads = new HashSet<>();
+
+		private int num = 0;
+
+		private Builder(G graph) {
+			this.graph = graph;
+		}
+
+		private int dfn(N node) {
+			Integer n = dfn.get(node);
+			return n == null ? 0 : n;
+		}
+
+		private void visit(N root, LinkedList<Component<N>> partition) {
+			// each frame is a pending invocation of either visit or component
+			// of the recursive formulation of the algorithm: an explicit
+			// stack is used so that long graphs cannot overflow the one of
+			// the jvm
+			Deque<Frame> frames = new ArrayDeque<>();
+			frames.push(enter(root, partition));
+
+			while (!frames.isEmpty()) {
+				Frame frame = frames.peek();
+				if (frame.successors.hasNext()) {
+					N succ = frame.successors.next();
+					int min = dfn(succ);
+					if (min == 0)
+						frames.push(enter(succ, frame.isComponent() ? frame.body : frame.partition));
+					else if (!frame.isComponent())
+						frame.update(min);
+					continue;
+				}
+
+				frames.pop();
+				if (frame.isComponent()) {
+					frame.partition.addFirst(new Component<>(frame.vertex, Collections.unmodifiableList(frame.body)));
+					continue;
+				}
+
+				// the result of the visit is returned to the caller before
+				// building the component, as the latter does not depend on it
+				Frame caller = frames.peek();
+				if (caller != null && !caller.isComponent())
+					caller.update(frame.head);
+
+				if (frame.head == dfn(frame.vertex)) {
+					dfn.put(frame.vertex, Integer.MAX_VALUE);
+					N element = stack.pop();
+					if (frame.loop) {
+						while (element != frame.vertex) {
+							dfn.put(element, 0);
+							element = stack.pop();
+						}
+						heads.add(frame.vertex);
+						frames.push(new Frame(frame.vertex, frame.partition, new LinkedList<>()));
+					} else
+						frame.partition.addFirst(new Component<>(frame.vertex, null));
+				}
+			}
+		}
+
+		private Frame enter(N vertex, LinkedList<Component<N>> partition) {
+			stack.push(vertex);
+			dfn.put(vertex, ++num);
+			Frame frame = new Frame(vertex, partition, null);
+			frame.head = num;
+			return frame;
+		}
+
+		/**
+		 * A pending invocation of visit, if {@link #body} is {@code null}, or
+		 * of component otherwise.
+		 */
+		private class Frame {
+
+			private final N vertex;
+
+			private final Iterator<N> successors;
+
+			private final LinkedList<Component<N>> partition;
+
+			private final LinkedList<Component<N>> body;
+
+			private int head;
+
+			private boolean loop;
+
+			private Frame(N vertex, LinkedList<Component<N>> partition, LinkedList<Component<N>> body) {
+				this.vertex = vertex;
+				this.successors = graph.followersOf(vertex).iterator();
+				this.partition = partition;
+				this.body = body;
+			}
+
+			private boolean isComponent() {
+				return body != null;
+			}
+
+			private void update(int min) {
+				if (min <= head) {
+					head = min;
+					loop = true;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package it.unive.lisa.util.workset;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in, first-out working set backed by a resizable circular array.
+ * Differently from {@link FIFOWorkingSet}, this implementation does not
+ * allocate any object when elements are pushed, unless the backing array needs
+ * to grow. This implementation is <b>not</b> thread-safe.
+ *
+ * @author Luca Negrini
+ *
+ * @param <E> the type of the elements that this working set contains
+ */
+public class ArrayFIFOWorkingSet<E> implements WorkingSet<E> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Yields a new, empty working set.
+	 *
+	 * @param <E> the type of the elements that the returned working set
+	 *                contains
+	 *
+	 * @return the new working set
+	 */
+	public static <E> ArrayFIFOWorkingSet<E> mk() {
+		return new ArrayFIFOWorkingSet<>(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Yields a new, empty working set whose backing array can initially hold
+	 * {@code capacity} elements.
+	 *
+	 * @param <E>      the type of the elements that the returned working set
+	 *                     contains
+	 * @param capacity the initial capacity
+	 *
+	 * @return the new working set
+	 */
+	public static <E> ArrayFIFOWorkingSet<E> mk(int capacity) {
+		return new ArrayFIFOWorkingSet<>(Math.max(1, capacity));
+	}
+
+	private Object[] elements;
+
+	/**
+	 * The position of the first element of the queue
+	 */
+	private int head;
+
+	private int size;
+
+	private ArrayFIFOWorkingSet(int capacity) {
+		elements = new Object[capacity];
+		head = 0;
+		size = 0;
+	}
+
+	@Override
+	public void push(E e) {
+		if (size == elements.length)
+			grow();
+		elements[(head + size) % elements.length] = e;
+		size++;
+	}
+
+	private void grow() {
+		Object[] bigger = new Object[elements.length << 1];
+		for (int i = 0; i < size; i++)
+			bigger[i] = elements[(head + i) % elements.length];
+		elements = bigger;
+		head = 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E pop() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		E e = (E) elements[head];
+		elements[head] = null;
+		head = (head + 1) % elements.length;
+		size--;
+		return e;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		return size == 0 ? null : (E) elements[head];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				res.append(", ");
+			res.append(elements[(head + i) % elements.length]);
+		}
+		return res.append("]").toString();
+	}
+}
@@ -0,0 +1,92 @@
+package it.unive.lisa.util.workset;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A last-in, first-out working set backed by a resizable array. Differently
+ * from {@link LIFOWorkingSet}, this implementation is not synchronized and
+ * does not allocate any object when elements are pushed, unless the backing
+ * array needs to grow. This implementation is <b>not</b> thread-safe.
+ *
+ * @author Luca Negrini
+ *
+ * @param <E> the type of the elements that this working set contains
+ */
+public class ArrayLIFOWorkingSet<E> implements WorkingSet<E> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Yields a new, empty working set.
+	 *
+	 * @param <E> the type of the elements that the returned working set
+	 *                contains
+	 *
+	 * @return the new working set
+	 */
+	public static <E> ArrayLIFOWorkingSet<E> mk() {
+		return new ArrayLIFOWorkingSet<>(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Yields a new, empty working set whose backing array can initially hold
+	 * {@code capacity} elements.
+	 *
+	 * @param <E>      the type of the elements that the returned working set
+	 *                     contains
+	 * @param capacity the initial capacity
+	 *
+	 * @return the new working set
+	 */
+	public static <E> ArrayLIFOWorkingSet<E> mk(int capacity) {
+		return new ArrayLIFOWorkingSet<>(Math.max(1, capacity));
+	}
+
+	private Object[] elements;
+
+	private int size;
+
+	private ArrayLIFOWorkingSet(int capacity) {
+		elements = new Object[capacity];
+		size = 0;
+	}
+
+	@Override
+	public void push(E e) {
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = e;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E pop() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		E e = (E) elements[--size];
+		elements[size] = null;
+		return e;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		return size == 0 ? null : (E) elements[size - 1];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(Arrays.copyOf(elements, size));
+	}
+}
@@ -0,0 +1,139 @@
+package it.unive.lisa.util.workset;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import it.unive.lisa.util.datastructures.graph.algorithms.ReversePostorder;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A priority working set for the nodes of a {@link Graph}, where the next
+ * element to be processed is always the pending one that comes first in the
+ * {@link ReversePostorder} of the graph. Pending elements are tracked through
+ * a {@link BitSet} indexed by their position in the ordering: pushing an
+ * element that is already pending has no effect, and each element is thus
+ * contained at most once in this working set. This implementation is
+ * <b>not</b> thread-safe.
+ *
+ * @author Luca Negrini
+ *
+ * @param <E> the type of the elements that this working set contains
+ */
+public class ReversePostorderWorkingSet<E> implements WorkingSet<E> {
+
+	/**
+	 * Yields a new, empty working set for the nodes of the given graph,
+	 * ordered according to the reverse postorder of a visit starting at the
+	 * given roots.
+	 *
+	 * @param <G>   the type of the graph
+	 * @param <N>   the type of the nodes of the graph, that is, the type of the
+	 *                  elements that the returned working set contains
+	 * @param <T>   the type of the edges of the graph
+	 * @param graph the graph whose nodes will be contained in the working set
+	 * @param roots the nodes where the visit of the graph starts
+	 *
+	 * @return the new working set
+	 */
+	public static <G extends Graph<G, N, T>,
+			N extends Node<N, T, G>,
+			T extends Edge<N, T, G>> ReversePostorderWorkingSet<N> mk(G graph, Collection<N> roots) {
+		Collection<N> entrypoints = graph.getEntrypoints();
+		if (roots.size() == entrypoints.size() && entrypoints.containsAll(roots))
+			// the ordering is cached by the graph
+			return mk(graph.getStructuralAnalyses().getReversePostorder());
+		return mk(new ReversePostorder<>(graph, roots));
+	}
+
+	/**
+	 * Yields a new, empty working set whose elements are ordered according to
+	 * the given reverse postorder.
+	 *
+	 * @param <G>   the type of the graph
+	 * @param <N>   the type of the nodes of the graph, that is, the type of the
+	 *                  elements that the returned working set contains
+	 * @param <T>   the type of the edges of the graph
+	 * @param order the ordering of the nodes
+	 *
+	 * @return the new working set
+	 */
+	public static <G extends Graph<G, N, T>,
+			N extends Node<N, T, G>,
+			T extends Edge<N, T, G>> ReversePostorderWorkingSet<N> mk(ReversePostorder<G, N, T> order) {
+		return new ReversePostorderWorkingSet<>(order.getOrder(), order::indexOf);
+	}
+
+	/**
+	 * The elements that can be contained in this working set, in reverse
+	 * postorder
+	 */
+	private final List<E> order;
+
+	/**
+	 * The function yielding the position of an element inside {@link #order}
+	 */
+	private final ToIntFunction<E> indexes;
+
+	private final BitSet pending;
+
+	private int size;
+
+	private ReversePostorderWorkingSet(List<E> order, ToIntFunction<E> indexes) {
+		this.order = order;
+		this.indexes = indexes;
+		this.pending = new BitSet(order.size());
+		this.size = 0;
+	}
+
+	@Override
+	public void push(E e) {
+		int idx = indexes.applyAsInt(e);
+		if (idx < 0)
+			throw new IllegalArgumentException(e + " is not part of the graph whose nodes are ordered");
+		if (!pending.get(idx)) {
+			pending.set(idx);
+			size++;
+		}
+	}
+
+	@Override
+	public E pop() {
+		int idx = pending.nextSetBit(0);
+		if (idx < 0)
+			throw new NoSuchElementException();
+		pending.clear(idx);
+		size--;
+		return order.get(idx);
+	}
+
+	@Override
+	public E peek() {
+		int idx = pending.nextSetBit(0);
+		return idx < 0 ? null : order.get(idx);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder("[");
+		for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+			if (res.length() > 1)
+				res.append(", ");
+			res.append(order.get(i));
+		}
+		return res.append("]").toString();
+	}
+}
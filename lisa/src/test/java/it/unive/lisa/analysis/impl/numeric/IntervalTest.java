@@ -0,0 +1,105 @@
+package it.unive.lisa.analysis.impl.numeric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class IntervalTest {
+
+	private static final ExternalSet<Type> TYPES = Caches.types().mkSingletonSet(IntType.INSTANCE);
+
+	private static final Interval domain = new Interval();
+
+	private static final Variable x = new Variable(TYPES, "x");
+
+	private static final Variable y = new Variable(TYPES, "y");
+
+	private static ValueExpression constant(int value) {
+		return new Constant(IntType.INSTANCE, value);
+	}
+
+	private static Interval eval(ValueExpression expression) {
+		return domain.eval(expression, new ValueEnvironment<>(domain).top(), null);
+	}
+
+	private static Interval interval(int low, int high) throws SemanticException {
+		return eval(constant(low)).lub(eval(constant(high)));
+	}
+
+	private static Interval eval(BinaryOperator operator, Interval left, Interval right) {
+		Map<Identifier, Interval> function = new HashMap<>();
+		function.put(x, left);
+		function.put(y, right);
+		return domain.eval(new BinaryExpression(TYPES, x, y, operator), new ValueEnvironment<>(domain, function), null);
+	}
+
+	private static Interval negate(Interval arg) {
+		return domain.eval(new UnaryExpression(TYPES, x, UnaryOperator.NUMERIC_NEG),
+				new ValueEnvironment<>(domain, Collections.singletonMap(x, arg)), null);
+	}
+
+	@Test
+	public void testConstantsAreShared() throws SemanticException {
+		assertSame(eval(constant(0)), eval(constant(0)));
+		assertSame(eval(constant(-1)), eval(constant(-1)));
+		assertSame(eval(constant(-1)), negate(eval(constant(1))));
+		assertSame(eval(constant(0)), eval(BinaryOperator.NUMERIC_MUL, domain.top(), eval(constant(0))));
+	}
+
+	@Test
+	public void testArithmetic() throws SemanticException {
+		Interval a = interval(1, 3), b = interval(-2, 5);
+		assertEquals("[-1, 8]", eval(BinaryOperator.NUMERIC_ADD, a, b).representation());
+		assertEquals("[-4, 5]", eval(BinaryOperator.NUMERIC_SUB, a, b).representation());
+		assertEquals("[-6, 15]", eval(BinaryOperator.NUMERIC_MUL, a, b).representation());
+		assertEquals("[-5, 2]", negate(b).representation());
+		assertEquals("[3, 4]", eval(BinaryOperator.NUMERIC_DIV, interval(7, 7), interval(2, 2)).representation());
+		// the division by zero is ignored
+		assertEquals("[-7, 7]", eval(BinaryOperator.NUMERIC_DIV, interval(7, 7), interval(-1, 1)).representation());
+	}
+
+	@Test
+	public void testSaturation() throws SemanticException {
+		Interval max = interval(Integer.MAX_VALUE, Integer.MAX_VALUE);
+		Interval square = eval(BinaryOperator.NUMERIC_MUL, max, max);
+		assertEquals("[4611686014132420609, 4611686014132420609]", square.representation());
+
+		// both bounds go above the finite values
+		Interval above = eval(BinaryOperator.NUMERIC_MUL, square, max);
+		assertEquals("[" + (Long.MAX_VALUE - 1) + ", +Inf]", above.representation());
+		Interval twice = eval(BinaryOperator.NUMERIC_ADD, square, square);
+		assertEquals("[9223372028264841218, 9223372028264841218]", twice.representation());
+		assertEquals(above, eval(BinaryOperator.NUMERIC_ADD, twice, twice));
+
+		// both bounds go below the finite values
+		Interval below = eval(BinaryOperator.NUMERIC_MUL, square, eval(constant(-4)));
+		assertEquals("[-Inf, " + (Long.MIN_VALUE + 1) + "]", below.representation());
+		assertEquals("[-Inf, " + (Long.MIN_VALUE + 2) + "]",
+				eval(BinaryOperator.NUMERIC_SUB, eval(constant(0)), above).representation());
+
+		Interval span = above.lub(below);
+		assertEquals("[-Inf, +Inf]", span.representation());
+		assertFalse(span.isTop());
+		assertTrue(span.lessOrEqual(span.lub(square)));
+	}
+}
@@ -0,0 +1,109 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.DenseIndex;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class DenseValueEnvironmentTest {
+
+	private static final int VARIABLES = 20;
+
+	private static final Random random = new Random();
+
+	private static final ExternalSet<Type> TYPES = Caches.types().mkSingletonSet(IntType.INSTANCE);
+
+	private static ValueEnvironment<Interval> populate(ValueEnvironment<Interval> env, long seed)
+			throws SemanticException {
+		Random r = new Random(seed);
+		for (int i = r.nextInt(VARIABLES); i >= 0; i--) {
+			Variable var = new Variable(TYPES, "x" + r.nextInt(VARIABLES));
+			int low = r.nextInt(20) - 10;
+			env = env.assign(var, new Constant(IntType.INSTANCE, low), null);
+			if (r.nextBoolean())
+				env = env.lub(env.assign(var, new Constant(IntType.INSTANCE, low + r.nextInt(10)), null));
+		}
+		return env;
+	}
+
+	private static void assertSameEnv(ValueEnvironment<Interval> expected, ValueEnvironment<Interval> actual) {
+		assertEquals(expected.isTop(), actual.isTop());
+		assertEquals(expected.isBottom(), actual.isBottom());
+		Set<Identifier> keys = new HashSet<>(expected.getKeys());
+		assertEquals(keys, new HashSet<>(actual.getKeys()));
+		for (Identifier id : keys)
+			assertEquals(expected.getState(id), actual.getState(id));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDenseAgreesWithHashed() throws SemanticException {
+		checkAgreement(new DenseIndex<>());
+	}
+
+	@Test
+	public void testLargeEnvironmentsAgreeWithHashed() throws SemanticException {
+		// environments with more identifiers than the bound of the index are
+		// not kept dense, and are combined with dense ones
+		checkAgreement(new DenseIndex<>(VARIABLES / 4));
+	}
+
+	private static void checkAgreement(DenseIndex<Identifier> index) throws SemanticException {
+		for (int i = 0; i < 200; i++) {
+			long s1 = random.nextLong(), s2 = random.nextLong();
+			ValueEnvironment<Interval> h1 = populate(new ValueEnvironment<>(new Interval()).top(), s1);
+			ValueEnvironment<Interval> h2 = populate(new ValueEnvironment<>(new Interval()).top(), s2);
+			ValueEnvironment<Interval> d1 = populate(new ValueEnvironment<>(new Interval(), index).top(), s1);
+			ValueEnvironment<Interval> d2 = populate(new ValueEnvironment<>(new Interval(), index).top(), s2);
+
+			assertSameEnv(h1, d1);
+			assertSameEnv(h2, d2);
+			assertSameEnv(h1.lub(h2), d1.lub(d2));
+			assertSameEnv(h1.widening(h2), d1.widening(d2));
+			assertSameEnv(h1.glb(h2), d1.glb(d2));
+			assertEquals(h1.lessOrEqual(h2), d1.lessOrEqual(d2));
+			assertEquals(h1.lessOrEqual(h1.lub(h2)), d1.lessOrEqual(d1.lub(d2)));
+		}
+	}
+
+	@Test
+	public void testLubAllAgreesWithLub() throws SemanticException {
+		DenseIndex<Identifier> index = new DenseIndex<>();
+		for (int i = 0; i < 200; i++) {
+			ValueEnvironment<Interval> h = populate(new ValueEnvironment<>(new Interval()).top(), random.nextLong());
+			ValueEnvironment<Interval> d = populate(new ValueEnvironment<>(new Interval(), index).top(),
+					random.nextLong());
+			List<ValueEnvironment<Interval>> hashed = new ArrayList<>();
+			List<ValueEnvironment<Interval>> dense = new ArrayList<>();
+			ValueEnvironment<Interval> hlub = h, dlub = d;
+			for (int j = random.nextInt(5); j >= 0; j--) {
+				long seed = random.nextLong();
+				ValueEnvironment<Interval> hj = populate(new ValueEnvironment<>(new Interval()).top(), seed);
+				ValueEnvironment<Interval> dj = populate(new ValueEnvironment<>(new Interval(), index).top(), seed);
+				hashed.add(hj);
+				dense.add(dj);
+				hlub = hlub.lub(hj);
+				dlub = dlub.lub(dj);
+			}
+			hashed.add(h.bottom());
+			dense.add(h);
+
+			assertSameEnv(hlub, h.lubAll(hashed));
+			assertSameEnv(dlub.lub(h), d.lubAll(dense));
+		}
+	}
+}
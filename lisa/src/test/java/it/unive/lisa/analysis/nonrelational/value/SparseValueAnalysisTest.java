@@ -0,0 +1,139 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.imp.expressions.IMPAdd;
+import it.unive.lisa.imp.expressions.IMPIntLiteral;
+import it.unive.lisa.imp.expressions.IMPLessThan;
+import it.unive.lisa.imp.expressions.IMPSub;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.DefUseChains;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.FixpointException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class SparseValueAnalysisTest {
+
+	private static Expression var(CFG cfg, String name) {
+		return new VariableRef(cfg, name);
+	}
+
+	private static Expression lit(CFG cfg, int value) {
+		return new IMPIntLiteral(cfg, null, -1, -1, value);
+	}
+
+	private static Assignment assign(CFG cfg, String target, Expression value) {
+		return new Assignment(cfg, new VariableRef(cfg, target), value);
+	}
+
+	private static <T extends NonRelationalValueDomain<T>> AnalysisState<SimpleAbstractState<MonolithicHeap,
+			ValueEnvironment<T>>, MonolithicHeap, ValueEnvironment<T>> mkState(T domain) {
+		return new AnalysisState<>(new SimpleAbstractState<>(new MonolithicHeap(), new ValueEnvironment<>(domain)),
+				Collections.emptyList());
+	}
+
+	@Test
+	public void testSameResultsOfDenseFixpoint() throws FixpointException {
+		// x = 1; if (x < 5) y = x + 2; else y = 0 - x; z = y; return
+		CFG cfg = CFGTestUtils.mkCFG();
+		Assignment x = assign(cfg, "x", lit(cfg, 1));
+		Expression cond = new IMPLessThan(cfg, null, -1, -1, var(cfg, "x"), lit(cfg, 5));
+		Assignment y1 = assign(cfg, "y", new IMPAdd(cfg, null, -1, -1, var(cfg, "x"), lit(cfg, 2)));
+		Assignment y2 = assign(cfg, "y", new IMPSub(cfg, null, -1, -1, lit(cfg, 0), var(cfg, "x")));
+		Assignment z = assign(cfg, "z", var(cfg, "y"));
+		Ret ret = new Ret(cfg);
+		cfg.addNode(x, true);
+		for (Statement st : Arrays.asList(cond, y1, y2, z, ret))
+			cfg.addNode(st);
+		cfg.addEdge(new SequentialEdge(x, cond));
+		cfg.addEdge(new TrueEdge(cond, y1));
+		cfg.addEdge(new FalseEdge(cond, y2));
+		cfg.addEdge(new SequentialEdge(y1, z));
+		cfg.addEdge(new SequentialEdge(y2, z));
+		cfg.addEdge(new SequentialEdge(z, ret));
+
+		DefUseChains chains = cfg.getDefUseChains();
+		assertEquals(new HashSet<>(Arrays.asList(cond, y1, y2)), new HashSet<>(chains.getUses(x)));
+		assertEquals(Collections.singleton(z), new HashSet<>(chains.getUses(y1)));
+		assertEquals(new HashSet<>(Arrays.asList(y1, y2)), new HashSet<>(chains.getReachingDefinitions(z, "y")));
+		assertTrue(chains.isEntryValueReaching(z, "z"));
+		assertFalse(chains.isEntryValueReaching(z, "y"));
+
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> dense = cfg.fixpoint(mkState(new Sign()), new IntraproceduralCallGraph());
+		SparseValueAnalysis<Sign> sparse = new SparseValueAnalysis<>(cfg, new Sign());
+		sparse.compute(mkState(new Sign()), new IntraproceduralCallGraph(), 5);
+
+		ValueEnvironment<Sign> expected = dense.getAnalysisStateAt(ret).getState().getValueState();
+		ValueEnvironment<Sign> actual = sparse.getEnvironmentBefore(ret);
+		assertEquals(3, expected.getKeys().size());
+		assertEquals(expected.getKeys(), actual.getKeys());
+		for (Identifier id : expected.getKeys())
+			assertEquals(id.getName(), expected.getState(id), actual.getState(id));
+		assertNull(sparse.getDefinitions(ret));
+		assertEquals(1, sparse.getDefinitions(z).getKeys().size());
+	}
+
+	@Test
+	public void testLoopIsSoundWithWidening() throws FixpointException, SemanticException {
+		// i = 0; while (i < 10) i = i + 1; return
+		CFG cfg = CFGTestUtils.mkCFG();
+		Assignment init = assign(cfg, "i", lit(cfg, 0));
+		Expression cond = new IMPLessThan(cfg, null, -1, -1, var(cfg, "i"), lit(cfg, 10));
+		Assignment incr = assign(cfg, "i", new IMPAdd(cfg, null, -1, -1, var(cfg, "i"), lit(cfg, 1)));
+		Ret ret = new Ret(cfg);
+		cfg.addNode(init, true);
+		cfg.addNode(cond);
+		cfg.addNode(incr);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(init, cond));
+		cfg.addEdge(new TrueEdge(cond, incr));
+		cfg.addEdge(new SequentialEdge(incr, cond));
+		cfg.addEdge(new FalseEdge(cond, ret));
+
+		DefUseChains chains = cfg.getDefUseChains();
+		assertEquals(new HashSet<>(Arrays.asList(init, incr)),
+				new HashSet<>(chains.getReachingDefinitions(cond, "i")));
+		assertEquals(new HashSet<>(Arrays.asList(cond, incr)), new HashSet<>(chains.getUses(incr)));
+
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>>, MonolithicHeap,
+				ValueEnvironment<Interval>> dense = cfg.fixpoint(mkState(new Interval()),
+						new IntraproceduralCallGraph());
+		SparseValueAnalysis<Interval> sparse = new SparseValueAnalysis<>(cfg, new Interval());
+		sparse.compute(mkState(new Interval()), new IntraproceduralCallGraph(), 5);
+
+		// branch conditions do not refine values, so sparse results can only
+		// be coarser
+		for (Statement st : cfg.getNodes()) {
+			ValueEnvironment<Interval> before = sparse.getEnvironmentBefore(st);
+			for (Statement pred : cfg.predecessorsOf(st))
+				assertEquals(st.toString(), before,
+						dense.getAnalysisStateAt(pred).getState().getValueState().lub(before));
+		}
+		assertEquals("[0, +Inf]",
+				sparse.getEnvironmentBefore(ret).getState(chains.getVariable("i")).representation());
+	}
+}
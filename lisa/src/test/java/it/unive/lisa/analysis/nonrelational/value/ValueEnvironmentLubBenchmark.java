@@ -0,0 +1,101 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.CollectionsDiffBuilder;
+import it.unive.lisa.util.collections.PersistentHashMap;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A simple benchmark of the lub of large {@link ValueEnvironment}s, comparing
+ * it against the previous implementation, that sorted the identifiers of the
+ * two environments by name to pair them (through a
+ * {@link CollectionsDiffBuilder}) and then lifted the values of all of them.
+ * Two joins are measured: one between environments that differ only in a few
+ * identifiers (as it happens at the head of a loop), and one between
+ * environments that share no value. Run it through its {@link #main(String[])}
+ * method, optionally passing the number of identifiers and of joins.
+ */
+public class ValueEnvironmentLubBenchmark {
+
+	private static final int WARMUP = 3;
+
+	private static final int RUNS = 5;
+
+	private static final ExternalSet<Type> TYPES = Caches.types().mkSingletonSet(IntType.INSTANCE);
+
+	private interface Join {
+		ValueEnvironment<Interval> join(ValueEnvironment<Interval> first, ValueEnvironment<Interval> second)
+				throws SemanticException;
+	}
+
+	public static void main(String[] args) throws SemanticException {
+		int ids = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int joins = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		System.out.println("identifiers: " + ids + ", joins: " + joins);
+
+		ValueEnvironment<Interval> base = new ValueEnvironment<>(new Interval()).top();
+		ValueEnvironment<Interval> other = new ValueEnvironment<>(new Interval()).top();
+		for (int i = 0; i < ids; i++) {
+			Variable var = new Variable(TYPES, "x" + i);
+			base = base.assign(var, new Constant(IntType.INSTANCE, i), null);
+			other = other.assign(var, new Constant(IntType.INSTANCE, -i), null);
+		}
+		ValueEnvironment<Interval> close = base;
+		for (int i = 0; i < 10; i++)
+			close = close.assign(new Variable(TYPES, "x" + i), new Constant(IntType.INSTANCE, ids + i), null);
+
+		run("sorted, few changes", base, close, joins, ValueEnvironmentLubBenchmark::sortedLub);
+		run("hashed, few changes", base, close, joins, ValueEnvironment::lub);
+		run("sorted, all changed", base, other, joins, ValueEnvironmentLubBenchmark::sortedLub);
+		run("hashed, all changed", base, other, joins, ValueEnvironment::lub);
+	}
+
+	private static void run(String name, ValueEnvironment<Interval> first, ValueEnvironment<Interval> second,
+			int joins, Join join) throws SemanticException {
+		long time = 0;
+		for (int i = 0; i < WARMUP + RUNS; i++) {
+			long start = System.nanoTime();
+			for (int j = 0; j < joins; j++)
+				if (join.join(first, second).getKeys().size() != first.getKeys().size())
+					throw new IllegalStateException();
+			long elapsed = System.nanoTime() - start;
+			if (i >= WARMUP)
+				time += elapsed;
+		}
+
+		System.out.printf("%-22s %10.3f ms/join%n", name, time / RUNS / 1e6 / joins);
+	}
+
+	private static ValueEnvironment<Interval> sortedLub(ValueEnvironment<Interval> first,
+			ValueEnvironment<Interval> second) throws SemanticException {
+		CollectionsDiffBuilder<Identifier> builder = new CollectionsDiffBuilder<>(Identifier.class,
+				first.getKeys(), second.getKeys());
+		builder.compute(Comparator.comparing(Identifier::getName));
+		Set<Identifier> keys = new HashSet<>();
+		keys.addAll(builder.getOnlyFirst());
+		keys.addAll(builder.getOnlySecond());
+		for (Pair<Identifier, Identifier> pair : builder.getCommons())
+			keys.add(pair.getLeft().lub(pair.getRight()));
+
+		Map<Identifier, Interval> function = new PersistentHashMap<>(first.getMap());
+		function.keySet().retainAll(keys);
+		for (Identifier key : keys) {
+			Interval lifted = first.getState(key).lub(second.getState(key));
+			if (lifted != function.get(key))
+				function.put(key, lifted);
+		}
+		return new ValueEnvironment<>(new Interval(), function);
+	}
+}
@@ -0,0 +1,159 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.HeapLocation;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.DenseIndex;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class ValueEnvironmentTest {
+
+	private static final int VARIABLES = 20;
+
+	private static final Random random = new Random();
+
+	private static final ExternalSet<Type> TYPES = Caches.types().mkSingletonSet(IntType.INSTANCE);
+
+	private static ValueEnvironment<Interval> populate(ValueEnvironment<Interval> env, Random r)
+			throws SemanticException {
+		for (int i = r.nextInt(VARIABLES); i >= 0; i--) {
+			Variable var = new Variable(TYPES, "x" + r.nextInt(VARIABLES));
+			int low = r.nextInt(20) - 10;
+			env = env.assign(var, new Constant(IntType.INSTANCE, low), null);
+			if (r.nextBoolean())
+				env = env.lub(env.assign(var, new Constant(IntType.INSTANCE, low + r.nextInt(10)), null));
+		}
+		return env;
+	}
+
+	@Test
+	public void testLubIsPointwise() throws SemanticException {
+		for (int i = 0; i < 200; i++) {
+			Random r = new Random(random.nextLong());
+			ValueEnvironment<Interval> first = populate(new ValueEnvironment<>(new Interval()).top(), r);
+			// the second environment shares some values with the first one
+			ValueEnvironment<Interval> second = populate(r.nextBoolean() ? first
+					: new ValueEnvironment<>(new Interval()).top(), r);
+
+			ValueEnvironment<Interval> lub = first.lub(second);
+			ValueEnvironment<Interval> widening = first.widening(second);
+			Set<Identifier> keys = new HashSet<>(first.getKeys());
+			keys.addAll(second.getKeys());
+			assertEquals(keys, lub.getKeys());
+			assertEquals(keys, widening.getKeys());
+			for (Identifier id : keys) {
+				assertEquals(first.getState(id).lub(second.getState(id)), lub.getState(id));
+				assertEquals(first.getState(id).widening(second.getState(id)), widening.getState(id));
+			}
+			assertTrue(first.lessOrEqual(lub));
+			assertTrue(second.lessOrEqual(lub));
+		}
+	}
+
+	@Test
+	public void testLubKeepsSharedValues() throws SemanticException {
+		ValueEnvironment<Interval> first = new ValueEnvironment<>(new Interval()).top();
+		for (int i = 0; i < VARIABLES; i++)
+			first = first.assign(new Variable(TYPES, "x" + i), new Constant(IntType.INSTANCE, i), null);
+		Variable changed = new Variable(TYPES, "x0");
+		ValueEnvironment<Interval> second = first.assign(changed, new Constant(IntType.INSTANCE, 5), null);
+
+		ValueEnvironment<Interval> lub = first.lub(second);
+		assertEquals("[0, 5]", lub.getState(changed).representation());
+		for (Identifier id : first.getKeys())
+			if (!id.equals(changed))
+				assertSame(first.getState(id), lub.getState(id));
+	}
+
+	@Test
+	public void testLubMergesIdentifiersWithSameName() throws SemanticException {
+		HeapLocation strong = new HeapLocation(TYPES, "h", false);
+		HeapLocation weak = new HeapLocation(TYPES, "h", true);
+		Variable x = new Variable(TYPES, "x");
+		ValueEnvironment<Interval> first = new ValueEnvironment<>(new Interval()).top()
+				.assign(strong, new Constant(IntType.INSTANCE, 1), null)
+				.assign(x, new Constant(IntType.INSTANCE, 1), null);
+		ValueEnvironment<Interval> second = new ValueEnvironment<>(new Interval()).top()
+				.assign(weak, new Constant(IntType.INSTANCE, 2), null)
+				.assign(x, new Constant(IntType.INSTANCE, 3), null);
+
+		Set<Identifier> expected = new HashSet<>();
+		expected.add(weak);
+		expected.add(x);
+		ValueEnvironment<Interval> lub = first.lub(second);
+		assertEquals(expected, lub.getKeys());
+		assertTrue(lub.getKeys().stream().filter(id -> id.getName().equals("h")).allMatch(Identifier::isWeak));
+		assertEquals("[1, 3]", lub.getState(x).representation());
+		assertEquals(expected, second.lub(first).getKeys());
+		assertEquals(Collections.singleton(x), first.glb(second).getKeys());
+	}
+
+	private static ValueEnvironment<Interval> detached(ValueEnvironment<Interval> env) {
+		return new ValueEnvironment<>(new Interval(), new HashMap<>(env.getMap()));
+	}
+
+	@Test
+	public void testComparisonsWithAncestors() throws SemanticException {
+		DenseIndex<Identifier> index = new DenseIndex<>();
+		for (int i = 0; i < 200; i++) {
+			Random r = new Random(random.nextLong());
+			ValueEnvironment<Interval> empty = r.nextBoolean() ? new ValueEnvironment<>(new Interval()).top()
+					: new ValueEnvironment<>(new Interval(), index).top();
+			ValueEnvironment<Interval> first = populate(empty, r);
+			ValueEnvironment<Interval> second = populate(r.nextBoolean() ? first : empty, r);
+			Variable x = new Variable(TYPES, "x" + r.nextInt(VARIABLES));
+
+			List<ValueEnvironment<Interval>> derived = Arrays.asList(
+					first.lub(second),
+					second.lub(first),
+					first.widening(second),
+					first.lubAll(Arrays.asList(second, populate(empty, r))),
+					first.assign(x, new Constant(IntType.INSTANCE, r.nextInt(20) - 10), null),
+					first.forgetIdentifier(x));
+			for (ValueEnvironment<Interval> env : derived)
+				for (ValueEnvironment<Interval> other : Arrays.asList(first, second)) {
+					assertEquals(detached(env).lessOrEqual(detached(other)), env.lessOrEqual(other));
+					assertEquals(detached(other).lessOrEqual(detached(env)), other.lessOrEqual(env));
+					assertEquals(detached(env).equals(detached(other)), env.equals(other));
+					assertEquals(detached(other).equals(detached(env)), other.equals(env));
+				}
+		}
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void testDerivedEnvironmentsWithDifferentLattices() throws SemanticException {
+		Variable x = new Variable(TYPES, "x");
+		ValueEnvironment<Interval> first = new ValueEnvironment<>(new Interval()).top()
+				.assign(x, new Constant(IntType.INSTANCE, 1), null);
+		ValueEnvironment<Interval> derived = first.assign(x, new Constant(IntType.INSTANCE, 1), null);
+		assertEquals(first, derived);
+		assertEquals(first.hashCode(), derived.hashCode());
+
+		// same function, but a lattice of a different class
+		ValueEnvironment<Sign> other = new ValueEnvironment<>(new Sign(), (Map) first.getMap());
+		assertFalse(derived.equals(other));
+		assertFalse(other.equals(derived));
+	}
+}
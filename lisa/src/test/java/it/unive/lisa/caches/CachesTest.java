@@ -0,0 +1,112 @@
+package it.unive.lisa.caches;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.types.InferredTypes;
+import it.unive.lisa.symbolic.types.BoolType;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+public class CachesTest {
+
+	@Test
+	public void testScoping() {
+		Caches global = Caches.current();
+		Caches first = new Caches();
+		Caches second = new Caches();
+
+		Caches previous = Caches.enter(first);
+		try {
+			assertSame(first, Caches.current());
+			assertSame(first.getTypes(), Caches.types());
+			Caches.types().mkSingletonSet(IntType.INSTANCE);
+
+			Caches nested = Caches.enter(second);
+			try {
+				assertSame(second.getTypes(), Caches.types());
+				Caches.types().mkSingletonSet(BoolType.INSTANCE);
+				Caches.types().mkSingletonSet(IntType.INSTANCE);
+			} finally {
+				Caches.exit(nested);
+			}
+
+			assertSame(first, Caches.current());
+		} finally {
+			Caches.exit(previous);
+		}
+
+		assertSame(global, Caches.current());
+		assertEquals(1, first.getTypes().size());
+		assertEquals(2, second.getTypes().size());
+
+		first.clear();
+		assertEquals(0, first.getTypes().size());
+		assertEquals(2, second.getTypes().size());
+	}
+
+	@Test
+	public void testBind() throws InterruptedException, ExecutionException {
+		Caches caches = new Caches();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Caches previous = Caches.enter(caches);
+			ExternalSetCache<Type> unbound, bound;
+			try {
+				unbound = executor.submit(() -> Caches.types()).get();
+				bound = executor.submit(Caches.bind(() -> Caches.types())).get();
+			} finally {
+				Caches.exit(previous);
+			}
+
+			assertSame(caches.getTypes(), bound);
+			assertNotSame(caches.getTypes(), unbound);
+			// the binding does not leak into the worker thread
+			assertSame(unbound, executor.submit(() -> Caches.types()).get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSingletonsArePerContext() throws SemanticException {
+		Caches first = new Caches();
+		Caches second = new Caches();
+
+		InferredTypes top1, top2;
+		Caches previous = Caches.enter(first);
+		try {
+			InferredTypes types = new InferredTypes();
+			top1 = types.top();
+			assertSame(top1, types.top());
+			assertSame(top1, new InferredTypes().top());
+			assertTrue(top1.isTop());
+			assertSame(first.getTypes(), top1.getRuntimeTypes().getCache());
+			assertSame(first.getTypes(), types.bottom().getRuntimeTypes().getCache());
+		} finally {
+			Caches.exit(previous);
+		}
+
+		previous = Caches.enter(second);
+		try {
+			top2 = new InferredTypes().top();
+			assertTrue(top2.isTop());
+			assertSame(second.getTypes(), top2.getRuntimeTypes().getCache());
+			// singletons are resolved when instances are built
+			assertSame(top1, top1.top());
+			assertSame(top1, top1.lub(top1.bottom()));
+		} finally {
+			Caches.exit(previous);
+		}
+
+		assertNotSame(top1, top2);
+	}
+}
@@ -0,0 +1,108 @@
+package it.unive.lisa.caches;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import org.junit.Test;
+
+public class HashConsingTest {
+
+	@Test
+	public void testDisabled() {
+		HashConsing hashConsing = new Caches().getHashConsing();
+		String a = new String("a");
+		assertSame(a, hashConsing.canonicalize(a));
+		assertSame(null, hashConsing.canonicalize(null));
+		assertEquals(0, hashConsing.size());
+	}
+
+	@Test
+	public void testEnabled() {
+		HashConsing hashConsing = new Caches().getHashConsing();
+		hashConsing.enable();
+		String a = new String("a");
+		String b = new String("a");
+		assertNotSame(a, b);
+		assertSame(a, hashConsing.canonicalize(a));
+		assertSame(a, hashConsing.canonicalize(b));
+		assertEquals(1, hashConsing.size());
+		assertEquals(1, hashConsing.getFactory(String.class).getHits());
+		assertEquals(1, hashConsing.getFactory(String.class).getMisses());
+
+		hashConsing.disable();
+		assertEquals(0, hashConsing.size());
+		assertSame(b, hashConsing.canonicalize(b));
+	}
+
+	@Test
+	public void testDomainsHaveSeparateFactories() {
+		HashConsing hashConsing = new Caches().getHashConsing();
+		hashConsing.enable();
+		hashConsing.canonicalize("a");
+		hashConsing.canonicalize(new Interval());
+		hashConsing.canonicalize(new Interval());
+		assertEquals(2, hashConsing.getDomains().size());
+		assertEquals(1, hashConsing.getFactory(String.class).size());
+		assertEquals(1, hashConsing.getFactory(Interval.class).size());
+		assertEquals(1, hashConsing.getFactory(Interval.class).getHits());
+	}
+
+	@Test
+	public void testContextsAreIsolated() {
+		Caches first = new Caches(), second = new Caches();
+		first.getHashConsing().enable();
+		second.getHashConsing().enable();
+		String a = new String("a");
+		String b = new String("a");
+		assertSame(a, first.getHashConsing().canonicalize(a));
+		assertSame(b, second.getHashConsing().canonicalize(b));
+
+		// disabling one context does not affect the other one
+		second.getHashConsing().disable();
+		assertTrue(first.getHashConsing().isEnabled());
+		assertFalse(second.getHashConsing().isEnabled());
+		assertSame(a, first.getHashConsing().canonicalize(new String("a")));
+
+		Caches previous = Caches.enter(first);
+		try {
+			assertSame(a, HashConsing.canonical(new String("a")));
+		} finally {
+			Caches.exit(previous);
+		}
+		assertNotSame(a, HashConsing.canonical(new String("a")));
+	}
+
+	@Test
+	public void testEnvironmentValuesAreShared() throws SemanticException {
+		Caches caches = new Caches();
+		caches.getHashConsing().enable();
+		Caches previous = Caches.enter(caches);
+		try {
+			Variable x = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+			Variable y = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "y");
+			ValueEnvironment<Interval> env = new ValueEnvironment<>(new Interval()).top();
+			ValueEnvironment<Interval> first = env.assign(x, new Constant(IntType.INSTANCE, 1), null)
+					.assign(y, new Constant(IntType.INSTANCE, 5), null);
+			ValueEnvironment<Interval> second = env.assign(x, new Constant(IntType.INSTANCE, 5), null)
+					.assign(y, new Constant(IntType.INSTANCE, 1), null);
+			assertSame(first.getState(y), second.getState(x));
+
+			ValueEnvironment<Interval> lub = first.lub(second);
+			assertSame(lub.getState(x), lub.getState(y));
+
+			// equal environments produced by lattice operations are shared
+			assertSame(lub, second.lub(first));
+		} finally {
+			Caches.exit(previous);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package it.unive.lisa.caches;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatticeCacheTest {
+
+	private Caches caches;
+
+	private LatticeCache cache;
+
+	private Caches previous;
+
+	@Before
+	public void enterContext() {
+		caches = new Caches();
+		cache = caches.getLatticeCache();
+		previous = Caches.enter(caches);
+	}
+
+	@After
+	public void exitContext() {
+		Caches.exit(previous);
+		cache.disable();
+	}
+
+	private static Interval constant(int value) throws SemanticException {
+		Variable x = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+		return new ValueEnvironment<>(new Interval()).top()
+				.assign(x, new Constant(IntType.INSTANCE, value), null)
+				.getState(x);
+	}
+
+	@Test
+	public void testDisabled() throws SemanticException {
+		Interval a = constant(1), b = constant(2);
+		assertFalse(cache.isEnabled());
+		assertNull(LatticeCache.active());
+		a.lub(b);
+		assertEquals(0, cache.getMisses(Interval.class));
+		assertEquals(0, cache.size(Interval.class));
+	}
+
+	@Test
+	public void testHitsAndMisses() throws SemanticException {
+		Interval a = constant(1), b = constant(2);
+		cache.enable(16);
+		assertSame(cache, LatticeCache.active());
+		Interval lub = a.lub(b);
+		assertEquals(0, cache.getHits(Interval.class));
+		assertEquals(1, cache.getMisses(Interval.class));
+		assertSame(lub, a.lub(b));
+		assertEquals(1, cache.getHits(Interval.class));
+
+		// operations and operands are part of the key
+		b.lub(a);
+		a.widening(b);
+		assertTrue(a.lessOrEqual(lub));
+		assertTrue(a.lessOrEqual(lub));
+		assertEquals(2, cache.getHits(Interval.class));
+		assertEquals(4, cache.getMisses(Interval.class));
+		assertEquals(4, cache.size(Interval.class));
+
+		cache.disable();
+		assertEquals(0, cache.getHits(Interval.class));
+		assertEquals(0, cache.size(Interval.class));
+	}
+
+	@Test
+	public void testEviction() throws SemanticException {
+		Interval a = constant(1), b = constant(2), c = constant(3);
+		cache.enable(2);
+		a.lub(b);
+		a.lub(c);
+		// a.lub(b) becomes the most recently used
+		a.lub(b);
+		b.lub(c);
+		assertEquals(2, cache.size(Interval.class));
+		assertEquals(1, cache.getHits(Interval.class));
+
+		a.lub(b);
+		assertEquals(2, cache.getHits(Interval.class));
+		a.lub(c);
+		assertEquals(2, cache.getHits(Interval.class));
+		assertEquals(4, cache.getMisses(Interval.class));
+	}
+
+	@Test
+	public void testCapacityOfDomain() throws SemanticException {
+		Interval a = constant(1), b = constant(2);
+		cache.enable(16);
+		cache.setCapacity(Interval.class, 0);
+		assertEquals(a.lub(b), a.lub(b));
+		assertEquals(0, cache.getHits(Interval.class));
+		assertEquals(0, cache.getMisses(Interval.class));
+
+		cache.resetCapacities();
+		a.lub(b);
+		a.lub(b);
+		assertEquals(1, cache.getHits(Interval.class));
+
+		// only domains with a specific capacity are cached
+		cache.enable(0);
+		a.lub(b);
+		assertEquals(0, cache.getMisses(Interval.class));
+		cache.setCapacity(Interval.class, 4);
+		a.lub(b);
+		a.lub(b);
+		assertEquals(1, cache.getHits(Interval.class));
+	}
+
+	@Test
+	public void testContextsAreIsolated() throws SemanticException {
+		Interval a = constant(1), b = constant(2);
+		LatticeCache other = new Caches().getLatticeCache();
+		other.enable(16);
+		try {
+			// the cache of another context is not used
+			a.lub(b);
+			assertNull(LatticeCache.active());
+			assertEquals(0, other.getMisses(Interval.class));
+
+			cache.enable(16);
+			a.lub(b);
+			other.disable();
+			a.lub(b);
+			assertTrue(cache.isEnabled());
+			assertEquals(1, cache.getHits(Interval.class));
+		} finally {
+			other.disable();
+		}
+	}
+}
@@ -36,6 +36,20 @@ public class NumericAnalysesTest extends AnalysisTestExecutor {
 		perform("interval", "program.imp", conf);
 	}
 
+	@Test
+	public void testParallelInterval() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setParallelism(4)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()));
+		perform("interval", "program.imp", conf);
+	}
+
+	@Test
+	public void testHashConsedInterval() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setHashConsing(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()));
+		perform("interval", "program.imp", conf);
+	}
+
 	@Test
 	public void testIntegerConstantPropagation() throws AnalysisSetupException {
 		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true)
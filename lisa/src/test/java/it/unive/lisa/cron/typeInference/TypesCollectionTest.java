@@ -10,4 +10,11 @@ public class TypesCollectionTest extends AnalysisTestExecutor {
 		LiSAConfiguration conf = new LiSAConfiguration().setInferTypes(true).setDumpTypeInference(true);
 		perform("type-inference", "program.imp", conf);
 	}
+
+	@Test
+	public void testParallelTypesCollection() {
+		LiSAConfiguration conf = new LiSAConfiguration().setInferTypes(true).setDumpTypeInference(true)
+				.setParallelism(4);
+		perform("type-inference", "program.imp", conf);
+	}
 }
@@ -1,5 +1,6 @@
 package it.unive.lisa.program.cfg;
 
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import it.unive.lisa.analysis.AbstractState;
@@ -292,4 +293,57 @@ public class CFGSimplificationTest {
 		first.validate();
 		assertTrue("Different CFGs", second.isEqualTo(first));
 	}
+
+	@Test
+	public void testLongChainSimplification() throws ProgramValidationException {
+		CompilationUnit unit = new CompilationUnit(null, "foo", false);
+		CFG first = new CFG(new CFGDescriptor(unit, true, "foo"));
+		Assignment assign = new Assignment(first, new VariableRef(first, "x"), new Literal(first, 5, Untyped.INSTANCE));
+		GT gt = new GT(first, new VariableRef(first, "x"), new Literal(first, 2, Untyped.INSTANCE));
+		Print print = new Print(first, new Literal(first, "f", Untyped.INSTANCE));
+		Return ret = new Return(first, new VariableRef(first, "x", Untyped.INSTANCE));
+		first.addNode(assign, true);
+		first.addNode(gt);
+		first.addNode(print);
+		first.addNode(ret);
+		first.addEdge(new SequentialEdge(assign, gt));
+		first.addEdge(new FalseEdge(gt, ret));
+		first.addEdge(new SequentialEdge(print, ret));
+
+		// gt -t-> noop -> ... -> noop -> print
+		NoOp[] chain = new NoOp[1000];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = new NoOp(first);
+			first.addNode(chain[i]);
+			if (i > 0)
+				first.addEdge(new SequentialEdge(chain[i - 1], chain[i]));
+		}
+		first.addEdge(new TrueEdge(gt, chain[0]));
+		first.addEdge(new SequentialEdge(chain[chain.length - 1], print));
+		VariableTableEntry y = new VariableTableEntry(0, chain[2], chain[chain.length - 3], "y");
+		first.getDescriptor().addVariable(y);
+
+		CFG second = new CFG(new CFGDescriptor(unit, true, "foo"));
+		assign = new Assignment(second, new VariableRef(second, "x"), new Literal(second, 5, Untyped.INSTANCE));
+		GT gt2 = new GT(second, new VariableRef(second, "x"), new Literal(second, 2, Untyped.INSTANCE));
+		Print print2 = new Print(second, new Literal(second, "f", Untyped.INSTANCE));
+		ret = new Return(second, new VariableRef(second, "x", Untyped.INSTANCE));
+		second.addNode(assign, true);
+		second.addNode(gt2);
+		second.addNode(print2);
+		second.addNode(ret);
+		second.addEdge(new SequentialEdge(assign, gt2));
+		second.addEdge(new TrueEdge(gt2, print2));
+		second.addEdge(new FalseEdge(gt2, ret));
+		second.addEdge(new SequentialEdge(print2, ret));
+
+		first.validate();
+		second.validate();
+		first.simplify();
+		first.validate();
+		assertTrue("Different CFGs", second.isEqualTo(first));
+		// the scope of y is moved to the closest statements that survived
+		assertSame(gt, y.getScopeStart());
+		assertSame(print, y.getScopeEnd());
+	}
 }
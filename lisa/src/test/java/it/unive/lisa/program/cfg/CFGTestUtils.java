@@ -0,0 +1,72 @@
+package it.unive.lisa.program.cfg;
+
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Literal;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.type.Untyped;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A class providing utilities for building {@link CFG}s in tests.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class CFGTestUtils {
+
+	private CFGTestUtils() {
+	}
+
+	/**
+	 * Builds an empty, non-instance {@link CFG} named {@code foo}, defined in
+	 * a unit with the same name.
+	 *
+	 * @return the cfg
+	 */
+	public static CFG mkCFG() {
+		return new CFG(new CFGDescriptor(new CompilationUnit(null, "foo", false), false, "foo"));
+	}
+
+	/**
+	 * Builds an {@link Assignment} of an untyped integer constant to a
+	 * variable.
+	 *
+	 * @param cfg    the cfg where the assignment will be added
+	 * @param target the name of the assigned variable
+	 * @param value  the assigned value
+	 *
+	 * @return the assignment
+	 */
+	public static Assignment mkAssignment(CFG cfg, String target, int value) {
+		return new Assignment(cfg, new VariableRef(cfg, target), new Literal(cfg, value, Untyped.INSTANCE));
+	}
+
+	/**
+	 * Builds an {@link Assignment} copying the value of a variable into
+	 * another one.
+	 *
+	 * @param cfg    the cfg where the assignment will be added
+	 * @param target the name of the assigned variable
+	 * @param source the name of the copied variable
+	 *
+	 * @return the assignment
+	 */
+	public static Assignment mkAssignment(CFG cfg, String target, String source) {
+		return new Assignment(cfg, new VariableRef(cfg, target), new VariableRef(cfg, source));
+	}
+
+	/**
+	 * Builds a mutable set containing the given elements.
+	 *
+	 * @param <T>      the type of the elements
+	 * @param elements the elements
+	 *
+	 * @return the set
+	 */
+	@SafeVarargs
+	public static <T> Set<T> set(T... elements) {
+		return new HashSet<>(Arrays.asList(elements));
+	}
+}
@@ -1,8 +1,10 @@
 package it.unive.lisa.program.cfg;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.SimpleAbstractState;
 import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
 import it.unive.lisa.analysis.impl.numeric.Sign;
@@ -12,8 +14,18 @@ import it.unive.lisa.imp.IMPFrontend;
 import it.unive.lisa.imp.ParsingException;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Literal;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
+import it.unive.lisa.util.datastructures.graph.FixpointStrategy;
 import java.util.Collections;
+import java.util.HashSet;
 import org.junit.Test;
 
 public class FixpointTest {
@@ -62,4 +74,64 @@ public class FixpointTest {
 			fail("The fixpoint computation has thrown an exception");
 		}
 	}
+
+	@Test
+	public void testStrategiesAgree() throws ParsingException, FixpointException {
+		Program p = IMPFrontend.processText("class nested { foo(x) { def i = 0; while (i < 10) { def j = x; "
+				+ "while (j > 0) { j = j - 1; } i = i + 1; } return i; } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> worklist = cfg.fixpoint(mkState(), mkCallGraph(),
+						new FixpointConfiguration().setStrategy(FixpointStrategy.WORKLIST));
+		for (FixpointStrategy strategy : FixpointStrategy.values()) {
+			CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+					ValueEnvironment<Sign>> other = cfg.fixpoint(mkState(), mkCallGraph(),
+							new FixpointConfiguration().setStrategy(strategy));
+			for (Statement st : cfg.getNodes()) {
+				// lubs turn the computed expressions into sets, so we compare
+				// them separately from the state
+				AnalysisState<?, ?, ?> expected = worklist.getAnalysisStateAt(st);
+				AnalysisState<?, ?, ?> actual = other.getAnalysisStateAt(st);
+				assertEquals("Different states for " + st + " with " + strategy, expected.getState(),
+						actual.getState());
+				assertEquals("Different computed expressions for " + st + " with " + strategy,
+						new HashSet<>(expected.getComputedExpressions()),
+						new HashSet<>(actual.getComputedExpressions()));
+			}
+		}
+	}
+
+	@Test
+	public void testScopeEndsWithFrozenCFG() throws FixpointException {
+		CFG cfg = CFGTestUtils.mkCFG();
+		Assignment x = new Assignment(cfg, new VariableRef(cfg, "x"), new Literal(cfg, 1, Untyped.INSTANCE));
+		Assignment y = new Assignment(cfg, new VariableRef(cfg, "y"), new Literal(cfg, 2, Untyped.INSTANCE));
+		Ret ret = new Ret(cfg);
+		cfg.addNode(x, true);
+		cfg.addNode(y);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(x, y));
+		cfg.addEdge(new SequentialEdge(y, ret));
+		cfg.getDescriptor().addVariable(new VariableTableEntry(0, y, ret, "y"));
+
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> mutable = cfg.fixpoint(mkState(), mkCallGraph());
+		cfg.freeze();
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> frozen = cfg.fixpoint(mkState(), mkCallGraph());
+
+		for (Statement st : cfg.getNodes())
+			assertEquals(mutable.getAnalysisStateAt(st).getState(), frozen.getAnalysisStateAt(st).getState());
+		// x is not in the variable table, so it never leaves the scope
+		assertEquals(2, frozen.getAnalysisStateAt(y).getState().getValueState().getKeys().size());
+		assertEquals(2, frozen.getAnalysisStateAt(ret).getState().getValueState().getKeys().size());
+
+		// the index of the frozen cfg must not miss variables added later
+		cfg.getDescriptor().addVariable(new VariableTableEntry(1, x, x, "x"));
+		frozen = cfg.fixpoint(mkState(), mkCallGraph());
+
+		// x leaves the scope after its assignment, y is still visible
+		assertEquals(1, frozen.getAnalysisStateAt(y).getState().getValueState().getKeys().size());
+		assertEquals(1, frozen.getAnalysisStateAt(ret).getState().getValueState().getKeys().size());
+	}
 }
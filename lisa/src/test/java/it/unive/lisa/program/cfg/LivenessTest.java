@@ -0,0 +1,113 @@
+package it.unive.lisa.program.cfg;
+
+import static it.unive.lisa.program.cfg.CFGTestUtils.mkAssignment;
+import static it.unive.lisa.program.cfg.CFGTestUtils.mkCFG;
+import static it.unive.lisa.program.cfg.CFGTestUtils.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Literal;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
+import it.unive.lisa.util.datastructures.graph.FixpointException;
+import it.unive.lisa.util.datastructures.graph.FixpointStrategy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class LivenessTest {
+
+	private static Set<String> names(Collection<Identifier> ids) {
+		Set<String> names = new HashSet<>();
+		for (Identifier id : ids)
+			names.add(id.getName());
+		return names;
+	}
+
+	@Test
+	public void testLoop() {
+		// x = 1; while (*) { y = x; x = y; } return
+		CFG cfg = mkCFG();
+		Assignment a = new Assignment(cfg, new VariableRef(cfg, "x"), new Literal(cfg, 1, Untyped.INSTANCE));
+		Assignment b = mkAssignment(cfg, "y", "x");
+		Assignment c = mkAssignment(cfg, "x", "y");
+		Ret d = new Ret(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+		cfg.addEdge(new SequentialEdge(c, b));
+		cfg.addEdge(new SequentialEdge(b, d));
+
+		Liveness liveness = cfg.getLiveness();
+		assertSame(liveness, cfg.getLiveness());
+		assertEquals(set(), new HashSet<>(liveness.getLiveBefore(a)));
+		assertEquals(set("x"), new HashSet<>(liveness.getLiveBefore(b)));
+		assertEquals(set("y"), new HashSet<>(liveness.getLiveBefore(c)));
+		assertEquals(set(), new HashSet<>(liveness.getLiveBefore(d)));
+		assertTrue(liveness.isLiveBefore(b, "x"));
+		assertFalse(liveness.isLiveBefore(b, "y"));
+		assertFalse(liveness.isLiveBefore(b, "z"));
+
+		// y reaches the head of the loop through the back edge
+		assertEquals(set("y"), names(liveness.getDeadBefore(b)));
+		assertEquals(set("x"), names(liveness.getDeadBefore(c)));
+		assertEquals(set("x", "y"), names(liveness.getDeadBefore(d)));
+
+		cfg.addNode(new Ret(cfg));
+		assertFalse(liveness == cfg.getLiveness());
+	}
+
+	@Test
+	public void testForgetDeadVariables() throws FixpointException {
+		// x = 1; y = x; return
+		CFG cfg = mkCFG();
+		Assignment x = new Assignment(cfg, new VariableRef(cfg, "x"), new Literal(cfg, 1, Untyped.INSTANCE));
+		Assignment y = mkAssignment(cfg, "y", "x");
+		Ret ret = new Ret(cfg);
+		cfg.addNode(x, true);
+		cfg.addNode(y);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(x, y));
+		cfg.addEdge(new SequentialEdge(y, ret));
+
+		AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> entry = new AnalysisState<>(
+						new SimpleAbstractState<>(new MonolithicHeap(), new ValueEnvironment<>(new Sign())),
+						Collections.emptyList());
+		for (FixpointStrategy strategy : FixpointStrategy.values()) {
+			CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+					ValueEnvironment<Sign>> all = cfg.fixpoint(entry, new IntraproceduralCallGraph(),
+							new FixpointConfiguration().setStrategy(strategy));
+			CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+					ValueEnvironment<Sign>> live = cfg.fixpoint(entry, new IntraproceduralCallGraph(),
+							new FixpointConfiguration().setStrategy(strategy).setForgetDeadVariables(true));
+
+			assertEquals(strategy.name(), all.getAnalysisStateAt(x), live.getAnalysisStateAt(x));
+			assertEquals(strategy.name(), all.getAnalysisStateAt(y), live.getAnalysisStateAt(y));
+			assertEquals(strategy.name(), 2,
+					all.getAnalysisStateAt(ret).getState().getValueState().getKeys().size());
+			assertTrue(strategy.name(),
+					live.getAnalysisStateAt(ret).getState().getValueState().getKeys().isEmpty());
+		}
+	}
+}
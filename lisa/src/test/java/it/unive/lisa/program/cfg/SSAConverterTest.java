@@ -0,0 +1,168 @@
+package it.unive.lisa.program.cfg;
+
+import static it.unive.lisa.program.cfg.CFGTestUtils.mkAssignment;
+import static it.unive.lisa.program.cfg.CFGTestUtils.mkCFG;
+import static it.unive.lisa.program.cfg.CFGTestUtils.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Phi;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.FixpointException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class SSAConverterTest {
+
+	private static Set<String> names(VariableRef... refs) {
+		Set<String> names = new HashSet<>();
+		for (VariableRef ref : refs)
+			names.add(ref.getName());
+		return names;
+	}
+
+	private static Sign valueOf(CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>,
+			MonolithicHeap, ValueEnvironment<Sign>> result, Statement st, String name) {
+		ValueEnvironment<Sign> env = result.getAnalysisStateAt(st).getState().getValueState();
+		for (Identifier id : env.getKeys())
+			if (id.getName().equals(name))
+				return env.getState(id);
+		return null;
+	}
+
+	private static CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>,
+			MonolithicHeap, ValueEnvironment<Sign>> analyze(CFG cfg) throws FixpointException {
+		return cfg.fixpoint(new AnalysisState<>(
+				new SimpleAbstractState<>(new MonolithicHeap(), new ValueEnvironment<>(new Sign())),
+				Collections.emptyList()), new IntraproceduralCallGraph());
+	}
+
+	@Test
+	public void testDiamond() {
+		// x = 1; if (c) x = 2; else x = 3; y = x; return
+		CFG cfg = mkCFG();
+		cfg.getDescriptor().addVariable(new VariableTableEntry(0, "x"));
+		Assignment init = mkAssignment(cfg, "x", 1);
+		VariableRef cond = new VariableRef(cfg, "c");
+		Assignment then = mkAssignment(cfg, "x", 2);
+		Assignment otherwise = mkAssignment(cfg, "x", 3);
+		Assignment y = mkAssignment(cfg, "y", "x");
+		Ret ret = new Ret(cfg);
+		cfg.addNode(init, true);
+		for (Statement st : Arrays.asList(cond, then, otherwise, y, ret))
+			cfg.addNode(st);
+		cfg.addEdge(new SequentialEdge(init, cond));
+		cfg.addEdge(new TrueEdge(cond, then));
+		cfg.addEdge(new FalseEdge(cond, otherwise));
+		cfg.addEdge(new SequentialEdge(then, y));
+		cfg.addEdge(new SequentialEdge(otherwise, y));
+		cfg.addEdge(new SequentialEdge(y, ret));
+
+		Collection<Assignment> phis = SSAConverter.convert(cfg);
+		assertEquals(1, phis.size());
+		Assignment phi = phis.iterator().next();
+		assertTrue(phi.getRight() instanceof Phi);
+		assertEquals("x$4", ((VariableRef) phi.getLeft()).getName());
+		VariableRef[] args = ((Phi) phi.getRight()).getArguments();
+		assertEquals(names((VariableRef) then.getLeft(), (VariableRef) otherwise.getLeft()), names(args));
+		assertEquals(set("x$2", "x$3"), names(args));
+		assertEquals("x$1", ((VariableRef) init.getLeft()).getName());
+		assertEquals("y$1 = x$4", y.toString());
+		assertEquals("c", cond.getName());
+
+		assertEquals(set(then, otherwise), new HashSet<>(cfg.predecessorsOf(phi)));
+		assertEquals(Collections.singleton(phi), new HashSet<>(cfg.predecessorsOf(y)));
+		assertTrue(cfg.getEdgeConnecting(phi, y) instanceof SequentialEdge);
+		assertEquals(Collections.singleton(init), new HashSet<>(cfg.getEntrypoints()));
+
+		Set<String> table = new HashSet<>();
+		int index = 0;
+		for (VariableTableEntry entry : cfg.getDescriptor().getVariables()) {
+			assertEquals(index++, entry.getIndex());
+			table.add(entry.getName());
+		}
+		assertEquals(set("x", "x$1", "x$2", "x$3", "x$4"), table);
+
+		// each variable is now assigned once
+		DefUseChains chains = cfg.getDefUseChains();
+		Set<String> defined = new HashSet<>();
+		for (Statement st : cfg.getNodes())
+			for (String name : chains.getDefinedVariables(st))
+				assertTrue(name, defined.add(name));
+		assertEquals(set("x$1", "x$2", "x$3", "x$4", "y$1"), defined);
+	}
+
+	@Test
+	public void testLoop() throws FixpointException {
+		// i = 1; while (i) i = i; return
+		CFG cfg = mkCFG();
+		Assignment init = mkAssignment(cfg, "i", 1);
+		VariableRef cond = new VariableRef(cfg, "i");
+		Assignment body = mkAssignment(cfg, "i", "i");
+		Ret ret = new Ret(cfg);
+		cfg.addNode(init, true);
+		cfg.addNode(cond);
+		cfg.addNode(body);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(init, cond));
+		cfg.addEdge(new TrueEdge(cond, body));
+		cfg.addEdge(new SequentialEdge(body, cond));
+		cfg.addEdge(new FalseEdge(cond, ret));
+
+		Sign expected = valueOf(analyze(cfg), ret, "i");
+		Collection<Assignment> phis = SSAConverter.convert(cfg);
+		assertEquals(1, phis.size());
+		Assignment phi = phis.iterator().next();
+		assertEquals("i$2 = phi(i$1, i$3)", phi.toString());
+		assertEquals("i$2", cond.getName());
+		assertEquals("i$3 = i$2", body.toString());
+		assertEquals(set(init, body), new HashSet<>(cfg.predecessorsOf(phi)));
+		assertEquals(Collections.singleton(phi), new HashSet<>(cfg.predecessorsOf(cond)));
+
+		CFGWithAnalysisResults<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Sign>>, MonolithicHeap,
+				ValueEnvironment<Sign>> result = analyze(cfg);
+		assertEquals(expected, valueOf(result, ret, "i$2"));
+		assertEquals(expected, valueOf(result, phi, "i$2"));
+	}
+
+	@Test
+	public void testJoinAtEntrypoint() {
+		// loop: y = x; x = y; goto loop
+		CFG cfg = mkCFG();
+		Assignment first = mkAssignment(cfg, "y", "x");
+		Assignment second = mkAssignment(cfg, "x", "y");
+		cfg.addNode(first, true);
+		cfg.addNode(second);
+		cfg.addEdge(new SequentialEdge(first, second));
+		cfg.addEdge(new SequentialEdge(second, first));
+
+		Collection<Assignment> phis = SSAConverter.convert(cfg);
+		assertEquals(1, phis.size());
+		Assignment phi = phis.iterator().next();
+		// the entry value keeps the original name
+		assertEquals("x$1 = phi(x$2, x)", phi.toString());
+		assertEquals("y$1 = x$1", first.toString());
+		assertEquals("x$2 = y$1", second.toString());
+		assertEquals(Collections.singleton(phi), new HashSet<>(cfg.getEntrypoints()));
+		assertEquals(Collections.singleton(second), new HashSet<>(cfg.predecessorsOf(phi)));
+		assertEquals(Collections.singleton(phi), new HashSet<>(cfg.predecessorsOf(first)));
+	}
+}
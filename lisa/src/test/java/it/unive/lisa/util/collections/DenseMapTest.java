@@ -0,0 +1,133 @@
+package it.unive.lisa.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public class DenseMapTest {
+
+	private static final Random random = new Random();
+
+	@Test
+	public void testBehavesAsHashMap() {
+		DenseIndex<String> index = new DenseIndex<>();
+		Map<String, Integer> expected = new HashMap<>();
+		DenseMap<String, Integer> actual = new DenseMap<>(index);
+		for (int i = 0; i < 20000; i++) {
+			String key = "k" + random.nextInt(500);
+			if (random.nextInt(3) == 0)
+				assertEquals(expected.remove(key), actual.remove(key));
+			else {
+				Integer value = random.nextInt();
+				assertEquals(expected.put(key, value), actual.put(key, value));
+			}
+			assertEquals(expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertNull(actual.get(null));
+		assertFalse(actual.containsKey("unknown"));
+	}
+
+	@Test
+	public void testSlotsAreShared() {
+		DenseIndex<String> index = new DenseIndex<>();
+		DenseMap<String, Integer> first = new DenseMap<>(index);
+		DenseMap<String, Integer> second = new DenseMap<>(index);
+		first.put("a", 1);
+		second.put("b", 2);
+		second.put("a", 3);
+		first.put("b", 4);
+
+		// entries are sorted by slot in both maps
+		int a = index.find("a");
+		int b = index.find("b");
+		assertEquals(2, index.size());
+		assertTrue(a < b);
+		assertEquals(a, first.slotAt(0));
+		assertEquals(a, second.slotAt(0));
+		assertEquals("a", first.keyAt(0));
+		assertEquals("a", second.keyAt(0));
+		assertEquals(Integer.valueOf(1), first.valueAt(0));
+		assertEquals(Integer.valueOf(3), second.valueAt(0));
+		assertEquals(b, first.slotAt(1));
+		assertEquals(Integer.valueOf(4), first.valueAt(1));
+	}
+
+	@Test
+	public void testAppend() {
+		DenseIndex<String> index = new DenseIndex<>();
+		for (int i = 0; i < 10; i++)
+			index.slotOf("k" + i);
+
+		DenseMap<String, Integer> map = new DenseMap<>(index);
+		map.append(index.find("k3"), "k3", 3);
+		map.append(index.find("k7"), "k7", 7);
+		assertEquals(2, map.size());
+		assertEquals(Integer.valueOf(7), map.get("k7"));
+		try {
+			map.append(index.find("k5"), "k5", 5);
+			fail("Appending a lower slot should fail");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		map.put("k5", 5);
+		assertEquals("k5", map.keyAt(1));
+	}
+
+	@Test
+	public void testKeysArePreservedOnUpdate() {
+		DenseMap<String, Integer> map = new DenseMap<>(new DenseIndex<>());
+		String key = new String("a");
+		map.put(key, 1);
+		map.put(new String("a"), 2);
+		assertSame(key, map.keySet().iterator().next());
+		assertEquals(Integer.valueOf(2), map.get("a"));
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		DenseMap<String, Integer> map = new DenseMap<>(new DenseIndex<>());
+		map.put("a", 1);
+		DenseMap<String, Integer> copy = map.copy();
+		copy.put("a", 2);
+		copy.put("b", 3);
+		assertEquals(Integer.valueOf(1), map.get("a"));
+		assertFalse(map.containsKey("b"));
+		assertEquals(2, copy.size());
+	}
+
+	@Test
+	public void testIterator() {
+		DenseMap<String, Integer> map = new DenseMap<>(new DenseIndex<>());
+		for (int i = 0; i < 100; i++)
+			map.put("k" + i, i);
+
+		for (Iterator<Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+			Entry<String, Integer> entry = it.next();
+			if (entry.getValue() % 2 == 0)
+				it.remove();
+			else
+				entry.setValue(-entry.getValue());
+		}
+
+		assertEquals(50, map.size());
+		for (int i = 0; i < 100; i++)
+			if (i % 2 == 0)
+				assertFalse(map.containsKey("k" + i));
+			else
+				assertTrue(map.get("k" + i) == -i);
+	}
+}
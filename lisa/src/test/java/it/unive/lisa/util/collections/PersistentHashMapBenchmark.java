@@ -0,0 +1,75 @@
+package it.unive.lisa.util.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * A simple benchmark comparing {@link PersistentHashMap}s against
+ * {@link HashMap}s when used as the functions of environments: each simulated
+ * statement copies the function of the previous one and assigns a single key,
+ * and all the functions are kept alive as a fixpoint does. The benchmark
+ * reports the time needed for building all the functions and the memory they
+ * retain. Run it through its {@link #main(String[])} method, optionally
+ * passing the number of keys and of statements.
+ */
+public class PersistentHashMapBenchmark {
+
+	private static final int WARMUP = 3;
+
+	private static final int RUNS = 5;
+
+	public static void main(String[] args) {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int statements = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		System.out.println("keys: " + keys + ", statements: " + statements);
+		run("HashMap", keys, statements, HashMap::new);
+		run("PersistentHashMap", keys, statements, m -> ((PersistentHashMap<Integer, Integer>) m).copy());
+	}
+
+	private static void run(String name, int keys, int statements,
+			UnaryOperator<Map<Integer, Integer>> copier) {
+		long time = 0;
+		long memory = 0;
+		for (int i = 0; i < WARMUP + RUNS; i++) {
+			long before = usedMemory();
+			long start = System.nanoTime();
+			List<Map<Integer, Integer>> states = simulate(keys, statements, copier);
+			long elapsed = System.nanoTime() - start;
+			long retained = usedMemory() - before;
+			if (states.size() != statements + 1)
+				throw new IllegalStateException();
+			if (i >= WARMUP) {
+				time += elapsed;
+				memory += retained;
+			}
+		}
+
+		System.out.printf("%-20s %10.2f ms %10.2f MB%n", name, time / RUNS / 1e6, memory / RUNS / (1024.0 * 1024.0));
+	}
+
+	private static List<Map<Integer, Integer>> simulate(int keys, int statements,
+			UnaryOperator<Map<Integer, Integer>> copier) {
+		List<Map<Integer, Integer>> states = new ArrayList<>(statements + 1);
+		Map<Integer, Integer> initial = new PersistentHashMap<>();
+		for (int k = 0; k < keys; k++)
+			initial.put(k, k);
+		initial = copier.apply(initial);
+		states.add(initial);
+		for (int s = 0; s < statements; s++) {
+			Map<Integer, Integer> next = copier.apply(states.get(s));
+			next.put(s % keys, s);
+			states.add(next);
+		}
+		return states;
+	}
+
+	private static long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
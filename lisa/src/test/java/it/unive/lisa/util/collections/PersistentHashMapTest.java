@@ -0,0 +1,152 @@
+package it.unive.lisa.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+	private static final int LIMIT = 20000;
+
+	private static final Random random = new Random();
+
+	private static final class Colliding {
+		private final int id;
+
+		private Colliding(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id % 3;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Colliding && ((Colliding) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return "c" + id;
+		}
+	}
+
+	private static <K> void randomOps(Map<K, Integer> expected, PersistentHashMap<K, Integer> actual,
+			List<K> keys) {
+		for (int i = 0; i < LIMIT; i++) {
+			K key = keys.get(random.nextInt(keys.size()));
+			if (random.nextInt(3) == 0)
+				assertEquals(expected.remove(key), actual.remove(key));
+			else {
+				Integer value = random.nextInt();
+				assertEquals(expected.put(key, value), actual.put(key, value));
+			}
+			assertEquals(expected.size(), actual.size());
+		}
+
+		for (K key : keys)
+			assertEquals(expected.get(key), actual.get(key));
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	@Test
+	public void testBehavesAsHashMap() {
+		List<Integer> keys = new ArrayList<>();
+		for (int i = 0; i < 2000; i++)
+			keys.add(random.nextInt());
+		randomOps(new HashMap<>(), new PersistentHashMap<>(), keys);
+	}
+
+	@Test
+	public void testCollisions() {
+		List<Colliding> keys = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+			keys.add(new Colliding(i));
+		randomOps(new HashMap<>(), new PersistentHashMap<>(), keys);
+	}
+
+	@Test
+	public void testNullKeysAndValues() {
+		PersistentHashMap<String, String> map = new PersistentHashMap<>();
+		map.put(null, "a");
+		map.put("b", null);
+		assertEquals("a", map.get(null));
+		assertTrue(map.containsKey("b"));
+		assertNull(map.get("b"));
+		assertFalse(map.containsKey("c"));
+		assertEquals(2, map.size());
+		assertEquals("a", map.remove(null));
+		assertFalse(map.containsKey(null));
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		PersistentHashMap<Integer, Integer> map = new PersistentHashMap<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, i);
+			expected.put(i, i);
+		}
+
+		List<PersistentHashMap<Integer, Integer>> copies = new ArrayList<>();
+		List<Map<Integer, Integer>> expectedCopies = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			PersistentHashMap<Integer, Integer> copy = (i % 2 == 0 ? map : copies.get(i - 1)).copy();
+			Map<Integer, Integer> expectedCopy = new HashMap<>(i % 2 == 0 ? expected : expectedCopies.get(i - 1));
+			int key = random.nextInt(1500);
+			if (random.nextBoolean()) {
+				copy.put(key, -i);
+				expectedCopy.put(key, -i);
+			} else {
+				copy.remove(key);
+				expectedCopy.remove(key);
+			}
+			copies.add(copy);
+			expectedCopies.add(expectedCopy);
+		}
+
+		assertEquals(expected, map);
+		for (int i = 0; i < copies.size(); i++)
+			assertEquals(expectedCopies.get(i), copies.get(i));
+	}
+
+	@Test
+	public void testIteratorIsStableUnderUpdates() {
+		PersistentHashMap<Integer, Integer> map = new PersistentHashMap<>();
+		for (int i = 0; i < 500; i++)
+			map.put(i, i);
+
+		int seen = 0;
+		for (Iterator<Entry<Integer, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+			Entry<Integer, Integer> entry = it.next();
+			seen++;
+			if (entry.getKey() % 2 == 0)
+				it.remove();
+			else
+				entry.setValue(-entry.getKey());
+			map.put(1000 + entry.getKey(), 0);
+		}
+
+		assertEquals(500, seen);
+		assertEquals(750, map.size());
+		for (int i = 0; i < 500; i++)
+			if (i % 2 == 0)
+				assertFalse(map.containsKey(i));
+			else
+				assertEquals(Integer.valueOf(-i), map.get(i));
+	}
+}
@@ -0,0 +1,121 @@
+package it.unive.lisa.util.collections.externalSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * A simple benchmark for the operations of {@link BitExternalSet}s that are
+ * executed word by word: size, iteration, predicate matching, and in-place
+ * intersection and difference. Each operation is run on pairs of random sets
+ * with the given density, and its average time is reported next to the one of
+ * the same operation on {@link HashSet}s. Run it through its
+ * {@link #main(String[])} method, optionally passing the number of elements in
+ * the cache, the percentage of them contained in each set, and the number of
+ * pairs of sets.
+ */
+public class BitExternalSetBenchmark {
+
+	private static final int WARMUP = 3;
+
+	private static final int RUNS = 5;
+
+	private static final Random random = new Random(42);
+
+	public static void main(String[] args) {
+		int elements = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+		int density = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int pairs = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		System.out.println("elements: " + elements + ", density: " + density + "%, pairs: " + pairs);
+
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		List<ExternalSet<Integer>> bitsets = new ArrayList<>(2 * pairs);
+		List<Set<Integer>> hashsets = new ArrayList<>(2 * pairs);
+		for (int i = 0; i < 2 * pairs; i++) {
+			ExternalSet<Integer> bitset = cache.mkEmptySet();
+			Set<Integer> hashset = new HashSet<>();
+			for (int e = 0; e < elements; e++)
+				if (random.nextInt(100) < density) {
+					bitset.add(e);
+					hashset.add(e);
+				}
+			bitsets.add(bitset);
+			hashsets.add(hashset);
+		}
+
+		run("size", bitsets, hashsets, (a, b) -> a.size(), (a, b) -> a.size());
+		run("iteration", bitsets, hashsets, (a, b) -> {
+			long sum = 0;
+			for (Integer e : a)
+				sum += e;
+			return sum;
+		}, (a, b) -> {
+			long sum = 0;
+			for (Integer e : a)
+				sum += e;
+			return sum;
+		});
+		run("noneMatch", bitsets, hashsets, (a, b) -> a.noneMatch(e -> e < 0) ? 1 : 0,
+				(a, b) -> a.stream().noneMatch(e -> e < 0) ? 1 : 0);
+		run("containsAll", bitsets, hashsets, (a, b) -> a.containsAll(b) ? 1 : 0,
+				(a, b) -> a.containsAll(b) ? 1 : 0);
+		run("retainAll", bitsets, hashsets, (a, b) -> {
+			ExternalSet<Integer> copy = a.copy();
+			copy.retainAll(b);
+			return copy.size();
+		}, (a, b) -> {
+			Set<Integer> copy = new HashSet<>(a);
+			copy.retainAll(b);
+			return copy.size();
+		});
+		run("removeAll", bitsets, hashsets, (a, b) -> {
+			ExternalSet<Integer> copy = a.copy();
+			copy.removeAll(b);
+			return copy.size();
+		}, (a, b) -> {
+			Set<Integer> copy = new HashSet<>(a);
+			copy.removeAll(b);
+			return copy.size();
+		});
+	}
+
+	@FunctionalInterface
+	private interface SetOperation<S> {
+		long apply(S first, S second);
+	}
+
+	private static void run(String name, List<ExternalSet<Integer>> bitsets, List<Set<Integer>> hashsets,
+			SetOperation<ExternalSet<Integer>> bitop, SetOperation<Set<Integer>> hashop) {
+		double bittime = time(bitsets, l -> {
+			long res = 0;
+			for (int i = 0; i < l.size(); i += 2)
+				res += bitop.apply(l.get(i), l.get(i + 1));
+			return res;
+		});
+		double hashtime = time(hashsets, l -> {
+			long res = 0;
+			for (int i = 0; i < l.size(); i += 2)
+				res += hashop.apply(l.get(i), l.get(i + 1));
+			return res;
+		});
+		System.out.printf("%-12s BitExternalSet %10.3f ms   HashSet %10.3f ms%n", name, bittime, hashtime);
+	}
+
+	private static <S> double time(List<S> sets, ToLongFunction<List<S>> op) {
+		long time = 0;
+		long blackhole = 0;
+		for (int i = 0; i < WARMUP + RUNS; i++) {
+			long start = System.nanoTime();
+			blackhole += op.applyAsLong(sets);
+			long elapsed = System.nanoTime() - start;
+			if (i >= WARMUP)
+				time += elapsed;
+		}
+		if (blackhole == Long.MIN_VALUE)
+			System.out.println(blackhole);
+		return time / RUNS / 1e6;
+	}
+}
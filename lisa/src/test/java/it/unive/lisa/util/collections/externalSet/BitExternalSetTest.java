@@ -316,4 +316,53 @@ public class BitExternalSetTest {
 		tmp.removeAll(set2);
 		verify(Set::equals, Pair.of(tmp, eset1.difference(eset2)));
 	}
+
+	@Test
+	public void testInPlaceSetOperations() {
+		ExternalSetCache<String> cache = new ExternalSetCache<>();
+		ExternalSet<String> eset1 = cache.mkEmptySet();
+		ExternalSet<String> eset2 = cache.mkEmptySet();
+		Set<String> set1 = new HashSet<>();
+		Set<String> set2 = new HashSet<>();
+		for (int limit = ADD_LIMIT + random.nextInt(ADD_LIMIT); limit >= 0; limit--) {
+			String str = UUID.randomUUID().toString();
+			int flag = random.nextInt(3);
+			if (flag != 1) {
+				set1.add(str);
+				eset1.add(str);
+			}
+			if (flag != 0) {
+				set2.add(str);
+				eset2.add(str);
+			}
+		}
+
+		List<String> visited = new ArrayList<>();
+		eset1.forEach(visited::add);
+		verify((s, es) -> s.size() == es.size() && s.containsAll(es), Pair.of(set1, new HashSet<>(visited)));
+		assertTrue(eset1.anyMatch(set1::contains));
+		assertTrue(eset1.allMatch(set1::contains));
+		assertTrue(eset1.noneMatch(set2::contains) == !eset1.intersects(eset2));
+
+		ExternalSet<String> intersection = eset1.copy();
+		assertTrue(intersection.retainAll(eset2));
+		Set<String> tmp = new HashSet<>(set1);
+		tmp.retainAll(set2);
+		verify(Set::equals, Pair.of(tmp, intersection), Pair.of(tmp, eset1.intersection(eset2)));
+		assertTrue(eset2.containsAll(intersection));
+		assertTrue(!intersection.retainAll(eset2));
+
+		ExternalSet<String> difference = eset1.copy();
+		assertTrue(difference.removeAll(eset2));
+		tmp = new HashSet<>(set1);
+		tmp.removeAll(set2);
+		verify(Set::equals, Pair.of(tmp, difference), Pair.of(tmp, eset1.difference(eset2)));
+		assertTrue(!difference.intersects(eset2));
+		assertTrue(!difference.removeAll(eset2));
+
+		difference.removeAll((Set<String>) eset1);
+		assertTrue(difference.isEmpty());
+		assertTrue(!difference.iterator().hasNext());
+		assertTrue(eset1.containsAll(difference));
+	}
 }
@@ -3,8 +3,11 @@ package it.unive.lisa.util.collections.externalSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.Test;
 
@@ -78,4 +81,56 @@ public class ExternalSetTest {
 		assertTrue(universal.contains("foo"));
 		assertFalse(universal.contains(new Object()));
 	}
+
+	@Test
+	public void testConcurrentCache() throws InterruptedException {
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		int threads = 8, elements = 5000;
+		List<ExternalSet<Integer>> sets = new ArrayList<>();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			ExternalSet<Integer> set = cache.mkEmptySet();
+			sets.add(set);
+			// each thread adds the same elements in a different order
+			int offset = t * 997;
+			workers.add(new Thread(() -> {
+				for (int i = 0; i < elements; i++)
+					set.add((i + offset) % elements);
+				set.add(null);
+			}));
+		}
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+
+		assertEquals(elements + 1, cache.size());
+		assertEquals(elements + 1, new HashSet<>(cache.mkUniversalSet()).size());
+		for (ExternalSet<Integer> set : sets) {
+			assertEquals(sets.get(0), set);
+			assertEquals(elements + 1, set.size());
+			assertTrue(set.contains((Integer) null));
+			for (int i = 0; i < elements; i++)
+				assertTrue(set.contains(i));
+		}
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertTrue(cache.mkUniversalSet().isEmpty());
+	}
+
+	@Test
+	public void testInvalidIndexes() {
+		ExternalSetCache<Object> cache = new ExternalSetCache<Object>();
+		ExternalSet<Object> set = cache.mkSingletonSet("foo");
+		assertEquals("foo", cache.get(0));
+		for (int pos : new int[] { -1, 1, 1000 })
+			try {
+				cache.get(pos);
+				fail("No exception for index " + pos);
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+		assertEquals(1, set.size());
+	}
 }
@@ -0,0 +1,131 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A simple benchmark for the queries that fixpoints issue to
+ * {@link AdjacencyMatrix}es for every node they visit: followers,
+ * predecessors and the edge connecting two nodes. Each query is run over all
+ * the nodes of a random graph, and the average time and number of bytes
+ * allocated per query are reported for three implementations: the one
+ * collecting and streaming the edge sets at each call, the cached views of
+ * mutable matrices, and frozen matrices. Allocations are measured through the
+ * {@code com.sun.management} extension of the thread bean, and are reported
+ * as {@code n/a} on virtual machines not supporting it. Run it through its
+ * {@link #main(String[])} method, optionally passing the number of nodes and
+ * of edges.
+ */
+public class AdjacencyMatrixBenchmark {
+
+	private static final int WARMUP = 5;
+
+	private static final int RUNS = 10;
+
+	private static final Random random = new Random(42);
+
+	public static void main(String[] args) {
+		int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int edges = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+		System.out.println("nodes: " + nodes + ", edges: " + edges);
+
+		CFG cfg = new CFG(new CFGDescriptor(new CompilationUnit(null, "foo", false), false, "foo"));
+		List<Statement> statements = new ArrayList<>(nodes);
+		for (int i = 0; i < nodes; i++) {
+			NoOp node = new NoOp(cfg);
+			cfg.addNode(node, i == 0);
+			statements.add(node);
+		}
+		for (int i = 0; i < edges; i++) {
+			// a backbone keeps all nodes connected
+			Statement source = statements.get(i < nodes - 1 ? i : random.nextInt(nodes));
+			Statement dest = statements.get(i < nodes - 1 ? i + 1 : random.nextInt(nodes));
+			cfg.addEdge(new SequentialEdge(source, dest));
+		}
+
+		AdjacencyMatrix<Statement, Edge, CFG> matrix = cfg.adjacencyMatrix;
+		Map<Statement, Pair<ExternalSet<Edge>, ExternalSet<Edge>>> pairs = new HashMap<>();
+		for (Entry<Statement, Pair<ExternalSet<Edge>, ExternalSet<Edge>>> entry : matrix)
+			pairs.put(entry.getKey(), entry.getValue());
+		run("streamed", statements, n -> {
+			Set<Statement> follows = streamed(pairs.get(n), true);
+			return follows.size() + streamed(pairs.get(n), false).size()
+					+ (scanned(pairs.get(n), first(follows)) == null ? 0 : 1);
+		});
+		run("cached", statements,
+				n -> matrix.followersOf(n).size() + matrix.predecessorsOf(n).size()
+						+ (matrix.getEdgeConnecting(n, first(matrix.followersOf(n))) == null ? 0 : 1));
+		matrix.freeze();
+		run("frozen", statements,
+				n -> matrix.followersOf(n).size() + matrix.predecessorsOf(n).size()
+						+ (matrix.getEdgeConnecting(n, first(matrix.followersOf(n))) == null ? 0 : 1));
+	}
+
+	private static Statement first(Collection<Statement> nodes) {
+		return nodes.isEmpty() ? null : nodes.iterator().next();
+	}
+
+	private static Set<Statement> streamed(Pair<ExternalSet<Edge>, ExternalSet<Edge>> pair, boolean follows) {
+		// the implementation preceding the cached views
+		return follows
+				? pair.getRight().collect().stream().map(e -> e.getDestination()).collect(Collectors.toSet())
+				: pair.getLeft().collect().stream().map(e -> e.getSource()).collect(Collectors.toSet());
+	}
+
+	private static Edge scanned(Pair<ExternalSet<Edge>, ExternalSet<Edge>> pair, Statement destination) {
+		// the implementation preceding the indexed lookup
+		for (Edge e : pair.getRight())
+			if (e.getDestination().equals(destination))
+				return e;
+		return null;
+	}
+
+	private static void run(String name, List<Statement> nodes, ToIntFunction<Statement> query) {
+		long time = 0;
+		long bytes = 0;
+		long blackhole = 0;
+		for (int i = 0; i < WARMUP + RUNS; i++) {
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			for (Statement node : nodes)
+				blackhole += query.applyAsInt(node);
+			long elapsed = System.nanoTime() - start;
+			allocated = allocatedBytes() - allocated;
+			if (i >= WARMUP) {
+				time += elapsed;
+				bytes += allocated;
+			}
+		}
+		if (blackhole == Long.MIN_VALUE)
+			System.out.println(blackhole);
+
+		long queries = (long) RUNS * nodes.size();
+		String perQuery = allocatedBytes() < 0 ? "n/a" : String.format("%.1f", (double) bytes / queries);
+		System.out.printf("%-10s %10.1f ns/node %10s B/node%n", name, (double) time / queries, perQuery);
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+}
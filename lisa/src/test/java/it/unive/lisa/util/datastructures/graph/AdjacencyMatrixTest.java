@@ -0,0 +1,163 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Literal;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.type.Untyped;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+public class AdjacencyMatrixTest {
+
+	@Test
+	public void testCachedViews() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		AdjacencyMatrix<Statement, Edge, CFG> matrix = cfg.adjacencyMatrix;
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addEdge(new SequentialEdge(a, b));
+
+		Collection<Statement> follows = matrix.followersOf(a);
+		Collection<Statement> preds = matrix.predecessorsOf(c);
+		assertEquals(Collections.singleton(b), follows);
+		assertTrue(preds.isEmpty());
+		assertSame(follows, matrix.followersOf(a));
+		assertSame(preds, matrix.predecessorsOf(c));
+		try {
+			follows.add(c);
+			fail("Cached views must not be modifiable");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+
+		// edges from b to c only invalidate the followers of b and the
+		// predecessors of c
+		Collection<Statement> bPreds = matrix.predecessorsOf(b);
+		cfg.addEdge(new SequentialEdge(b, c));
+		assertSame(follows, matrix.followersOf(a));
+		assertSame(bPreds, matrix.predecessorsOf(b));
+		assertNotSame(preds, matrix.predecessorsOf(c));
+		assertEquals(Collections.singleton(b), matrix.predecessorsOf(c));
+
+		cfg.addEdge(new SequentialEdge(a, c));
+		assertEquals(new HashSet<>(Arrays.asList(b, c)), matrix.followersOf(a));
+		assertNull(matrix.followersOf(new NoOp(cfg)));
+	}
+
+	@Test
+	public void testIndexedEdgeConnecting() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		TrueEdge t = new TrueEdge(a, b);
+		FalseEdge f = new FalseEdge(a, b);
+		cfg.addEdge(t);
+		cfg.addEdge(f);
+
+		assertSame(t, cfg.getEdgeConnecting(a, b));
+		assertNull(cfg.getEdgeConnecting(a, c));
+		assertNull(cfg.getEdgeConnecting(b, a));
+
+		SequentialEdge s = new SequentialEdge(a, c);
+		cfg.addEdge(s);
+		assertSame(s, cfg.getEdgeConnecting(a, c));
+		assertSame(t, cfg.getEdgeConnecting(a, b));
+		assertNull(cfg.getEdgeConnecting(new NoOp(cfg), a));
+	}
+
+	@Test
+	public void testIsEqualTo() {
+		CFG first = CFGTestUtils.mkCFG(), second = CFGTestUtils.mkCFG();
+		NoOp a1 = new NoOp(first), b1 = new NoOp(first), c1 = new NoOp(first);
+		first.addNode(a1, true);
+		first.addNode(b1);
+		first.addNode(c1);
+		first.addEdge(new TrueEdge(a1, b1));
+		first.addEdge(new FalseEdge(a1, c1));
+		first.addEdge(new SequentialEdge(b1, c1));
+
+		// same structure, nodes added in a different order
+		NoOp a2 = new NoOp(second), b2 = new NoOp(second), c2 = new NoOp(second);
+		second.addNode(c2);
+		second.addNode(b2);
+		second.addNode(a2, true);
+		second.addEdge(new SequentialEdge(b2, c2));
+		second.addEdge(new FalseEdge(a2, c2));
+		second.addEdge(new TrueEdge(a2, b2));
+		assertTrue(first.isEqualTo(second));
+		assertTrue(second.isEqualTo(first));
+
+		CFG third = CFGTestUtils.mkCFG();
+		NoOp a3 = new NoOp(third), b3 = new NoOp(third), c3 = new NoOp(third);
+		third.addNode(a3, true);
+		third.addNode(b3);
+		third.addNode(c3);
+		third.addEdge(new FalseEdge(a3, b3));
+		third.addEdge(new TrueEdge(a3, c3));
+		third.addEdge(new SequentialEdge(b3, c3));
+		assertFalse(first.isEqualTo(third));
+
+		NoOp d1 = new NoOp(first);
+		first.addNode(d1);
+		assertFalse(first.isEqualTo(second));
+	}
+
+	private static CFG mkChain(int length, boolean reversed) {
+		CFG cfg = CFGTestUtils.mkCFG();
+		Statement[] chain = new Statement[length];
+		for (int i = 0; i < length; i++)
+			chain[i] = new Assignment(cfg, new VariableRef(cfg, "x" + i % 10),
+					new Literal(cfg, i, Untyped.INSTANCE));
+		for (int i = 0; i < length; i++) {
+			int idx = reversed ? length - 1 - i : i;
+			cfg.addNode(chain[idx], idx == 0);
+		}
+		for (int i = 1; i < length; i++)
+			cfg.addEdge(new SequentialEdge(chain[i - 1], chain[i]));
+		return cfg;
+	}
+
+	@Test
+	public void testIsEqualToLongChains() {
+		CFG first = mkChain(5000, false), second = mkChain(5000, true);
+
+		// nodes are bucketed by their structure: with assignments that differ
+		// only in their operands, buckets must not degenerate
+		for (List<Statement> bucket : first.adjacencyMatrix.signatureBuckets().values())
+			assertTrue("Bucket of size " + bucket.size(), bucket.size() <= 2);
+		for (List<Statement> bucket : second.adjacencyMatrix.signatureBuckets().values())
+			assertTrue("Bucket of size " + bucket.size(), bucket.size() <= 2);
+
+		assertTrue(first.isEqualTo(second));
+		assertTrue(second.isEqualTo(first));
+
+		CFG third = mkChain(5000, false);
+		Statement entry = third.getEntrypoints().iterator().next();
+		third.addEdge(new SequentialEdge(entry, entry));
+		assertFalse(first.isEqualTo(third));
+	}
+}
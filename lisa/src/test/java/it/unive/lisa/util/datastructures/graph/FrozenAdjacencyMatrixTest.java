@@ -0,0 +1,103 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class FrozenAdjacencyMatrixTest {
+
+	private static final Random random = new Random();
+
+	@Test
+	public void testSameAnswersAsMutable() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		List<Statement> nodes = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			NoOp node = new NoOp(cfg);
+			cfg.addNode(node, i == 0);
+			nodes.add(node);
+		}
+		for (int i = 0; i < 600; i++) {
+			Statement source = nodes.get(random.nextInt(nodes.size()));
+			Statement dest = nodes.get(random.nextInt(nodes.size()));
+			cfg.addEdge(random.nextBoolean() ? new SequentialEdge(source, dest) : new TrueEdge(source, dest));
+		}
+
+		Map<Statement, HashSet<Statement>> followers = new HashMap<>(), preds = new HashMap<>();
+		Map<Statement, Map<Statement, Edge>> connecting = new HashMap<>();
+		for (Statement node : nodes) {
+			followers.put(node, new HashSet<>(cfg.followersOf(node)));
+			preds.put(node, new HashSet<>(cfg.predecessorsOf(node)));
+			Map<Statement, Edge> edges = new HashMap<>();
+			for (Statement other : nodes)
+				edges.put(other, cfg.getEdgeConnecting(node, other));
+			connecting.put(node, edges);
+		}
+
+		cfg.freeze();
+		FrozenAdjacencyMatrix<Statement, Edge, CFG> frozen = cfg.adjacencyMatrix.getFrozen();
+		assertNotNull(frozen);
+		assertEquals(nodes.size(), frozen.getNodesCount());
+		for (Statement node : nodes) {
+			int id = frozen.getId(node);
+			assertSame(node, frozen.getNode(id));
+			assertEquals(followers.get(node), new HashSet<>(cfg.followersOf(node)));
+			assertEquals(followers.get(node).size(), cfg.followersOf(node).size());
+			assertEquals(followers.get(node).size(), frozen.getFollowersCount(id));
+			assertEquals(preds.get(node), new HashSet<>(cfg.predecessorsOf(node)));
+			assertEquals(preds.get(node).size(), frozen.getPredecessorsCount(id));
+			for (Statement other : nodes)
+				assertSame(connecting.get(node).get(other), cfg.getEdgeConnecting(node, other));
+			for (int i = 0; i < frozen.getFollowersCount(id); i++) {
+				Statement follower = frozen.getNode(frozen.getFollower(id, i));
+				assertSame(frozen.getEdge(id, i), cfg.getEdgeConnecting(node, follower));
+			}
+		}
+
+		assertNull(cfg.followersOf(new NoOp(cfg)));
+		assertNull(cfg.getEdgeConnecting(new NoOp(cfg), nodes.get(0)));
+	}
+
+	@Test
+	public void testModificationsUnfreeze() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addEdge(new TrueEdge(a, b));
+		cfg.addEdge(new FalseEdge(a, b));
+
+		cfg.freeze();
+		assertNotNull(cfg.adjacencyMatrix.getFrozen());
+		// two edges reaching the same node yield a single follower
+		assertEquals(1, cfg.followersOf(a).size());
+		assertEquals(1, cfg.predecessorsOf(b).size());
+
+		cfg.addNode(c);
+		assertNull(cfg.adjacencyMatrix.getFrozen());
+		cfg.addEdge(new SequentialEdge(b, c));
+		assertEquals(1, cfg.followersOf(b).size());
+
+		cfg.freeze();
+		assertEquals(1, cfg.followersOf(b).size());
+		assertSame(c, cfg.followersOf(b).iterator().next());
+		assertEquals(0, cfg.followersOf(c).size());
+	}
+}
@@ -0,0 +1,109 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public class OffsetMapTest {
+
+	private static final Random random = new Random();
+
+	private static List<Statement> mkNodes(int count, int firstOffset) {
+		CFG cfg = new CFG(new CFGDescriptor(new CompilationUnit(null, "foo", false), false, "foo"));
+		List<Statement> nodes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			NoOp node = new NoOp(cfg);
+			node.setOffset(firstOffset + i);
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	@Test
+	public void testBehavesAsHashMap() {
+		List<Statement> nodes = mkNodes(500, 1000);
+		// unset offsets, and offsets clashing with other nodes
+		nodes.addAll(mkNodes(20, -1));
+		nodes.addAll(mkNodes(20, 1100));
+		Map<Statement, Integer> expected = new HashMap<>();
+		OffsetMap<Statement, Integer> actual = new OffsetMap<>();
+		for (int i = 0; i < 20000; i++) {
+			Statement key = nodes.get(random.nextInt(nodes.size()));
+			if (random.nextInt(3) == 0)
+				assertEquals(expected.remove(key), actual.remove(key));
+			else {
+				Integer value = random.nextInt();
+				assertEquals(expected.put(key, value), actual.put(key, value));
+			}
+			assertEquals(expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(expected, new OffsetMap<>(actual));
+		assertNull(actual.get(null));
+		assertFalse(actual.containsKey("unknown"));
+		assertFalse(actual.containsKey(mkNodes(1, 1000).get(0)));
+	}
+
+	@Test
+	public void testGrowsInBothDirections() {
+		List<Statement> nodes = mkNodes(100, 50);
+		OffsetMap<Statement, Integer> map = new OffsetMap<>(1);
+		for (int i = 40; i < 100; i++)
+			map.put(nodes.get(i), i);
+		for (int i = 39; i >= 0; i--)
+			map.put(nodes.get(i), i);
+
+		assertEquals(100, map.size());
+		int i = 0;
+		for (Entry<Statement, Integer> entry : map.entrySet()) {
+			// iteration follows the offsets
+			assertEquals(nodes.get(i), entry.getKey());
+			assertEquals(Integer.valueOf(i++), entry.getValue());
+		}
+	}
+
+	@Test
+	public void testIteratorRemoveAndSetValue() {
+		List<Statement> nodes = mkNodes(10, 0);
+		nodes.addAll(mkNodes(2, -1));
+		OffsetMap<Statement, Integer> map = new OffsetMap<>();
+		for (int i = 0; i < nodes.size(); i++)
+			map.put(nodes.get(i), i);
+
+		for (Iterator<Entry<Statement, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+			Entry<Statement, Integer> entry = it.next();
+			if (entry.getValue() % 2 == 0)
+				it.remove();
+			else
+				entry.setValue(-entry.getValue());
+		}
+
+		assertEquals(6, map.size());
+		for (int i = 0; i < nodes.size(); i++)
+			if (i % 2 == 0)
+				assertFalse(map.containsKey(nodes.get(i)));
+			else
+				assertEquals(Integer.valueOf(-i), map.get(nodes.get(i)));
+
+		map.clear();
+		assertTrue(map.isEmpty());
+	}
+}
@@ -0,0 +1,89 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.Dominators;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class StructuralAnalysesTest {
+
+	@Test
+	public void testCachedUntilModified() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addEdge(new SequentialEdge(a, b));
+
+		StructuralAnalyses<CFG, Statement, Edge> analyses = cfg.getStructuralAnalyses();
+		Dominators<CFG, Statement, Edge> dom = analyses.getDominators();
+		assertSame(dom, analyses.getDominators());
+		assertSame(analyses.getReversePostorder(), analyses.getReversePostorder());
+		assertSame(analyses.getLoopNestingForest(), analyses.getLoopNestingForest());
+		assertSame(a, dom.getImmediateDominator(b));
+		assertTrue(analyses.getLoopNestingForest().getLoops().isEmpty());
+
+		cfg.addEdge(new SequentialEdge(b, a));
+		assertNotSame(dom, analyses.getDominators());
+		assertEquals(1, analyses.getLoopNestingForest().getLoops().size());
+		assertEquals(2, analyses.getStronglyConnectedComponents().getComponentOf(a).size());
+	}
+
+	@Test
+	public void testExitpoints() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg);
+		cfg.addNode(a, true);
+		Collection<Statement> exits = cfg.getNormalExitpoints();
+		assertTrue(exits.isEmpty());
+		assertSame(exits, cfg.getNormalExitpoints());
+
+		Ret ret = new Ret(cfg);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(a, ret));
+		assertEquals(Collections.singletonList(ret), cfg.getNormalExitpoints());
+		assertEquals(Collections.singletonList(ret), cfg.getAllExitpoints());
+		assertTrue(cfg.getExceptionalExitpoints().isEmpty());
+		assertSame(ret, cfg.getStructuralAnalyses().getPostDominators().getImmediateDominator(a));
+	}
+
+	@Test
+	public void testReplaceEntrypoint() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addEdge(new SequentialEdge(b, a));
+
+		StructuralAnalyses<CFG, Statement, Edge> analyses = cfg.getStructuralAnalyses();
+		assertFalse(analyses.getDominators().isReachable(b));
+
+		cfg.replaceEntrypoint(a, b);
+		assertEquals(Collections.singleton(b), new HashSet<>(cfg.getEntrypoints()));
+		assertTrue(analyses.getDominators().isReachable(b));
+		assertSame(b, analyses.getDominators().getImmediateDominator(a));
+
+		try {
+			cfg.replaceEntrypoint(b, new NoOp(cfg));
+			fail("Only nodes of the graph can become entrypoints");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(Collections.singleton(b), new HashSet<>(cfg.getEntrypoints()));
+	}
+}
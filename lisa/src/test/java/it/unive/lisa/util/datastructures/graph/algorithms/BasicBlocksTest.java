@@ -0,0 +1,99 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.BasicBlocks.Block;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class BasicBlocksTest {
+
+	@Test
+	public void testStraightLine() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+
+		BasicBlocks<CFG, Statement, Edge> blocks = new BasicBlocks<>(cfg, Collections.emptySet());
+		assertEquals(1, blocks.getBlocks().size());
+		Block<Statement> block = blocks.getBlockOf(b);
+		assertEquals(Arrays.asList(a, b, c), block.getNodes());
+		assertSame(a, block.getLeader());
+		assertSame(c, block.getLast());
+	}
+
+	@Test
+	public void testLoop() {
+		// a -> b -> h, h -t-> c -> d -> h, h -f-> e
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), h = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg),
+				e = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(h);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addNode(e);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, h));
+		cfg.addEdge(new TrueEdge(h, c));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(d, h));
+		cfg.addEdge(new FalseEdge(h, e));
+
+		BasicBlocks<CFG, Statement, Edge> blocks = new BasicBlocks<>(cfg, Collections.emptySet());
+		assertEquals(4, blocks.getBlocks().size());
+		assertEquals(Arrays.asList(a, b), blocks.getBlockOf(a).getNodes());
+		assertEquals(Collections.singletonList(h), blocks.getBlockOf(h).getNodes());
+		assertEquals(Arrays.asList(c, d), blocks.getBlockOf(d).getNodes());
+		assertEquals(Collections.singletonList(e), blocks.getBlockOf(e).getNodes());
+	}
+
+	@Test
+	public void testAdditionalLeaders() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+
+		BasicBlocks<CFG, Statement, Edge> blocks = new BasicBlocks<>(cfg, Collections.singleton(b));
+		assertEquals(2, blocks.getBlocks().size());
+		assertEquals(Collections.singletonList(a), blocks.getBlockOf(a).getNodes());
+		assertEquals(Arrays.asList(b, c), blocks.getBlockOf(c).getNodes());
+		assertNull(blocks.getBlockOf(new NoOp(cfg)));
+	}
+
+	@Test
+	public void testIsolatedCycle() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addEdge(new SequentialEdge(b, c));
+		cfg.addEdge(new SequentialEdge(c, b));
+
+		BasicBlocks<CFG, Statement, Edge> blocks = new BasicBlocks<>(cfg, Collections.emptySet());
+		assertEquals(2, blocks.getBlocks().size());
+		assertSame(blocks.getBlockOf(b), blocks.getBlockOf(c));
+		assertEquals(2, blocks.getBlockOf(b).getNodes().size());
+	}
+}
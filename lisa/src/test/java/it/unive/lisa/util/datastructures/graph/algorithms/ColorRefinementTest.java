@@ -0,0 +1,119 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class ColorRefinementTest {
+
+	private static final Random random = new Random();
+
+	private static ColorRefinement mkGraph(String[] labels, int[][] edges, String[] edgeLabels) {
+		ColorRefinement graph = new ColorRefinement();
+		for (String label : labels)
+			graph.addNode(label);
+		for (int i = 0; i < edges.length; i++)
+			graph.addEdge(edges[i][0], edges[i][1], edgeLabels == null ? "" : edgeLabels[i]);
+		return graph;
+	}
+
+	@Test
+	public void testDuplicateLabels() {
+		// first: x -> a1 -> y, x -> a2 -> a2
+		// second: x -> a1 -> y, x -> a2, a1 -> a1
+		// third: first with a1 and a2 swapped
+		String[] labels = { "x", "a", "a", "y" };
+		ColorRefinement first = mkGraph(labels, new int[][] { { 0, 1 }, { 1, 3 }, { 0, 2 }, { 2, 2 } }, null);
+		ColorRefinement second = mkGraph(labels, new int[][] { { 0, 1 }, { 1, 3 }, { 0, 2 }, { 1, 1 } }, null);
+		ColorRefinement third = mkGraph(labels, new int[][] { { 0, 2 }, { 2, 3 }, { 0, 1 }, { 1, 1 } }, null);
+		assertFalse(first.areEquivalent(second));
+		assertTrue(first.areEquivalent(third));
+		assertTrue(third.areEquivalent(first));
+	}
+
+	@Test
+	public void testEdgeLabels() {
+		String[] labels = { "if", "then", "else" };
+		int[][] edges = { { 0, 1 }, { 0, 2 } };
+		ColorRefinement first = mkGraph(labels, edges, new String[] { "true", "false" });
+		ColorRefinement second = mkGraph(labels, edges, new String[] { "false", "true" });
+		assertFalse(first.areEquivalent(second));
+		assertTrue(first.areEquivalent(mkGraph(labels, edges, new String[] { "true", "false" })));
+	}
+
+	@Test
+	public void testDifferentSizes() {
+		String[] labels = { "a", "b" };
+		ColorRefinement first = mkGraph(labels, new int[][] { { 0, 1 } }, null);
+		assertFalse(first.areEquivalent(mkGraph(labels, new int[][] { { 0, 1 }, { 0, 1 } }, null)));
+		assertFalse(first.areEquivalent(mkGraph(new String[] { "a" }, new int[0][], null)));
+	}
+
+	@Test
+	public void testRegularGraphs() {
+		// color refinement alone cannot distinguish graphs where all nodes
+		// have the same label and the same degrees
+		String[] labels = { "a", "a", "a", "a", "a", "a" };
+		ColorRefinement triangles = mkGraph(labels,
+				new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 3, 4 }, { 4, 5 }, { 5, 3 } }, null);
+		ColorRefinement hexagon = mkGraph(labels,
+				new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 4 }, { 4, 5 }, { 5, 0 } }, null);
+		ColorRefinement shuffled = mkGraph(labels,
+				new int[][] { { 4, 2 }, { 0, 5 }, { 3, 1 }, { 2, 0 }, { 5, 3 }, { 1, 4 } }, null);
+		assertFalse(triangles.areEquivalent(hexagon));
+		assertFalse(hexagon.areEquivalent(triangles));
+		assertTrue(hexagon.areEquivalent(shuffled));
+		assertTrue(triangles.areEquivalent(mkGraph(labels,
+				new int[][] { { 5, 0 }, { 0, 4 }, { 4, 5 }, { 1, 3 }, { 3, 2 }, { 2, 1 } }, null)));
+	}
+
+	@Test
+	public void testIndistinguishableNodes() {
+		// isolated nodes and parallel edges with identical labels
+		String[] labels = new String[200];
+		for (int i = 0; i < labels.length; i++)
+			labels[i] = i < 100 ? "x" : "y";
+		ColorRefinement first = mkGraph(labels, new int[][] { { 0, 100 }, { 0, 100 }, { 1, 101 } }, null);
+		ColorRefinement second = mkGraph(labels, new int[][] { { 57, 199 }, { 3, 150 }, { 3, 150 } }, null);
+		ColorRefinement third = mkGraph(labels, new int[][] { { 57, 199 }, { 3, 150 }, { 4, 150 } }, null);
+		assertTrue(first.areEquivalent(second));
+		assertFalse(first.areEquivalent(third));
+	}
+
+	@Test
+	public void testShuffledChains() {
+		// a long chain with few distinct labels, compared with a copy whose
+		// nodes and edges have been added in a different order
+		int size = 2000;
+		String[] labels = new String[size];
+		int[][] edges = new int[size - 1][];
+		for (int i = 0; i < size; i++)
+			labels[i] = "n" + (i % 3);
+		for (int i = 0; i < size - 1; i++)
+			edges[i] = new int[] { i, i + 1 };
+
+		List<Integer> permutation = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+			permutation.add(i);
+		Collections.shuffle(permutation, random);
+		String[] shuffledLabels = new String[size];
+		for (int i = 0; i < size; i++)
+			shuffledLabels[permutation.get(i)] = labels[i];
+		List<int[]> shuffledEdges = new ArrayList<>();
+		for (int[] edge : edges)
+			shuffledEdges.add(new int[] { permutation.get(edge[0]), permutation.get(edge[1]) });
+		Collections.shuffle(shuffledEdges, random);
+
+		ColorRefinement first = mkGraph(labels, edges, null);
+		assertTrue(first.areEquivalent(mkGraph(shuffledLabels, shuffledEdges.toArray(new int[0][]), null)));
+
+		// reversing one edge breaks the equivalence
+		shuffledEdges.set(0, new int[] { shuffledEdges.get(0)[1], shuffledEdges.get(0)[0] });
+		assertFalse(first.areEquivalent(mkGraph(shuffledLabels, shuffledEdges.toArray(new int[0][]), null)));
+	}
+}
@@ -0,0 +1,108 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class DominatorsTest {
+
+	@Test
+	public void testDiamond() {
+		// a -t-> b -> d, a -f-> c -> d, u -> d
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg), u = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addNode(u);
+		cfg.addEdge(new TrueEdge(a, b));
+		cfg.addEdge(new FalseEdge(a, c));
+		cfg.addEdge(new SequentialEdge(b, d));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(u, d));
+
+		Dominators<CFG, Statement, Edge> dom = new Dominators<>(cfg, cfg.getEntrypoints(), false);
+		assertNull(dom.getImmediateDominator(a));
+		assertSame(a, dom.getImmediateDominator(b));
+		assertSame(a, dom.getImmediateDominator(c));
+		assertSame(a, dom.getImmediateDominator(d));
+		assertTrue(dom.dominates(a, d));
+		assertTrue(dom.dominates(d, d));
+		assertFalse(dom.dominates(b, d));
+		assertFalse(dom.dominates(d, a));
+		assertEquals(Arrays.asList(d, a), dom.getDominators(d));
+
+		// u is not reachable from the entrypoint
+		assertFalse(dom.isReachable(u));
+		assertNull(dom.getImmediateDominator(u));
+		assertFalse(dom.dominates(u, d));
+		assertTrue(dom.getDominators(u).isEmpty());
+
+		Dominators<CFG, Statement, Edge> post = new Dominators<>(cfg, Collections.singleton(d), true);
+		assertNull(post.getImmediateDominator(d));
+		assertSame(d, post.getImmediateDominator(a));
+		assertSame(d, post.getImmediateDominator(u));
+		assertTrue(post.dominates(d, a));
+		assertFalse(post.dominates(b, a));
+	}
+
+	@Test
+	public void testLoopsAndMultipleRoots() {
+		// a -> h, h -t-> c -> d -> h, d -> c, h -f-> x, r -> c
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), h = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg), x = new NoOp(cfg),
+				r = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(h);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addNode(x);
+		cfg.addNode(r);
+		cfg.addEdge(new SequentialEdge(a, h));
+		cfg.addEdge(new TrueEdge(h, c));
+		cfg.addEdge(new FalseEdge(h, x));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(d, h));
+		cfg.addEdge(new SequentialEdge(d, c));
+
+		Dominators<CFG, Statement, Edge> dom = new Dominators<>(cfg, cfg.getEntrypoints(), false);
+		assertSame(a, dom.getImmediateDominator(h));
+		assertSame(h, dom.getImmediateDominator(c));
+		assertSame(c, dom.getImmediateDominator(d));
+		assertSame(h, dom.getImmediateDominator(x));
+		assertTrue(dom.dominates(h, d));
+		assertFalse(dom.dominates(c, x));
+
+		Dominators<CFG, Statement, Edge> post = new Dominators<>(cfg, Collections.singleton(x), true);
+		assertSame(x, post.getImmediateDominator(h));
+		assertSame(h, post.getImmediateDominator(d));
+		assertSame(d, post.getImmediateDominator(c));
+		assertSame(h, post.getImmediateDominator(a));
+
+		// a second root entering the loop from the side
+		cfg.addNode(r, true);
+		cfg.addEdge(new SequentialEdge(r, c));
+		dom = new Dominators<>(cfg, cfg.getEntrypoints(), false);
+		assertNull(dom.getImmediateDominator(r));
+		assertNull(dom.getImmediateDominator(c));
+		assertSame(c, dom.getImmediateDominator(d));
+		assertNull(dom.getImmediateDominator(h));
+		assertFalse(dom.dominates(a, h));
+		assertTrue(dom.dominates(c, d));
+	}
+}
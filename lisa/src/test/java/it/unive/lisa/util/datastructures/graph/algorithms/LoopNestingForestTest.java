@@ -0,0 +1,107 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.LoopNestingForest.Loop;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+public class LoopNestingForestTest {
+
+	@Test
+	public void testNestedLoops() {
+		// a -> h, h -t-> c -> d -> h, d -> c, h -f-> x, x -> x
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), h = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg), x = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(h);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addNode(x);
+		cfg.addEdge(new SequentialEdge(a, h));
+		cfg.addEdge(new TrueEdge(h, c));
+		cfg.addEdge(new FalseEdge(h, x));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(d, h));
+		cfg.addEdge(new SequentialEdge(d, c));
+		cfg.addEdge(new SequentialEdge(x, x));
+
+		StronglyConnectedComponents<CFG, Statement, Edge> sccs = new StronglyConnectedComponents<>(cfg);
+		assertEquals(3, sccs.getComponents().size());
+		assertEquals(new HashSet<>(Arrays.asList(h, c, d)), new HashSet<>(sccs.getComponentOf(c)));
+		assertSame(sccs.getComponentOf(h), sccs.getComponentOf(d));
+		assertTrue(sccs.isInCycle(h));
+		assertTrue(sccs.isInCycle(x));
+		assertFalse(sccs.isInCycle(a));
+		// reverse topological order
+		assertEquals(Arrays.asList(x), sccs.getComponents().get(0));
+		assertEquals(Arrays.asList(a), sccs.getComponents().get(2));
+
+		ReversePostorder<CFG, Statement, Edge> order = new ReversePostorder<>(cfg, cfg.getEntrypoints());
+		LoopNestingForest<CFG, Statement, Edge> forest = new LoopNestingForest<>(cfg, order);
+		List<Loop<Statement>> loops = forest.getLoops();
+		assertEquals(2, loops.size());
+
+		Loop<Statement> outer = forest.getLoopHeadedBy(h);
+		assertSame(h, outer.getHeader());
+		assertNull(outer.getParent());
+		assertEquals(1, outer.getDepth());
+		assertEquals(1, outer.getChildren().size());
+		Loop<Statement> inner = outer.getChildren().get(0);
+		assertSame(c, inner.getHeader());
+		assertSame(outer, inner.getParent());
+		assertEquals(new HashSet<>(Arrays.asList(c, d)), new HashSet<>(inner.getNodes()));
+
+		assertTrue(forest.isLoopHead(h));
+		assertTrue(forest.isLoopHead(c));
+		assertTrue(forest.isLoopHead(x));
+		assertFalse(forest.isLoopHead(d));
+		assertEquals(0, forest.getLoopDepth(a));
+		assertEquals(1, forest.getLoopDepth(h));
+		assertEquals(2, forest.getLoopDepth(d));
+		assertEquals(1, forest.getLoopDepth(x));
+		assertSame(inner, forest.getInnermostLoopOf(d));
+		assertSame(outer, forest.getInnermostLoopOf(h));
+		assertNull(forest.getInnermostLoopOf(a));
+	}
+
+	@Test
+	public void testDeepNesting() {
+		// n0 -> n1 -> ... -> nk -> nk-1 -> ... -> n1, each ni -> ni-1 closing
+		// a loop headed by ni-1
+		int depth = 500;
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp[] nodes = new NoOp[depth + 1];
+		for (int i = 0; i <= depth; i++) {
+			nodes[i] = new NoOp(cfg);
+			cfg.addNode(nodes[i], i == 0);
+			if (i > 0)
+				cfg.addEdge(new SequentialEdge(nodes[i - 1], nodes[i]));
+		}
+		for (int i = 2; i <= depth; i++)
+			cfg.addEdge(new SequentialEdge(nodes[i], nodes[i - 1]));
+
+		LoopNestingForest<CFG, Statement, Edge> forest = new LoopNestingForest<>(cfg,
+				new ReversePostorder<>(cfg, cfg.getEntrypoints()));
+		assertEquals(0, forest.getLoopDepth(nodes[0]));
+		assertEquals(1, forest.getLoopDepth(nodes[1]));
+		assertEquals(depth - 1, forest.getLoopDepth(nodes[depth]));
+		Collection<Statement> outermost = forest.getLoops().get(0).getNodes();
+		assertEquals(depth, outermost.size());
+	}
+}
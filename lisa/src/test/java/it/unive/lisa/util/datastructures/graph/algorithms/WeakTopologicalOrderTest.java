@@ -0,0 +1,165 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGTestUtils;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder.Component;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class WeakTopologicalOrderTest {
+
+	private static WeakTopologicalOrder<CFG, Statement, Edge> wto(CFG cfg) {
+		return new WeakTopologicalOrder<>(cfg, cfg.getEntrypoints());
+	}
+
+	@Test
+	public void testAcyclic() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		List<Component<Statement>> components = wto.getComponents();
+		assertEquals(3, components.size());
+		assertSame(a, components.get(0).getHead());
+		assertSame(b, components.get(1).getHead());
+		assertSame(c, components.get(2).getHead());
+		for (Component<Statement> comp : components)
+			assertFalse(comp.isCycle());
+		assertTrue(wto.getHeads().isEmpty());
+	}
+
+	@Test
+	public void testSelfLoop() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addEdge(new SequentialEdge(a, a));
+		cfg.addEdge(new SequentialEdge(a, b));
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		List<Component<Statement>> components = wto.getComponents();
+		assertEquals(2, components.size());
+		assertTrue(components.get(0).isCycle());
+		assertTrue(components.get(0).getBody().isEmpty());
+		assertFalse(components.get(1).isCycle());
+		assertEquals(Collections.singleton(a), wto.getHeads());
+	}
+
+	@Test
+	public void testNestedLoops() {
+		// a -> b -> c -> d -> c, d -> b, b -> e
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg), e = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addNode(e);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(d, c));
+		cfg.addEdge(new SequentialEdge(d, b));
+		cfg.addEdge(new SequentialEdge(b, e));
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		List<Component<Statement>> components = wto.getComponents();
+		assertEquals(3, components.size());
+		assertSame(a, components.get(0).getHead());
+		assertFalse(components.get(0).isCycle());
+
+		Component<Statement> outer = components.get(1);
+		assertSame(b, outer.getHead());
+		assertTrue(outer.isCycle());
+		assertEquals(1, outer.getBody().size());
+
+		Component<Statement> inner = outer.getBody().get(0);
+		assertSame(c, inner.getHead());
+		assertTrue(inner.isCycle());
+		assertEquals(1, inner.getBody().size());
+		assertSame(d, inner.getBody().get(0).getHead());
+		assertFalse(inner.getBody().get(0).isCycle());
+
+		assertSame(e, components.get(2).getHead());
+		assertTrue(wto.isHead(b));
+		assertTrue(wto.isHead(c));
+		assertFalse(wto.isHead(d));
+		assertEquals(2, wto.getHeads().size());
+	}
+
+	@Test
+	public void testUnreachableNodesExcluded() {
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		assertEquals(1, wto.getComponents().size());
+		assertSame(a, wto.getComponents().get(0).getHead());
+	}
+
+	private static NoOp[] mkChain(CFG cfg, int length) {
+		NoOp[] chain = new NoOp[length];
+		for (int i = 0; i < length; i++) {
+			chain[i] = new NoOp(cfg);
+			cfg.addNode(chain[i], i == 0);
+			if (i > 0)
+				cfg.addEdge(new SequentialEdge(chain[i - 1], chain[i]));
+		}
+		return chain;
+	}
+
+	@Test
+	public void testLongChain() {
+		// deep enough to overflow the jvm stack with a recursive visit
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp[] chain = mkChain(cfg, 100000);
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		List<Component<Statement>> components = wto.getComponents();
+		assertEquals(chain.length, components.size());
+		int i = 0;
+		for (Component<Statement> comp : components) {
+			assertSame(chain[i++], comp.getHead());
+			assertFalse(comp.isCycle());
+		}
+		assertTrue(wto.getHeads().isEmpty());
+	}
+
+	@Test
+	public void testLongLoop() {
+		// the whole chain is the body of a single cycle
+		CFG cfg = CFGTestUtils.mkCFG();
+		NoOp[] chain = mkChain(cfg, 100000);
+		cfg.addEdge(new SequentialEdge(chain[chain.length - 1], chain[0]));
+
+		WeakTopologicalOrder<CFG, Statement, Edge> wto = wto(cfg);
+		List<Component<Statement>> components = wto.getComponents();
+		assertEquals(1, components.size());
+		assertSame(chain[0], components.get(0).getHead());
+		assertTrue(components.get(0).isCycle());
+		List<Component<Statement>> body = components.get(0).getBody();
+		assertEquals(chain.length - 1, body.size());
+		int i = 1;
+		for (Component<Statement> comp : body)
+			assertSame(chain[i++], comp.getHead());
+		assertEquals(Collections.singleton(chain[0]), wto.getHeads());
+	}
+}
@@ -5,6 +5,12 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -81,6 +87,10 @@ public class WorksetTest {
 		linear(LIFOWorkingSet.mk(), true, "a", "b", "c", "d", null);
 		random(LIFOWorkingSet.mk(), true, "a", "b", "c", "d", "e", "f", "g", "h", "i");
 		random(LIFOWorkingSet.mk(), true, "a", "b", "c", "d", null);
+		linear(ArrayLIFOWorkingSet.mk(), true, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+		linear(ArrayLIFOWorkingSet.mk(2), true, "a", "b", "c", "d", null);
+		random(ArrayLIFOWorkingSet.mk(), true, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+		random(ArrayLIFOWorkingSet.mk(1), true, "a", "b", "c", "d", null);
 
 		// Concurrent version does not support null elements
 		linear(ConcurrentLIFOWorkingSet.mk(), true, "a", "b", "c", "d", "e", "f", "g", "h", "i");
@@ -93,9 +103,68 @@ public class WorksetTest {
 		linear(FIFOWorkingSet.mk(), false, "a", "b", "c", "d", null);
 		random(FIFOWorkingSet.mk(), false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
 		random(FIFOWorkingSet.mk(), false, "a", "b", "c", "d", null);
+		linear(ArrayFIFOWorkingSet.mk(), false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+		linear(ArrayFIFOWorkingSet.mk(2), false, "a", "b", "c", "d", null);
+		random(ArrayFIFOWorkingSet.mk(), false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+		random(ArrayFIFOWorkingSet.mk(1), false, "a", "b", "c", "d", null);
 
 		// Concurrent version does not support null elements
 		linear(ConcurrentFIFOWorkingSet.mk(), false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
 		random(ConcurrentFIFOWorkingSet.mk(), false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
 	}
+
+	@Test
+	public void ArrayFIFOWrapAroundTest() {
+		ArrayFIFOWorkingSet<String> ws = ArrayFIFOWorkingSet.mk(4);
+		ws.push("a");
+		ws.push("b");
+		ws.push("c");
+		assertSame("a", ws.pop());
+		assertSame("b", ws.pop());
+		// these wrap around the end of the backing array, and then force it to
+		// grow
+		ws.push("d");
+		ws.push("e");
+		ws.push("f");
+		ws.push("g");
+		assertEquals(5, ws.size());
+		for (String expected : new String[] { "c", "d", "e", "f", "g" })
+			assertSame(expected, ws.pop());
+		assertTrue(ws.isEmpty());
+	}
+
+	@Test
+	public void ReversePostorderWsTest() {
+		// a -> b -> c -> d, d -> b
+		CFG cfg = new CFG(new CFGDescriptor(new CompilationUnit(null, "foo", false), false, "foo"));
+		NoOp a = new NoOp(cfg), b = new NoOp(cfg), c = new NoOp(cfg), d = new NoOp(cfg);
+		cfg.addNode(a, true);
+		cfg.addNode(b);
+		cfg.addNode(c);
+		cfg.addNode(d);
+		cfg.addEdge(new SequentialEdge(a, b));
+		cfg.addEdge(new SequentialEdge(b, c));
+		cfg.addEdge(new SequentialEdge(c, d));
+		cfg.addEdge(new SequentialEdge(d, b));
+
+		ReversePostorderWorkingSet<Statement> ws = ReversePostorderWorkingSet.mk(cfg, cfg.getEntrypoints());
+		assertTrue("The working set is not empty at the beginning", ws.isEmpty());
+		ws.push(d);
+		ws.push(b);
+		ws.push(d);
+		ws.push(c);
+		ws.push(a);
+		ws.push(c);
+		assertEquals("Duplicate elements have been added", 4, ws.size());
+		assertSame("peek() did not return the first element in reverse postorder", a, ws.peek());
+		for (Statement expected : new Statement[] { a, b, c, d })
+			assertSame("pop() did not follow the reverse postorder", expected, ws.pop());
+		assertTrue(ws.isEmpty());
+
+		ws.push(c);
+		ws.push(b);
+		assertSame(b, ws.pop());
+		ws.push(b);
+		assertEquals(2, ws.size());
+	}
 }